@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.*;
+
+/**
+ * Compares the internal array-based queues with ConcurrentLinkedQueue;
+ * lives in the main package because the queues are package-private.
+ * Run with {@code -prof gc} to see the per-item allocation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Group)
+public class QueuePerf {
+
+    @Param({"CLQ", "SPSC", "MPSC", "MPMC", "MPSC_LINKED"})
+    String type;
+
+    @Param({"1000"})
+    int count;
+
+    SimpleQueue<Integer> queue;
+
+    Integer[] items;
+
+    @Setup
+    public void setup() {
+        items = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            items[i] = i;
+        }
+        switch (type) {
+            case "CLQ":
+                ConcurrentLinkedQueue<Integer> clq = new ConcurrentLinkedQueue<>();
+                queue = new SimpleQueue<Integer>() {
+                    @Override
+                    public boolean offer(Integer item) {
+                        return clq.offer(item);
+                    }
+
+                    @Override
+                    public Integer poll() {
+                        return clq.poll();
+                    }
+
+                    @Override
+                    public boolean isEmpty() {
+                        return clq.isEmpty();
+                    }
+
+                    @Override
+                    public int size() {
+                        return clq.size();
+                    }
+                };
+                break;
+            case "SPSC":
+                queue = new SpscArrayQueue<>(count);
+                break;
+            case "MPSC":
+                queue = new MpscArrayQueue<>(count);
+                break;
+            case "MPMC":
+                queue = new MpmcArrayQueue<>(count);
+                break;
+            default:
+                queue = new MpscLinkedArrayQueue<>(32);
+        }
+    }
+
+    @Benchmark
+    @Group("offerPoll")
+    @GroupThreads(1)
+    public void offerPoll(Blackhole bh) {
+        SimpleQueue<Integer> q = queue;
+        Integer[] a = items;
+        for (Integer v : a) {
+            q.offer(v);
+        }
+        for (int i = 0; i < a.length; i++) {
+            bh.consume(q.poll());
+        }
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(1)
+    public void producer() {
+        SimpleQueue<Integer> q = queue;
+        Integer[] a = items;
+        for (int i = 0; i < a.length; i++) {
+            while (!q.offer(a[i])) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(1)
+    public void consumer(Blackhole bh) {
+        SimpleQueue<Integer> q = queue;
+        for (int i = 0; i < count; i++) {
+            Integer v;
+            while ((v = q.poll()) == null) {
+                Thread.onSpinWait();
+            }
+            bh.consume(v);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures operators which complete their own CompletionStage on each moveNext();
+ * run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class AsyncHopPerf {
+
+    @Param({"1000", "1000000"})
+    int count;
+
+    AsyncEnumerable<Integer> filter;
+
+    AsyncEnumerable<Integer> flatMap;
+
+    AsyncEnumerable<Integer> observeOn;
+
+    AsyncEnumerable<Integer> publish;
+
+    AsyncEnumerable<Integer> create;
+
+    @Setup
+    public void setup() {
+        AsyncEnumerable<Integer> range = AsyncEnumerable.range(1, count);
+        Executor direct = Runnable::run;
+
+        filter = range.filter(v -> true);
+
+        flatMap = AsyncEnumerable.just(1).flatMap(v -> range);
+
+        observeOn = range.observeOn(direct);
+
+        publish = range.publish(f -> f);
+
+        create = AsyncEnumerable.create(e -> {
+            for (int i = 0; i < count; i++) {
+                e.next(i);
+            }
+            e.stop();
+        });
+    }
+
+    @Benchmark
+    public Object filter(Blackhole bh) {
+        return filter.forEach(bh::consume).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object flatMap(Blackhole bh) {
+        return flatMap.forEach(bh::consume).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object observeOn(Blackhole bh) {
+        return observeOn.forEach(bh::consume).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object publish(Blackhole bh) {
+        return publish.forEach(bh::consume).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object create(Blackhole bh) {
+        return create.forEach(bh::consume).toCompletableFuture().join();
+    }
+}
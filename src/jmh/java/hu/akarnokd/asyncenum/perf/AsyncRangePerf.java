@@ -14,7 +14,7 @@
  * limitations under the License.
  */
 
-package hu.akarnokd.assyncenum;
+package hu.akarnokd.asyncenum.perf;
 
 import hu.akarnokd.asyncenum.*;
 import org.openjdk.jmh.annotations.*;
@@ -53,6 +53,12 @@ public class AsyncRangePerf extends AtomicInteger implements BiConsumer<Boolean,
         consume();
     }
 
+    @Benchmark
+    public void rangeAssembly() {
+        en = AsyncEnumerable.range(1, count).enumerator();
+        consume();
+    }
+
     void consume() {
         if (getAndIncrement() == 0) {
             do {
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Iterator;
+import java.util.concurrent.*;
+
+/**
+ * Runs many concurrent {@code fromBlocking} enumerations whose Iterator sleeps before each
+ * item, either on the default executor (virtual threads on Java 21+) or on a fixed pool.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class BlockingBridgePerf {
+
+    @Param({"DEFAULT", "FIXED"})
+    String type;
+
+    @Param({"10000"})
+    int streams;
+
+    @Param({"5"})
+    int items;
+
+    @Param({"64"})
+    int poolSize;
+
+    ExecutorService pool;
+
+    @Setup
+    public void setup() {
+        if ("FIXED".equals(type)) {
+            pool = Executors.newFixedThreadPool(poolSize);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public Object fromBlocking() throws Exception {
+        CompletableFuture<?>[] all = new CompletableFuture<?>[streams];
+        for (int i = 0; i < streams; i++) {
+            SleepingIterator it = new SleepingIterator(items);
+            AsyncEnumerable<Integer> source = pool != null
+                    ? AsyncEnumerable.fromBlocking(it, pool)
+                    : AsyncEnumerable.fromBlocking(it);
+            all[i] = source.forEach(v -> { }).toCompletableFuture();
+        }
+        CompletableFuture.allOf(all).get();
+        return all;
+    }
+
+    static final class SleepingIterator implements Iterator<Integer> {
+
+        final int count;
+
+        int index;
+
+        SleepingIterator(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ex) {
+                throw new RuntimeException(ex);
+            }
+            return index != count;
+        }
+
+        @Override
+        public Integer next() {
+            return index++;
+        }
+    }
+}
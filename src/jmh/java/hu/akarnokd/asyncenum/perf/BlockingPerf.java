@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Measures the blocking consumers; with {@code threads > 0} the source
+ * runs on a pool of that many threads, otherwise it is synchronous.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class BlockingPerf {
+
+    @Param({"1", "1000", "100000"})
+    int count;
+
+    @Param({"0", "2"})
+    int threads;
+
+    ExecutorService executor;
+
+    AsyncEnumerable<Integer> source;
+
+    @Setup
+    public void setup() {
+        source = AsyncEnumerable.range(1, count);
+
+        if (threads > 0) {
+            executor = Executors.newFixedThreadPool(threads);
+            source = source.subscribeOn(executor);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public Object blockingFirst() {
+        return source.blockingFirst();
+    }
+
+    @Benchmark
+    public Object blockingLast() {
+        return source.blockingLast();
+    }
+
+    @Benchmark
+    public void blockingIterable(Blackhole bh) {
+        for (Integer v : source.blockingIterable()) {
+            bh.consume(v);
+        }
+    }
+
+    @Benchmark
+    public void blockingStream(Blackhole bh) {
+        try (Stream<Integer> stream = source.blockingStream()) {
+            stream.forEach(bh::consume);
+        }
+    }
+
+    @Benchmark
+    public void blockingIterablePrefetch(Blackhole bh) {
+        for (Integer v : source.blockingIterable(128)) {
+            bh.consume(v);
+        }
+    }
+
+    @Benchmark
+    public void blockingStreamPrefetch(Blackhole bh) {
+        try (Stream<Integer> stream = source.blockingStream(128)) {
+            stream.forEach(bh::consume);
+        }
+    }
+}
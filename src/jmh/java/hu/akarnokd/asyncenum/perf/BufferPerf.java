@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Compares hopping every item over an executor with hopping buffers of items.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class BufferPerf {
+
+    @Param({"100000"})
+    int count;
+
+    @Param({"16", "256"})
+    int size;
+
+    ExecutorService executor;
+
+    AsyncEnumerable<Integer> perItem;
+
+    AsyncEnumerable<List<Integer>> buffered;
+
+    AsyncEnumerable<List<Integer>> bufferedTimed;
+
+    AsyncEnumerable<Integer> windowed;
+
+    TimerService timer;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 512);
+
+        AsyncEnumerable<Integer> range = AsyncEnumerable.range(1, count);
+
+        perItem = range.observeOn(executor);
+
+        buffered = range.buffer(size).observeOn(executor);
+
+        bufferedTimed = range.buffer(size, 1, TimeUnit.SECONDS, timer).observeOn(executor);
+
+        windowed = range.window(size).concatMap(w -> w.observeOn(executor));
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdownNow();
+        timer.shutdown();
+    }
+
+    @Benchmark
+    public Object perItem() {
+        return perItem.blockingLast();
+    }
+
+    @Benchmark
+    public Object buffered() {
+        return buffered.blockingLast();
+    }
+
+    @Benchmark
+    public Object bufferedTimed() {
+        return bufferedTimed.blockingLast();
+    }
+
+    @Benchmark
+    public Object windowed() {
+        return windowed.blockingLast();
+    }
+}
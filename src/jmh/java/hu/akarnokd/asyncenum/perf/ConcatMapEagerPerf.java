@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Compares concatMap with concatMapEager on inner sources completing after a delay
+ * (simulated remote calls) and on synchronous inner sources.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ConcatMapEagerPerf {
+
+    @Param({"32"})
+    int calls;
+
+    @Param({"1", "8"})
+    int maxConcurrency;
+
+    ScheduledExecutorService executor;
+
+    AsyncEnumerable<Integer> delayedConcatMap;
+
+    AsyncEnumerable<Integer> delayedConcatMapEager;
+
+    AsyncEnumerable<Integer> syncConcatMap;
+
+    AsyncEnumerable<Integer> syncConcatMapEager;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+
+        AsyncEnumerable<Integer> range = AsyncEnumerable.range(1, calls);
+
+        delayedConcatMap = range.concatMap(v -> AsyncEnumerable.timer(1, TimeUnit.MILLISECONDS, executor).map(t -> v));
+
+        delayedConcatMapEager = range.concatMapEager(v -> AsyncEnumerable.timer(1, TimeUnit.MILLISECONDS, executor).map(t -> v),
+                maxConcurrency, 1);
+
+        AsyncEnumerable<Integer> syncRange = AsyncEnumerable.range(1, 1000);
+
+        syncConcatMap = syncRange.concatMap(v -> AsyncEnumerable.range(v, 10));
+
+        syncConcatMapEager = syncRange.concatMapEager(v -> AsyncEnumerable.range(v, 10), maxConcurrency, 16);
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object delayedConcatMap() {
+        return delayedConcatMap.blockingLast();
+    }
+
+    @Benchmark
+    public Object delayedConcatMapEager() {
+        return delayedConcatMapEager.blockingLast();
+    }
+
+    @Benchmark
+    public Object syncConcatMap() {
+        return syncConcatMap.blockingLast();
+    }
+
+    @Benchmark
+    public Object syncConcatMapEager() {
+        return syncConcatMapEager.blockingLast();
+    }
+}
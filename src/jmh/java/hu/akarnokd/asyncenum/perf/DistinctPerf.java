@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the unbounded distinct with the LRU-bounded and the Bloom filter variants
+ * on mostly unique keys; run with {@code -prof gc} to see the footprint difference.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class DistinctPerf {
+
+    @Param({"1000000"})
+    int count;
+
+    AsyncEnumerable<Long> unbounded;
+
+    AsyncEnumerable<Long> lru;
+
+    AsyncEnumerable<Long> approx;
+
+    @Setup
+    public void setup() {
+        AsyncEnumerable<Long> source = AsyncEnumerable.range(1, count).map(v -> (v % (count / 2)) * 1_000_003L);
+
+        unbounded = source.distinct(v -> v);
+
+        lru = source.distinct(v -> v, 10_000);
+
+        approx = source.distinctApprox(v -> v, count, 0.01);
+    }
+
+    @Benchmark
+    public Object unbounded(Blackhole bh) {
+        return unbounded.forEach(bh::consume).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object lru(Blackhole bh) {
+        return lru.forEach(bh::consume).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object approx(Blackhole bh) {
+        return approx.forEach(bh::consume).toCompletableFuture().join();
+    }
+}
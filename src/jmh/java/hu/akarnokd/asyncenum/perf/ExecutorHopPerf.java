@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures the thread-hopping operators over a pool of the given number of threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ExecutorHopPerf {
+
+    @Param({"1000", "100000"})
+    int count;
+
+    @Param({"1", "2", "4"})
+    int threads;
+
+    ExecutorService executor;
+
+    AsyncEnumerable<Integer> subscribeOn;
+
+    AsyncEnumerable<Integer> observeOn;
+
+    AsyncEnumerable<Integer> subscribeOnObserveOn;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(threads);
+
+        AsyncEnumerable<Integer> range = AsyncEnumerable.range(1, count);
+
+        subscribeOn = range.subscribeOn(executor);
+
+        observeOn = range.observeOn(executor);
+
+        subscribeOnObserveOn = range.subscribeOn(executor).observeOn(executor);
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object subscribeOn() {
+        return subscribeOn.blockingLast();
+    }
+
+    @Benchmark
+    public Object observeOn() {
+        return observeOn.blockingLast();
+    }
+
+    @Benchmark
+    public Object subscribeOnObserveOn() {
+        return subscribeOnObserveOn.blockingLast();
+    }
+}
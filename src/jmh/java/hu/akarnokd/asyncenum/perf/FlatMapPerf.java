@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the merging throughput of flatMap with various concurrency limits;
+ * run with {@code -prof gc} to see the allocation rate and footprint.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class FlatMapPerf {
+
+    @Param({"1000", "1000000"})
+    int count;
+
+    @Param({"1", "16", "256"})
+    int maxConcurrency;
+
+    @Param({"1", "16"})
+    int prefetch;
+
+    AsyncEnumerable<Integer> flatMapJust;
+
+    AsyncEnumerable<Integer> flatMapRange;
+
+    @Setup
+    public void setup() {
+        AsyncEnumerable<Integer> inner = AsyncEnumerable.range(1, 10);
+
+        flatMapJust = AsyncEnumerable.range(1, count)
+                .flatMap(AsyncEnumerable::just, maxConcurrency, prefetch);
+
+        flatMapRange = AsyncEnumerable.range(1, count / 10)
+                .flatMap(v -> inner, maxConcurrency, prefetch);
+    }
+
+    @Benchmark
+    public Object flatMapJust(Blackhole bh) {
+        return flatMapJust.forEach(bh::consume).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object flatMapRange(Blackhole bh) {
+        return flatMapRange.forEach(bh::consume).toCompletableFuture().join();
+    }
+}
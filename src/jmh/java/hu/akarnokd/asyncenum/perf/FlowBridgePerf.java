@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures the bridges between AsyncEnumerable and Flow.Publisher; with {@code threads > 0}
+ * the AsyncEnumerable runs on a pool of that many threads, otherwise it is synchronous.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class FlowBridgePerf {
+
+    @Param({"1000", "100000"})
+    int count;
+
+    @Param({"0", "2"})
+    int threads;
+
+    ExecutorService executor;
+
+    Flow.Publisher<Integer> toFlow;
+
+    AsyncEnumerable<Integer> roundtrip;
+
+    @Setup
+    public void setup() {
+        AsyncEnumerable<Integer> range = AsyncEnumerable.range(1, count);
+
+        if (threads > 0) {
+            executor = Executors.newFixedThreadPool(threads);
+            range = range.subscribeOn(executor);
+        }
+
+        toFlow = range.toFlowPublisher();
+
+        roundtrip = AsyncEnumerable.fromFlowPublisher(toFlow);
+    }
+
+    @TearDown
+    public void teardown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public Object toFlow(Blackhole bh) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        toFlow.subscribe(new Flow.Subscriber<Integer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Integer item) {
+                bh.consume(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                bh.consume(throwable);
+                latch.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                latch.countDown();
+            }
+        });
+        latch.await();
+        return latch;
+    }
+
+    @Benchmark
+    public Object roundtrip() {
+        return roundtrip.blockingLast();
+    }
+}
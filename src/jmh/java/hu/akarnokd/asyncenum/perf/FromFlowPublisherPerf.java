@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Compares the request(1) per item bridging of fromFlowPublisher with the
+ * batched, prefetching mode over an asynchronous SubmissionPublisher.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class FromFlowPublisherPerf {
+
+    @Param({"1000", "100000"})
+    int count;
+
+    @Param({"16", "128"})
+    int prefetch;
+
+    ExecutorService executor;
+
+    AsyncEnumerable<Integer> fromFlow;
+
+    AsyncEnumerable<Integer> fromFlowPrefetch;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(2);
+
+        Flow.Publisher<Integer> source = subscriber -> {
+            SubmissionPublisher<Integer> sp = new SubmissionPublisher<>(executor, 256);
+            sp.subscribe(subscriber);
+            executor.execute(() -> {
+                for (int i = 0; i < count; i++) {
+                    sp.submit(i);
+                }
+                sp.close();
+            });
+        };
+
+        fromFlow = AsyncEnumerable.fromFlowPublisher(source);
+
+        fromFlowPrefetch = AsyncEnumerable.fromFlowPublisher(source, prefetch);
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object fromFlow() {
+        return fromFlow.blockingLast();
+    }
+
+    @Benchmark
+    public Object fromFlowPrefetch() {
+        return fromFlowPrefetch.blockingLast();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures groupBy with an increasing number of groups, consuming the groups
+ * one by one and merged through flatMap, and with at most 1000 groups open.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class GroupByPerf {
+
+    @Param({"10", "1000", "100000"})
+    int groups;
+
+    @Param({"200000"})
+    int count;
+
+    AsyncEnumerable<GroupedAsyncEnumerable<Integer, Integer>> groupBy;
+
+    AsyncEnumerable<Integer> flatMap;
+
+    AsyncEnumerable<GroupedAsyncEnumerable<Integer, Integer>> evicting;
+
+    ScheduledExecutorService executor;
+
+    @Setup
+    public void setup() {
+        int n = groups;
+        groupBy = AsyncEnumerable.range(1, count).groupBy(v -> v % n);
+
+        flatMap = groupBy.flatMap(g -> g);
+
+        executor = Executors.newSingleThreadScheduledExecutor();
+
+        evicting = AsyncEnumerable.range(1, count).groupBy(v -> v % n, v -> v, 1000, 1, TimeUnit.MINUTES, executor);
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object forEachGroup(Blackhole bh) {
+        return groupBy.forEach(g -> g.forEach(bh::consume)).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object flatMapGroups(Blackhole bh) {
+        return flatMap.forEach(bh::consume).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object forEachGroupEvicting(Blackhole bh) {
+        return evicting.forEach(g -> g.forEach(bh::consume)).toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of instrument() with the no-op and the recording sinks
+ * on a synchronous range and on a flatMap, whose queue size is also reported.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class InstrumentPerf {
+
+    @Param({"100000"})
+    int count;
+
+    @Param({"false", "true"})
+    boolean flatMap;
+
+    AsyncEnumerable<Integer> plain;
+
+    AsyncEnumerable<Integer> noop;
+
+    AsyncEnumerable<Integer> recording;
+
+    @Setup
+    public void setup() {
+        AsyncEnumerable<Integer> source = AsyncEnumerable.range(1, count);
+        if (flatMap) {
+            source = AsyncEnumerable.range(1, count / 2).flatMap(v -> AsyncEnumerable.range(v, 2));
+        }
+
+        plain = source;
+
+        noop = source.instrument("noop", MetricsSink.noop());
+
+        recording = source.instrument("recording", MetricsSink.recording());
+    }
+
+    @Benchmark
+    public Object plain(Blackhole bh) {
+        return plain.forEach(bh::consume).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object noop(Blackhole bh) {
+        return noop.forEach(bh::consume).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object recording(Blackhole bh) {
+        return recording.forEach(bh::consume).toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Compares mapAsync with the flatMap + fromCompletionStage workaround on already
+ * completed and on executor-completed stages.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MapAsyncPerf {
+
+    @Param({"10000"})
+    int count;
+
+    @Param({"16"})
+    int parallelism;
+
+    @Param({"false", "true"})
+    boolean async;
+
+    ExecutorService executor;
+
+    AsyncEnumerable<Integer> flatMap;
+
+    AsyncEnumerable<Integer> mapAsyncOrdered;
+
+    AsyncEnumerable<Integer> mapAsyncUnordered;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+
+        Function<Integer, CompletionStage<Integer>> f;
+        if (async) {
+            f = v -> CompletableFuture.supplyAsync(() -> v, executor);
+        } else {
+            f = CompletableFuture::completedFuture;
+        }
+
+        AsyncEnumerable<Integer> range = AsyncEnumerable.range(1, count);
+
+        flatMap = range.flatMap(v -> AsyncEnumerable.fromCompletionStage(f.apply(v)), parallelism);
+
+        mapAsyncOrdered = range.mapAsync(f, parallelism, true);
+
+        mapAsyncUnordered = range.mapAsync(f, parallelism, false);
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object flatMap() {
+        return flatMap.blockingLast();
+    }
+
+    @Benchmark
+    public Object mapAsyncOrdered() {
+        return mapAsyncOrdered.blockingLast();
+    }
+
+    @Benchmark
+    public Object mapAsyncUnordered() {
+        return mapAsyncUnordered.blockingLast();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures the merging operators; with {@code threads > 0} the inner sources
+ * run on a pool of that many threads, otherwise they are synchronous.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MergePerf {
+
+    @Param({"1000", "100000"})
+    int count;
+
+    @Param({"0", "2"})
+    int threads;
+
+    ExecutorService executor;
+
+    AsyncEnumerable<Integer> flatMap;
+
+    AsyncEnumerable<Integer> concatMap;
+
+    AsyncEnumerable<Integer> mergeArray;
+
+    AsyncEnumerable<Integer> zipArray;
+
+    @Setup
+    public void setup() {
+        AsyncEnumerable<Integer> half = AsyncEnumerable.range(1, count / 2);
+        AsyncEnumerable<Integer> ten = AsyncEnumerable.range(1, 10);
+
+        if (threads > 0) {
+            executor = Executors.newFixedThreadPool(threads);
+            half = half.subscribeOn(executor);
+            ten = ten.subscribeOn(executor);
+        }
+        AsyncEnumerable<Integer> inner = ten;
+
+        flatMap = AsyncEnumerable.range(1, count / 10).flatMap(v -> inner);
+
+        concatMap = AsyncEnumerable.range(1, count / 10).concatMap(v -> inner);
+
+        mergeArray = AsyncEnumerable.mergeArray(half, half);
+
+        zipArray = AsyncEnumerable.zipArray(a -> (Integer)a[0] + (Integer)a[1], half, half);
+    }
+
+    @TearDown
+    public void teardown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public Object flatMap() {
+        return flatMap.blockingLast();
+    }
+
+    @Benchmark
+    public Object concatMap() {
+        return concatMap.blockingLast();
+    }
+
+    @Benchmark
+    public Object mergeArray() {
+        return mergeArray.blockingLast();
+    }
+
+    @Benchmark
+    public Object zipArray() {
+        return zipArray.blockingLast();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures the multicasting operators; with {@code threads > 0} the source
+ * runs on a pool of that many threads, otherwise it is synchronous.
+ * The groupBy benchmark always uses the synchronous source as its groups
+ * are not safe to consume from a different thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MulticastPerf {
+
+    @Param({"1000", "100000"})
+    int count;
+
+    @Param({"0", "2"})
+    int threads;
+
+    ExecutorService executor;
+
+    AsyncEnumerable<Integer> publish;
+
+    AsyncEnumerable<Integer> publishPrefetch;
+
+    AsyncEnumerable<Integer> publishUneven;
+
+    AsyncEnumerable<Integer> publishPrefetchUneven;
+
+    AsyncEnumerable<Integer> cache;
+
+    AsyncEnumerable<Integer> source;
+
+    AsyncEnumerable<GroupedAsyncEnumerable<Integer, Integer>> groupBy;
+
+    @Setup
+    public void setup() {
+        AsyncEnumerable<Integer> range = AsyncEnumerable.range(1, count);
+
+        groupBy = range.groupBy(v -> v & 7);
+
+        if (threads > 0) {
+            executor = Executors.newFixedThreadPool(threads);
+            range = range.subscribeOn(executor);
+        }
+
+        publish = range.publish(f -> AsyncEnumerable.mergeArray(f.filter(v -> (v & 1) == 0), f.filter(v -> (v & 1) != 0)));
+
+        publishPrefetch = range.publish(f -> AsyncEnumerable.mergeArray(f.filter(v -> (v & 1) == 0), f.filter(v -> (v & 1) != 0)), 128);
+
+        // each branch does extra work on every 64th item, at different offsets
+        publishUneven = range.publish(f -> AsyncEnumerable.mergeArray(f.map(v -> work(v, 0)), f.map(v -> work(v, 32))));
+
+        publishPrefetchUneven = range.publish(f -> AsyncEnumerable.mergeArray(f.map(v -> work(v, 0)), f.map(v -> work(v, 32))), 128);
+
+        cache = range.cache();
+        cache.blockingLast();
+
+        source = range;
+    }
+
+    @TearDown
+    public void teardown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public Object publish() {
+        return publish.blockingLast();
+    }
+
+    @Benchmark
+    public Object publishPrefetch() {
+        return publishPrefetch.blockingLast();
+    }
+
+    @Benchmark
+    public Object publishUneven() {
+        return publishUneven.blockingLast();
+    }
+
+    @Benchmark
+    public Object publishPrefetchUneven() {
+        return publishPrefetchUneven.blockingLast();
+    }
+
+    static Integer work(Integer v, int offset) {
+        if (((v + offset) & 63) == 0) {
+            Blackhole.consumeCPU(2000);
+        }
+        return v;
+    }
+
+    @Benchmark
+    public Object cacheReplay() {
+        return cache.blockingLast();
+    }
+
+    @Benchmark
+    public Object cacheFresh() {
+        return source.cache().blockingLast();
+    }
+
+    @Benchmark
+    public Object cacheBoundedFresh() {
+        return source.cache(1024).blockingLast();
+    }
+
+    @Benchmark
+    public Object groupBy(Blackhole bh) {
+        return groupBy.forEach(g -> g.forEach(bh::consume)).toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures how CPU-heavy per-item work scales with the number of rails, each rail
+ * running on its own thread; {@code baseline} runs the same work without splitting.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ParallelPerf {
+
+    @Param({"10000"})
+    int count;
+
+    @Param({"1000"})
+    int work;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    int rails;
+
+    ExecutorService executor;
+
+    AsyncEnumerable<Integer> baseline;
+
+    AsyncEnumerable<Integer> parallel;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(rails);
+
+        AsyncEnumerable<Integer> source = AsyncEnumerable.range(1, count);
+
+        baseline = source.map(this::compute);
+
+        parallel = source.parallel(rails, executor)
+                .map(this::compute)
+                .sequential();
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    Integer compute(Integer v) {
+        Blackhole.consumeCPU(work);
+        return v;
+    }
+
+    @Benchmark
+    public Object baseline() {
+        return baseline.blockingLast();
+    }
+
+    @Benchmark
+    public Object parallel() {
+        return parallel.blockingLast();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class PrimitivePerf {
+
+    @Param({"1", "1000", "1000000"})
+    int count;
+
+    AsyncEnumerable<Integer> boxed;
+
+    AsyncEnumerable<Integer> primitive;
+
+    AsyncEnumerable<Integer> bridged;
+
+    @Setup
+    public void setup() {
+        boxed = AsyncEnumerable.range(1, count)
+                .map(v -> v + 1)
+                .filter(v -> (v & 1) == 0)
+                .sumInt(v -> v);
+
+        primitive = IntAsyncEnumerable.range(1, count)
+                .map(v -> v + 1)
+                .filter(v -> (v & 1) == 0)
+                .sum()
+                .boxed();
+
+        bridged = AsyncEnumerable.range(1, count)
+                .mapToInt(v -> v)
+                .map(v -> v + 1)
+                .filter(v -> (v & 1) == 0)
+                .sum()
+                .boxed();
+    }
+
+    @Benchmark
+    public Object boxed() {
+        return boxed.blockingFirst();
+    }
+
+    @Benchmark
+    public Object primitive() {
+        return primitive.blockingFirst();
+    }
+
+    @Benchmark
+    public Object bridged() {
+        return bridged.blockingFirst();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the synchronous intermediate operators over a range source.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class SyncChainPerf {
+
+    @Param({"1", "1000", "1000000"})
+    int count;
+
+    AsyncEnumerable<Integer> map;
+
+    AsyncEnumerable<Integer> filter;
+
+    AsyncEnumerable<Integer> take;
+
+    AsyncEnumerable<Integer> skip;
+
+    AsyncEnumerable<Integer> chain;
+
+    @Setup
+    public void setup() {
+        AsyncEnumerable<Integer> range = AsyncEnumerable.range(1, count);
+
+        map = range.map(v -> v + 1);
+
+        filter = range.filter(v -> (v & 1) == 0);
+
+        take = range.take(count / 2);
+
+        skip = range.skip(count / 2);
+
+        chain = range.map(v -> v + 1)
+                .filter(v -> (v & 1) == 0)
+                .skip(1)
+                .take(count / 2);
+    }
+
+    @Benchmark
+    public Object map() {
+        return map.blockingLastOptional();
+    }
+
+    @Benchmark
+    public Object filter() {
+        return filter.blockingLastOptional();
+    }
+
+    @Benchmark
+    public Object take() {
+        return take.blockingLastOptional();
+    }
+
+    @Benchmark
+    public Object skip() {
+        return skip.blockingLastOptional();
+    }
+
+    @Benchmark
+    public Object chain() {
+        return chain.blockingLastOptional();
+    }
+}
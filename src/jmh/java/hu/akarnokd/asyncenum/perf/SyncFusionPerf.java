@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class SyncFusionPerf {
+
+    @Param({"1", "1000", "1000000"})
+    int count;
+
+    AsyncEnumerable<Integer> fused;
+
+    AsyncEnumerable<Integer> hidden;
+
+    @Setup
+    public void setup() {
+        fused = chain(AsyncEnumerable.range(1, count));
+
+        AsyncEnumerable<Integer> range = AsyncEnumerable.range(1, count);
+        hidden = chain(() -> hide(range.enumerator()));
+    }
+
+    AsyncEnumerable<Integer> chain(AsyncEnumerable<Integer> source) {
+        return source
+                .map(v -> v + 1)
+                .filter(v -> (v & 1) == 0)
+                .take(count);
+    }
+
+    static <T> AsyncEnumerator<T> hide(AsyncEnumerator<T> source) {
+        return new AsyncEnumerator<T>() {
+            @Override
+            public CompletionStage<Boolean> moveNext() {
+                return source.moveNext();
+            }
+
+            @Override
+            public T current() {
+                return source.current();
+            }
+
+            @Override
+            public void cancel() {
+                source.cancel();
+            }
+        };
+    }
+
+    @Benchmark
+    public Object fused() {
+        return fused.blockingLast();
+    }
+
+    @Benchmark
+    public Object hidden() {
+        return hidden.blockingLast();
+    }
+}
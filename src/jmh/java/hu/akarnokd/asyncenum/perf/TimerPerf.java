@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs 100k concurrent timed-out enumerators against the executor-backed and the
+ * hashed-wheel TimerService.
+ * <p>
+ *     {@code churn} moves all enumerators forward item by item, each moveNext scheduling
+ *     a long timeout and cancelling it right away; {@code expire} lets all of them
+ *     time out on a never-ending source.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class TimerPerf {
+
+    @Param({"EXECUTOR", "WHEEL"})
+    String type;
+
+    @Param({"100000"})
+    int enumerators;
+
+    @Param({"10"})
+    int items;
+
+    ScheduledExecutorService executor;
+
+    TimerService timer;
+
+    AsyncEnumerable<Integer> churn;
+
+    AsyncEnumerable<Object> expire;
+
+    @Setup
+    public void setup() {
+        if ("WHEEL".equals(type)) {
+            timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 512);
+        } else {
+            executor = Executors.newSingleThreadScheduledExecutor();
+            timer = TimerService.from(executor);
+        }
+        churn = AsyncEnumerable.range(1, items).timeout(1, TimeUnit.MINUTES, timer);
+        expire = AsyncEnumerable.never().timeout(1, TimeUnit.MILLISECONDS, timer);
+    }
+
+    @TearDown
+    public void teardown() {
+        timer.shutdown();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public Object churn() {
+        AsyncEnumerator<?>[] array = new AsyncEnumerator<?>[enumerators];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = churn.enumerator();
+        }
+        for (int j = 0; j <= items; j++) {
+            for (AsyncEnumerator<?> en : array) {
+                en.moveNext();
+            }
+        }
+        return array;
+    }
+
+    @Benchmark
+    public Object expire() throws InterruptedException {
+        CountDownLatch cdl = new CountDownLatch(enumerators);
+        for (int i = 0; i < enumerators; i++) {
+            expire.enumerator().moveNext().whenComplete((v, e) -> cdl.countDown());
+        }
+        cdl.await();
+        return cdl;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures the trampolined consumers and operators over a large synchronous source
+ * which is hidden from the sync fusion; the stack depth this keeps bounded
+ * is checked by AsyncEnumeratorHelperTest.drainStackDepth.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class TrampolinePerf {
+
+    @Param({"10000000"})
+    int count;
+
+    AsyncEnumerable<Integer> forEach;
+
+    AsyncEnumerable<Integer> filter;
+
+    AsyncEnumerable<Integer> skip;
+
+    AsyncEnumerable<Integer> reduce;
+
+    @Setup
+    public void setup() {
+        AsyncEnumerable<Integer> range = AsyncEnumerable.range(1, count);
+        AsyncEnumerable<Integer> hidden = () -> SyncFusionPerf.hide(range.enumerator());
+
+        forEach = hidden;
+
+        filter = hidden.filter(v -> (v & 1) == 0);
+
+        skip = hidden.skip(count / 2);
+
+        reduce = hidden.reduce((a, b) -> b);
+    }
+
+    void consume(Blackhole bh, Integer v) {
+        bh.consume(v);
+    }
+
+    @Benchmark
+    public Object forEach(Blackhole bh) {
+        return forEach.forEach(v -> consume(bh, v)).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object filter(Blackhole bh) {
+        return filter.forEach(v -> consume(bh, v)).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object skip(Blackhole bh) {
+        return skip.forEach(v -> consume(bh, v)).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Object reduce(Blackhole bh) {
+        return reduce.forEach(v -> consume(bh, v)).toCompletableFuture().join();
+    }
+}
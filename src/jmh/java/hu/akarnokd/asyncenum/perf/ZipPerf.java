@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum.perf;
+
+import hu.akarnokd.asyncenum.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+/**
+ * Compares the lockstep zip with the prefetching zip and their reusable-array variants.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ZipPerf {
+
+    @Param({"2", "8", "32"})
+    int sources;
+
+    @Param({"10000"})
+    int count;
+
+    @Param({"false", "true"})
+    boolean async;
+
+    @Param({"32"})
+    int prefetch;
+
+    ExecutorService executor;
+
+    AsyncEnumerable<Integer> lockstep;
+
+    AsyncEnumerable<Integer> lockstepReusable;
+
+    AsyncEnumerable<Integer> prefetching;
+
+    AsyncEnumerable<Integer> prefetchingReusable;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+
+        AsyncEnumerable<Integer> range = AsyncEnumerable.range(1, count);
+        if (async) {
+            range = range.observeOn(executor, prefetch);
+        }
+
+        @SuppressWarnings("unchecked")
+        AsyncEnumerable<Integer>[] array = new AsyncEnumerable[sources];
+        Arrays.fill(array, range);
+
+        lockstep = AsyncEnumerable.zipArray(a -> (Integer)a[0], array);
+
+        lockstepReusable = AsyncEnumerable.zipArrayReusable(a -> (Integer)a[0], array);
+
+        prefetching = AsyncEnumerable.zipArray(a -> (Integer)a[0], prefetch, array);
+
+        prefetchingReusable = AsyncEnumerable.zipArrayReusable(a -> (Integer)a[0], prefetch, array);
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object lockstep() {
+        return lockstep.blockingLast();
+    }
+
+    @Benchmark
+    public Object lockstepReusable() {
+        return lockstepReusable.blockingLast();
+    }
+
+    @Benchmark
+    public Object prefetching() {
+        return prefetching.blockingLast();
+    }
+
+    @Benchmark
+    public Object prefetchingReusable() {
+        return prefetchingReusable.blockingLast();
+    }
+}
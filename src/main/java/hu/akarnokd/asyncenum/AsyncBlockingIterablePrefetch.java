@@ -0,0 +1,245 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps a bounded buffer filled from the source in the background and lets the
+ * blocking consumer wait on it according to a {@link WaitStrategy}.
+ * @param <T> the value type
+ */
+final class AsyncBlockingIterablePrefetch<T> implements Iterable<T> {
+
+    static final int SPIN_LIMIT = 128;
+
+    static final int YIELD_LIMIT = SPIN_LIMIT + 64;
+
+    final AsyncEnumerable<T> source;
+
+    final int prefetch;
+
+    final WaitStrategy strategy;
+
+    AsyncBlockingIterablePrefetch(AsyncEnumerable<T> source, int prefetch, WaitStrategy strategy) {
+        this.source = source;
+        this.prefetch = prefetch;
+        this.strategy = strategy;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        PrefetchIterator<T> it = new PrefetchIterator<>(source.enumerator(), prefetch, strategy);
+        it.moveNextSource();
+        return it;
+    }
+
+    static final class PrefetchIterator<T> extends AtomicInteger
+            implements Iterator<T>, Runnable, BiConsumer<Boolean, Throwable> {
+
+        final AsyncEnumerator<T> source;
+
+        final int prefetch;
+
+        final int limit;
+
+        final WaitStrategy strategy;
+
+        final boolean parking;
+
+        final SpscArrayQueue<Object> queue;
+
+        final AtomicLong consumed;
+
+        volatile boolean done;
+        Throwable error;
+
+        volatile boolean cancelled;
+
+        volatile boolean sourceBusy;
+
+        volatile Thread waiter;
+
+        long produced;
+
+        int consumedLocal;
+
+        T value;
+
+        boolean hasValue;
+
+        PrefetchIterator(AsyncEnumerator<T> source, int prefetch, WaitStrategy strategy) {
+            this.source = source;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.strategy = strategy;
+            this.parking = strategy == WaitStrategy.PARK || strategy == WaitStrategy.SPIN_YIELD_PARK;
+            this.queue = new SpscArrayQueue<>(prefetch);
+            this.consumed = new AtomicLong();
+        }
+
+        void moveNextSource() {
+            if (getAndIncrement() == 0) {
+                do {
+                    // synchronous items are buffered inline and signalled once per batch
+                    boolean signal = false;
+                    while (!sourceBusy && !done && !cancelled && produced - consumed.get() < prefetch) {
+                        CompletionStage<Boolean> stage = source.moveNext();
+                        if (stage == AsyncEnumerable.TRUE) {
+                            queue.offer(QueueHelper.wrapNull(source.current()));
+                            produced++;
+                            signal = true;
+                        } else if (stage == AsyncEnumerable.FALSE) {
+                            done = true;
+                            signal = true;
+                        } else {
+                            sourceBusy = true;
+                            stage.whenComplete(this);
+                        }
+                    }
+                    if (signal) {
+                        wakeUp();
+                    }
+                } while (decrementAndGet() != 0);
+            }
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                error = throwable;
+                done = true;
+            } else if (aBoolean) {
+                queue.offer(QueueHelper.wrapNull(source.current()));
+                produced++;
+                sourceBusy = false;
+                wakeUp();
+                moveNextSource();
+                return;
+            } else {
+                done = true;
+            }
+            wakeUp();
+        }
+
+        void wakeUp() {
+            if (parking) {
+                // the offer/done store has to be visible before we look for a parked consumer
+                VarHandle.fullFence();
+                Thread w = waiter;
+                if (w != null) {
+                    LockSupport.unpark(w);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasValue) {
+                return true;
+            }
+            for (int round = 0; ; round++) {
+                boolean d = done;
+                Object v = queue.poll();
+                if (v != null) {
+                    value = QueueHelper.unwrapNull(v);
+                    hasValue = true;
+                    consumedOne();
+                    return true;
+                }
+                if (d) {
+                    Throwable ex = error;
+                    if (ex != null) {
+                        throw ThrowableHelper.wrapOrThrow(ex);
+                    }
+                    return false;
+                }
+                if (Thread.interrupted()) {
+                    run();
+                    throw new RuntimeException(new InterruptedException());
+                }
+                await(round);
+            }
+        }
+
+        void await(int round) {
+            switch (strategy) {
+                case BUSY_SPIN:
+                    Thread.onSpinWait();
+                    break;
+                case YIELD:
+                    if (round < SPIN_LIMIT) {
+                        Thread.onSpinWait();
+                    } else {
+                        Thread.yield();
+                    }
+                    break;
+                case PARK:
+                    park();
+                    break;
+                default:
+                    if (round < SPIN_LIMIT) {
+                        Thread.onSpinWait();
+                    } else if (round < YIELD_LIMIT) {
+                        Thread.yield();
+                    } else {
+                        park();
+                    }
+            }
+        }
+
+        void park() {
+            waiter = Thread.currentThread();
+            if (queue.isEmpty() && !done) {
+                LockSupport.park(this);
+            }
+            waiter = null;
+        }
+
+        void consumedOne() {
+            int c = consumedLocal + 1;
+            if (c == limit) {
+                consumedLocal = 0;
+                consumed.addAndGet(c);
+                moveNextSource();
+            } else {
+                consumedLocal = c;
+            }
+        }
+
+        @Override
+        public T next() {
+            if (hasNext()) {
+                T v = value;
+                value = null;
+                hasValue = false;
+                return v;
+            }
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public void run() {
+            cancelled = true;
+            source.cancel();
+        }
+    }
+}
@@ -39,11 +39,24 @@ final class AsyncBlockingLast<T> extends CountDownLatch implements BiConsumer<Bo
     }
 
     void moveNext() {
-        if (wip.getAndIncrement() == 0) {
-            do {
-                source.moveNext().whenComplete(this);
-            } while (wip.decrementAndGet() != 0);
+        if (source instanceof SyncAsyncEnumerator) {
+            drainSync((SyncAsyncEnumerator<T>)source);
+            return;
+        }
+        AsyncEnumeratorHelper.drain(wip, source, this);
+    }
+
+    void drainSync(SyncAsyncEnumerator<T> src) {
+        try {
+            while (src.tryNext()) {
+                hasValue = true;
+                result = src.current();
+            }
+        } catch (Throwable ex) {
+            result = null;
+            error = ex;
         }
+        countDown();
     }
 
     @Override
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+final class AsyncBuffer<T> implements AsyncEnumerable<List<T>> {
+
+    final AsyncEnumerable<T> source;
+
+    final int size;
+
+    AsyncBuffer(AsyncEnumerable<T> source, int size) {
+        this.source = source;
+        this.size = size;
+    }
+
+    @Override
+    public AsyncEnumerator<List<T>> enumerator() {
+        AsyncEnumerator<T> en = source.enumerator();
+        if (en instanceof SyncAsyncEnumerator) {
+            return new BufferSyncEnumerator<>((SyncAsyncEnumerator<T>)en, size);
+        }
+        return new BufferEnumerator<>(en, size);
+    }
+
+    static final class BufferEnumerator<T> extends AtomicInteger
+            implements AsyncEnumerator<List<T>>, BiConsumer<Boolean, Throwable> {
+
+        final AsyncEnumerator<T> source;
+
+        final int size;
+
+        List<T> buffer;
+
+        List<T> result;
+
+        CompletableFuture<Boolean> cf;
+
+        boolean done;
+
+        volatile boolean cancelled;
+
+        BufferEnumerator(AsyncEnumerator<T> source, int size) {
+            this.source = source;
+            this.size = size;
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            result = null;
+            if (done) {
+                return FALSE;
+            }
+            buffer = new ArrayList<>(size);
+            cf = new CompletableFuture<>();
+            collectSource();
+            return cf;
+        }
+
+        @Override
+        public List<T> current() {
+            return result;
+        }
+
+        void collectSource() {
+            if (!cancelled) {
+                AsyncEnumeratorHelper.drain(this, source, this);
+            }
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                done = true;
+                buffer = null;
+                cf.completeExceptionally(throwable);
+                return;
+            }
+
+            List<T> b = buffer;
+            if (aBoolean) {
+                b.add(source.current());
+                if (b.size() == size) {
+                    buffer = null;
+                    result = b;
+                    cf.complete(true);
+                } else {
+                    collectSource();
+                }
+            } else {
+                done = true;
+                buffer = null;
+                if (b.isEmpty()) {
+                    cf.complete(false);
+                } else {
+                    result = b;
+                    cf.complete(true);
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            source.cancel();
+        }
+    }
+
+    static final class BufferSyncEnumerator<T> implements SyncAsyncEnumerator<List<T>> {
+
+        final SyncAsyncEnumerator<T> source;
+
+        final int size;
+
+        List<T> result;
+
+        boolean done;
+
+        BufferSyncEnumerator(SyncAsyncEnumerator<T> source, int size) {
+            this.source = source;
+            this.size = size;
+        }
+
+        @Override
+        public boolean tryNext() {
+            result = null;
+            if (done) {
+                return false;
+            }
+            List<T> b = new ArrayList<>(size);
+            while (b.size() != size) {
+                if (!source.tryNext()) {
+                    done = true;
+                    break;
+                }
+                b.add(source.current());
+            }
+            if (b.isEmpty()) {
+                return false;
+            }
+            result = b;
+            return true;
+        }
+
+        @Override
+        public List<T> current() {
+            return result;
+        }
+
+        @Override
+        public void cancel() {
+            source.cancel();
+        }
+    }
+}
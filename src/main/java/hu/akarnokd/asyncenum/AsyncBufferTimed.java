@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Collects items into a list until it reaches the given size or the given time
+ * has elapsed since its first item, whichever happens first.
+ * @param <T> the value type
+ */
+final class AsyncBufferTimed<T> implements AsyncEnumerable<List<T>> {
+
+    final AsyncEnumerable<T> source;
+
+    final int size;
+
+    final long time;
+
+    final TimeUnit unit;
+
+    final TimerService timer;
+
+    AsyncBufferTimed(AsyncEnumerable<T> source, int size, long time, TimeUnit unit, TimerService timer) {
+        this.source = source;
+        this.size = size;
+        this.time = time;
+        this.unit = unit;
+        this.timer = timer;
+    }
+
+    @Override
+    public AsyncEnumerator<List<T>> enumerator() {
+        return new BufferTimedEnumerator<>(source.enumerator(), size, time, unit, timer);
+    }
+
+    static final class BufferTimedEnumerator<T> extends AtomicInteger
+            implements AsyncEnumerator<List<T>>, BiConsumer<Boolean, Throwable> {
+
+        static final int SIGNAL_NONE = 0;
+        static final int SIGNAL_ITEM = 1;
+        static final int SIGNAL_DONE = 2;
+
+        final AsyncEnumerator<T> source;
+
+        final int size;
+
+        final long time;
+
+        final TimeUnit unit;
+
+        final TimerService timer;
+
+        volatile CompletableFuture<Boolean> completable;
+
+        volatile int sourceSignal;
+        T sourceValue;
+        Throwable error;
+
+        volatile long timedOutIndex;
+
+        volatile boolean cancelled;
+
+        boolean sourceBusy;
+
+        boolean done;
+
+        long bufferIndex;
+
+        List<T> buffer;
+
+        TimerService.Task timeout;
+
+        List<T> result;
+
+        BufferTimedEnumerator(AsyncEnumerator<T> source, int size, long time, TimeUnit unit, TimerService timer) {
+            this.source = source;
+            this.size = size;
+            this.time = time;
+            this.unit = unit;
+            this.timer = timer;
+            this.timedOutIndex = -1L;
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            result = null;
+            CompletableFuture<Boolean> cf = new CompletableFuture<>();
+            completable = cf;
+            drain();
+            return cf;
+        }
+
+        @Override
+        public List<T> current() {
+            return result;
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                error = throwable;
+                sourceSignal = SIGNAL_DONE;
+            } else if (aBoolean) {
+                sourceValue = source.current();
+                sourceSignal = SIGNAL_ITEM;
+            } else {
+                sourceSignal = SIGNAL_DONE;
+            }
+            drain();
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                if (cancelled) {
+                    buffer = null;
+                    cancelTimeout();
+                } else {
+                    int signal = sourceSignal;
+                    if (signal != SIGNAL_NONE) {
+                        sourceSignal = SIGNAL_NONE;
+                        sourceBusy = false;
+                        if (signal == SIGNAL_ITEM) {
+                            T v = sourceValue;
+                            sourceValue = null;
+                            List<T> b = buffer;
+                            if (b == null) {
+                                b = new ArrayList<>();
+                                buffer = b;
+                                startTimeout();
+                            }
+                            b.add(v);
+                        } else {
+                            done = true;
+                        }
+                    }
+
+                    CompletableFuture<Boolean> cf = completable;
+                    if (cf != null) {
+                        List<T> b = buffer;
+                        if (done && error != null) {
+                            completable = null;
+                            buffer = null;
+                            cancelTimeout();
+                            cf.completeExceptionally(error);
+                        } else if (b != null && (b.size() >= size || done || timedOutIndex == bufferIndex)) {
+                            completable = null;
+                            buffer = null;
+                            cancelTimeout();
+                            bufferIndex++;
+                            result = b;
+                            cf.complete(true);
+                        } else if (done) {
+                            completable = null;
+                            cf.complete(false);
+                        } else if (!sourceBusy) {
+                            sourceBusy = true;
+                            CompletionStage<Boolean> stage = source.moveNext();
+                            // synchronous results are processed in this loop without another round-trip
+                            if (stage == TRUE) {
+                                sourceValue = source.current();
+                                sourceSignal = SIGNAL_ITEM;
+                                continue;
+                            } else if (stage == FALSE) {
+                                sourceSignal = SIGNAL_DONE;
+                                continue;
+                            }
+                            stage.whenComplete(this);
+                        }
+                    }
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void startTimeout() {
+            long idx = bufferIndex;
+            timeout = timer.schedule(() -> {
+                timedOutIndex = idx;
+                drain();
+            }, time, unit);
+        }
+
+        void cancelTimeout() {
+            TimerService.Task t = timeout;
+            if (t != null) {
+                timeout = null;
+                t.cancel();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            source.cancel();
+            drain();
+        }
+    }
+}
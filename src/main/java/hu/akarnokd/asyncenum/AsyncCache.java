@@ -16,14 +16,27 @@
 
 package hu.akarnokd.asyncenum;
 
-import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 import java.util.function.BiConsumer;
 
+/**
+ * Connects to the source on the first enumerator and replays the received items
+ * to current and late enumerators alike.
+ * <p>
+ *     The items are stored in linked, fixed-size chunks. If a maximum number of items
+ *     or a maximum age is set, the oldest items are evicted as new ones arrive. Evictions
+ *     only affect enumerators starting afterwards: a running enumerator holds onto its
+ *     chunk and receives every item, the chunks behind all of them are released.
+ * </p>
+ * @param <T> the value type
+ */
 final class AsyncCache<T> extends AtomicInteger
         implements AsyncEnumerable<T>, BiConsumer<Boolean, Throwable> {
 
+    /** The number of items per chunk. */
+    static final int CHUNK_SIZE = 32;
+
     final AsyncEnumerable<T> source;
 
     final AtomicBoolean once;
@@ -36,21 +49,49 @@ final class AsyncCache<T> extends AtomicInteger
     @SuppressWarnings("unchecked")
     static final CacheEnumerator[] TERMINATED = new CacheEnumerator[0];
 
-    final List<T> list;
+    final long maxItems;
+
+    final long maxAge;
+
+    final TimeUnit unit;
+
+    /** The clock of the age limit, null if the items don't expire. */
+    final TimerService clock;
+
+    /** The chunk receiving the next item; accessed by the source consumer only. */
+    Chunk<T> tail;
+
+    /** The chunk holding the oldest retained item. */
+    volatile Chunk<T> head;
 
-    AsyncEnumerator<T> sourceEnumerator;
+    /** The index of the oldest retained item. */
+    volatile long headIndex;
 
-    volatile int size;
+    volatile AsyncEnumerator<T> sourceEnumerator;
+
+    volatile long size;
 
     volatile boolean done;
     Throwable error;
 
-    @SuppressWarnings("unchecked")
+    volatile boolean cancelled;
+
     AsyncCache(AsyncEnumerable<T> source) {
+        this(source, Long.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    AsyncCache(AsyncEnumerable<T> source, long maxItems, long maxAge, TimeUnit unit, TimerService clock) {
         this.source = source;
         this.once = new AtomicBoolean();
         this.enumerators = new AtomicReference<>(EMPTY);
-        this.list = new ArrayList<>();
+        this.maxItems = maxItems;
+        this.maxAge = maxAge;
+        this.unit = unit;
+        this.clock = clock;
+        Chunk<T> c = new Chunk<>(0L, clock != null);
+        this.tail = c;
+        this.head = c;
     }
 
     @SuppressWarnings("unchecked")
@@ -66,8 +107,7 @@ final class AsyncCache<T> extends AtomicInteger
         }
 
         if (aBoolean) {
-            list.add(sourceEnumerator.current());
-            size = size + 1;
+            add(sourceEnumerator.current());
             for (CacheEnumerator<T> en : enumerators.getAcquire()) {
                 signal(en);
             }
@@ -80,9 +120,60 @@ final class AsyncCache<T> extends AtomicInteger
         }
     }
 
+    void add(T item) {
+        long s = size;
+        Chunk<T> t = tail;
+        int offset = (int)(s - t.start);
+        if (offset == CHUNK_SIZE) {
+            Chunk<T> c = new Chunk<>(s, clock != null);
+            t.next = c;
+            tail = c;
+            t = c;
+            offset = 0;
+        }
+        t.items[offset] = item;
+        long now = 0L;
+        if (clock != null) {
+            now = clock.now(unit);
+            t.times[offset] = now;
+        }
+        size = s + 1;
+
+        if (maxItems != Long.MAX_VALUE || clock != null) {
+            evict(s + 1, now);
+        }
+    }
+
+    void evict(long s, long now) {
+        long hi = headIndex;
+        long newHi = Math.max(hi, s - maxItems);
+        Chunk<T> h = head;
+        if (clock != null) {
+            Chunk<T> c = h;
+            while (newHi < s) {
+                while (newHi >= c.start + CHUNK_SIZE) {
+                    c = c.next;
+                }
+                if (now - c.times[(int)(newHi - c.start)] <= maxAge) {
+                    break;
+                }
+                newHi++;
+            }
+        }
+        if (newHi != hi) {
+            // enumerators read the index before the chunk: publish the index first
+            headIndex = newHi;
+            while (newHi >= h.start + CHUNK_SIZE && h.next != null) {
+                h = h.next;
+            }
+            head = h;
+        }
+    }
+
     @Override
     public AsyncEnumerator<T> enumerator() {
         CacheEnumerator<T> en = new CacheEnumerator<>(this);
+        start(en);
         if (add(en)) {
             if (!once.get() && once.compareAndSet(false, true)) {
                 sourceEnumerator = source.enumerator();
@@ -96,11 +187,25 @@ final class AsyncCache<T> extends AtomicInteger
     void nextSource() {
         if (getAndIncrement() == 0) {
             do {
+                if (cancelled) {
+                    sourceEnumerator.cancel();
+                    return;
+                }
                 sourceEnumerator.moveNext().whenComplete(this);
             } while (decrementAndGet() != 0);
         }
     }
 
+    /**
+     * Stops the source if it has been started.
+     */
+    void cancel() {
+        cancelled = true;
+        if (sourceEnumerator != null) {
+            nextSource();
+        }
+    }
+
     boolean add(CacheEnumerator<T> inner) {
         for (;;) {
             CacheEnumerator<T>[] a = enumerators.get();
@@ -154,12 +259,13 @@ final class AsyncCache<T> extends AtomicInteger
     void signal(CacheEnumerator<T> target) {
         if (target.getAndIncrement() == 0) {
             do {
-                CompletableFuture<Boolean> cf = target.completable;
+                AsyncResettableStage<Boolean> cf = target.completable;
                 if (cf != null) {
-                    int index = target.index;
+                    long index = target.index;
+                    Chunk<T> node = target.node;
 
                     boolean d = done;
-                    int s = size;
+                    long s = size;
                     boolean empty = s == index;
 
                     if (d && empty) {
@@ -173,8 +279,12 @@ final class AsyncCache<T> extends AtomicInteger
                     }
 
                     if (!empty) {
-                        target.result = list.get(index);
+                        while (index >= node.start + CHUNK_SIZE) {
+                            node = node.next;
+                        }
+                        target.result = node.items[(int)(index - node.start)];
                         target.index = index + 1;
+                        target.node = node;
                         target.completable = null;
                         cf.complete(true);
                     }
@@ -183,24 +293,81 @@ final class AsyncCache<T> extends AtomicInteger
         }
     }
 
-    static final class CacheEnumerator<T> extends AtomicInteger implements AsyncEnumerator<T> {
+    /**
+     * Positions the enumerator on the oldest retained item; from then on, the enumerator
+     * holds onto its chunk and receives every item regardless of evictions.
+     */
+    void start(CacheEnumerator<T> en) {
+        long hi = headIndex;
+        Chunk<T> h = head;
+        long index = Math.max(hi, h.start);
+        if (clock != null) {
+            index = skipExpired(h, index);
+        }
+        en.node = h;
+        en.index = index;
+    }
+
+    /**
+     * Returns the index of the first item, starting from the given one, that is not
+     * older than the maximum age.
+     */
+    long skipExpired(Chunk<T> node, long index) {
+        long now = clock.now(unit);
+        long s = size;
+        while (index < s) {
+            while (index >= node.start + CHUNK_SIZE) {
+                node = node.next;
+            }
+            if (now - node.times[(int)(index - node.start)] <= maxAge) {
+                break;
+            }
+            index++;
+        }
+        return index;
+    }
+
+    static final class Chunk<T> {
+
+        final long start;
+
+        final T[] items;
+
+        final long[] times;
+
+        volatile Chunk<T> next;
+
+        @SuppressWarnings("unchecked")
+        Chunk(long start, boolean timed) {
+            this.start = start;
+            this.items = (T[])new Object[CHUNK_SIZE];
+            this.times = timed ? new long[CHUNK_SIZE] : null;
+        }
+    }
+
+    static final class CacheEnumerator<T> extends AtomicInteger implements AsyncEnumerator<T>, HasQueueSize {
 
         final AsyncCache<T> parent;
 
-        volatile CompletableFuture<Boolean> completable;
+        final AsyncResettableStage<Boolean> stage;
+
+        volatile AsyncResettableStage<Boolean> completable;
+
+        Chunk<T> node;
 
-        int index;
+        long index;
 
         T result;
 
         CacheEnumerator(AsyncCache<T> parent) {
             this.parent = parent;
+            this.stage = new AsyncResettableStage<>();
         }
 
         @Override
         public CompletionStage<Boolean> moveNext() {
             result = null;
-            CompletableFuture<Boolean> cf = new CompletableFuture<>();
+            AsyncResettableStage<Boolean> cf = stage.reset();
             completable = cf;
             parent.signal(this);
             return cf;
@@ -211,6 +378,12 @@ final class AsyncCache<T> extends AtomicInteger
             return result;
         }
 
+        /** Reports the number of items retained by the cache. */
+        @Override
+        public int queueSize() {
+            return (int)Math.min(parent.size - parent.headIndex, Integer.MAX_VALUE);
+        }
+
         @Override
         public void cancel() {
             parent.remove(this);
@@ -77,13 +77,8 @@ final class AsyncCollect<T, C> implements AsyncEnumerable<C> {
         }
 
         void collectSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    if (cancelled) {
-                        return;
-                    }
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
+            if (!cancelled) {
+                AsyncEnumeratorHelper.drain(this, source, this);
             }
         }
 
@@ -96,7 +91,14 @@ final class AsyncCollect<T, C> implements AsyncEnumerable<C> {
             }
 
             if (aBoolean) {
-                collector.accept(collection, source.current());
+                try {
+                    collector.accept(collection, source.current());
+                } catch (Throwable ex) {
+                    source.cancel();
+                    collection = null;
+                    cf.completeExceptionally(ex);
+                    return;
+                }
                 collectSource();
             } else {
                 result = collection;
@@ -82,13 +82,8 @@ final class AsyncCollectWith<T, A, R> implements AsyncEnumerable<R> {
         }
 
         void collectSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    if (cancelled) {
-                        return;
-                    }
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
+            if (!cancelled) {
+                AsyncEnumeratorHelper.drain(this, source, this);
             }
         }
 
@@ -101,10 +96,23 @@ final class AsyncCollectWith<T, A, R> implements AsyncEnumerable<R> {
             }
 
             if (aBoolean) {
-                accumulator.accept(collection, source.current());
+                try {
+                    accumulator.accept(collection, source.current());
+                } catch (Throwable ex) {
+                    source.cancel();
+                    collection = null;
+                    cf.completeExceptionally(ex);
+                    return;
+                }
                 collectSource();
             } else {
-                result = finisher.apply(collection);
+                try {
+                    result = finisher.apply(collection);
+                } catch (Throwable ex) {
+                    collection = null;
+                    cf.completeExceptionally(ex);
+                    return;
+                }
                 collection = null;
                 cf.complete(true);
             }
@@ -49,7 +49,9 @@ final class AsyncConcatMap<T, R> implements AsyncEnumerable<R> {
 
         final AtomicReference<AsyncEnumerator<R>> currentSource;
 
-        volatile CompletableFuture<Boolean> completable;
+        final AsyncResettableStage<Boolean> stage;
+
+        volatile AsyncResettableStage<Boolean> completable;
 
         R current;
 
@@ -59,11 +61,12 @@ final class AsyncConcatMap<T, R> implements AsyncEnumerable<R> {
             this.currentSource = new AtomicReference<>();
             this.wipMain = new AtomicInteger();
             this.wipInner = new AtomicInteger();
+            this.stage = new AsyncResettableStage<>();
         }
 
         @Override
         public CompletionStage<Boolean> moveNext() {
-            CompletableFuture<Boolean> cf = new CompletableFuture<>();
+            AsyncResettableStage<Boolean> cf = stage.reset();
             completable = cf;
             if (currentSource.getPlain() == null) {
                 nextMain();
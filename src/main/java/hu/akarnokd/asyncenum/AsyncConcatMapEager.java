@@ -0,0 +1,324 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * Runs up to a given number of inner enumerators at once, buffering their items,
+ * and relays the items in the order of the upstream items that produced them.
+ * @param <T> the upstream value type
+ * @param <R> the result value type
+ */
+final class AsyncConcatMapEager<T, R> implements AsyncEnumerable<R> {
+
+    final AsyncEnumerable<T> upstream;
+
+    final Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper;
+
+    final int maxConcurrency;
+
+    final int prefetch;
+
+    AsyncConcatMapEager(AsyncEnumerable<T> upstream, Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper,
+                        int maxConcurrency, int prefetch) {
+        this.upstream = upstream;
+        this.mapper = mapper;
+        this.maxConcurrency = maxConcurrency;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public AsyncEnumerator<R> enumerator() {
+        ConcatMapEagerEnumerator<T, R> en = new ConcatMapEagerEnumerator<>(upstream.enumerator(), mapper, maxConcurrency, prefetch);
+        en.moveNextUpstream();
+        return en;
+    }
+
+    static final class ConcatMapEagerEnumerator<T, R> implements AsyncEnumerator<R>, BiConsumer<Boolean, Throwable> {
+
+        final AsyncEnumerator<T> upstream;
+
+        final Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper;
+
+        /** The inner enumerators in upstream order. */
+        final SimpleQueue<InnerAsyncEnumerator<R>> queue;
+
+        final AtomicReference<AsyncResettableStage<Boolean>> next;
+
+        final AsyncResettableStage<Boolean> stage;
+
+        final AtomicInteger wip;
+
+        final ConcurrentMap<InnerAsyncEnumerator<R>, Object> inners;
+
+        final AtomicInteger upstreamWip;
+
+        final AtomicInteger upstreamPermits;
+
+        final AtomicReference<Throwable> error;
+
+        final int prefetch;
+
+        InnerAsyncEnumerator<R> active;
+
+        R current;
+
+        volatile boolean cancelled;
+
+        volatile boolean upstreamBusy;
+
+        volatile boolean upstreamDone;
+
+        ConcatMapEagerEnumerator(AsyncEnumerator<T> upstream, Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper,
+                                 int maxConcurrency, int prefetch) {
+            this.upstream = upstream;
+            this.mapper = mapper;
+            this.prefetch = prefetch;
+            this.upstreamPermits = new AtomicInteger(maxConcurrency);
+            this.queue = new MpscLinkedArrayQueue<>(AsyncFlatMap.CHUNK_SIZE);
+            this.next = new AtomicReference<>();
+            this.stage = new AsyncResettableStage<>();
+            this.wip = new AtomicInteger();
+            this.inners = new ConcurrentHashMap<>();
+            this.upstreamWip = new AtomicInteger();
+            this.error = new AtomicReference<>();
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            AsyncResettableStage<Boolean> nx = stage.reset();
+            next.set(nx);
+            drain();
+            return nx;
+        }
+
+        @Override
+        public R current() {
+            return current;
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            do {
+                for (;;) {
+                    AsyncResettableStage<Boolean> nx = next.get();
+                    if (nx == null) {
+                        break;
+                    }
+                    Throwable ex = error.get();
+                    if (ex != null) {
+                        next.set(null);
+                        nx.completeExceptionally(ex);
+                        return;
+                    }
+
+                    InnerAsyncEnumerator<R> inner = active;
+                    if (inner == null) {
+                        boolean d = upstreamDone;
+                        inner = queue.poll();
+                        if (inner == null) {
+                            if (d) {
+                                next.set(null);
+                                nx.complete(false);
+                                return;
+                            }
+                            break;
+                        }
+                        active = inner;
+                    }
+
+                    boolean d = inner.done;
+                    Object v = inner.poll();
+                    if (v != null) {
+                        next.set(null);
+                        current = QueueHelper.unwrapNull(v);
+                        nx.complete(true);
+                        inner.moveNext();
+                        continue;
+                    }
+                    if (d) {
+                        // the inner is fully relayed: its slot can start the next upstream item
+                        active = null;
+                        inners.remove(inner);
+                        upstreamPermits.getAndIncrement();
+                        moveNextUpstream();
+                        continue;
+                    }
+                    break;
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        void error(Throwable ex) {
+            error.compareAndSet(null, ex);
+            cancel();
+            drain();
+        }
+
+        void moveNextUpstream() {
+            if (upstreamWip.getAndIncrement() == 0) {
+                do {
+                    if (!upstreamBusy && !upstreamDone && !cancelled && upstreamPermits.get() > 0) {
+                        upstreamPermits.getAndDecrement();
+                        upstreamBusy = true;
+                        upstream.moveNext().whenComplete(this);
+                    }
+                } while (upstreamWip.decrementAndGet() != 0);
+            }
+        }
+
+        void cancelAllInner() {
+            for (InnerAsyncEnumerator<R> inner : inners.keySet()) {
+                inner.cancel();
+            }
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                upstreamDone = true;
+                error(throwable);
+                return;
+            }
+            if (aBoolean) {
+                T t = upstream.current();
+                AsyncEnumerator<? extends R> ae;
+                try {
+                    ae = mapper.apply(t).enumerator();
+                } catch (Throwable ex) {
+                    upstreamDone = true;
+                    upstream.cancel();
+                    error(ex);
+                    return;
+                }
+                InnerAsyncEnumerator<R> inner = new InnerAsyncEnumerator<>(ae, this, prefetch);
+                inners.put(inner, inner);
+                if (cancelled) {
+                    inners.remove(inner);
+                    inner.cancel();
+                } else {
+                    queue.offer(inner);
+                    inner.moveNext();
+                    upstreamBusy = false;
+                    moveNextUpstream();
+                }
+            } else {
+                upstreamDone = true;
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            upstream.cancel();
+            cancelAllInner();
+        }
+
+        static final class InnerAsyncEnumerator<R> extends AtomicInteger implements BiConsumer<Boolean, Throwable> {
+
+            final AsyncEnumerator<? extends R> source;
+
+            final ConcatMapEagerEnumerator<?, R> parent;
+
+            final int prefetch;
+
+            final SimpleQueue<Object> values;
+
+            final AtomicInteger buffered;
+
+            volatile boolean busy;
+
+            volatile boolean done;
+
+            InnerAsyncEnumerator(AsyncEnumerator<? extends R> source, ConcatMapEagerEnumerator<?, R> parent, int prefetch) {
+                this.source = source;
+                this.parent = parent;
+                this.prefetch = prefetch;
+                if (prefetch <= AsyncFlatMap.MAX_ARRAY_PREFETCH) {
+                    this.values = new SpscArrayQueue<>(prefetch);
+                } else {
+                    this.values = new MpscLinkedArrayQueue<>(AsyncFlatMap.CHUNK_SIZE);
+                }
+                this.buffered = new AtomicInteger();
+            }
+
+            // returns the item still wrapped by QueueHelper.wrapNull; null means nothing is buffered
+            Object poll() {
+                Object v = values.poll();
+                if (v != null) {
+                    buffered.getAndDecrement();
+                }
+                return v;
+            }
+
+            void moveNext() {
+                if (getAndIncrement() == 0) {
+                    do {
+                        boolean signal = false;
+                        while (!busy && !done && buffered.get() < prefetch) {
+                            CompletionStage<Boolean> stage = source.moveNext();
+                            // synchronous inner sources fill the buffer in this loop and signal the parent once
+                            if (stage == AsyncEnumerable.TRUE) {
+                                values.offer(QueueHelper.wrapNull(source.current()));
+                                buffered.getAndIncrement();
+                                signal = true;
+                            } else if (stage == AsyncEnumerable.FALSE) {
+                                done = true;
+                                signal = true;
+                            } else {
+                                busy = true;
+                                stage.whenComplete(this);
+                            }
+                        }
+                        if (signal) {
+                            parent.drain();
+                        }
+                    } while (decrementAndGet() != 0);
+                }
+            }
+
+            @Override
+            public void accept(Boolean hasMore, Throwable throwable) {
+                if (throwable != null) {
+                    done = true;
+                    parent.error(throwable);
+                    return;
+                }
+                if (hasMore) {
+                    values.offer(QueueHelper.wrapNull(source.current()));
+                    buffered.getAndIncrement();
+                    busy = false;
+                    parent.drain();
+                    moveNext();
+                } else {
+                    done = true;
+                    parent.drain();
+                }
+            }
+
+            void cancel() {
+                source.cancel();
+            }
+        }
+    }
+}
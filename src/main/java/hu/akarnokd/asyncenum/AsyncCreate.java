@@ -22,16 +22,39 @@ import java.util.function.Consumer;
 
 final class AsyncCreate<T> implements AsyncEnumerable<T> {
 
+    /** The chunk size of the unbounded queue. */
+    static final int CHUNK_SIZE = 32;
+
     final Consumer<AsyncEmitter<T>> emitter;
 
+    final int capacity;
+
+    final OverflowStrategy strategy;
+
     AsyncCreate(Consumer<AsyncEmitter<T>> emitter) {
+        this(emitter, 0, null);
+    }
+
+    AsyncCreate(Consumer<AsyncEmitter<T>> emitter, int capacity, OverflowStrategy strategy) {
         this.emitter = emitter;
+        this.capacity = capacity;
+        this.strategy = strategy;
     }
 
     @Override
     public AsyncEnumerator<T> enumerator() {
-        CreateEnumerator<T> en = new CreateEnumerator<>();
-        emitter.accept(en);
+        AbstractCreateEnumerator<T> en;
+        if (strategy == null) {
+            en = new CreateEnumerator<>();
+        } else {
+            en = new BoundedCreateEnumerator<>(capacity, strategy);
+        }
+        en.emitterThread = Thread.currentThread();
+        try {
+            emitter.accept(en);
+        } finally {
+            en.emitterThread = null;
+        }
         return en;
     }
 
@@ -44,27 +67,38 @@ final class AsyncCreate<T> implements AsyncEnumerable<T> {
         }
     }
 
-    static final class CreateEnumerator<T>
+    abstract static class AbstractCreateEnumerator<T>
             extends AtomicInteger
-            implements AsyncEmitter<T>, AsyncEnumerator<T> {
+            implements AsyncEmitter<T>, AsyncEnumerator<T>, HasQueueSize {
 
         final AtomicReference<AutoCloseable> res;
 
-        final ConcurrentLinkedQueue<T> queue;
-
         T result;
         volatile boolean done;
         Throwable error;
 
-        volatile CompletableFuture<Boolean> completable;
+        final AsyncResettableStage<Boolean> stage;
+
+        volatile AsyncResettableStage<Boolean> completable;
 
         AutoCloseable toRelease;
 
-        CreateEnumerator() {
-            queue = new ConcurrentLinkedQueue<>();
+        /** The thread running the emitter callback inside enumerator(), null afterwards. */
+        Thread emitterThread;
+
+        AbstractCreateEnumerator() {
             res = new AtomicReference<>();
+            stage = new AsyncResettableStage<>();
         }
 
+        /**
+         * Polls the next queued element in its wrapped form.
+         * @return the wrapped element or null if there is nothing to take at the moment
+         */
+        abstract Object poll();
+
+        abstract boolean isEmpty();
+
         @Override
         public void cancel() {
             AutoCloseable c = res.getAndSet(Closed.INSTANCE);
@@ -104,16 +138,8 @@ final class AsyncCreate<T> implements AsyncEnumerable<T> {
         }
 
         @Override
-        public int emissionPending() {
-            return queue.size();
-        }
-
-        @Override
-        public void next(T item) {
-            if (!isCancelled()) {
-                queue.offer(item);
-                drain();
-            }
+        public int queueSize() {
+            return emissionPending();
         }
 
         @Override
@@ -138,7 +164,7 @@ final class AsyncCreate<T> implements AsyncEnumerable<T> {
         @Override
         public CompletionStage<Boolean> moveNext() {
             result = null;
-            CompletableFuture<Boolean> cf = new CompletableFuture<>();
+            AsyncResettableStage<Boolean> cf = stage.reset();
             completable = cf;
             drain();
             return cf;
@@ -153,12 +179,18 @@ final class AsyncCreate<T> implements AsyncEnumerable<T> {
         void drain() {
             if (getAndIncrement() == 0) {
                 do {
-                    CompletableFuture<Boolean> cf = completable;
+                    AsyncResettableStage<Boolean> cf = completable;
                     if (cf != null) {
                         boolean d = done;
-                        boolean empty = queue.isEmpty();
+                        // poll once: with multiple producers, a non-empty check
+                        // followed by a poll may still come up with nothing
+                        Object v = poll();
 
-                        if (d && empty) {
+                        if (v != null) {
+                            completable = null;
+                            result = QueueHelper.unwrapNull(v);
+                            cf.complete(true);
+                        } else if (d && isEmpty()) {
                             completable = null;
                             Throwable ex = error;
                             if (ex == null) {
@@ -173,15 +205,176 @@ final class AsyncCreate<T> implements AsyncEnumerable<T> {
                             }
                             return;
                         }
-
-                        if (!empty) {
-                            completable = null;
-                            result = queue.poll();
-                            cf.complete(true);
-                        }
                     }
                 } while (decrementAndGet() != 0);
             }
         }
     }
+    static final class CreateEnumerator<T> extends AbstractCreateEnumerator<T> {
+
+        final MpscLinkedArrayQueue<Object> queue;
+
+        CreateEnumerator() {
+            queue = new MpscLinkedArrayQueue<>(CHUNK_SIZE);
+        }
+
+        @Override
+        public int emissionPending() {
+            return queue.size();
+        }
+
+        @Override
+        public void next(T item) {
+            if (!isCancelled()) {
+                queue.offer(QueueHelper.wrapNull(item));
+                drain();
+            }
+        }
+
+        @Override
+        Object poll() {
+            return queue.poll();
+        }
+
+        @Override
+        boolean isEmpty() {
+            return queue.isEmpty();
+        }
+    }
+
+    static final class BoundedCreateEnumerator<T> extends AbstractCreateEnumerator<T> {
+
+        final SimpleQueue<Object> queue;
+
+        final int capacity;
+
+        final OverflowStrategy strategy;
+
+        final Semaphore permits;
+
+        final AtomicReference<CompletableFuture<Boolean>> ready;
+
+        BoundedCreateEnumerator(int capacity, OverflowStrategy strategy) {
+            // DROP_OLDEST evicts from the producer side and needs a queue that allows it
+            if (strategy == OverflowStrategy.DROP_OLDEST) {
+                this.queue = new MpmcArrayQueue<>(capacity);
+            } else {
+                this.queue = new MpscArrayQueue<>(capacity);
+            }
+            this.capacity = capacity;
+            this.strategy = strategy;
+            this.permits = strategy == OverflowStrategy.BLOCK ? new Semaphore(capacity) : null;
+            this.ready = new AtomicReference<>();
+        }
+
+        @Override
+        public int emissionPending() {
+            return queue.size();
+        }
+
+        @Override
+        public void next(T item) {
+            if (isCancelled()) {
+                return;
+            }
+            Semaphore p = permits;
+            if (p != null && !p.tryAcquire()) {
+                if (emitterThread == Thread.currentThread()) {
+                    // nobody can consume until enumerator() returns, blocking here would never end
+                    error(new IllegalStateException("The buffer of " + capacity + " items is full and blocking the thread calling enumerator() would deadlock; emit from another thread"));
+                    return;
+                }
+                try {
+                    p.acquire();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (isCancelled()) {
+                    return;
+                }
+            }
+            Object o = QueueHelper.wrapNull(item);
+            if (queue.size() >= capacity || !queue.offer(o)) {
+                switch (strategy) {
+                    case DROP_OLDEST:
+                        do {
+                            queue.poll();
+                        } while (!queue.offer(o));
+                        break;
+                    case ERROR:
+                        error(new IllegalStateException("The consumer is not keeping up, the buffer of " + capacity + " items is full"));
+                        return;
+                    default:
+                        return;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public CompletionStage<Boolean> whenReady() {
+            for (;;) {
+                if (isCancelled()) {
+                    return FALSE;
+                }
+                if (queue.size() < capacity) {
+                    return TRUE;
+                }
+                CompletableFuture<Boolean> cf = ready.get();
+                if (cf == null) {
+                    cf = new CompletableFuture<>();
+                    if (!ready.compareAndSet(null, cf)) {
+                        continue;
+                    }
+                }
+                if (isCancelled()) {
+                    signalReady(false);
+                } else if (queue.size() < capacity) {
+                    signalReady(true);
+                }
+                return cf;
+            }
+        }
+
+        void signalReady(boolean value) {
+            if (ready.get() != null) {
+                CompletableFuture<Boolean> cf = ready.getAndSet(null);
+                if (cf != null) {
+                    cf.complete(value);
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!isCancelled()) {
+                super.cancel();
+                Semaphore p = permits;
+                if (p != null) {
+                    // wake up all blocked producers, they will see isCancelled() == true
+                    p.release(Integer.MAX_VALUE - capacity);
+                }
+            }
+            signalReady(false);
+        }
+
+        @Override
+        Object poll() {
+            Object v = queue.poll();
+            if (v != null) {
+                Semaphore p = permits;
+                if (p != null) {
+                    p.release();
+                }
+                signalReady(true);
+            }
+            return v;
+        }
+
+        @Override
+        boolean isEmpty() {
+            return queue.isEmpty();
+        }
+    }
 }
@@ -72,13 +72,8 @@ final class AsyncDistinct<T, K, C extends Collection<? super K>> implements Asyn
         }
 
         void nextSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    if (cancelled) {
-                        return;
-                    }
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
+            if (!cancelled) {
+                AsyncEnumeratorHelper.drain(this, source, this);
             }
         }
 
@@ -103,7 +98,16 @@ final class AsyncDistinct<T, K, C extends Collection<? super K>> implements Asyn
 
             if (aBoolean) {
                 T v = source.current();
-                if (set.add(keySelector.apply(v))) {
+                boolean added;
+                try {
+                    added = set.add(keySelector.apply(v));
+                } catch (Throwable ex) {
+                    source.cancel();
+                    set.clear();
+                    completable.completeExceptionally(ex);
+                    return;
+                }
+                if (added) {
                     result = v;
                     completable.complete(true);
                 } else {
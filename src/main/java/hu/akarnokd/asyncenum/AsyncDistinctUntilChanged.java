@@ -74,13 +74,8 @@ final class AsyncDistinctUntilChanged<T, K> implements AsyncEnumerable<T> {
         }
 
         void nextSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    if (cancelled) {
-                        return;
-                    }
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
+            if (!cancelled) {
+                AsyncEnumeratorHelper.drain(this, source, this);
             }
         }
 
@@ -107,9 +102,19 @@ final class AsyncDistinctUntilChanged<T, K> implements AsyncEnumerable<T> {
                 T v = source.current();
                 if (once) {
                     K prevKey = currentKey;
-                    K nextKey = keySelector.apply(v);
+                    K nextKey;
+                    boolean same;
+                    try {
+                        nextKey = keySelector.apply(v);
+                        same = comparer.test(prevKey, nextKey);
+                    } catch (Throwable ex) {
+                        source.cancel();
+                        currentKey = null;
+                        completable.completeExceptionally(ex);
+                        return;
+                    }
 
-                    if (comparer.test(prevKey, nextKey)) {
+                    if (same) {
                         currentKey = nextKey;
                         nextSource();
                     } else {
@@ -119,7 +124,13 @@ final class AsyncDistinctUntilChanged<T, K> implements AsyncEnumerable<T> {
                     }
                 } else {
                     once = true;
-                    currentKey = keySelector.apply(v);
+                    try {
+                        currentKey = keySelector.apply(v);
+                    } catch (Throwable ex) {
+                        source.cancel();
+                        completable.completeExceptionally(ex);
+                        return;
+                    }
                     result = v;
                     completable.complete(true);
                 }
@@ -16,6 +16,8 @@
 
 package hu.akarnokd.asyncenum;
 
+import java.util.concurrent.CompletionStage;
+
 public interface AsyncEmitter<T> extends SyncEmitter<T> {
 
     boolean isCancelled();
@@ -23,4 +25,17 @@ public interface AsyncEmitter<T> extends SyncEmitter<T> {
     int emissionPending();
 
     void setResource(AutoCloseable resource);
+
+    /**
+     * Returns a CompletionStage that completes with {@code true} once the emitter
+     * can accept at least one more item without overflowing its buffer, or with
+     * {@code false} if the consumer has cancelled or the sequence has been terminated.
+     * <p>
+     *     Unbounded emitters are always ready while not cancelled.
+     * </p>
+     * @return the CompletionStage signalling the readiness
+     */
+    default CompletionStage<Boolean> whenReady() {
+        return isCancelled() ? AsyncEnumerable.FALSE : AsyncEnumerable.TRUE;
+    }
 }
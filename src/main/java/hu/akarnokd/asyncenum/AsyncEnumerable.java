@@ -48,64 +48,157 @@ public interface AsyncEnumerable<T> {
     // Static factories
 
     static AsyncEnumerable<Integer> range(int start, int count) {
-        return new AsyncRange(start, count);
+        return AsyncPlugins.onAssembly(new AsyncRange(start, count));
     }
 
     static <T> AsyncEnumerable<T> empty() {
-        return AsyncEmpty.instance();
+        return AsyncPlugins.onAssembly(AsyncEmpty.instance());
     }
 
     @SafeVarargs
     static <T> AsyncEnumerable<T> fromArray(T... array) {
-        return new AsyncFromArray<>(array);
+        return AsyncPlugins.onAssembly(new AsyncFromArray<>(array));
     }
 
     static <T> AsyncEnumerable<T> fromIterable(Iterable<T> iterable) {
-        return new AsyncFromIterable<>(iterable);
+        return AsyncPlugins.onAssembly(new AsyncFromIterable<>(iterable));
     }
 
     @SafeVarargs
     static <T> AsyncEnumerable<T> concatArray(AsyncEnumerable<T>... sources) {
-        return new AsyncConcatArray<>(sources);
+        return AsyncPlugins.onAssembly(new AsyncConcatArray<>(sources));
     }
 
     static AsyncEnumerable<Integer> characters(CharSequence chars) {
-        return new AsyncFromCharSequence(chars);
+        return AsyncPlugins.onAssembly(new AsyncFromCharSequence(chars));
     }
 
     static <T> AsyncEnumerable<T> fromCompletionStage(CompletionStage<T> stage) {
-        return new AsyncFromCompletionStage<>(stage);
+        return AsyncPlugins.onAssembly(new AsyncFromCompletionStage<>(stage));
     }
 
     static AsyncEnumerable<Long> timer(long time, TimeUnit unit, ScheduledExecutorService executor) {
-        return new AsyncTimer(time, unit, executor);
+        return timer(time, unit, TimerService.from(executor));
+    }
+
+    /**
+     * Emits 0L after the given delay, scheduled on the given TimerService.
+     * @param time the delay
+     * @param unit the delay unit
+     * @param timer the TimerService to schedule on
+     * @return the new AsyncEnumerable instance
+     */
+    static AsyncEnumerable<Long> timer(long time, TimeUnit unit, TimerService timer) {
+        return AsyncPlugins.onAssembly(new AsyncTimer(time, unit, Objects.requireNonNull(timer, "timer == null")));
     }
 
     static <T> AsyncEnumerable<T> just(T item) {
-        return new AsyncJust<>(item);
+        return AsyncPlugins.onAssembly(new AsyncJust<>(item));
     }
 
     static <T> AsyncEnumerable<T> fromFlowPublisher(Flow.Publisher<T> source) {
-        return new AsyncFromFlowPublisher<>(source);
+        return AsyncPlugins.onAssembly(new AsyncFromFlowPublisher<>(source));
+    }
+
+    /**
+     * Consumes the Flow.Publisher by requesting items in batches of the given size
+     * and buffering them until the consumer asks for them.
+     * <p>
+     *     The buffer is replenished once 75% of the prefetch amount has been consumed,
+     *     so the Flow.Publisher doesn't have to wait for a request per item.
+     * </p>
+     * @param <T> the value type
+     * @param source the Flow.Publisher to consume
+     * @param prefetch the number of items to request upfront and to buffer at most, positive
+     * @return the new AsyncEnumerable instance
+     */
+    static <T> AsyncEnumerable<T> fromFlowPublisher(Flow.Publisher<T> source, int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return AsyncPlugins.onAssembly(new AsyncFromFlowPublisherPrefetch<>(source, prefetch));
     }
 
     static <T> AsyncEnumerable<T> never() {
-        return AsyncNever.instance();
+        return AsyncPlugins.onAssembly(AsyncNever.instance());
     }
 
     static <T> AsyncEnumerable<T> error(Throwable error) {
-        return new AsyncError<>(error);
+        return AsyncPlugins.onAssembly(new AsyncError<>(error));
     }
 
     static <T> AsyncEnumerable<T> defer(Supplier<? extends AsyncEnumerable<? extends T>> supplier) {
-        return new AsyncDefer<>(supplier);
+        return AsyncPlugins.onAssembly(new AsyncDefer<>(supplier));
+    }
+
+    @SafeVarargs
+    static <T, R> AsyncEnumerable<R> zipArray(
+            Function<? super Object[], ? extends R> zipper, AsyncEnumerable<? extends T>... sources
+    ) {
+        return AsyncPlugins.onAssembly(new AsyncZipArray<>(sources, zipper, false));
     }
 
+    /**
+     * Zips the sources by prefetching up to the given number of items from each of them
+     * into a bounded buffer, letting slow sources progress concurrently.
+     * @param <T> the common value type of the sources
+     * @param <R> the result type
+     * @param zipper the function receiving a fresh array of one item from each source
+     * @param prefetch the number of items to prefetch from each source
+     * @param sources the sources to zip
+     * @return the new AsyncEnumerable instance
+     */
     @SafeVarargs
     static <T, R> AsyncEnumerable<R> zipArray(
+            Function<? super Object[], ? extends R> zipper, int prefetch, AsyncEnumerable<? extends T>... sources
+    ) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return AsyncPlugins.onAssembly(new AsyncZipArrayPrefetch<>(sources, zipper, prefetch, false));
+    }
+
+    /**
+     * Zips the sources in lockstep, handing the same array instance to the zipper for each tuple.
+     * <p>
+     *     The array is overwritten by the next tuple, therefore the zipper should
+     *     not retain it beyond its invocation.
+     * </p>
+     * @param <T> the common value type of the sources
+     * @param <R> the result type
+     * @param zipper the function receiving the reused array of one item from each source
+     * @param sources the sources to zip
+     * @return the new AsyncEnumerable instance
+     */
+    @SafeVarargs
+    static <T, R> AsyncEnumerable<R> zipArrayReusable(
             Function<? super Object[], ? extends R> zipper, AsyncEnumerable<? extends T>... sources
     ) {
-        return new AsyncZipArray<>(sources, zipper);
+        return AsyncPlugins.onAssembly(new AsyncZipArray<>(sources, zipper, true));
+    }
+
+    /**
+     * Zips the sources by prefetching up to the given number of items from each of them,
+     * handing the same array instance to the zipper for each tuple.
+     * <p>
+     *     The array is overwritten by the next tuple, therefore the zipper should
+     *     not retain it beyond its invocation.
+     * </p>
+     * @param <T> the common value type of the sources
+     * @param <R> the result type
+     * @param zipper the function receiving the reused array of one item from each source
+     * @param prefetch the number of items to prefetch from each source
+     * @param sources the sources to zip
+     * @return the new AsyncEnumerable instance
+     */
+    @SafeVarargs
+    static <T, R> AsyncEnumerable<R> zipArrayReusable(
+            Function<? super Object[], ? extends R> zipper, int prefetch, AsyncEnumerable<? extends T>... sources
+    ) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return AsyncPlugins.onAssembly(new AsyncZipArrayPrefetch<>(sources, zipper, prefetch, true));
     }
 
     @SafeVarargs
@@ -118,23 +211,79 @@ public interface AsyncEnumerable<T> {
     }
 
     static AsyncEnumerable<Long> interval(long initialDelay, long period, TimeUnit unit, ScheduledExecutorService executor) {
-        return new AsyncInterval(initialDelay, period, unit, executor);
+        return interval(initialDelay, period, unit, TimerService.from(executor));
+    }
+
+    static AsyncEnumerable<Long> interval(long period, TimeUnit unit, TimerService timer) {
+        return interval(period, period, unit, timer);
+    }
+
+    /**
+     * Emits an ever increasing counter, starting from 0L, after the initial delay and then periodically,
+     * scheduled on the given TimerService.
+     * @param initialDelay the delay before the first item
+     * @param period the time between items
+     * @param unit the time unit
+     * @param timer the TimerService to schedule on
+     * @return the new AsyncEnumerable instance
+     */
+    static AsyncEnumerable<Long> interval(long initialDelay, long period, TimeUnit unit, TimerService timer) {
+        return AsyncPlugins.onAssembly(new AsyncInterval(initialDelay, period, unit, Objects.requireNonNull(timer, "timer == null")));
     }
 
     static <T> AsyncEnumerable<T> fromCallable(Callable<? extends T> callable) {
-        return new AsyncFromCallable<>(callable);
+        return AsyncPlugins.onAssembly(new AsyncFromCallable<>(callable));
     }
 
     static <T> AsyncEnumerable<T> repeatItem(T item) {
-        return new AsyncRepeatItem<>(item);
+        return AsyncPlugins.onAssembly(new AsyncRepeatItem<>(item));
     }
 
     static <T> AsyncEnumerable<T> repeatCallable(Callable<? extends T> callable) {
-        return new AsyncRepeatCallable<>(callable);
+        return AsyncPlugins.onAssembly(new AsyncRepeatCallable<>(callable));
     }
 
     static <T> AsyncEnumerable<T> fromStream(Stream<T> stream) {
-        return new AsyncFromStream<>(stream);
+        return AsyncPlugins.onAssembly(new AsyncFromStream<>(stream));
+    }
+
+    static <T> AsyncEnumerable<T> fromBlocking(Iterator<? extends T> iterator) {
+        return fromBlocking(iterator, BlockingExecutor.executor());
+    }
+
+    /**
+     * Iterates a blocking Iterator, such as a database cursor, by running each
+     * {@code hasNext}/{@code next} call on the given executor.
+     * <p>
+     *     The Iterator is closed when it ends, fails or the enumeration is cancelled if it
+     *     implements {@link AutoCloseable}. Like {@link #fromStream(Stream)}, the returned
+     *     AsyncEnumerable can be enumerated only once. The overload without an executor runs
+     *     on virtual threads on Java 21+ and on cached daemon threads before that.
+     * </p>
+     * @param <T> the value type
+     * @param iterator the Iterator to consume
+     * @param executor the executor to run the blocking calls on
+     * @return the new AsyncEnumerable instance
+     */
+    static <T> AsyncEnumerable<T> fromBlocking(Iterator<? extends T> iterator, Executor executor) {
+        return AsyncPlugins.onAssembly(new AsyncFromBlocking<>(Objects.requireNonNull(iterator, "iterator == null"),
+                Objects.requireNonNull(executor, "executor == null")));
+    }
+
+    static <T> AsyncEnumerable<T> fromBlocking(Callable<? extends T> callable) {
+        return fromBlocking(callable, BlockingExecutor.executor());
+    }
+
+    /**
+     * Runs a blocking Callable on the given executor for each enumeration and emits its result.
+     * @param <T> the value type
+     * @param callable the Callable to run
+     * @param executor the executor to run the Callable on
+     * @return the new AsyncEnumerable instance
+     */
+    static <T> AsyncEnumerable<T> fromBlocking(Callable<? extends T> callable, Executor executor) {
+        return AsyncPlugins.onAssembly(new AsyncFromBlockingCallable<>(Objects.requireNonNull(callable, "callable == null"),
+                Objects.requireNonNull(executor, "executor == null")));
     }
 
     static <T> AsyncEnumerable<T> generate(Consumer<SyncEmitter<T>> generator) {
@@ -147,15 +296,43 @@ public interface AsyncEnumerable<T> {
 
 
     static <T, S> AsyncEnumerable<T> generate(Supplier<S> state, BiFunction<S, SyncEmitter<T>, S> generator, Consumer<? super S> releaseState) {
-        return new AsyncGenerate<>(state, generator, releaseState);
+        return AsyncPlugins.onAssembly(new AsyncGenerate<>(state, generator, releaseState));
     }
 
     static <T, U> AsyncEnumerable<T> using(Supplier<U> resource, Function<? super U, ? extends AsyncEnumerable<T>> handler, Consumer<? super U> releaseResource) {
-        return new AsyncUsing<>(resource, handler, releaseResource);
+        return AsyncPlugins.onAssembly(new AsyncUsing<>(resource, handler, releaseResource));
     }
 
     static <T> AsyncEnumerable<T> create(Consumer<AsyncEmitter<T>> emitter) {
-        return new AsyncCreate<>(emitter);
+        return AsyncPlugins.onAssembly(new AsyncCreate<>(emitter));
+    }
+
+    /**
+     * Creates an AsyncEnumerable whose items are pushed through an {@link AsyncEmitter}
+     * into a buffer holding at most {@code capacity} items.
+     * <p>
+     *     When the buffer is full, {@link AsyncEmitter#next(Object)} applies the given
+     *     {@link OverflowStrategy}; producers can use {@link AsyncEmitter#whenReady()}
+     *     to wait for room without blocking.
+     * </p>
+     * <p>
+     *     The emitter callback is invoked from within {@link #enumerator()}, before the
+     *     consumer could take any items. With {@link OverflowStrategy#BLOCK}, producers
+     *     emitting more than {@code capacity} items should run on another thread; emitting
+     *     them synchronously from the callback fails the sequence with an
+     *     {@code IllegalStateException}.
+     * </p>
+     * @param emitter the callback receiving the AsyncEmitter for each enumerator
+     * @param capacity the maximum number of buffered items, positive
+     * @param strategy the action to take when the buffer is full
+     * @param <T> the element type
+     * @return the new AsyncEnumerable instance
+     */
+    static <T> AsyncEnumerable<T> create(Consumer<AsyncEmitter<T>> emitter, int capacity, OverflowStrategy strategy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity > 0 required but it was " + capacity);
+        }
+        return AsyncPlugins.onAssembly(new AsyncCreate<>(emitter, capacity, Objects.requireNonNull(strategy, "strategy == null")));
     }
 
     // -------------------------------------------------------------------------------------
@@ -163,63 +340,260 @@ public interface AsyncEnumerable<T> {
 
     default <R> AsyncEnumerable<R> flatMap(
             Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper) {
-        return new AsyncFlatMap<>(this, mapper);
+        return flatMap(mapper, Integer.MAX_VALUE, 1);
+    }
+
+    default <R> AsyncEnumerable<R> flatMap(
+            Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper, int maxConcurrency) {
+        return flatMap(mapper, maxConcurrency, 1);
+    }
+
+    /**
+     * Maps the upstream items into inner AsyncEnumerables and merges their items,
+     * running at most the given number of inner enumerators at once.
+     * <p>
+     *     The next upstream item is only requested when an inner enumerator
+     *     completes and frees up a slot.
+     * </p>
+     * @param <R> the result value type
+     * @param mapper the function receiving the upstream item and returning an AsyncEnumerable to merge
+     * @param maxConcurrency the maximum number of active inner enumerators, positive
+     * @param prefetch the number of items to fetch ahead from each inner enumerator, positive
+     * @return the new AsyncEnumerable instance
+     */
+    default <R> AsyncEnumerable<R> flatMap(
+            Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper, int maxConcurrency, int prefetch) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency > 0 required but it was " + maxConcurrency);
+        }
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return AsyncPlugins.onAssembly(new AsyncFlatMap<>(this, mapper, maxConcurrency, prefetch));
+    }
+
+    /**
+     * Maps the upstream items onto CompletionStages, keeping at most the given number of them
+     * in flight, and relays their results in upstream order or in the order they complete.
+     * <p>
+     *     Stages completing with {@code null} don't produce an item. The next upstream item
+     *     is requested once a result has been relayed and frees up a slot.
+     * </p>
+     * @param <R> the result value type
+     * @param mapper the function receiving the upstream item and returning a CompletionStage
+     * @param parallelism the maximum number of CompletionStages in flight, positive
+     * @param ordered if true, the results are relayed in upstream order, otherwise in completion order
+     * @return the new AsyncEnumerable instance
+     */
+    default <R> AsyncEnumerable<R> mapAsync(
+            Function<? super T, ? extends CompletionStage<? extends R>> mapper, int parallelism, boolean ordered) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism > 0 required but it was " + parallelism);
+        }
+        return AsyncPlugins.onAssembly(new AsyncMapAsync<>(this, mapper, parallelism, ordered));
+    }
+
+    default ParallelAsyncEnumerable<T> parallel(int parallelism) {
+        return parallel(parallelism, ParallelFromSource.DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Splits this sequence into the given number of rails by dispatching the items
+     * round-robin, skipping rails whose buffer is full.
+     * <p>
+     *     The rails run on the threads that consume them; use
+     *     {@link ParallelAsyncEnumerable#runOn(Executor)} or {@link #parallel(int, Executor)}
+     *     to run them concurrently.
+     * </p>
+     * @param parallelism the number of rails, positive
+     * @param prefetch the number of items to buffer per rail, positive
+     * @return the new ParallelAsyncEnumerable instance
+     */
+    default ParallelAsyncEnumerable<T> parallel(int parallelism, int prefetch) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism > 0 required but it was " + parallelism);
+        }
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return new ParallelFromSource<>(this, parallelism, prefetch);
+    }
+
+    default ParallelAsyncEnumerable<T> parallel(int parallelism, Executor executor) {
+        return parallel(parallelism).runOn(executor);
     }
 
     default AsyncEnumerable<T> take(long n) {
-        return new AsyncTake<>(this, n);
+        return AsyncPlugins.onAssembly(new AsyncTake<>(this, n));
     }
 
     default AsyncEnumerable<T> skip(long n) {
-        return new AsyncSkip<>(this, n);
+        return AsyncPlugins.onAssembly(new AsyncSkip<>(this, n));
     }
 
     default <R> AsyncEnumerable<R> map(Function<? super T, ? extends R> mapper) {
-        return new AsyncMap<>(this, mapper);
+        return AsyncPlugins.onAssembly(new AsyncMap<>(this, mapper));
     }
 
     default AsyncEnumerable<T> filter(Predicate<? super T> predicate) {
-        return new AsyncFilter<>(this, predicate);
+        return AsyncPlugins.onAssembly(new AsyncFilter<>(this, predicate));
+    }
+
+    /**
+     * Maps the items to primitive {@code int}s and continues with the unboxed operators
+     * of {@link IntAsyncEnumerable}.
+     * @param mapper the function receiving the upstream item and returning an int
+     * @return the new IntAsyncEnumerable instance
+     */
+    default IntAsyncEnumerable mapToInt(ToIntFunction<? super T> mapper) {
+        return new AsyncMapToInt<>(this, mapper);
+    }
+
+    /**
+     * Maps the items to primitive {@code long}s and continues with the unboxed operators
+     * of {@link LongAsyncEnumerable}.
+     * @param mapper the function receiving the upstream item and returning a long
+     * @return the new LongAsyncEnumerable instance
+     */
+    default LongAsyncEnumerable mapToLong(ToLongFunction<? super T> mapper) {
+        return new AsyncMapToLong<>(this, mapper);
     }
 
     default <C> AsyncEnumerable<C> collect(Supplier<C> collection, BiConsumer<C, T> collector) {
-        return new AsyncCollect<>(this, collection, collector);
+        return AsyncPlugins.onAssembly(new AsyncCollect<>(this, collection, collector));
     }
 
     default AsyncEnumerable<Long> sumLong(Function<? super T, ? extends Number> selector) {
-        return new AsyncSumLong<>(this, selector);
+        return AsyncPlugins.onAssembly(new AsyncSumLong<>(this, selector));
     }
 
     default AsyncEnumerable<Integer> sumInt(Function<? super T, ? extends Number> selector) {
-        return new AsyncSumInt<>(this, selector);
+        return AsyncPlugins.onAssembly(new AsyncSumInt<>(this, selector));
     }
 
     default AsyncEnumerable<T> min(Comparator<? super T> comparator) {
-        return new AsyncMax<>(this, comparator.reversed());
+        return AsyncPlugins.onAssembly(new AsyncMax<>(this, comparator.reversed()));
     }
 
     default AsyncEnumerable<T> max(Comparator<? super T> comparator) {
-        return new AsyncMax<>(this, comparator);
+        return AsyncPlugins.onAssembly(new AsyncMax<>(this, comparator));
     }
 
     default AsyncEnumerable<List<T>> toList() {
         return collect(ArrayList::new, List::add);
     }
 
+    /**
+     * Collects consecutive items into lists of the given size, the last list may be shorter.
+     * @param size the number of items per list, positive
+     * @return the new AsyncEnumerable instance
+     */
+    default AsyncEnumerable<List<T>> buffer(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size > 0 required but it was " + size);
+        }
+        return AsyncPlugins.onAssembly(new AsyncBuffer<>(this, size));
+    }
+
+    default AsyncEnumerable<List<T>> buffer(int size, long time, TimeUnit unit, ScheduledExecutorService executor) {
+        return buffer(size, time, unit, TimerService.from(executor));
+    }
+
+    /**
+     * Collects consecutive items into lists that are emitted when they reach the given size
+     * or when the given time has elapsed since their first item, whichever happens first.
+     * <p>
+     *     Only non-empty lists are emitted. An upstream error drops the items collected so far.
+     * </p>
+     * @param size the maximum number of items per list, positive
+     * @param time the maximum time to wait after the first item of a list
+     * @param unit the time unit
+     * @param timer the TimerService to schedule the time limit on
+     * @return the new AsyncEnumerable instance
+     */
+    default AsyncEnumerable<List<T>> buffer(int size, long time, TimeUnit unit, TimerService timer) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size > 0 required but it was " + size);
+        }
+        return AsyncPlugins.onAssembly(new AsyncBufferTimed<>(this, size, time, unit, Objects.requireNonNull(timer, "timer == null")));
+    }
+
+    /**
+     * Splits the sequence into consecutive windows of at most the given size, each an
+     * AsyncEnumerable that reads the upstream directly without buffering.
+     * <p>
+     *     Each window can be enumerated once and has to be consumed or cancelled before the
+     *     next window is produced; the items a cancelled window didn't consume start the next window.
+     * </p>
+     * @param size the maximum number of items per window, positive
+     * @return the new AsyncEnumerable instance
+     */
+    default AsyncEnumerable<AsyncEnumerable<T>> window(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size > 0 required but it was " + size);
+        }
+        return AsyncPlugins.onAssembly(new AsyncWindow<>(this, size));
+    }
+
     default AsyncEnumerable<T> subscribeOn(Executor executor) {
-        return new AsyncSubscribeOn<>(this, executor);
+        return AsyncPlugins.onAssembly(new AsyncSubscribeOn<>(this, executor));
     }
 
     default AsyncEnumerable<T> observeOn(Executor executor) {
-        return new AsyncObserveOn<>(this, executor);
+        return AsyncPlugins.onAssembly(new AsyncObserveOn<>(this, executor));
+    }
+
+    /**
+     * Prefetches up to the given number of items from this AsyncEnumerable and
+     * signals them on the given executor.
+     * <p>
+     *     While the consumer keeps calling {@code moveNext()} from within the
+     *     executor and buffered items are available, they are served synchronously;
+     *     a new task is only submitted to the executor when the buffer runs dry.
+     *     The upstream is replenished in batches of 75% of the prefetch amount.
+     * </p>
+     * @param executor the executor to signal the items on
+     * @param prefetch the maximum number of items to buffer, positive
+     * @return the new AsyncEnumerable instance
+     */
+    default AsyncEnumerable<T> observeOn(Executor executor, int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return AsyncPlugins.onAssembly(new AsyncObserveOnPrefetch<>(this, executor, prefetch));
     }
 
     default <U> AsyncEnumerable<T> takeUntil(AsyncEnumerable<U> other) {
-        return new AsyncTakeUntil<>(this, other);
+        return AsyncPlugins.onAssembly(new AsyncTakeUntil<>(this, other));
     }
 
     default <R> AsyncEnumerable<R> concatMap(Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper) {
-        return new AsyncConcatMap<>(this, mapper);
+        return AsyncPlugins.onAssembly(new AsyncConcatMap<>(this, mapper));
+    }
+
+    /**
+     * Maps the upstream items into inner AsyncEnumerables, runs at most the given number
+     * of them at once and relays their items in the order of the upstream items.
+     * <p>
+     *     Items of the inner enumerators that are not yet relayed are buffered, up to
+     *     the given prefetch amount each. The next upstream item is only requested
+     *     once an inner enumerator has been fully relayed and frees up a slot.
+     * </p>
+     * @param <R> the result value type
+     * @param mapper the function receiving the upstream item and returning an AsyncEnumerable to concatenate
+     * @param maxConcurrency the maximum number of active inner enumerators, positive
+     * @param prefetch the number of items to fetch ahead from each inner enumerator, positive
+     * @return the new AsyncEnumerable instance
+     */
+    default <R> AsyncEnumerable<R> concatMapEager(
+            Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper, int maxConcurrency, int prefetch) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency > 0 required but it was " + maxConcurrency);
+        }
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return AsyncPlugins.onAssembly(new AsyncConcatMapEager<>(this, mapper, maxConcurrency, prefetch));
     }
 
     default Flow.Publisher<T> toFlowPublisher() {
@@ -227,16 +601,36 @@ public interface AsyncEnumerable<T> {
     }
 
     default AsyncEnumerable<T> timeout(long timeout, TimeUnit unit, ScheduledExecutorService executor) {
-        return new AsyncTimeoutTimed<>(this, timeout, unit, executor, null);
+        return timeout(timeout, unit, TimerService.from(executor));
     }
 
     default AsyncEnumerable<T> timeout(long timeout, TimeUnit unit, ScheduledExecutorService executor, AsyncEnumerable<T> fallback) {
-        return new AsyncTimeoutTimed<>(this, timeout, unit, executor,
-                Objects.requireNonNull(fallback, "fallback == null"));
+        return timeout(timeout, unit, TimerService.from(executor), fallback);
+    }
+
+    /**
+     * Fails with a {@link TimeoutException} if the next item doesn't arrive within the given time
+     * after each {@code moveNext} call.
+     * <p>
+     *     The timeout is rescheduled for every item, so prefer {@link TimerService#hashedWheel(long, TimeUnit, int)}
+     *     when many enumerators run timeouts at once.
+     * </p>
+     * @param timeout the time to wait for each item
+     * @param unit the time unit
+     * @param timer the TimerService to schedule the timeouts on
+     * @return the new AsyncEnumerable instance
+     */
+    default AsyncEnumerable<T> timeout(long timeout, TimeUnit unit, TimerService timer) {
+        return AsyncPlugins.onAssembly(new AsyncTimeoutTimed<>(this, timeout, unit, Objects.requireNonNull(timer, "timer == null"), null));
+    }
+
+    default AsyncEnumerable<T> timeout(long timeout, TimeUnit unit, TimerService timer, AsyncEnumerable<T> fallback) {
+        return AsyncPlugins.onAssembly(new AsyncTimeoutTimed<>(this, timeout, unit, Objects.requireNonNull(timer, "timer == null"),
+                Objects.requireNonNull(fallback, "fallback == null")));
     }
 
     default AsyncEnumerable<T> onErrorResume(Function<? super Throwable, ? extends AsyncEnumerable<? extends T>> resumeMapper) {
-        return new AsyncOnErrorResume<>(this, resumeMapper);
+        return AsyncPlugins.onAssembly(new AsyncOnErrorResume<>(this, resumeMapper));
     }
 
     default <R> R to(Function<? super AsyncEnumerable<T>, R> converter) {
@@ -257,7 +651,7 @@ public interface AsyncEnumerable<T> {
 
     @SuppressWarnings("unchecked")
     default <U, R> AsyncEnumerable<R> zipWith(AsyncEnumerable<U> other, BiFunction<? super T, ? super U, ? extends R> zipper) {
-        return zipArray(a -> zipper.apply((T)a[0], (U)a[1]), this, other);
+        return zipArrayReusable(a -> zipper.apply((T)a[0], (U)a[1]), this, other);
     }
 
     default AsyncEnumerable<T> mergeWith(AsyncEnumerable<T> other) {
@@ -265,27 +659,48 @@ public interface AsyncEnumerable<T> {
     }
 
     default AsyncEnumerable<T> doOnNext(Consumer<? super T> onNext) {
-        return new AsyncDoOn<>(this, onNext, t -> { }, () -> { });
+        return AsyncPlugins.onAssembly(new AsyncDoOn<>(this, onNext, t -> { }, () -> { }));
     }
 
     default AsyncEnumerable<T> doOnError(Consumer<? super Throwable> onError) {
-        return new AsyncDoOn<>(this, t -> { }, onError, () -> { });
+        return AsyncPlugins.onAssembly(new AsyncDoOn<>(this, t -> { }, onError, () -> { }));
     }
 
     default AsyncEnumerable<T> doOnComplete(Runnable onComplete) {
-        return new AsyncDoOn<>(this, t -> { }, t -> { }, onComplete);
+        return AsyncPlugins.onAssembly(new AsyncDoOn<>(this, t -> { }, t -> { }, onComplete));
     }
 
     default AsyncEnumerable<T> doFinally(Runnable onFinally) {
-        return new AsyncDoFinally<>(this, onFinally);
+        return AsyncPlugins.onAssembly(new AsyncDoFinally<>(this, onFinally));
     }
 
     default AsyncEnumerable<T> ignoreElements() {
-        return new AsyncIgnoreElements<>(this);
+        return AsyncPlugins.onAssembly(new AsyncIgnoreElements<>(this));
     }
 
     default AsyncEnumerable<T> doOnCancel(Runnable onCancel) {
-        return new AsyncDoOnCancel<>(this, onCancel);
+        return AsyncPlugins.onAssembly(new AsyncDoOnCancel<>(this, onCancel));
+    }
+
+    /**
+     * Reports the latency of each moveNext() call until its stage completes, along with
+     * the items, the termination and the cancellation of this AsyncEnumerable, to the given
+     * sink under the given name.
+     * <p>
+     *     If this is a buffering operator (flatMap, create, groupBy, publish, cache), the size
+     *     of its buffer is reported after each item. Instrumenting with {@link MetricsSink#noop()}
+     *     returns this AsyncEnumerable as is.
+     * </p>
+     * @param name the name to report the measurements under, not null
+     * @param sink the MetricsSink receiving the measurements, not null
+     * @return the new AsyncEnumerable instance
+     */
+    default AsyncEnumerable<T> instrument(String name, MetricsSink sink) {
+        Objects.requireNonNull(name, "name == null");
+        if (Objects.requireNonNull(sink, "sink == null") == MetricsSink.noop()) {
+            return this;
+        }
+        return AsyncPlugins.onAssembly(new AsyncInstrument<>(this, name, sink));
     }
 
     default AsyncEnumerable<T> repeat(long times) {
@@ -297,7 +712,7 @@ public interface AsyncEnumerable<T> {
     }
 
     default AsyncEnumerable<T> repeat(long times, BooleanSupplier stop) {
-        return new AsyncRepeat<>(this, times, stop);
+        return AsyncPlugins.onAssembly(new AsyncRepeat<>(this, times, stop));
     }
 
     default AsyncEnumerable<T> retry(long times) {
@@ -309,7 +724,7 @@ public interface AsyncEnumerable<T> {
     }
 
     default AsyncEnumerable<T> retry(long times, Predicate<? super Throwable> predicate) {
-        return new AsyncRetry<>(this, times, predicate);
+        return AsyncPlugins.onAssembly(new AsyncRetry<>(this, times, predicate));
     }
 
     default AsyncEnumerable<T> repeatWhen(Supplier<? extends CompletionStage<Boolean>> completer) {
@@ -317,7 +732,7 @@ public interface AsyncEnumerable<T> {
     }
 
     default <S> AsyncEnumerable<T> repeatWhen(Supplier<S> stateSupplier, Function<? super S, ? extends CompletionStage<Boolean>> completer) {
-        return new AsyncRepeatWhen<>(this, stateSupplier, completer);
+        return AsyncPlugins.onAssembly(new AsyncRepeatWhen<>(this, stateSupplier, completer));
     }
 
     default <S> AsyncEnumerable<T> retryWhen(Function<? super Throwable, ? extends CompletionStage<Boolean>> completer) {
@@ -325,7 +740,7 @@ public interface AsyncEnumerable<T> {
     }
 
     default <S> AsyncEnumerable<T> retryWhen(Supplier<S> stateSupplier, BiFunction<? super S, ? super Throwable, ? extends CompletionStage<Boolean>> completer) {
-        return new AsyncRetryWhen<>(this, stateSupplier, completer);
+        return AsyncPlugins.onAssembly(new AsyncRetryWhen<>(this, stateSupplier, completer));
     }
 
     default <K> AsyncEnumerable<GroupedAsyncEnumerable<T, K>> groupBy(Function<? super T, ? extends K> keySelector) {
@@ -333,27 +748,169 @@ public interface AsyncEnumerable<T> {
     }
 
     default <K, V> AsyncEnumerable<GroupedAsyncEnumerable<V, K>> groupBy(Function<? super T, ? extends K> keySelector, Function<? super T, ? extends V> valueSelector) {
-        return new AsyncGroupBy<>(this, keySelector, valueSelector);
+        return groupBy(keySelector, valueSelector, AsyncGroupBy.DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Groups the upstream items by a key, buffering up to the given number of items per group.
+     * <p>
+     *     The upstream is pulled while none of the group buffers is full and the
+     *     main consumer has asked for the group after the latest new one, so a slow group only stalls
+     *     the others once it has {@code prefetch} items waiting.
+     * </p>
+     * @param <K> the key type
+     * @param <V> the value type
+     * @param keySelector the function returning the group key for an upstream item
+     * @param valueSelector the function returning the value to put into the group
+     * @param prefetch the maximum number of items buffered per group, positive
+     * @return the new AsyncEnumerable instance
+     */
+    default <K, V> AsyncEnumerable<GroupedAsyncEnumerable<V, K>> groupBy(Function<? super T, ? extends K> keySelector, Function<? super T, ? extends V> valueSelector, int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return AsyncPlugins.onAssembly(new AsyncGroupBy<>(this, keySelector, valueSelector, prefetch, Integer.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS, null));
+    }
+
+    default <K, V> AsyncEnumerable<GroupedAsyncEnumerable<V, K>> groupBy(Function<? super T, ? extends K> keySelector, Function<? super T, ? extends V> valueSelector,
+                                                                         int maxGroups, long idleTimeout, TimeUnit unit, ScheduledExecutorService executor) {
+        return groupBy(keySelector, valueSelector, maxGroups, idleTimeout, unit, TimerService.from(executor));
+    }
+
+    /**
+     * Groups the upstream items by a key and completes the groups that haven't received
+     * an item for the given time or that fall off of the least-recently-used list
+     * of at most {@code maxGroups} groups.
+     * <p>
+     *     A completed group still relays its buffered items. A later item with the same key
+     *     starts a new group, so the number of tracked keys stays bounded on endless sources.
+     * </p>
+     * @param <K> the key type
+     * @param <V> the value type
+     * @param keySelector the function returning the group key for an upstream item
+     * @param valueSelector the function returning the value to put into the group
+     * @param maxGroups the maximum number of open groups, positive
+     * @param idleTimeout the time after the last item of a group when it gets completed, positive
+     * @param unit the time unit
+     * @param timer the TimerService to schedule the idle checks on
+     * @return the new AsyncEnumerable instance
+     */
+    default <K, V> AsyncEnumerable<GroupedAsyncEnumerable<V, K>> groupBy(Function<? super T, ? extends K> keySelector, Function<? super T, ? extends V> valueSelector,
+                                                                         int maxGroups, long idleTimeout, TimeUnit unit, TimerService timer) {
+        if (maxGroups <= 0) {
+            throw new IllegalArgumentException("maxGroups > 0 required but it was " + maxGroups);
+        }
+        if (idleTimeout <= 0) {
+            throw new IllegalArgumentException("idleTimeout > 0 required but it was " + idleTimeout);
+        }
+        return AsyncPlugins.onAssembly(new AsyncGroupBy<>(this, keySelector, valueSelector, AsyncGroupBy.DEFAULT_PREFETCH,
+                maxGroups, idleTimeout, unit, Objects.requireNonNull(timer, "timer == null")));
     }
 
     default AsyncEnumerable<T> skipWhile(Predicate<? super T> predicate) {
-        return new AsyncSkipWhile<>(this, predicate);
+        return AsyncPlugins.onAssembly(new AsyncSkipWhile<>(this, predicate));
     }
 
     default AsyncEnumerable<T> takeWhile(Predicate<? super T> predicate) {
-        return new AsyncTakeWhile<>(this, predicate);
+        return AsyncPlugins.onAssembly(new AsyncTakeWhile<>(this, predicate));
     }
 
     default AsyncEnumerable<T> takeUntil(Predicate<? super T> stopPredicate) {
-        return new AsyncTakeUntilPredicate<>(this, stopPredicate);
+        return AsyncPlugins.onAssembly(new AsyncTakeUntilPredicate<>(this, stopPredicate));
     }
 
     default <A, R> AsyncEnumerable<R> collect(Collector<T, A, R> collector) {
-        return new AsyncCollectWith<>(this, collector);
+        return AsyncPlugins.onAssembly(new AsyncCollectWith<>(this, collector));
     }
 
     default AsyncEnumerable<T> cache() {
-        return new AsyncCache<>(this);
+        return AsyncPlugins.onAssembly(new AsyncCache<>(this));
+    }
+
+    /**
+     * Connects to this AsyncEnumerable on the first enumeration and replays at most
+     * the given number of latest items to current and late enumerators.
+     * @param maxItems the maximum number of items to retain, positive
+     * @return the new AsyncEnumerable instance
+     */
+    default AsyncEnumerable<T> cache(int maxItems) {
+        return cache(maxItems, Long.MAX_VALUE, TimeUnit.NANOSECONDS, null);
+    }
+
+    /**
+     * Connects to this AsyncEnumerable on the first enumeration and replays the items
+     * not older than the given age to current and late enumerators.
+     * @param maxAge the maximum age of the retained items
+     * @param unit the unit of the age
+     * @param clock the TimerService providing the current time
+     * @return the new AsyncEnumerable instance
+     */
+    default AsyncEnumerable<T> cache(long maxAge, TimeUnit unit, TimerService clock) {
+        Objects.requireNonNull(clock, "clock == null");
+        return cache(Integer.MAX_VALUE, maxAge, unit, clock);
+    }
+
+    /**
+     * Connects to this AsyncEnumerable on the first enumeration and replays at most
+     * the given number of latest items, not older than the given age, to current
+     * and late enumerators.
+     * <p>
+     *     The items are stored in linked, fixed-size chunks that are released as
+     *     the oldest items get evicted.
+     * </p>
+     * @param maxItems the maximum number of items to retain, positive
+     * @param maxAge the maximum age of the retained items
+     * @param unit the unit of the age
+     * @param clock the TimerService providing the current time, null if the items don't expire
+     * @return the new AsyncEnumerable instance
+     */
+    default AsyncEnumerable<T> cache(int maxItems, long maxAge, TimeUnit unit, TimerService clock) {
+        if (maxItems <= 0) {
+            throw new IllegalArgumentException("maxItems > 0 required but it was " + maxItems);
+        }
+        return AsyncPlugins.onAssembly(new AsyncCache<>(this, maxItems, maxAge, unit, clock));
+    }
+
+    /**
+     * Shares this AsyncEnumerable among the enumerators created inside the handler,
+     * replaying all items to enumerators that start late.
+     * @param <R> the result value type
+     * @param handler the function receiving the shared AsyncEnumerable and returning the output
+     * @return the new AsyncEnumerable instance
+     */
+    default <R> AsyncEnumerable<R> replay(Function<? super AsyncEnumerable<T>, ? extends AsyncEnumerable<R>> handler) {
+        return AsyncPlugins.onAssembly(new AsyncReplay<>(this, handler, Long.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS, null));
+    }
+
+    /**
+     * Shares this AsyncEnumerable among the enumerators created inside the handler,
+     * replaying at most the given number of latest items to enumerators that start late.
+     * @param <R> the result value type
+     * @param handler the function receiving the shared AsyncEnumerable and returning the output
+     * @param maxItems the maximum number of items to retain, positive
+     * @return the new AsyncEnumerable instance
+     */
+    default <R> AsyncEnumerable<R> replay(Function<? super AsyncEnumerable<T>, ? extends AsyncEnumerable<R>> handler, int maxItems) {
+        if (maxItems <= 0) {
+            throw new IllegalArgumentException("maxItems > 0 required but it was " + maxItems);
+        }
+        return AsyncPlugins.onAssembly(new AsyncReplay<>(this, handler, maxItems, Long.MAX_VALUE, TimeUnit.NANOSECONDS, null));
+    }
+
+    /**
+     * Shares this AsyncEnumerable among the enumerators created inside the handler,
+     * replaying the items not older than the given age to enumerators that start late.
+     * @param <R> the result value type
+     * @param handler the function receiving the shared AsyncEnumerable and returning the output
+     * @param maxAge the maximum age of the retained items
+     * @param unit the unit of the age
+     * @param clock the TimerService providing the current time
+     * @return the new AsyncEnumerable instance
+     */
+    default <R> AsyncEnumerable<R> replay(Function<? super AsyncEnumerable<T>, ? extends AsyncEnumerable<R>> handler,
+                                          long maxAge, TimeUnit unit, TimerService clock) {
+        Objects.requireNonNull(clock, "clock == null");
+        return AsyncPlugins.onAssembly(new AsyncReplay<>(this, handler, Long.MAX_VALUE, maxAge, unit, clock));
     }
 
     default AsyncEnumerable<T> distinct() {
@@ -365,7 +922,49 @@ public interface AsyncEnumerable<T> {
     }
 
     default <K> AsyncEnumerable<T> distinct(Function<? super T, ? extends K> keySelector, Supplier<? extends Collection<? super K>> setSupplier) {
-        return new AsyncDistinct<>(this, keySelector, setSupplier);
+        return AsyncPlugins.onAssembly(new AsyncDistinct<>(this, keySelector, setSupplier));
+    }
+
+    /**
+     * Relays items whose key hasn't been seen among the last {@code maxKeys} distinct keys.
+     * <p>
+     *     A repeated key counts as recently seen again, so keys recurring more often
+     *     than every {@code maxKeys} distinct keys are filtered indefinitely.
+     * </p>
+     * @param <K> the key type
+     * @param keySelector the function returning the key for an upstream item
+     * @param maxKeys the maximum number of keys remembered, positive
+     * @return the new AsyncEnumerable instance
+     */
+    default <K> AsyncEnumerable<T> distinct(Function<? super T, ? extends K> keySelector, int maxKeys) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys > 0 required but it was " + maxKeys);
+        }
+        return distinct(keySelector, () -> new LruKeySet<K>(maxKeys));
+    }
+
+    /**
+     * Relays items whose key probably hasn't been seen before, remembering the keys
+     * in a Bloom filter of fixed size.
+     * <p>
+     *     No duplicates are relayed but, after {@code expectedItems} distinct keys,
+     *     a new key is dropped with about the given probability. The filter takes roughly
+     *     {@code -expectedItems * ln(fpp) / ln(2)^2} bits, about 1.2 bytes per item at 1%.
+     * </p>
+     * @param <K> the key type
+     * @param keySelector the function returning the key for an upstream item
+     * @param expectedItems the number of distinct keys the filter is sized for, positive
+     * @param fpp the false positive probability at {@code expectedItems} keys, between 0 and 1 exclusive
+     * @return the new AsyncEnumerable instance
+     */
+    default <K> AsyncEnumerable<T> distinctApprox(Function<? super T, ? extends K> keySelector, long expectedItems, double fpp) {
+        if (expectedItems <= 0) {
+            throw new IllegalArgumentException("expectedItems > 0 required but it was " + expectedItems);
+        }
+        if (!(fpp > 0d && fpp < 1d)) {
+            throw new IllegalArgumentException("0 < fpp < 1 required but it was " + fpp);
+        }
+        return distinct(keySelector, () -> new BloomFilterSet<K>(expectedItems, fpp));
     }
 
     default AsyncEnumerable<T> distinctUntilChanged() {
@@ -377,45 +976,65 @@ public interface AsyncEnumerable<T> {
     }
 
     default <K> AsyncEnumerable<T> distinctUntilChanged(Function<? super T, ? extends K> keySelector, BiPredicate<? super K, ? super K> comparer) {
-        return new AsyncDistinctUntilChanged<>(this, keySelector, comparer);
+        return AsyncPlugins.onAssembly(new AsyncDistinctUntilChanged<>(this, keySelector, comparer));
     }
 
     default AsyncEnumerable<T> reduce(BiFunction<T, T, T> reducer) {
-        return new AsyncReduce<>(this, reducer);
+        return AsyncPlugins.onAssembly(new AsyncReduce<>(this, reducer));
     }
 
     default <R> AsyncEnumerable<R> reduce(Supplier<R> initial, BiFunction<R, T, R> reducer) {
-        return new AsyncReduceWith<>(this, initial, reducer);
+        return AsyncPlugins.onAssembly(new AsyncReduceWith<>(this, initial, reducer));
     }
 
     default AsyncEnumerable<T> skipLast(int n) {
         if (n <= 0) {
             return this;
         }
-        return new AsyncSkipLast<>(this, n);
+        return AsyncPlugins.onAssembly(new AsyncSkipLast<>(this, n));
     }
 
     default AsyncEnumerable<T> takeLast(int n) {
         if (n <= 0) {
             return ignoreElements();
         }
-        return new AsyncTakeLast<>(this, n);
+        return AsyncPlugins.onAssembly(new AsyncTakeLast<>(this, n));
     }
 
     default <R> AsyncEnumerable<R> publish(Function<? super AsyncEnumerable<T>, ? extends AsyncEnumerable<R>> handler) {
-        return new AsyncPublish<>(this, handler);
+        return AsyncPlugins.onAssembly(new AsyncPublish<>(this, handler));
+    }
+
+    /**
+     * Shares this AsyncEnumerable among the enumerators created inside the handler
+     * through a ring buffer, allowing each of them to lag behind by up to the given
+     * number of items instead of moving in lockstep with the slowest one.
+     * <p>
+     *     Enumerators created after the source has started only receive the items
+     *     produced after they joined.
+     * </p>
+     * @param <R> the result value type
+     * @param handler the function receiving the shared AsyncEnumerable and returning the output
+     * @param prefetch the maximum number of items an enumerator can lag behind, positive
+     * @return the new AsyncEnumerable instance
+     */
+    default <R> AsyncEnumerable<R> publish(Function<? super AsyncEnumerable<T>, ? extends AsyncEnumerable<R>> handler, int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return AsyncPlugins.onAssembly(new AsyncPublishPrefetch<>(this, handler, prefetch));
     }
 
     default AsyncEnumerable<T> switchIfEmpty(AsyncEnumerable<T> fallback) {
-        return new AsyncSwitchIfEmpty<>(this, fallback);
+        return AsyncPlugins.onAssembly(new AsyncSwitchIfEmpty<>(this, fallback));
     }
 
     default AsyncEnumerable<T> first() {
-        return new AsyncFirst<>(this);
+        return AsyncPlugins.onAssembly(new AsyncFirst<>(this));
     }
 
     default AsyncEnumerable<T> last() {
-        return new AsyncLast<>(this);
+        return AsyncPlugins.onAssembly(new AsyncLast<>(this));
     }
 
     // -------------------------------------------------------------------------------------
@@ -425,6 +1044,26 @@ public interface AsyncEnumerable<T> {
         return AsyncForEach.forEach(enumerator(), consumer);
     }
 
+    default CompletionStage<Boolean> forEachBlocking(Consumer<? super T> consumer) {
+        return forEachBlocking(consumer, BlockingExecutor.executor());
+    }
+
+    /**
+     * Consumes this AsyncEnumerable on the given executor, waiting for each item there,
+     * so that the consumer may block, for example, on I/O.
+     * <p>
+     *     The overload without an executor runs on a virtual thread on Java 21+ and on
+     *     a cached daemon thread before that.
+     * </p>
+     * @param consumer the consumer receiving the items
+     * @param executor the executor to run the consumption on
+     * @return the stage completed with true when all items have been consumed
+     */
+    default CompletionStage<Boolean> forEachBlocking(Consumer<? super T> consumer, Executor executor) {
+        return AsyncForEachBlocking.forEachBlocking(enumerator(), consumer,
+                Objects.requireNonNull(executor, "executor == null"));
+    }
+
     default T blockingFirst() {
         return AsyncBlockingFirst.blockingFirst(enumerator());
     }
@@ -444,6 +1083,45 @@ public interface AsyncEnumerable<T> {
         return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, 0), false).onClose((Runnable)it);
     }
 
+    default Iterable<T> blockingIterable(int prefetch) {
+        return blockingIterable(prefetch, WaitStrategy.SPIN_YIELD_PARK);
+    }
+
+    /**
+     * Returns an Iterable whose iterators keep up to the given number of items buffered
+     * from this AsyncEnumerable in the background and block the consumer only when the
+     * buffer is empty.
+     * <p>
+     *     Each iterator starts prefetching when it is created; the WaitStrategy determines how
+     *     {@code hasNext} waits for the producer.
+     * </p>
+     * @param prefetch the number of items to buffer at most, positive
+     * @param strategy how to wait for the next item
+     * @return the new Iterable instance
+     */
+    default Iterable<T> blockingIterable(int prefetch, WaitStrategy strategy) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return new AsyncBlockingIterablePrefetch<>(this, prefetch, Objects.requireNonNull(strategy, "strategy == null"));
+    }
+
+    default Stream<T> blockingStream(int prefetch) {
+        return blockingStream(prefetch, WaitStrategy.SPIN_YIELD_PARK);
+    }
+
+    /**
+     * Returns a sequential Stream over a prefetching {@link #blockingIterable(int, WaitStrategy)};
+     * closing the Stream cancels this AsyncEnumerable.
+     * @param prefetch the number of items to buffer at most, positive
+     * @param strategy how to wait for the next item
+     * @return the new Stream instance
+     */
+    default Stream<T> blockingStream(int prefetch, WaitStrategy strategy) {
+        Iterator<T> it = blockingIterable(prefetch, strategy).iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, 0), false).onClose((Runnable)it);
+    }
+
     default Optional<T> blockingFirstOptional() {
         return AsyncBlockingFirst.blockingFirstOptional(enumerator());
     }
@@ -30,6 +30,13 @@ public interface AsyncEnumerator<T> {
      *     The method should not be called if it was called recently and the
      *     CompletionStage hasn't terminated yet.
      * </p>
+     * <p>
+     *     The built-in operators may return the same CompletionStage instance from each call
+     *     to avoid allocation. Its {@code whenComplete} returns the stage itself rather than
+     *     a new stage reflecting the callback's outcome, and an exception thrown by that
+     *     callback is reported to the current thread's {@code UncaughtExceptionHandler}.
+     *     Use {@code toCompletableFuture()} for the standard composition semantics.
+     * </p>
      * @return the CompletionStage that gets terminated depending on there are more
      * items or an error available.
      */
@@ -17,7 +17,8 @@
 package hu.akarnokd.asyncenum;
 
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.*;
+import java.util.function.BiConsumer;
 
 enum AsyncEnumeratorHelper implements AsyncEnumerator<Object> {
 
@@ -66,4 +67,32 @@ enum AsyncEnumeratorHelper implements AsyncEnumerator<Object> {
     static boolean isCancelled(AsyncEnumerator<?> enumerator) {
         return enumerator == CANCELLED;
     }
+
+    /**
+     * Calls {@code moveNext()} on the source and hands the outcome to the consumer in
+     * a loop guarded by the {@code wip} counter, so that synchronously completing sources
+     * don't grow the stack; the consumer should call this method again when it wants
+     * the next item.
+     * <p>
+     *     The constant {@code TRUE} and {@code FALSE} stages are signalled to the consumer
+     *     directly instead of registering it via {@code whenComplete}.
+     * </p>
+     * @param wip the work-in-progress counter of the trampoline
+     * @param source the AsyncEnumerator to move forward
+     * @param consumer the consumer of the moveNext() outcome
+     */
+    static void drain(AtomicInteger wip, AsyncEnumerator<?> source, BiConsumer<Boolean, Throwable> consumer) {
+        if (wip.getAndIncrement() == 0) {
+            do {
+                CompletionStage<Boolean> stage = source.moveNext();
+                if (stage == AsyncEnumerable.TRUE) {
+                    consumer.accept(true, null);
+                } else if (stage == AsyncEnumerable.FALSE) {
+                    consumer.accept(false, null);
+                } else {
+                    stage.whenComplete(consumer);
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+    }
 }
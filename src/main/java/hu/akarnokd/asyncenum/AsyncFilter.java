@@ -16,7 +16,7 @@
 
 package hu.akarnokd.asyncenum;
 
-import java.util.concurrent.*;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.*;
 
@@ -33,7 +33,11 @@ final class AsyncFilter<T> implements AsyncEnumerable<T> {
 
     @Override
     public AsyncEnumerator<T> enumerator() {
-        return new FilterEnumerator<>(source.enumerator(), predicate);
+        AsyncEnumerator<T> en = source.enumerator();
+        if (en instanceof SyncAsyncEnumerator) {
+            return new FilterSyncEnumerator<>((SyncAsyncEnumerator<T>)en, predicate);
+        }
+        return new FilterEnumerator<>(en, predicate);
     }
 
     static final class FilterEnumerator<T> extends AtomicInteger implements AsyncEnumerator<T>, BiConsumer<Boolean, Throwable> {
@@ -42,18 +46,19 @@ final class AsyncFilter<T> implements AsyncEnumerable<T> {
 
         final Predicate<? super T> predicate;
 
-        CompletableFuture<Boolean> current;
+        final AsyncResettableStage<Boolean> current;
 
         T currentItem;
 
         FilterEnumerator(AsyncEnumerator<T> source, Predicate<? super T> predicate) {
             this.source = source;
             this.predicate = predicate;
+            this.current = new AsyncResettableStage<>();
         }
 
         @Override
         public CompletionStage<Boolean> moveNext() {
-            current = new CompletableFuture<>();
+            current.reset();
             moveNextSource();
             return current;
         }
@@ -64,11 +69,7 @@ final class AsyncFilter<T> implements AsyncEnumerable<T> {
         }
 
         void moveNextSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
-            }
+            AsyncEnumeratorHelper.drain(this, source, this);
         }
 
         @Override
@@ -81,7 +82,16 @@ final class AsyncFilter<T> implements AsyncEnumerable<T> {
 
             if (aBoolean) {
                 T v = source.current();
-                if (predicate.test(v)) {
+                boolean pass;
+                try {
+                    pass = predicate.test(v);
+                } catch (Throwable ex) {
+                    source.cancel();
+                    currentItem = null;
+                    current.completeExceptionally(ex);
+                    return;
+                }
+                if (pass) {
                     currentItem = v;
                     current.complete(true);
                 } else {
@@ -98,4 +108,42 @@ final class AsyncFilter<T> implements AsyncEnumerable<T> {
             source.cancel();
         }
     }
+
+    static final class FilterSyncEnumerator<T> implements SyncAsyncEnumerator<T> {
+
+        final SyncAsyncEnumerator<T> source;
+
+        final Predicate<? super T> predicate;
+
+        T currentItem;
+
+        FilterSyncEnumerator(SyncAsyncEnumerator<T> source, Predicate<? super T> predicate) {
+            this.source = source;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean tryNext() {
+            SyncAsyncEnumerator<T> src = source;
+            while (src.tryNext()) {
+                T v = src.current();
+                if (predicate.test(v)) {
+                    currentItem = v;
+                    return true;
+                }
+            }
+            currentItem = null;
+            return false;
+        }
+
+        @Override
+        public T current() {
+            return currentItem;
+        }
+
+        @Override
+        public void cancel() {
+            source.cancel();
+        }
+    }
 }
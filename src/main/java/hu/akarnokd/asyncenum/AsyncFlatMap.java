@@ -16,38 +16,52 @@
 
 package hu.akarnokd.asyncenum;
 
-import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 import java.util.function.*;
 
 final class AsyncFlatMap<T, R> implements AsyncEnumerable<R> {
 
+    /** Inner sources with a prefetch up to this size buffer into a fixed array. */
+    static final int MAX_ARRAY_PREFETCH = 1024;
+
+    /** The chunk size of the unbounded queues. */
+    static final int CHUNK_SIZE = 32;
+
     final AsyncEnumerable<T> upstream;
 
     final Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper;
 
-    AsyncFlatMap(AsyncEnumerable<T> upstream, Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper) {
+    final int maxConcurrency;
+
+    final int prefetch;
+
+    AsyncFlatMap(AsyncEnumerable<T> upstream, Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper,
+                 int maxConcurrency, int prefetch) {
         this.upstream = upstream;
         this.mapper = mapper;
+        this.maxConcurrency = maxConcurrency;
+        this.prefetch = prefetch;
     }
 
     @Override
     public AsyncEnumerator<R> enumerator() {
-        FlatMapEnumerator<T, R> en = new FlatMapEnumerator<>(upstream.enumerator(), mapper);
+        FlatMapEnumerator<T, R> en = new FlatMapEnumerator<>(upstream.enumerator(), mapper, maxConcurrency, prefetch);
         en.moveNextUpstream();
         return en;
     }
 
-    static final class FlatMapEnumerator<T, R> implements AsyncEnumerator<R>, BiConsumer<Boolean, Throwable> {
+    static final class FlatMapEnumerator<T, R> implements AsyncEnumerator<R>, BiConsumer<Boolean, Throwable>, HasQueueSize {
 
         final AsyncEnumerator<T> upstream;
 
         final Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper;
 
-        final Queue<InnerAsyncEnumerator<R>> queue;
+        final SimpleQueue<InnerAsyncEnumerator<R>> queue;
+
+        final AtomicReference<AsyncResettableStage<Boolean>> next;
 
-        final AtomicReference<CompletableFuture<Boolean>> next;
+        final AsyncResettableStage<Boolean> stage;
 
         final AtomicInteger wip;
 
@@ -57,17 +71,29 @@ final class AsyncFlatMap<T, R> implements AsyncEnumerable<R> {
 
         final AtomicInteger upstreamWip;
 
+        final AtomicInteger upstreamPermits;
+
         final AtomicReference<Throwable> error;
 
+        final int prefetch;
+
         R current;
 
         volatile boolean cancelled;
 
-        FlatMapEnumerator(AsyncEnumerator<T> upstream, Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper) {
+        volatile boolean upstreamBusy;
+
+        volatile boolean upstreamDone;
+
+        FlatMapEnumerator(AsyncEnumerator<T> upstream, Function<? super T, ? extends AsyncEnumerable<? extends R>> mapper,
+                          int maxConcurrency, int prefetch) {
             this.upstream = upstream;
             this.mapper = mapper;
-            this.queue = new ConcurrentLinkedQueue<>();
+            this.prefetch = prefetch;
+            this.upstreamPermits = new AtomicInteger(maxConcurrency);
+            this.queue = new MpscLinkedArrayQueue<>(CHUNK_SIZE);
             this.next = new AtomicReference<>();
+            this.stage = new AsyncResettableStage<>();
             this.wip = new AtomicInteger();
             this.active = new AtomicInteger(1);
             this.inners = new ConcurrentHashMap<>();
@@ -77,7 +103,7 @@ final class AsyncFlatMap<T, R> implements AsyncEnumerable<R> {
 
         @Override
         public CompletionStage<Boolean> moveNext() {
-            CompletableFuture<Boolean> nx = new CompletableFuture<>();
+            AsyncResettableStage<Boolean> nx = stage.reset();
             next.set(nx);
             drain();
             return nx;
@@ -88,30 +114,36 @@ final class AsyncFlatMap<T, R> implements AsyncEnumerable<R> {
             return current;
         }
 
+        @Override
+        public int queueSize() {
+            return queue.size();
+        }
+
         void drain() {
             if (wip.getAndIncrement() != 0) {
                 return;
             }
 
             do {
-                CompletableFuture<Boolean> nx = next.get();
+                AsyncResettableStage<Boolean> nx = next.get();
                 if (nx != null) {
                     if (error.get() != null) {
+                        next.set(null);
                         nx.completeExceptionally(error.get());
                         return;
                     }
                     int n = active.get();
-                    InnerAsyncEnumerator<R> inner = queue.peek();
+                    InnerAsyncEnumerator<R> inner = queue.poll();
 
                     if (n == 0 && inner == null) {
+                        next.set(null);
                         nx.complete(false);
                         return;
                     }
 
                     if (inner != null) {
-                        queue.poll();
                         next.set(null);
-                        current = inner.current();
+                        current = inner.poll();
                         nx.complete(true);
                         inner.moveNext();
                     }
@@ -128,6 +160,8 @@ final class AsyncFlatMap<T, R> implements AsyncEnumerable<R> {
             inners.remove(inner);
             active.decrementAndGet();
             drain();
+            upstreamPermits.getAndIncrement();
+            moveNextUpstream();
         }
 
         void error(InnerAsyncEnumerator<R> inner, Throwable ex) {
@@ -140,7 +174,11 @@ final class AsyncFlatMap<T, R> implements AsyncEnumerable<R> {
         void moveNextUpstream() {
             if (upstreamWip.getAndIncrement() == 0) {
                 do {
-                    upstream.moveNext().whenComplete(this);
+                    if (!upstreamBusy && !upstreamDone && !cancelled && upstreamPermits.get() > 0) {
+                        upstreamPermits.getAndDecrement();
+                        upstreamBusy = true;
+                        upstream.moveNext().whenComplete(this);
+                    }
                 } while (upstreamWip.decrementAndGet() != 0);
             }
         }
@@ -154,6 +192,7 @@ final class AsyncFlatMap<T, R> implements AsyncEnumerable<R> {
         @Override
         public void accept(Boolean aBoolean, Throwable throwable) {
             if (throwable != null) {
+                upstreamDone = true;
                 error.compareAndSet(null, throwable);
                 cancelAllInner();
                 active.decrementAndGet();
@@ -163,7 +202,7 @@ final class AsyncFlatMap<T, R> implements AsyncEnumerable<R> {
             if (aBoolean) {
                 T t = upstream.current();
                 AsyncEnumerator<? extends R> ae = mapper.apply(t).enumerator();
-                InnerAsyncEnumerator<R> inner = new InnerAsyncEnumerator<>(ae, this);
+                InnerAsyncEnumerator<R> inner = new InnerAsyncEnumerator<>(ae, this, prefetch);
                 inners.put(inner, inner);
                 if (cancelled) {
                     inners.remove(inner);
@@ -171,9 +210,11 @@ final class AsyncFlatMap<T, R> implements AsyncEnumerable<R> {
                 } else {
                     active.getAndIncrement();
                     inner.moveNext();
+                    upstreamBusy = false;
                     moveNextUpstream();
                 }
             } else {
+                upstreamDone = true;
                 active.decrementAndGet();
                 drain();
             }
@@ -192,19 +233,41 @@ final class AsyncFlatMap<T, R> implements AsyncEnumerable<R> {
 
             final FlatMapEnumerator<?, R> parent;
 
-            InnerAsyncEnumerator(AsyncEnumerator<? extends R> source, FlatMapEnumerator<?, R> parent) {
+            final int prefetch;
+
+            final SimpleQueue<Object> values;
+
+            final AtomicInteger buffered;
+
+            volatile boolean busy;
+
+            volatile boolean done;
+
+            InnerAsyncEnumerator(AsyncEnumerator<? extends R> source, FlatMapEnumerator<?, R> parent, int prefetch) {
                 this.source = source;
                 this.parent = parent;
+                this.prefetch = prefetch;
+                if (prefetch <= MAX_ARRAY_PREFETCH) {
+                    this.values = new SpscArrayQueue<>(prefetch);
+                } else {
+                    this.values = new MpscLinkedArrayQueue<>(CHUNK_SIZE);
+                }
+                this.buffered = new AtomicInteger();
             }
 
-            R current() {
-                return source.current();
+            R poll() {
+                R v = QueueHelper.unwrapNull(values.poll());
+                buffered.getAndDecrement();
+                return v;
             }
 
             void moveNext() {
                 if (getAndIncrement() == 0) {
                     do {
-                        source.moveNext().whenComplete(this);
+                        if (!busy && !done && buffered.get() < prefetch) {
+                            busy = true;
+                            source.moveNext().whenComplete(this);
+                        }
                     } while (decrementAndGet() != 0);
                 }
             }
@@ -212,12 +275,18 @@ final class AsyncFlatMap<T, R> implements AsyncEnumerable<R> {
             @Override
             public void accept(Boolean hasMore, Throwable throwable) {
                 if (throwable != null) {
+                    done = true;
                     parent.error(this, throwable);
                     return;
                 }
                 if (hasMore) {
+                    values.offer(QueueHelper.wrapNull(source.current()));
+                    buffered.getAndIncrement();
+                    busy = false;
                     parent.hasNext(this);
+                    moveNext();
                 } else {
+                    done = true;
                     parent.finish(this);
                 }
             }
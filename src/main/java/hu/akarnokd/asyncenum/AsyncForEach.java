@@ -26,10 +26,30 @@ final class AsyncForEach {
             AsyncEnumerator<T> enumerator,
             Consumer<? super T> onValue) {
         CompletableFuture<Boolean> completion = new CompletableFuture<>();
+        if (enumerator instanceof SyncAsyncEnumerator) {
+            forEachSync((SyncAsyncEnumerator<T>)enumerator, onValue, completion);
+            return completion;
+        }
         new ForEachTrampoline<>(completion, enumerator, onValue).moveNext();
         return completion;
     }
 
+    static <T> void forEachSync(
+            SyncAsyncEnumerator<T> enumerator,
+            Consumer<? super T> onValue,
+            CompletableFuture<Boolean> completion) {
+        try {
+            while (enumerator.tryNext()) {
+                onValue.accept(enumerator.current());
+            }
+        } catch (Throwable ex) {
+            enumerator.cancel();
+            completion.completeExceptionally(ex);
+            return;
+        }
+        completion.complete(true);
+    }
+
     static final class ForEachTrampoline<T> extends AtomicInteger implements BiConsumer<Boolean, Throwable> {
         final CompletableFuture<Boolean> completion;
         final AsyncEnumerator<T> enumerator;
@@ -48,7 +68,13 @@ final class AsyncForEach {
                 return;
             }
             if (r) {
-                onValue.accept(enumerator.current());
+                try {
+                    onValue.accept(enumerator.current());
+                } catch (Throwable ex) {
+                    enumerator.cancel();
+                    completion.completeExceptionally(ex);
+                    return;
+                }
                 moveNext();
             } else {
                 completion.complete(true);
@@ -56,14 +82,7 @@ final class AsyncForEach {
         }
 
         void moveNext() {
-            if (getAndIncrement() != 0) {
-                return;
-            }
-
-            do {
-                CompletionStage<Boolean> next = enumerator.moveNext();
-                next.whenComplete(this);
-            } while (decrementAndGet() != 0);
+            AsyncEnumeratorHelper.drain(this, enumerator, this);
         }
     }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Consumes an AsyncEnumerator on the given executor by waiting for each
+ * {@code moveNext} so that the consumer may block.
+ */
+final class AsyncForEachBlocking {
+
+    private AsyncForEachBlocking() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    static <T> CompletionStage<Boolean> forEachBlocking(
+            AsyncEnumerator<T> enumerator,
+            Consumer<? super T> onValue,
+            Executor executor) {
+        CompletableFuture<Boolean> completion = new CompletableFuture<>();
+        try {
+            executor.execute(new ForEachBlockingTask<>(enumerator, onValue, completion));
+        } catch (RejectedExecutionException ex) {
+            enumerator.cancel();
+            completion.completeExceptionally(ex);
+        }
+        return completion;
+    }
+
+    static final class ForEachBlockingTask<T> implements Runnable {
+
+        final AsyncEnumerator<T> enumerator;
+
+        final Consumer<? super T> onValue;
+
+        final CompletableFuture<Boolean> completion;
+
+        ForEachBlockingTask(AsyncEnumerator<T> enumerator, Consumer<? super T> onValue, CompletableFuture<Boolean> completion) {
+            this.enumerator = enumerator;
+            this.onValue = onValue;
+            this.completion = completion;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (;;) {
+                    CompletionStage<Boolean> stage = enumerator.moveNext();
+                    boolean b;
+                    if (stage == AsyncEnumerable.TRUE) {
+                        b = true;
+                    } else if (stage == AsyncEnumerable.FALSE) {
+                        b = false;
+                    } else {
+                        b = stage.toCompletableFuture().get();
+                    }
+                    if (!b) {
+                        break;
+                    }
+                    onValue.accept(enumerator.current());
+                }
+            } catch (ExecutionException ex) {
+                completion.completeExceptionally(ex.getCause());
+                return;
+            } catch (Throwable ex) {
+                enumerator.cancel();
+                completion.completeExceptionally(ex);
+                return;
+            }
+            completion.complete(true);
+        }
+    }
+}
@@ -16,8 +16,6 @@
 
 package hu.akarnokd.asyncenum;
 
-import java.util.concurrent.CompletionStage;
-
 final class AsyncFromArray<T> implements AsyncEnumerable<T> {
 
     final T[] array;
@@ -31,7 +29,7 @@ final class AsyncFromArray<T> implements AsyncEnumerable<T> {
         return new FromArrayEnumerator<>(array);
     }
 
-    static final class FromArrayEnumerator<T> implements AsyncEnumerator<T> {
+    static final class FromArrayEnumerator<T> implements SyncAsyncEnumerator<T> {
 
         final T[] array;
 
@@ -44,15 +42,15 @@ final class AsyncFromArray<T> implements AsyncEnumerable<T> {
         }
 
         @Override
-        public CompletionStage<Boolean> moveNext() {
+        public boolean tryNext() {
             int idx = index;
             if (idx == array.length) {
                 current = null;
-                return FALSE;
+                return false;
             }
             current = array[idx];
             index = idx + 1;
-            return TRUE;
+            return true;
         }
 
         @Override
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calls the blocking {@code hasNext}/{@code next} of an Iterator on the given executor,
+ * one task per {@code moveNext}, and closes the Iterator if it is {@link AutoCloseable}.
+ * @param <T> the value type
+ */
+final class AsyncFromBlocking<T> implements AsyncEnumerable<T> {
+
+    final Iterator<? extends T> iterator;
+
+    final Executor executor;
+
+    AsyncFromBlocking(Iterator<? extends T> iterator, Executor executor) {
+        this.iterator = iterator;
+        this.executor = executor;
+    }
+
+    @Override
+    public AsyncEnumerator<T> enumerator() {
+        return new FromBlockingEnumerator<>(iterator, executor);
+    }
+
+    static final class FromBlockingEnumerator<T> extends AtomicInteger
+            implements AsyncEnumerator<T>, Runnable {
+
+        static final int IDLE = 0;
+        static final int RUNNING = 1;
+        static final int TERMINATED = 2;
+
+        final Iterator<? extends T> iterator;
+
+        final Executor executor;
+
+        volatile CompletableFuture<Boolean> completable;
+
+        T current;
+
+        FromBlockingEnumerator(Iterator<? extends T> iterator, Executor executor) {
+            this.iterator = iterator;
+            this.executor = executor;
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            if (get() == TERMINATED) {
+                current = null;
+                return FALSE;
+            }
+            CompletableFuture<Boolean> cf = new CompletableFuture<>();
+            completable = cf;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException ex) {
+                cf.completeExceptionally(ex);
+            }
+            return cf;
+        }
+
+        @Override
+        public T current() {
+            return current;
+        }
+
+        @Override
+        public void run() {
+            CompletableFuture<Boolean> cf = completable;
+            if (!compareAndSet(IDLE, RUNNING)) {
+                return;
+            }
+            Throwable error = null;
+            try {
+                if (iterator.hasNext()) {
+                    current = iterator.next();
+                    if (compareAndSet(RUNNING, IDLE)) {
+                        cf.complete(true);
+                    } else {
+                        // cancelled while we were blocked, cancel() left the closing to us
+                        close();
+                    }
+                    return;
+                }
+            } catch (Throwable ex) {
+                error = ex;
+            }
+            current = null;
+            set(TERMINATED);
+            Throwable closeError = close();
+            if (error == null) {
+                error = closeError;
+            }
+            if (error != null) {
+                cf.completeExceptionally(error);
+            } else {
+                cf.complete(false);
+            }
+        }
+
+        Throwable close() {
+            if (iterator instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable)iterator).close();
+                } catch (Throwable ex) {
+                    return ex;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void cancel() {
+            for (;;) {
+                int s = get();
+                if (s == TERMINATED) {
+                    return;
+                }
+                if (compareAndSet(s, TERMINATED)) {
+                    // a running task closes the iterator once its blocking call returns
+                    if (s == IDLE) {
+                        close();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs a blocking Callable on the given executor and emits its result.
+ * @param <T> the value type
+ */
+final class AsyncFromBlockingCallable<T> implements AsyncEnumerable<T> {
+
+    final Callable<? extends T> callable;
+
+    final Executor executor;
+
+    AsyncFromBlockingCallable(Callable<? extends T> callable, Executor executor) {
+        this.callable = callable;
+        this.executor = executor;
+    }
+
+    @Override
+    public AsyncEnumerator<T> enumerator() {
+        return new FromBlockingCallableEnumerator<>(callable, executor);
+    }
+
+    static final class FromBlockingCallableEnumerator<T> implements AsyncEnumerator<T>, Runnable {
+
+        final Callable<? extends T> callable;
+
+        final Executor executor;
+
+        final CompletableFuture<Boolean> single;
+
+        T result;
+
+        boolean once;
+
+        FromBlockingCallableEnumerator(Callable<? extends T> callable, Executor executor) {
+            this.callable = callable;
+            this.executor = executor;
+            this.single = new CompletableFuture<>();
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            if (once) {
+                result = null;
+                return FALSE;
+            }
+            once = true;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException ex) {
+                single.completeExceptionally(ex);
+            }
+            return single;
+        }
+
+        @Override
+        public T current() {
+            return result;
+        }
+
+        @Override
+        public void run() {
+            try {
+                result = callable.call();
+            } catch (Throwable ex) {
+                single.completeExceptionally(ex);
+                return;
+            }
+            single.complete(true);
+        }
+
+        @Override
+        public void cancel() {
+            // No action, consumer should stop calling moveNext().
+        }
+    }
+}
@@ -16,8 +16,6 @@
 
 package hu.akarnokd.asyncenum;
 
-import java.util.concurrent.CompletionStage;
-
 final class AsyncFromCharSequence implements AsyncEnumerable<Integer> {
 
     final CharSequence array;
@@ -31,7 +29,7 @@ final class AsyncFromCharSequence implements AsyncEnumerable<Integer> {
         return new FromCharSequenceEnumerator(array);
     }
 
-    static final class FromCharSequenceEnumerator implements AsyncEnumerator<Integer> {
+    static final class FromCharSequenceEnumerator implements SyncAsyncEnumerator<Integer> {
 
         final CharSequence array;
 
@@ -44,15 +42,15 @@ final class AsyncFromCharSequence implements AsyncEnumerable<Integer> {
         }
 
         @Override
-        public CompletionStage<Boolean> moveNext() {
+        public boolean tryNext() {
             int idx = index;
             if (idx == array.length()) {
                 current = null;
-                return FALSE;
+                return false;
             }
             current = (int)array.charAt(idx);
             index = idx + 1;
-            return TRUE;
+            return true;
         }
 
         @Override
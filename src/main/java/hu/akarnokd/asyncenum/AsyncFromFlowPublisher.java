@@ -49,17 +49,20 @@ final class AsyncFromFlowPublisher<T> implements AsyncEnumerable<T> {
 
         T current;
 
-        volatile CompletableFuture<Boolean> completable;
+        final AsyncResettableStage<Boolean> stage;
+
+        volatile AsyncResettableStage<Boolean> completable;
 
         FromFlowPublisherEnumerator() {
             upstream = new AtomicReference<>();
             requested = new AtomicLong();
+            stage = new AsyncResettableStage<>();
         }
 
         @Override
         public CompletionStage<Boolean> moveNext() {
             current = null;
-            CompletableFuture<Boolean> cf = new CompletableFuture<>();
+            AsyncResettableStage<Boolean> cf = stage.reset();
             completable = cf;
             deferredRequestOne();
             drain();
@@ -130,7 +133,7 @@ final class AsyncFromFlowPublisher<T> implements AsyncEnumerable<T> {
         void drain() {
             if (getAndIncrement() == 0) {
                 do {
-                    CompletableFuture<Boolean> cf = completable;
+                    AsyncResettableStage<Boolean> cf = completable;
                     if (cf != null) {
                         boolean d = done;
                         T v = item;
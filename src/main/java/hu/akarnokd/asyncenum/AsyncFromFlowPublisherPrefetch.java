@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Requests items from a Flow.Publisher in batches into a bounded buffer and
+ * replenishes it once 75% of the prefetch amount has been consumed.
+ * @param <T> the value type
+ */
+final class AsyncFromFlowPublisherPrefetch<T> implements AsyncEnumerable<T> {
+
+    final Flow.Publisher<T> source;
+
+    final int prefetch;
+
+    AsyncFromFlowPublisherPrefetch(Flow.Publisher<T> source, int prefetch) {
+        this.source = source;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public AsyncEnumerator<T> enumerator() {
+        FromFlowPublisherPrefetchEnumerator<T> subscriber = new FromFlowPublisherPrefetchEnumerator<>(prefetch);
+        source.subscribe(subscriber);
+        return subscriber;
+    }
+
+    static final class FromFlowPublisherPrefetchEnumerator<T>
+            extends AtomicInteger
+            implements AsyncEnumerator<T>, Flow.Subscriber<T> {
+
+        final AtomicReference<Flow.Subscription> upstream;
+
+        final int prefetch;
+
+        final int limit;
+
+        final SpscArrayQueue<T> queue;
+
+        final AsyncResettableStage<Boolean> stage;
+
+        volatile AsyncResettableStage<Boolean> completable;
+
+        volatile boolean done;
+        Throwable error;
+
+        int consumed;
+
+        T current;
+
+        FromFlowPublisherPrefetchEnumerator(int prefetch) {
+            this.upstream = new AtomicReference<>();
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.queue = new SpscArrayQueue<>(prefetch);
+            this.stage = new AsyncResettableStage<>();
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            current = null;
+            AsyncResettableStage<Boolean> cf = stage.reset();
+            completable = cf;
+            drain();
+            return cf;
+        }
+
+        @Override
+        public T current() {
+            return current;
+        }
+
+        @Override
+        public void cancel() {
+            Flow.Subscription current = upstream.getAndSet(AsyncFromFlowPublisher.CancelledSubscription.CANCELLED);
+            if (current != null && current != AsyncFromFlowPublisher.CancelledSubscription.CANCELLED) {
+                current.cancel();
+            }
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            Objects.requireNonNull(subscription, "subscription == null");
+            if (upstream.compareAndSet(null, subscription)) {
+                subscription.request(prefetch);
+            } else {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (!queue.offer(item)) {
+                cancel();
+                onError(new IllegalStateException("More items were signalled than requested"));
+                return;
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        void drain() {
+            if (getAndIncrement() == 0) {
+                do {
+                    AsyncResettableStage<Boolean> cf = completable;
+                    if (cf != null) {
+                        boolean d = done;
+                        T v = queue.poll();
+                        boolean empty = v == null;
+
+                        if (d && empty) {
+                            completable = null;
+                            Throwable ex = error;
+                            if (ex == null) {
+                                cf.complete(false);
+                            } else {
+                                cf.completeExceptionally(ex);
+                            }
+                            return;
+                        }
+
+                        if (!empty) {
+                            int c = consumed + 1;
+                            if (c == limit) {
+                                consumed = 0;
+                                upstream.get().request(c);
+                            } else {
+                                consumed = c;
+                            }
+                            current = v;
+                            completable = null;
+                            cf.complete(true);
+                        }
+                    }
+                } while (decrementAndGet() != 0);
+            }
+        }
+    }
+}
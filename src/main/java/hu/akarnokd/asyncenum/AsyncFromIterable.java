@@ -17,7 +17,6 @@
 package hu.akarnokd.asyncenum;
 
 import java.util.Iterator;
-import java.util.concurrent.CompletionStage;
 
 final class AsyncFromIterable<T> implements AsyncEnumerable<T> {
 
@@ -32,7 +31,7 @@ final class AsyncFromIterable<T> implements AsyncEnumerable<T> {
         return new FromIteratorEnumerator<>(iterable.iterator());
     }
 
-    static final class FromIteratorEnumerator<T> implements AsyncEnumerator<T> {
+    static final class FromIteratorEnumerator<T> implements SyncAsyncEnumerator<T> {
 
         final Iterator<T> iterator;
 
@@ -43,13 +42,13 @@ final class AsyncFromIterable<T> implements AsyncEnumerable<T> {
         }
 
         @Override
-        public CompletionStage<Boolean> moveNext() {
+        public boolean tryNext() {
             if (iterator.hasNext()) {
                 current = iterator.next();
-                return TRUE;
+                return true;
             }
             current = null;
-            return FALSE;
+            return false;
         }
 
         @Override
@@ -20,28 +20,59 @@ import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 import java.util.function.*;
 
+/**
+ * Splits the source into groups, each buffering up to {@code prefetch} items.
+ * <p>
+ *     The source is pulled while no group buffer is full and the main consumer has asked
+ *     for the group after the latest new one; both conditions are tracked by a single counter
+ *     so deciding on the next pull doesn't depend on the number of groups.
+ * </p>
+ * <p>
+ *     With a group limit or an idle timeout, the groups are kept in a least-recently-used
+ *     list and the ones falling off of it are completed and forgotten.
+ * </p>
+ */
 final class AsyncGroupBy<T, K, V> implements AsyncEnumerable<GroupedAsyncEnumerable<V, K>> {
 
+    static final int DEFAULT_PREFETCH = 16;
+
     final AsyncEnumerable<T> source;
 
     final Function<? super T, ? extends K> keySelector;
 
     final Function<? super T, ? extends V> valueSelector;
 
-    AsyncGroupBy(AsyncEnumerable<T> source, Function<? super T, ? extends K> keySelector, Function<? super T, ? extends V> valueSelector) {
+    final int prefetch;
+
+    final int maxGroups;
+
+    final long idleTimeout;
+
+    final TimeUnit unit;
+
+    final TimerService timer;
+
+    AsyncGroupBy(AsyncEnumerable<T> source, Function<? super T, ? extends K> keySelector, Function<? super T, ? extends V> valueSelector,
+                 int prefetch, int maxGroups, long idleTimeout, TimeUnit unit, TimerService timer) {
         this.source = source;
         this.keySelector = keySelector;
         this.valueSelector = valueSelector;
+        this.prefetch = prefetch;
+        this.maxGroups = maxGroups;
+        this.idleTimeout = idleTimeout;
+        this.unit = unit;
+        this.timer = timer;
     }
 
     @Override
     public AsyncEnumerator<GroupedAsyncEnumerable<V, K>> enumerator() {
-        return new GroupByEnumerator<>(source.enumerator(), keySelector, valueSelector);
+        return new GroupByEnumerator<>(source.enumerator(), keySelector, valueSelector, prefetch,
+                maxGroups, unit.toNanos(idleTimeout), timer);
     }
 
     static final class GroupByEnumerator<T, K, V>
             implements AsyncEnumerator<GroupedAsyncEnumerable<V, K>>,
-            BiConsumer<Boolean, Throwable> {
+            BiConsumer<Boolean, Throwable>, HasQueueSize {
 
         final AsyncEnumerator<T> source;
 
@@ -49,43 +80,84 @@ final class AsyncGroupBy<T, K, V> implements AsyncEnumerable<GroupedAsyncEnumera
 
         final Function<? super T, ? extends V> valueSelector;
 
+        final int prefetch;
+
+        final int maxGroups;
+
+        final long idleNanos;
+
+        final TimerService timer;
+
         final AtomicInteger sourceWip;
 
         final AtomicInteger wip;
 
-        final AtomicInteger dispatchWip;
-
         final ConcurrentMap<K, GroupedEnumerator<T, K, V>> groups;
 
         final AtomicBoolean cancelled;
 
         final AtomicInteger active;
 
+        /** Number of full group buffers plus one until the main consumer asks for the group after a new one. */
+        final AtomicInteger blocked;
+
+        /** Cancelled groups to unlink from the LRU list, null if there is no list. */
+        final MpscLinkedArrayQueue<GroupedEnumerator<T, K, V>> removed;
+
         volatile CompletableFuture<Boolean> completable;
 
+        volatile GroupedEnumerator<T, K, V> pending;
+
+        volatile boolean sourceBusy;
+
+        volatile boolean sourceReady;
+        boolean sourceHasItem;
+        Throwable sourceError;
+
+        boolean groupTaken;
+
+        /** The LRU list, accessed only while holding sourceWip. */
+        GroupedEnumerator<T, K, V> head;
+        GroupedEnumerator<T, K, V> tail;
+        int size;
+
+        boolean evictScheduled;
+        volatile boolean evictDue;
+        volatile TimerService.Task evictTask;
+
         volatile GroupedAsyncEnumerable<V, K> current;
         volatile boolean done;
         volatile Throwable error;
 
-        GroupByEnumerator(AsyncEnumerator<T> source, Function<? super T, ? extends K> keySelector, Function<? super T, ? extends V> valueSelector) {
+        GroupByEnumerator(AsyncEnumerator<T> source, Function<? super T, ? extends K> keySelector, Function<? super T, ? extends V> valueSelector,
+                          int prefetch, int maxGroups, long idleNanos, TimerService timer) {
             this.source = source;
             this.keySelector = keySelector;
             this.valueSelector = valueSelector;
+            this.prefetch = prefetch;
+            this.maxGroups = maxGroups;
+            this.idleNanos = idleNanos;
+            this.timer = timer;
             this.sourceWip = new AtomicInteger();
             this.wip = new AtomicInteger();
-            this.dispatchWip = new AtomicInteger();
             this.groups = new ConcurrentHashMap<>();
             this.cancelled = new AtomicBoolean();
             this.active = new AtomicInteger(1);
+            this.blocked = new AtomicInteger();
+            this.removed = maxGroups != Integer.MAX_VALUE || timer != null ? new MpscLinkedArrayQueue<>(AsyncFlatMap.CHUNK_SIZE) : null;
         }
 
         @Override
         public CompletionStage<Boolean> moveNext() {
             current = null;
+            if (groupTaken) {
+                groupTaken = false;
+                blocked.decrementAndGet();
+            }
             CompletableFuture<Boolean> cf = new CompletableFuture<>();
             completable = cf;
-            consumersReady();
             drain();
+            nextSource();
             return cf;
         }
 
@@ -94,152 +166,312 @@ final class AsyncGroupBy<T, K, V> implements AsyncEnumerable<GroupedAsyncEnumera
             return current;
         }
 
+        /** Reports the number of open groups, the buffers themselves are reported by the groups. */
+        @Override
+        public int queueSize() {
+            return groups.size();
+        }
+
         @Override
         public void cancel() {
             if (cancelled.compareAndSet(false, true)) {
+                if (groupTaken) {
+                    groupTaken = false;
+                    blocked.decrementAndGet();
+                }
                 if (active.decrementAndGet() == 0) {
-                    source.cancel();
+                    cancelSource();
                 } else {
-                    consumersReady();
+                    drain();
+                    nextSource();
                 }
             }
         }
 
-        void remove(K key) {
-            groups.remove(key);
-            if (active.decrementAndGet() == 0) {
-                source.cancel();
-            } else {
-                consumersReady();
+        void cancelSource() {
+            source.cancel();
+            TimerService.Task t = evictTask;
+            if (t != null) {
+                t.cancel();
+            }
+        }
+
+        void remove(GroupedEnumerator<T, K, V> group) {
+            groups.remove(group.key, group);
+            if (group.count.getAndSet(Integer.MIN_VALUE) >= prefetch) {
+                blocked.decrementAndGet();
+            }
+            if (removed != null) {
+                removed.offer(group);
+            }
+            release(group);
+        }
+
+        void release(GroupedEnumerator<T, K, V> group) {
+            if (group.released.compareAndSet(false, true)) {
+                if (active.decrementAndGet() == 0) {
+                    cancelSource();
+                    return;
+                }
             }
+            nextSource();
         }
 
         @Override
         public void accept(Boolean aBoolean, Throwable throwable) {
-            if (throwable != null) {
-                for (GroupedEnumerator<T, K, V> gr : groups.values()) {
-                    gr.error = throwable;
-                    gr.done = true;
-                    gr.drain();
-                }
-                groups.clear();
-                error = throwable;
-                drain();
-            } else
-            if (aBoolean) {
-                T v = source.current();
-                K key = keySelector.apply(v);
-                V value = valueSelector.apply(v);
-
-                boolean isNew = false;
-                GroupedEnumerator<T, K, V> gr = groups.get(key);
-                if (gr == null) {
-                    if (cancelled.get()) {
-                        consumersReady();
-                        return;
-                    }
+            sourceHasItem = throwable == null && aBoolean;
+            sourceError = throwable;
+            sourceReady = true;
+            nextSource();
+        }
 
-                    active.getAndIncrement();
+        void onItem(T v) {
+            K key = keySelector.apply(v);
+            V value = valueSelector.apply(v);
 
-                    gr = new GroupedEnumerator<>(key, this);
-                    groups.put(key, gr);
-                    isNew = true;
+            GroupedEnumerator<T, K, V> gr = groups.get(key);
+            if (gr == null) {
+                if (cancelled.get()) {
+                    return;
                 }
 
-                if (isNew) {
-                    current = gr;
-                    drain();
+                active.getAndIncrement();
+
+                gr = new GroupedEnumerator<>(key, this);
+                groups.put(key, gr);
+                gr.queue.offer(QueueHelper.wrapNull(value));
+                gr.produced();
+
+                if (removed != null) {
+                    link(gr);
                 }
-                gr.result = value;
-                gr.hasValue = true;
-                gr.drain();
+
+                blocked.getAndIncrement();
+                pending = gr;
+                drain();
             } else {
-                for (GroupedEnumerator<T, K, V> gr : groups.values()) {
-                    gr.done = true;
+                if (removed != null && gr.linked) {
+                    unlink(gr);
+                    link(gr);
+                }
+                gr.queue.offer(QueueHelper.wrapNull(value));
+                gr.produced();
+                if (gr.completable != null) {
                     gr.drain();
                 }
-                groups.clear();
-                done = true;
-                drain();
             }
         }
 
-        void nextSource() {
-            if (sourceWip.getAndIncrement() == 0) {
-                do {
-                    source.moveNext().whenComplete(this);
-                } while (sourceWip.decrementAndGet() != 0);
+        void onTerminate(Throwable ex) {
+            TimerService.Task t = evictTask;
+            if (t != null) {
+                t.cancel();
+            }
+            head = null;
+            tail = null;
+            for (GroupedEnumerator<T, K, V> gr : groups.values()) {
+                gr.error = ex;
+                gr.done = true;
+                gr.drain();
+            }
+            groups.clear();
+            error = ex;
+            done = true;
+            drain();
+        }
+
+        void link(GroupedEnumerator<T, K, V> gr) {
+            if (timer != null) {
+                gr.lastAccess = timer.now(TimeUnit.NANOSECONDS);
+            }
+            GroupedEnumerator<T, K, V> t = tail;
+            gr.prev = t;
+            if (t == null) {
+                head = gr;
+            } else {
+                t.next = gr;
+            }
+            tail = gr;
+            gr.linked = true;
+            if (++size > maxGroups) {
+                evict(head);
+            }
+            if (timer != null && !evictScheduled) {
+                scheduleEvict(idleNanos);
             }
         }
 
-        void consumersReady() {
-            if (dispatchWip.getAndIncrement() == 0) {
+        void unlink(GroupedEnumerator<T, K, V> gr) {
+            GroupedEnumerator<T, K, V> p = gr.prev;
+            GroupedEnumerator<T, K, V> n = gr.next;
+            if (p == null) {
+                head = n;
+            } else {
+                p.next = n;
+            }
+            if (n == null) {
+                tail = p;
+            } else {
+                n.prev = p;
+            }
+            gr.prev = null;
+            gr.next = null;
+            gr.linked = false;
+            size--;
+        }
+
+        void evict(GroupedEnumerator<T, K, V> gr) {
+            unlink(gr);
+            groups.remove(gr.key, gr);
+            gr.done = true;
+            gr.drain();
+            if (gr.released.compareAndSet(false, true) && active.decrementAndGet() == 0) {
+                cancelSource();
+            }
+        }
+
+        void evictIdle() {
+            evictScheduled = false;
+            long now = timer.now(TimeUnit.NANOSECONDS);
+            GroupedEnumerator<T, K, V> gr = head;
+            while (gr != null && now - gr.lastAccess >= idleNanos) {
+                evict(gr);
+                gr = head;
+            }
+            if (gr != null) {
+                scheduleEvict(idleNanos - (now - gr.lastAccess));
+            }
+        }
+
+        void scheduleEvict(long delay) {
+            if (!done && active.get() != 0) {
+                evictScheduled = true;
+                evictTask = timer.schedule(() -> {
+                    evictDue = true;
+                    nextSource();
+                }, delay, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void nextSource() {
+            if (sourceWip.getAndIncrement() == 0) {
                 do {
-                    if (completable != null || cancelled.get()) {
-                        int s = 0;
-                        int r = 0;
-                        for (GroupedEnumerator<T, K, V> gr : groups.values()) {
-                            if (gr.nonFirst && gr.completable != null) {
-                                r++;
+                    if (sourceReady) {
+                        sourceReady = false;
+                        Throwable ex = sourceError;
+                        if (ex != null) {
+                            onTerminate(ex);
+                        } else if (sourceHasItem) {
+                            onItem(source.current());
+                        } else {
+                            onTerminate(null);
+                        }
+                        sourceBusy = false;
+                    }
+
+                    if (removed != null && !done) {
+                        GroupedEnumerator<T, K, V> gr;
+                        while ((gr = removed.poll()) != null) {
+                            if (gr.linked) {
+                                unlink(gr);
                             }
-                            s++;
                         }
-                        if (s == r) {
-                            nextSource();
+                        if (evictDue) {
+                            evictDue = false;
+                            evictIdle();
+                        }
+                    }
+
+                    // synchronous sources are dispatched in this loop until a group buffer fills up
+                    while (!sourceBusy && !done && blocked.get() == 0 && active.get() != 0) {
+                        CompletionStage<Boolean> stage = source.moveNext();
+                        if (stage == AsyncEnumerable.TRUE) {
+                            onItem(source.current());
+                        } else if (stage == AsyncEnumerable.FALSE) {
+                            onTerminate(null);
+                        } else {
+                            sourceBusy = true;
+                            stage.whenComplete(this);
                         }
                     }
-                } while (dispatchWip.decrementAndGet() != 0);
+                } while (sourceWip.decrementAndGet() != 0);
             }
         }
-
         void drain() {
             if (wip.getAndIncrement() == 0) {
                 do {
-                    CompletableFuture<Boolean> cf = completable;
-                    if (cf != null) {
-                        completable = null;
-                        Throwable ex = error;
-                        if (ex != null) {
-                            cf.completeExceptionally(ex);
-                            return;
+                    if (cancelled.get()) {
+                        GroupedEnumerator<T, K, V> gr = pending;
+                        if (gr != null) {
+                            // the main consumer is gone, the undelivered group is dropped
+                            pending = null;
+                            blocked.decrementAndGet();
+                            gr.cancel();
                         }
-                        if (done) {
-                            cf.complete(false);
-                        } else {
-                            cf.complete(true);
+                    } else {
+                        CompletableFuture<Boolean> cf = completable;
+                        if (cf != null) {
+                            boolean d = done;
+                            GroupedEnumerator<T, K, V> gr = pending;
+                            if (gr != null) {
+                                pending = null;
+                                completable = null;
+                                current = gr;
+                                // the source is pulled again when the consumer asks for the next group
+                                groupTaken = true;
+                                cf.complete(true);
+                            } else if (d) {
+                                completable = null;
+                                Throwable ex = error;
+                                if (ex != null) {
+                                    cf.completeExceptionally(ex);
+                                } else {
+                                    cf.complete(false);
+                                }
+                            }
                         }
                     }
                 } while (wip.decrementAndGet() != 0);
             }
         }
 
-        static final class GroupedEnumerator<T, K, V> implements GroupedAsyncEnumerable<V, K>, AsyncEnumerator<V> {
+        static final class GroupedEnumerator<T, K, V> extends AtomicInteger implements GroupedAsyncEnumerable<V, K>, AsyncEnumerator<V>, HasQueueSize {
 
             final K key;
 
             final GroupByEnumerator<T, K, V> parent;
 
+            final SpscArrayQueue<Object> queue;
+
             final AtomicBoolean once;
 
             final AtomicBoolean cancelled;
 
-            final AtomicInteger wip;
+            /** Set once the group no longer counts as active, by cancellation or eviction. */
+            final AtomicBoolean released;
+
+            /** Number of buffered items, set to a large negative value on cancellation. */
+            final AtomicInteger count;
 
             volatile CompletableFuture<Boolean> completable;
 
             V result;
-            volatile boolean hasValue;
             volatile boolean done;
             Throwable error;
 
-            volatile boolean nonFirst;
+            GroupedEnumerator<T, K, V> prev;
+            GroupedEnumerator<T, K, V> next;
+            boolean linked;
+            long lastAccess;
 
             GroupedEnumerator(K key, GroupByEnumerator<T, K, V> parent) {
                 this.key = key;
                 this.parent = parent;
+                this.queue = new SpscArrayQueue<>(parent.prefetch);
                 this.once = new AtomicBoolean();
-                this.wip = new AtomicInteger();
                 this.cancelled = new AtomicBoolean();
+                this.released = new AtomicBoolean();
+                this.count = new AtomicInteger();
             }
 
             @Override
@@ -257,15 +489,15 @@ final class AsyncGroupBy<T, K, V> implements AsyncEnumerable<GroupedAsyncEnumera
 
             @Override
             public CompletionStage<Boolean> moveNext() {
+                Object v = queue.poll();
+                if (v != null) {
+                    result = QueueHelper.unwrapNull(v);
+                    consumed();
+                    return TRUE;
+                }
+                result = null;
                 CompletableFuture<Boolean> cf = new CompletableFuture<>();
                 completable = cf;
-                if (nonFirst) {
-                    result = null;
-                    hasValue = false;
-                    parent.consumersReady();
-                } else {
-                    nonFirst = true;
-                }
                 drain();
                 return cf;
             }
@@ -275,34 +507,54 @@ final class AsyncGroupBy<T, K, V> implements AsyncEnumerable<GroupedAsyncEnumera
                 return result;
             }
 
+            @Override
+            public int queueSize() {
+                return queue.size();
+            }
+
+            void produced() {
+                if (count.incrementAndGet() == parent.prefetch) {
+                    parent.blocked.getAndIncrement();
+                }
+            }
+
+            void consumed() {
+                if (count.getAndDecrement() == parent.prefetch) {
+                    parent.blocked.decrementAndGet();
+                    parent.nextSource();
+                }
+            }
+
             void drain() {
-                if (wip.getAndIncrement() == 0) {
+                if (getAndIncrement() == 0) {
                     do {
                         CompletableFuture<Boolean> cf = completable;
                         if (cf != null) {
-                            if (done) {
+                            boolean d = done;
+                            Object v = queue.poll();
+                            if (v != null) {
+                                completable = null;
+                                result = QueueHelper.unwrapNull(v);
+                                consumed();
+                                cf.complete(true);
+                            } else if (d) {
+                                completable = null;
                                 Throwable ex = error;
                                 if (ex == null) {
                                     cf.complete(false);
                                 } else {
                                     cf.completeExceptionally(ex);
                                 }
-                                return;
-                            }
-
-                            if (hasValue) {
-                                completable = null;
-                                cf.complete(true);
                             }
                         }
-                    } while (wip.decrementAndGet() != 0);
+                    } while (decrementAndGet() != 0);
                 }
             }
 
             @Override
             public void cancel() {
                 if (cancelled.compareAndSet(false, true)) {
-                    parent.remove(key);
+                    parent.remove(this);
                 }
             }
         }
@@ -56,13 +56,8 @@ final class AsyncIgnoreElements<T> implements AsyncEnumerable<T> {
         }
 
         void nextSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    if (cancelled) {
-                        return;
-                    }
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
+            if (!cancelled) {
+                AsyncEnumeratorHelper.drain(this, source, this);
             }
         }
 
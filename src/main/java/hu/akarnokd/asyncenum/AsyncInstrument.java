@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+
+final class AsyncInstrument<T> implements AsyncEnumerable<T> {
+
+    final AsyncEnumerable<T> source;
+
+    final String name;
+
+    final MetricsSink sink;
+
+    AsyncInstrument(AsyncEnumerable<T> source, String name, MetricsSink sink) {
+        this.source = source;
+        this.name = name;
+        this.sink = sink;
+    }
+
+    @Override
+    public AsyncEnumerator<T> enumerator() {
+        AsyncEnumerator<T> en = source.enumerator();
+        if (en instanceof SyncAsyncEnumerator) {
+            return new InstrumentSyncEnumerator<>((SyncAsyncEnumerator<T>)en, name, sink);
+        }
+        return new InstrumentEnumerator<>(en, name, sink);
+    }
+
+    static final class InstrumentEnumerator<T> implements AsyncEnumerator<T>, BiConsumer<Boolean, Throwable> {
+
+        final AsyncEnumerator<T> source;
+
+        final String name;
+
+        final MetricsSink sink;
+
+        final HasQueueSize queue;
+
+        final AsyncResettableStage<Boolean> stage;
+
+        long start;
+
+        InstrumentEnumerator(AsyncEnumerator<T> source, String name, MetricsSink sink) {
+            this.source = source;
+            this.name = name;
+            this.sink = sink;
+            this.queue = source instanceof HasQueueSize ? (HasQueueSize)source : null;
+            this.stage = new AsyncResettableStage<>();
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            long t = System.nanoTime();
+            CompletionStage<Boolean> s = source.moveNext();
+            // synchronous answers are measured and relayed without a stage of our own
+            if (s == AsyncEnumerable.TRUE) {
+                onNext(System.nanoTime() - t);
+                return AsyncEnumerable.TRUE;
+            }
+            if (s == AsyncEnumerable.FALSE) {
+                sink.onComplete(name, System.nanoTime() - t);
+                return AsyncEnumerable.FALSE;
+            }
+            start = t;
+            AsyncResettableStage<Boolean> st = stage.reset();
+            s.whenComplete(this);
+            return st;
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            long latency = System.nanoTime() - start;
+            if (throwable != null) {
+                sink.onError(name, throwable, latency);
+                stage.completeExceptionally(throwable);
+            } else if (aBoolean) {
+                onNext(latency);
+                stage.complete(true);
+            } else {
+                sink.onComplete(name, latency);
+                stage.complete(false);
+            }
+        }
+
+        void onNext(long latency) {
+            sink.onNext(name, latency);
+            HasQueueSize q = queue;
+            if (q != null) {
+                sink.onQueueSize(name, q.queueSize());
+            }
+        }
+
+        @Override
+        public T current() {
+            return source.current();
+        }
+
+        @Override
+        public void cancel() {
+            sink.onCancel(name);
+            source.cancel();
+        }
+    }
+
+    static final class InstrumentSyncEnumerator<T> implements SyncAsyncEnumerator<T> {
+
+        final SyncAsyncEnumerator<T> source;
+
+        final String name;
+
+        final MetricsSink sink;
+
+        InstrumentSyncEnumerator(SyncAsyncEnumerator<T> source, String name, MetricsSink sink) {
+            this.source = source;
+            this.name = name;
+            this.sink = sink;
+        }
+
+        @Override
+        public boolean tryNext() {
+            long t = System.nanoTime();
+            boolean b;
+            try {
+                b = source.tryNext();
+            } catch (Throwable ex) {
+                sink.onError(name, ex, System.nanoTime() - t);
+                throw ex;
+            }
+            if (b) {
+                sink.onNext(name, System.nanoTime() - t);
+            } else {
+                sink.onComplete(name, System.nanoTime() - t);
+            }
+            return b;
+        }
+
+        @Override
+        public T current() {
+            return source.current();
+        }
+
+        @Override
+        public void cancel() {
+            sink.onCancel(name);
+            source.cancel();
+        }
+    }
+}
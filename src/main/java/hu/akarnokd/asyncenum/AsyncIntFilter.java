@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.*;
+
+final class AsyncIntFilter implements IntAsyncEnumerable {
+
+    final IntAsyncEnumerable source;
+
+    final IntPredicate predicate;
+
+    AsyncIntFilter(IntAsyncEnumerable source, IntPredicate predicate) {
+        this.source = source;
+        this.predicate = predicate;
+    }
+
+    @Override
+    public IntAsyncEnumerator enumerator() {
+        return new IntFilterEnumerator(source.enumerator(), predicate);
+    }
+
+    static final class IntFilterEnumerator extends AtomicInteger implements IntAsyncEnumerator, BiConsumer<Boolean, Throwable> {
+
+        final IntAsyncEnumerator source;
+
+        final IntPredicate predicate;
+
+        final AsyncResettableStage<Boolean> current;
+
+        int currentItem;
+
+        IntFilterEnumerator(IntAsyncEnumerator source, IntPredicate predicate) {
+            this.source = source;
+            this.predicate = predicate;
+            this.current = new AsyncResettableStage<>();
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            current.reset();
+            moveNextSource();
+            return current;
+        }
+
+        @Override
+        public int currentInt() {
+            return currentItem;
+        }
+
+        void moveNextSource() {
+            AsyncEnumeratorHelper.drain(this, source, this);
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                current.completeExceptionally(throwable);
+                return;
+            }
+
+            if (aBoolean) {
+                int v = source.currentInt();
+                boolean pass;
+                try {
+                    pass = predicate.test(v);
+                } catch (Throwable ex) {
+                    source.cancel();
+                    current.completeExceptionally(ex);
+                    return;
+                }
+                if (pass) {
+                    currentItem = v;
+                    current.complete(true);
+                } else {
+                    moveNextSource();
+                }
+            } else {
+                current.complete(false);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            source.cancel();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.*;
+
+final class AsyncIntForEach {
+
+    private AsyncIntForEach() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    static CompletionStage<Boolean> forEach(
+            IntAsyncEnumerator enumerator,
+            IntConsumer onValue) {
+        CompletableFuture<Boolean> completion = new CompletableFuture<>();
+        new IntForEachTrampoline(completion, enumerator, onValue).moveNext();
+        return completion;
+    }
+
+    static final class IntForEachTrampoline extends AtomicInteger implements BiConsumer<Boolean, Throwable> {
+        final CompletableFuture<Boolean> completion;
+        final IntAsyncEnumerator enumerator;
+        final IntConsumer onValue;
+
+        IntForEachTrampoline(CompletableFuture<Boolean> completion, IntAsyncEnumerator enumerator, IntConsumer onValue) {
+            this.completion = completion;
+            this.enumerator = enumerator;
+            this.onValue = onValue;
+        }
+
+        @Override
+        public void accept(Boolean r, Throwable e) {
+            if (e != null) {
+                completion.completeExceptionally(e);
+                return;
+            }
+            if (r) {
+                try {
+                    onValue.accept(enumerator.currentInt());
+                } catch (Throwable ex) {
+                    enumerator.cancel();
+                    completion.completeExceptionally(ex);
+                    return;
+                }
+                moveNext();
+            } else {
+                completion.complete(true);
+            }
+        }
+
+        void moveNext() {
+            AsyncEnumeratorHelper.drain(this, enumerator, this);
+        }
+    }
+}
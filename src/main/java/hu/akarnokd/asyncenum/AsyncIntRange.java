@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.CompletionStage;
+
+final class AsyncIntRange implements IntAsyncEnumerable {
+
+    final int start;
+
+    final int count;
+
+    AsyncIntRange(int start, int count) {
+        this.start = start;
+        this.count = count;
+    }
+
+    @Override
+    public IntAsyncEnumerator enumerator() {
+        return new IntRangeEnumerator(start, start + count);
+    }
+
+    static final class IntRangeEnumerator implements IntAsyncEnumerator {
+
+        final int end;
+
+        int index;
+
+        int current;
+
+        IntRangeEnumerator(int start, int end) {
+            this.index = start;
+            this.end = end;
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            int idx = index;
+            if (idx == end) {
+                return AsyncEnumerable.FALSE;
+            }
+            current = idx;
+            index = idx + 1;
+            return AsyncEnumerable.TRUE;
+        }
+
+        @Override
+        public int currentInt() {
+            return current;
+        }
+
+        @Override
+        public void cancel() {
+            // No action, consumer should stop calling moveNext().
+        }
+    }
+}
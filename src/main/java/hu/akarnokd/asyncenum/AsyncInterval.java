@@ -28,19 +28,19 @@ final class AsyncInterval implements AsyncEnumerable<Long> {
 
     final TimeUnit unit;
 
-    final ScheduledExecutorService executor;
+    final TimerService timer;
 
-    AsyncInterval(long initialDelay, long period, TimeUnit unit, ScheduledExecutorService executor) {
+    AsyncInterval(long initialDelay, long period, TimeUnit unit, TimerService timer) {
         this.initialDelay = initialDelay;
         this.period = period;
         this.unit = unit;
-        this.executor = executor;
+        this.timer = timer;
     }
 
     @Override
     public AsyncEnumerator<Long> enumerator() {
         IntervalEnumerator enumerator = new IntervalEnumerator();
-        enumerator.task = executor.scheduleAtFixedRate(enumerator, initialDelay, period, unit);
+        enumerator.task = timer.schedulePeriodically(enumerator, initialDelay, period, unit);
         return enumerator;
     }
 
@@ -50,7 +50,7 @@ final class AsyncInterval implements AsyncEnumerable<Long> {
 
         final AtomicLong available;
 
-        Future<?> task;
+        TimerService.Task task;
 
         long emitted;
 
@@ -85,9 +85,12 @@ final class AsyncInterval implements AsyncEnumerable<Long> {
         void drain() {
             if (getAndIncrement() == 0) {
                 do {
-                    if (emitted != available.get()) {
+                    // ticks before or between moveNext calls stay available for the next call
+                    CompletableFuture<Boolean> cf = completable;
+                    if (cf != null && emitted != available.get()) {
+                        completable = null;
                         result = emitted++;
-                        completable.complete(true);
+                        cf.complete(true);
                     }
                 } while (decrementAndGet() != 0);
             }
@@ -95,7 +98,7 @@ final class AsyncInterval implements AsyncEnumerable<Long> {
 
         @Override
         public void cancel() {
-            task.cancel(false);
+            task.cancel();
         }
     }
 }
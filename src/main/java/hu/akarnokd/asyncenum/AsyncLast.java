@@ -67,11 +67,7 @@ final class AsyncLast<T> implements AsyncEnumerable<T> {
         }
 
         void nextSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
-            }
+            AsyncEnumeratorHelper.drain(this, source, this);
         }
 
         @Override
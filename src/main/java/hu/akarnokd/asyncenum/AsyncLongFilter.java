@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.*;
+
+final class AsyncLongFilter implements LongAsyncEnumerable {
+
+    final LongAsyncEnumerable source;
+
+    final LongPredicate predicate;
+
+    AsyncLongFilter(LongAsyncEnumerable source, LongPredicate predicate) {
+        this.source = source;
+        this.predicate = predicate;
+    }
+
+    @Override
+    public LongAsyncEnumerator enumerator() {
+        return new LongFilterEnumerator(source.enumerator(), predicate);
+    }
+
+    static final class LongFilterEnumerator extends AtomicInteger implements LongAsyncEnumerator, BiConsumer<Boolean, Throwable> {
+
+        final LongAsyncEnumerator source;
+
+        final LongPredicate predicate;
+
+        final AsyncResettableStage<Boolean> current;
+
+        long currentItem;
+
+        LongFilterEnumerator(LongAsyncEnumerator source, LongPredicate predicate) {
+            this.source = source;
+            this.predicate = predicate;
+            this.current = new AsyncResettableStage<>();
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            current.reset();
+            moveNextSource();
+            return current;
+        }
+
+        @Override
+        public long currentLong() {
+            return currentItem;
+        }
+
+        void moveNextSource() {
+            AsyncEnumeratorHelper.drain(this, source, this);
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                current.completeExceptionally(throwable);
+                return;
+            }
+
+            if (aBoolean) {
+                long v = source.currentLong();
+                boolean pass;
+                try {
+                    pass = predicate.test(v);
+                } catch (Throwable ex) {
+                    source.cancel();
+                    current.completeExceptionally(ex);
+                    return;
+                }
+                if (pass) {
+                    currentItem = v;
+                    current.complete(true);
+                } else {
+                    moveNextSource();
+                }
+            } else {
+                current.complete(false);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            source.cancel();
+        }
+    }
+}
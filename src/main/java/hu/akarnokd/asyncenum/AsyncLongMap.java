@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.LongUnaryOperator;
+
+final class AsyncLongMap implements LongAsyncEnumerable {
+
+    final LongAsyncEnumerable source;
+
+    final LongUnaryOperator mapper;
+
+    AsyncLongMap(LongAsyncEnumerable source, LongUnaryOperator mapper) {
+        this.source = source;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public LongAsyncEnumerator enumerator() {
+        return new LongMapEnumerator(source.enumerator(), mapper);
+    }
+
+    static final class LongMapEnumerator implements LongAsyncEnumerator {
+
+        final LongAsyncEnumerator source;
+
+        final LongUnaryOperator mapper;
+
+        LongMapEnumerator(LongAsyncEnumerator source, LongUnaryOperator mapper) {
+            this.source = source;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            return source.moveNext();
+        }
+
+        @Override
+        public long currentLong() {
+            return mapper.applyAsLong(source.currentLong());
+        }
+
+        @Override
+        public void cancel() {
+            source.cancel();
+        }
+    }
+}
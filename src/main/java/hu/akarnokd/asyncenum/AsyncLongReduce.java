@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.*;
+
+final class AsyncLongReduce implements LongAsyncEnumerable {
+
+    final LongAsyncEnumerable source;
+
+    final LongBinaryOperator reducer;
+
+    AsyncLongReduce(LongAsyncEnumerable source, LongBinaryOperator reducer) {
+        this.source = source;
+        this.reducer = reducer;
+    }
+
+    @Override
+    public LongAsyncEnumerator enumerator() {
+        return new LongReduceEnumerator(source.enumerator(), reducer);
+    }
+
+    static final class LongReduceEnumerator
+            extends AtomicInteger
+            implements LongAsyncEnumerator, BiConsumer<Boolean, Throwable> {
+
+        final LongAsyncEnumerator source;
+
+        final LongBinaryOperator reducer;
+
+        boolean once;
+
+        boolean moveNextOnce;
+
+        long accumulator;
+
+        CompletableFuture<Boolean> completable;
+
+        volatile boolean cancelled;
+
+        LongReduceEnumerator(LongAsyncEnumerator source, LongBinaryOperator reducer) {
+            this.source = source;
+            this.reducer = reducer;
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            if (moveNextOnce) {
+                return AsyncEnumerable.FALSE;
+            }
+            moveNextOnce = true;
+            CompletableFuture<Boolean> cf = new CompletableFuture<>();
+            completable = cf;
+            nextSource();
+            return cf;
+        }
+
+        @Override
+        public long currentLong() {
+            return accumulator;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            source.cancel();
+        }
+
+        void nextSource() {
+            if (!cancelled) {
+                AsyncEnumeratorHelper.drain(this, source, this);
+            }
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                completable.completeExceptionally(throwable);
+                return;
+            }
+
+            if (aBoolean) {
+                if (once) {
+                    try {
+                        accumulator = reducer.applyAsLong(accumulator, source.currentLong());
+                    } catch (Throwable ex) {
+                        source.cancel();
+                        completable.completeExceptionally(ex);
+                        return;
+                    }
+                } else {
+                    once = true;
+                    accumulator = source.currentLong();
+                }
+                nextSource();
+            } else {
+                completable.complete(once);
+            }
+        }
+    }
+}
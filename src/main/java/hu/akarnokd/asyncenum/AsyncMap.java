@@ -32,7 +32,11 @@ final class AsyncMap<T, R> implements AsyncEnumerable<R> {
 
     @Override
     public AsyncEnumerator<R> enumerator() {
-        return new MapEnumerator<>(source.enumerator(), mapper);
+        AsyncEnumerator<T> en = source.enumerator();
+        if (en instanceof SyncAsyncEnumerator) {
+            return new MapSyncEnumerator<>((SyncAsyncEnumerator<T>)en, mapper);
+        }
+        return new MapEnumerator<>(en, mapper);
     }
 
     static final class MapEnumerator<T, R> implements AsyncEnumerator<R> {
@@ -61,4 +65,31 @@ final class AsyncMap<T, R> implements AsyncEnumerable<R> {
             source.cancel();
         }
     }
+
+    static final class MapSyncEnumerator<T, R> implements SyncAsyncEnumerator<R> {
+
+        final SyncAsyncEnumerator<T> source;
+
+        final Function<? super T, ? extends R> mapper;
+
+        MapSyncEnumerator(SyncAsyncEnumerator<T> source, Function<? super T, ? extends R> mapper) {
+            this.source = source;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryNext() {
+            return source.tryNext();
+        }
+
+        @Override
+        public R current() {
+            return mapper.apply(source.current());
+        }
+
+        @Override
+        public void cancel() {
+            source.cancel();
+        }
+    }
 }
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * Maps the upstream items onto CompletionStages, keeping up to a given number of them
+ * in flight in a fixed ring of slots, and relays their results either in upstream
+ * order or in completion order.
+ * @param <T> the upstream value type
+ * @param <R> the result value type
+ */
+final class AsyncMapAsync<T, R> implements AsyncEnumerable<R> {
+
+    final AsyncEnumerable<T> upstream;
+
+    final Function<? super T, ? extends CompletionStage<? extends R>> mapper;
+
+    final int parallelism;
+
+    final boolean ordered;
+
+    AsyncMapAsync(AsyncEnumerable<T> upstream, Function<? super T, ? extends CompletionStage<? extends R>> mapper,
+                  int parallelism, boolean ordered) {
+        this.upstream = upstream;
+        this.mapper = mapper;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public AsyncEnumerator<R> enumerator() {
+        MapAsyncEnumerator<T, R> en = new MapAsyncEnumerator<>(upstream.enumerator(), mapper, parallelism, ordered);
+        en.moveNextUpstream();
+        return en;
+    }
+
+    static final class MapAsyncEnumerator<T, R> implements AsyncEnumerator<R>, BiConsumer<Boolean, Throwable> {
+
+        final AsyncEnumerator<T> upstream;
+
+        final Function<? super T, ? extends CompletionStage<? extends R>> mapper;
+
+        final Slot<R>[] slots;
+
+        /** In unordered mode, the slots free to be used by the next upstream item. */
+        final SpscArrayQueue<Slot<R>> free;
+
+        /** In unordered mode, the slots in the order their stage completed. */
+        final MpscArrayQueue<Slot<R>> completed;
+
+        final AtomicReference<AsyncResettableStage<Boolean>> next;
+
+        final AsyncResettableStage<Boolean> stage;
+
+        final AtomicInteger wip;
+
+        final AtomicInteger upstreamWip;
+
+        final AtomicInteger upstreamPermits;
+
+        final AtomicReference<Throwable> error;
+
+        final int parallelism;
+
+        /** In ordered mode, the slot index of the next upstream item; accessed by the upstream consumer only. */
+        int producerIndex;
+
+        /** In ordered mode, the slot index of the next item to relay; accessed by the drain loop only. */
+        int consumerIndex;
+
+        R current;
+
+        volatile boolean cancelled;
+
+        volatile boolean upstreamBusy;
+
+        volatile boolean upstreamDone;
+
+        @SuppressWarnings("unchecked")
+        MapAsyncEnumerator(AsyncEnumerator<T> upstream, Function<? super T, ? extends CompletionStage<? extends R>> mapper,
+                           int parallelism, boolean ordered) {
+            this.upstream = upstream;
+            this.mapper = mapper;
+            this.parallelism = parallelism;
+            this.slots = new Slot[parallelism];
+            for (int i = 0; i < parallelism; i++) {
+                slots[i] = new Slot<>(this);
+            }
+            if (ordered) {
+                this.free = null;
+                this.completed = null;
+            } else {
+                this.free = new SpscArrayQueue<>(parallelism);
+                this.completed = new MpscArrayQueue<>(parallelism);
+                for (Slot<R> slot : slots) {
+                    free.offer(slot);
+                }
+            }
+            this.upstreamPermits = new AtomicInteger(parallelism);
+            this.next = new AtomicReference<>();
+            this.stage = new AsyncResettableStage<>();
+            this.wip = new AtomicInteger();
+            this.upstreamWip = new AtomicInteger();
+            this.error = new AtomicReference<>();
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            AsyncResettableStage<Boolean> nx = stage.reset();
+            next.set(nx);
+            drain();
+            return nx;
+        }
+
+        @Override
+        public R current() {
+            return current;
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            do {
+                for (;;) {
+                    AsyncResettableStage<Boolean> nx = next.get();
+                    if (nx == null) {
+                        break;
+                    }
+                    Throwable ex = error.get();
+                    if (ex != null) {
+                        next.set(null);
+                        nx.completeExceptionally(ex);
+                        return;
+                    }
+
+                    boolean d = upstreamDone;
+                    boolean idle = upstreamPermits.get() == parallelism;
+                    Slot<R> slot;
+                    if (completed == null) {
+                        slot = slots[consumerIndex];
+                        if (!slot.done) {
+                            slot = null;
+                        }
+                    } else {
+                        slot = completed.poll();
+                    }
+
+                    if (slot == null) {
+                        if (d && idle) {
+                            next.set(null);
+                            nx.complete(false);
+                            return;
+                        }
+                        break;
+                    }
+
+                    R v = slot.value;
+                    ex = slot.error;
+                    slot.value = null;
+                    slot.error = null;
+                    slot.done = false;
+                    if (completed == null) {
+                        int ci = consumerIndex + 1;
+                        consumerIndex = ci == parallelism ? 0 : ci;
+                    } else {
+                        free.offer(slot);
+                    }
+
+                    if (ex != null) {
+                        error.compareAndSet(null, ex);
+                        cancel();
+                        continue;
+                    }
+
+                    upstreamPermits.getAndIncrement();
+                    moveNextUpstream();
+
+                    // stages completing with null don't produce an item
+                    if (v != null) {
+                        next.set(null);
+                        current = v;
+                        nx.complete(true);
+                    }
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        void moveNextUpstream() {
+            if (upstreamWip.getAndIncrement() == 0) {
+                do {
+                    if (!upstreamBusy && !upstreamDone && !cancelled && upstreamPermits.get() > 0) {
+                        upstreamPermits.getAndDecrement();
+                        upstreamBusy = true;
+                        upstream.moveNext().whenComplete(this);
+                    }
+                } while (upstreamWip.decrementAndGet() != 0);
+            }
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                error.compareAndSet(null, throwable);
+                upstreamDone = true;
+                drain();
+                return;
+            }
+            if (aBoolean) {
+                CompletionStage<? extends R> cs;
+                try {
+                    cs = mapper.apply(upstream.current());
+                } catch (Throwable ex) {
+                    error.compareAndSet(null, ex);
+                    upstreamDone = true;
+                    upstream.cancel();
+                    drain();
+                    return;
+                }
+                Slot<R> slot;
+                if (completed == null) {
+                    int pi = producerIndex;
+                    slot = slots[pi];
+                    producerIndex = pi + 1 == parallelism ? 0 : pi + 1;
+                } else {
+                    slot = free.poll();
+                }
+                upstreamBusy = false;
+                cs.whenComplete(slot);
+                moveNextUpstream();
+            } else {
+                upstreamPermits.getAndIncrement();
+                upstreamDone = true;
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            upstream.cancel();
+        }
+
+        static final class Slot<R> implements BiConsumer<R, Throwable> {
+
+            final MapAsyncEnumerator<?, R> parent;
+
+            R value;
+
+            Throwable error;
+
+            volatile boolean done;
+
+            Slot(MapAsyncEnumerator<?, R> parent) {
+                this.parent = parent;
+            }
+
+            @Override
+            public void accept(R r, Throwable throwable) {
+                value = r;
+                error = throwable;
+                MpscArrayQueue<Slot<R>> q = parent.completed;
+                if (q != null) {
+                    q.offer(this);
+                } else {
+                    done = true;
+                }
+                parent.drain();
+            }
+        }
+    }
+}
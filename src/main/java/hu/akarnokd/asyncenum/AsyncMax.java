@@ -76,13 +76,8 @@ final class AsyncMax<T> implements AsyncEnumerable<T> {
         }
 
         void collectSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    if (cancelled) {
-                        return;
-                    }
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
+            if (!cancelled) {
+                AsyncEnumeratorHelper.drain(this, source, this);
             }
         }
 
@@ -97,7 +92,17 @@ final class AsyncMax<T> implements AsyncEnumerable<T> {
             if (aBoolean) {
                 if (hasValue) {
                     T curr = source.current();
-                    if (comparator.compare(max, curr) <= 0) {
+                    int c;
+                    try {
+                        c = comparator.compare(max, curr);
+                    } catch (Throwable ex) {
+                        source.cancel();
+                        done = true;
+                        max = null;
+                        completable.completeExceptionally(ex);
+                        return;
+                    }
+                    if (c <= 0) {
                         max = curr;
                     }
                 } else {
@@ -17,6 +17,7 @@
 package hu.akarnokd.asyncenum;
 
 import java.util.concurrent.*;
+import java.util.function.BiConsumer;
 
 final class AsyncObserveOn<T> implements AsyncEnumerable<T> {
 
@@ -34,22 +35,49 @@ final class AsyncObserveOn<T> implements AsyncEnumerable<T> {
         return new ObserveOnEnumerator<>(source.enumerator(), executor);
     }
 
-    static final class ObserveOnEnumerator<T> implements AsyncEnumerator<T> {
+    static final class ObserveOnEnumerator<T> implements AsyncEnumerator<T>, BiConsumer<Boolean, Throwable>, Runnable {
 
         final AsyncEnumerator<T> source;
 
         final Executor executor;
 
+        final AsyncResettableStage<Boolean> stage;
+
+        Boolean hasValue;
+
+        Throwable error;
+
         ObserveOnEnumerator(AsyncEnumerator<T> source, Executor executor) {
             this.source = source;
             this.executor = executor;
+            this.stage = new AsyncResettableStage<>(executor);
         }
 
         @Override
         public CompletionStage<Boolean> moveNext() {
-            AsyncCompletableFuture<Boolean> cf = new AsyncCompletableFuture<>();
-            source.moveNext().whenCompleteAsync(cf, executor);
-            return cf;
+            stage.reset();
+            source.moveNext().whenComplete(this);
+            return stage;
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            hasValue = aBoolean;
+            error = throwable;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException ex) {
+                stage.completeExceptionally(ex);
+            }
+        }
+
+        @Override
+        public void run() {
+            Throwable ex = error;
+            Boolean b = hasValue;
+            error = null;
+            hasValue = null;
+            stage.accept(b, ex);
         }
 
         @Override
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Prefetches items from the upstream into a bounded buffer and only hops
+ * over to the executor when the consumer has to wait for an item.
+ * @param <T> the value type
+ */
+final class AsyncObserveOnPrefetch<T> implements AsyncEnumerable<T> {
+
+    final AsyncEnumerable<T> source;
+
+    final Executor executor;
+
+    final int prefetch;
+
+    AsyncObserveOnPrefetch(AsyncEnumerable<T> source, Executor executor, int prefetch) {
+        this.source = source;
+        this.executor = executor;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public AsyncEnumerator<T> enumerator() {
+        ObserveOnPrefetchEnumerator<T> en = new ObserveOnPrefetchEnumerator<>(source.enumerator(), executor, prefetch);
+        en.moveNextSource();
+        return en;
+    }
+
+    static final class ObserveOnPrefetchEnumerator<T> extends AtomicInteger
+            implements AsyncEnumerator<T>, BiConsumer<Boolean, Throwable>, Runnable {
+
+        final AsyncEnumerator<T> source;
+
+        final Executor executor;
+
+        final int prefetch;
+
+        final int limit;
+
+        final SpscArrayQueue<Object> queue;
+
+        final AtomicInteger sourceWip;
+
+        final AtomicLong consumed;
+
+        final AsyncResettableStage<Boolean> stage;
+
+        volatile AsyncResettableStage<Boolean> completable;
+
+        volatile boolean done;
+        Throwable error;
+
+        volatile boolean cancelled;
+
+        volatile boolean sourceBusy;
+
+        volatile Thread drainThread;
+
+        long produced;
+
+        int consumedLocal;
+
+        T current;
+
+        ObserveOnPrefetchEnumerator(AsyncEnumerator<T> source, Executor executor, int prefetch) {
+            this.source = source;
+            this.executor = executor;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.queue = new SpscArrayQueue<>(prefetch);
+            this.sourceWip = new AtomicInteger();
+            this.consumed = new AtomicLong();
+            this.stage = new AsyncResettableStage<>(executor);
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            current = null;
+            if (drainThread == Thread.currentThread()) {
+                // called from within run(): keep serving from the buffer without a new hop
+                boolean d = done;
+                Object v = queue.poll();
+                if (v != null) {
+                    current = QueueHelper.unwrapNull(v);
+                    consumedOne();
+                    return TRUE;
+                }
+                AsyncResettableStage<Boolean> cf = stage.reset();
+                if (d) {
+                    Throwable ex = error;
+                    if (ex != null) {
+                        cf.completeExceptionally(ex);
+                    } else {
+                        cf.complete(false);
+                    }
+                    return cf;
+                }
+                completable = cf;
+                return cf;
+            }
+            AsyncResettableStage<Boolean> cf = stage.reset();
+            completable = cf;
+            signal();
+            return cf;
+        }
+
+        @Override
+        public T current() {
+            return current;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            source.cancel();
+        }
+
+        void moveNextSource() {
+            if (sourceWip.getAndIncrement() == 0) {
+                do {
+                    if (!sourceBusy && !done && !cancelled && produced - consumed.get() < prefetch) {
+                        sourceBusy = true;
+                        source.moveNext().whenComplete(this);
+                    }
+                } while (sourceWip.decrementAndGet() != 0);
+            }
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                error = throwable;
+                done = true;
+            } else if (aBoolean) {
+                queue.offer(QueueHelper.wrapNull(source.current()));
+                produced++;
+                sourceBusy = false;
+                signal();
+                moveNextSource();
+                return;
+            } else {
+                done = true;
+            }
+            signal();
+        }
+
+        void consumedOne() {
+            int c = consumedLocal + 1;
+            if (c == limit) {
+                consumedLocal = 0;
+                consumed.addAndGet(c);
+                moveNextSource();
+            } else {
+                consumedLocal = c;
+            }
+        }
+
+        void signal() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                if (completable != null && (done || !queue.isEmpty())) {
+                    try {
+                        executor.execute(this);
+                    } catch (RejectedExecutionException ex) {
+                        AsyncResettableStage<Boolean> cf = completable;
+                        completable = null;
+                        cf.completeExceptionally(ex);
+                    }
+                    return;
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            drainThread = Thread.currentThread();
+            int missed = 1;
+            for (;;) {
+                for (;;) {
+                    AsyncResettableStage<Boolean> cf = completable;
+                    if (cf == null) {
+                        break;
+                    }
+                    boolean d = done;
+                    Object v = queue.poll();
+                    boolean empty = v == null;
+
+                    if (d && empty) {
+                        completable = null;
+                        drainThread = null;
+                        Throwable ex = error;
+                        if (ex != null) {
+                            cf.completeExceptionally(ex);
+                        } else {
+                            cf.complete(false);
+                        }
+                        return;
+                    }
+
+                    if (empty) {
+                        break;
+                    }
+
+                    completable = null;
+                    current = QueueHelper.unwrapNull(v);
+                    consumedOne();
+                    cf.complete(true);
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+            drainThread = null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.*;
+
+/**
+ * Global hooks invoked when operators are assembled and when their
+ * enumerators are requested.
+ * <p>
+ *     When no hooks are set, the overhead on the operator methods of
+ *     {@link AsyncEnumerable} is a single volatile read.
+ *     The enumerator hook applies to the {@code AsyncEnumerable}s assembled
+ *     while it is set.
+ * </p>
+ */
+public final class AsyncPlugins {
+
+    static final AtomicReference<Hooks> HOOKS = new AtomicReference<>();
+
+    private AsyncPlugins() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    /**
+     * Sets the function called with each newly assembled {@link AsyncEnumerable}
+     * whose return value replaces it.
+     * @param onAssembly the function, null removes the hook
+     */
+    public static void setOnAssembly(Function<? super AsyncEnumerable<?>, ? extends AsyncEnumerable<?>> onAssembly) {
+        for (;;) {
+            Hooks h = HOOKS.get();
+            Hooks u = Hooks.create(onAssembly, h != null ? h.onEnumerator : null);
+            if (HOOKS.compareAndSet(h, u)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the current assembly hook.
+     * @return the current assembly hook or null if not set
+     */
+    public static Function<? super AsyncEnumerable<?>, ? extends AsyncEnumerable<?>> getOnAssembly() {
+        Hooks h = HOOKS.get();
+        return h != null ? h.onAssembly : null;
+    }
+
+    /**
+     * Sets the function called with the {@link AsyncEnumerable} and its
+     * freshly created {@link AsyncEnumerator} whose return value replaces the enumerator.
+     * @param onEnumerator the function, null removes the hook
+     */
+    public static void setOnEnumerator(BiFunction<? super AsyncEnumerable<?>, ? super AsyncEnumerator<?>, ? extends AsyncEnumerator<?>> onEnumerator) {
+        for (;;) {
+            Hooks h = HOOKS.get();
+            Hooks u = Hooks.create(h != null ? h.onAssembly : null, onEnumerator);
+            if (HOOKS.compareAndSet(h, u)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the current enumerator hook.
+     * @return the current enumerator hook or null if not set
+     */
+    public static BiFunction<? super AsyncEnumerable<?>, ? super AsyncEnumerator<?>, ? extends AsyncEnumerator<?>> getOnEnumerator() {
+        Hooks h = HOOKS.get();
+        return h != null ? h.onEnumerator : null;
+    }
+
+    /**
+     * Removes all hooks.
+     */
+    public static void reset() {
+        HOOKS.set(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> AsyncEnumerable<T> onAssembly(AsyncEnumerable<T> source) {
+        Hooks h = HOOKS.get();
+        if (h == null) {
+            return source;
+        }
+        Function<? super AsyncEnumerable<?>, ? extends AsyncEnumerable<?>> a = h.onAssembly;
+        if (a != null) {
+            source = (AsyncEnumerable<T>)a.apply(source);
+        }
+        BiFunction<? super AsyncEnumerable<?>, ? super AsyncEnumerator<?>, ? extends AsyncEnumerator<?>> e = h.onEnumerator;
+        if (e != null) {
+            source = new AsyncOnEnumerator<>(source, e);
+        }
+        return source;
+    }
+
+    static final class Hooks {
+
+        final Function<? super AsyncEnumerable<?>, ? extends AsyncEnumerable<?>> onAssembly;
+
+        final BiFunction<? super AsyncEnumerable<?>, ? super AsyncEnumerator<?>, ? extends AsyncEnumerator<?>> onEnumerator;
+
+        Hooks(Function<? super AsyncEnumerable<?>, ? extends AsyncEnumerable<?>> onAssembly,
+              BiFunction<? super AsyncEnumerable<?>, ? super AsyncEnumerator<?>, ? extends AsyncEnumerator<?>> onEnumerator) {
+            this.onAssembly = onAssembly;
+            this.onEnumerator = onEnumerator;
+        }
+
+        static Hooks create(Function<? super AsyncEnumerable<?>, ? extends AsyncEnumerable<?>> onAssembly,
+                            BiFunction<? super AsyncEnumerable<?>, ? super AsyncEnumerator<?>, ? extends AsyncEnumerator<?>> onEnumerator) {
+            if (onAssembly == null && onEnumerator == null) {
+                return null;
+            }
+            return new Hooks(onAssembly, onEnumerator);
+        }
+    }
+}
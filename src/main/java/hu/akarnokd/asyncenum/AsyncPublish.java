@@ -60,7 +60,9 @@ final class AsyncPublish<T, R> implements AsyncEnumerable<R> {
 
         volatile boolean cancelled;
 
-        volatile CompletableFuture<Boolean> outputCompletable;
+        final AsyncResettableStage<Boolean> outputStage;
+
+        volatile AsyncResettableStage<Boolean> outputCompletable;
 
         R outputResult;
 
@@ -73,6 +75,7 @@ final class AsyncPublish<T, R> implements AsyncEnumerable<R> {
             enumeratorWip = new AtomicInteger();
             sourceWip = new AtomicInteger();
             outputWip = new AtomicInteger();
+            outputStage = new AsyncResettableStage<>();
         }
 
         boolean add(PublishEnumerator<T, R> en) {
@@ -175,7 +178,7 @@ final class AsyncPublish<T, R> implements AsyncEnumerable<R> {
 
         @Override
         public CompletionStage<Boolean> moveNext() {
-            CompletableFuture<Boolean> cf = new CompletableFuture<>();
+            AsyncResettableStage<Boolean> cf = outputStage.reset();
             outputCompletable = cf;
             nextOutput();
             return cf;
@@ -248,14 +251,16 @@ final class AsyncPublish<T, R> implements AsyncEnumerable<R> {
             output.cancel();
         }
 
-        static final class PublishEnumerator<T, R> extends AtomicInteger implements AsyncEnumerator<T> {
+        static final class PublishEnumerator<T, R> extends AtomicInteger implements AsyncEnumerator<T>, HasQueueSize {
 
             final PublishCoordinator<T, R> parent;
 
             volatile long requested;
             long emitted;
 
-            volatile CompletableFuture<Boolean> completable;
+            final AsyncResettableStage<Boolean> stage;
+
+            volatile AsyncResettableStage<Boolean> completable;
 
             T result;
             volatile boolean hasResult;
@@ -268,6 +273,7 @@ final class AsyncPublish<T, R> implements AsyncEnumerable<R> {
 
             PublishEnumerator(PublishCoordinator<T, R> parent) {
                 this.parent = parent;
+                this.stage = new AsyncResettableStage<>();
             }
 
             @Override
@@ -278,7 +284,7 @@ final class AsyncPublish<T, R> implements AsyncEnumerable<R> {
                 } else {
                     once = true;
                 }
-                CompletableFuture<Boolean> cf = new CompletableFuture<>();
+                AsyncResettableStage<Boolean> cf = stage.reset();
                 completable = cf;
                 requested = requested + 1;
                 parent.enumeratorReady();
@@ -291,6 +297,18 @@ final class AsyncPublish<T, R> implements AsyncEnumerable<R> {
                 return result;
             }
 
+            /** Reports the number of enumerators still holding the shared item. */
+            @Override
+            public int queueSize() {
+                int n = 0;
+                for (PublishEnumerator<T, R> pe : parent.enumerators.get()) {
+                    if (pe.hasResult) {
+                        n++;
+                    }
+                }
+                return n;
+            }
+
             @Override
             public void cancel() {
                 cancelled = true;
@@ -301,7 +319,7 @@ final class AsyncPublish<T, R> implements AsyncEnumerable<R> {
             void drain() {
                 if (getAndIncrement() == 0) {
                     do {
-                        CompletableFuture<Boolean> cf = completable;
+                        AsyncResettableStage<Boolean> cf = completable;
                         if (cf != null) {
                             Throwable ex = error;
                             if (ex != null) {
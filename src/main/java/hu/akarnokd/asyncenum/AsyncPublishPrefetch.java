@@ -0,0 +1,378 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * Shares the source among the enumerators of the handler through a ring buffer,
+ * letting each of them lag behind the source by up to the given number of items.
+ * <p>
+ *     Enumerators joining later start with the next item the source produces.
+ * </p>
+ * @param <T> the source value type
+ * @param <R> the result value type
+ */
+final class AsyncPublishPrefetch<T, R> implements AsyncEnumerable<R> {
+
+    final AsyncEnumerable<T> source;
+
+    final Function<? super AsyncEnumerable<T>, ? extends AsyncEnumerable<R>> handler;
+
+    final int prefetch;
+
+    AsyncPublishPrefetch(AsyncEnumerable<T> source, Function<? super AsyncEnumerable<T>, ? extends AsyncEnumerable<R>> handler,
+                         int prefetch) {
+        this.source = source;
+        this.handler = handler;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public AsyncEnumerator<R> enumerator() {
+        PublishPrefetchCoordinator<T, R> coordinator = new PublishPrefetchCoordinator<>(prefetch);
+        coordinator.output = handler.apply(coordinator).enumerator();
+        // the enumerators created by the handler all join before the source is pulled
+        coordinator.source = source.enumerator();
+        coordinator.moveNextSource();
+        return coordinator;
+    }
+
+    static final class PublishPrefetchCoordinator<T, R> implements BiConsumer<Boolean, Throwable>, AsyncEnumerable<T>, AsyncEnumerator<R> {
+
+        /** Marks an enumerator whose start index is not yet established. */
+        static final long JOINING = Long.MAX_VALUE;
+
+        @SuppressWarnings("rawtypes")
+        static final PublishPrefetchEnumerator[] EMPTY = new PublishPrefetchEnumerator[0];
+
+        volatile AsyncEnumerator<T> source;
+
+        AsyncEnumerator<R> output;
+
+        final AtomicReference<PublishPrefetchEnumerator<T, R>[]> enumerators;
+
+        final Object[] buffer;
+
+        final int mask;
+
+        final int prefetch;
+
+        final int limit;
+
+        final AtomicInteger sourceWip;
+
+        final AtomicInteger outputWip;
+
+        final AsyncResettableStage<Boolean> outputStage;
+
+        volatile AsyncResettableStage<Boolean> outputCompletable;
+
+        R outputResult;
+
+        /** The index of the next item to be written into the buffer. */
+        volatile long producerIndex;
+
+        volatile boolean sourceBusy;
+
+        volatile boolean sourceDone;
+        Throwable sourceError;
+
+        volatile boolean cancelled;
+
+        @SuppressWarnings("unchecked")
+        PublishPrefetchCoordinator(int prefetch) {
+            int c = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(prefetch, 2) - 1));
+            this.buffer = new Object[c];
+            this.mask = c - 1;
+            this.prefetch = prefetch;
+            this.limit = Math.max(1, prefetch - (prefetch >> 2));
+            this.enumerators = new AtomicReference<>(EMPTY);
+            this.sourceWip = new AtomicInteger();
+            this.outputWip = new AtomicInteger();
+            this.outputStage = new AsyncResettableStage<>();
+        }
+
+        void add(PublishPrefetchEnumerator<T, R> en) {
+            for (;;) {
+                PublishPrefetchEnumerator<T, R>[] a = enumerators.getAcquire();
+                int n = a.length;
+                @SuppressWarnings("unchecked")
+                PublishPrefetchEnumerator<T, R>[] b = new PublishPrefetchEnumerator[n + 1];
+                System.arraycopy(a, 0, b, 0, n);
+                b[n] = en;
+                if (enumerators.compareAndSet(a, b)) {
+                    return;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void remove(PublishPrefetchEnumerator<T, R> en) {
+            for (;;) {
+                PublishPrefetchEnumerator<T, R>[] a = enumerators.getAcquire();
+                int n = a.length;
+                int j = -1;
+                for (int i = 0; i < n; i++) {
+                    if (a[i] == en) {
+                        j = i;
+                        break;
+                    }
+                }
+
+                if (j < 0) {
+                    return;
+                }
+                PublishPrefetchEnumerator<T, R>[] b;
+                if (n == 1) {
+                    b = EMPTY;
+                } else {
+                    b = new PublishPrefetchEnumerator[n - 1];
+                    System.arraycopy(a, 0, b, 0, j);
+                    System.arraycopy(a, j + 1, b, j, n - j - 1);
+                }
+                if (enumerators.compareAndSet(a, b)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Returns true if the slowest enumerator lags less than prefetch items behind
+         * and no enumerator is still joining.
+         */
+        boolean canProduce(PublishPrefetchEnumerator<T, R>[] ens, long pi) {
+            if (ens.length == 0) {
+                return false;
+            }
+            long min = pi;
+            for (PublishPrefetchEnumerator<T, R> pe : ens) {
+                long idx = pe.index;
+                if (idx == JOINING) {
+                    return false;
+                }
+                min = Math.min(min, idx);
+            }
+            return pi - min < prefetch;
+        }
+
+        void moveNextSource() {
+            if (sourceWip.getAndIncrement() == 0) {
+                do {
+                    AsyncEnumerator<T> en = source;
+                    while (en != null && !sourceBusy && !sourceDone && !cancelled) {
+                        PublishPrefetchEnumerator<T, R>[] ens = enumerators.getAcquire();
+                        long pi = producerIndex;
+                        if (!canProduce(ens, pi)) {
+                            break;
+                        }
+                        CompletionStage<Boolean> stage = en.moveNext();
+                        // synchronous sources are pulled in this loop instead of recursing via whenComplete
+                        if (stage == AsyncEnumerable.TRUE) {
+                            onItem(en.current());
+                        } else if (stage == AsyncEnumerable.FALSE) {
+                            onDone(null);
+                        } else {
+                            sourceBusy = true;
+                            stage.whenComplete(this);
+                        }
+                    }
+                } while (sourceWip.decrementAndGet() != 0);
+            }
+        }
+
+        void onItem(T item) {
+            long pi = producerIndex;
+            buffer[(int)pi & mask] = item;
+            producerIndex = pi + 1;
+            for (PublishPrefetchEnumerator<T, R> pe : enumerators.getAcquire()) {
+                pe.drain();
+            }
+        }
+
+        void onDone(Throwable ex) {
+            sourceError = ex;
+            sourceDone = true;
+            for (PublishPrefetchEnumerator<T, R> pe : enumerators.getAcquire()) {
+                pe.drain();
+            }
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                onDone(throwable);
+            } else if (aBoolean) {
+                onItem(source.current());
+                sourceBusy = false;
+                moveNextSource();
+            } else {
+                onDone(null);
+            }
+        }
+
+        @Override
+        public AsyncEnumerator<T> enumerator() {
+            PublishPrefetchEnumerator<T, R> pe = new PublishPrefetchEnumerator<>(this);
+            add(pe);
+            pe.index = producerIndex;
+            moveNextSource();
+            return pe;
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            AsyncResettableStage<Boolean> cf = outputStage.reset();
+            outputCompletable = cf;
+            nextOutput();
+            return cf;
+        }
+
+        @Override
+        public R current() {
+            return outputResult;
+        }
+
+        void acceptOutput(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                source.cancel();
+                outputCompletable.completeExceptionally(throwable);
+                return;
+            }
+
+            if (aBoolean) {
+                outputResult = output.current();
+                outputCompletable.complete(true);
+            } else {
+                source.cancel();
+                outputCompletable.complete(false);
+            }
+        }
+
+        void nextOutput() {
+            if (outputWip.getAndIncrement() == 0) {
+                do {
+                    if (cancelled) {
+                        return;
+                    }
+                    output.moveNext().whenComplete(this::acceptOutput);
+                } while (outputWip.decrementAndGet() != 0);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            source.cancel();
+            output.cancel();
+        }
+
+        static final class PublishPrefetchEnumerator<T, R> extends AtomicInteger implements AsyncEnumerator<T>, HasQueueSize {
+
+            final PublishPrefetchCoordinator<T, R> parent;
+
+            final AsyncResettableStage<Boolean> stage;
+
+            /** The index of the next item to read from the shared buffer. */
+            volatile long index;
+
+            volatile AsyncResettableStage<Boolean> completable;
+
+            int consumed;
+
+            T result;
+
+            PublishPrefetchEnumerator(PublishPrefetchCoordinator<T, R> parent) {
+                this.parent = parent;
+                this.stage = new AsyncResettableStage<>();
+                this.index = JOINING;
+            }
+
+            @Override
+            public CompletionStage<Boolean> moveNext() {
+                result = null;
+                if (poll()) {
+                    return TRUE;
+                }
+                AsyncResettableStage<Boolean> cf = stage.reset();
+                completable = cf;
+                parent.moveNextSource();
+                drain();
+                return cf;
+            }
+
+            @SuppressWarnings("unchecked")
+            boolean poll() {
+                long idx = index;
+                if (idx != parent.producerIndex) {
+                    result = (T)parent.buffer[(int)idx & parent.mask];
+                    index = idx + 1;
+                    int c = consumed + 1;
+                    if (c == parent.limit) {
+                        consumed = 0;
+                        parent.moveNextSource();
+                    } else {
+                        consumed = c;
+                    }
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            public T current() {
+                return result;
+            }
+
+            @Override
+            public int queueSize() {
+                long idx = index;
+                return idx == JOINING ? 0 : (int)Math.min(parent.producerIndex - idx, Integer.MAX_VALUE);
+            }
+
+            @Override
+            public void cancel() {
+                parent.remove(this);
+                parent.moveNextSource();
+            }
+
+            void drain() {
+                if (getAndIncrement() == 0) {
+                    do {
+                        AsyncResettableStage<Boolean> cf = completable;
+                        if (cf != null) {
+                            boolean d = parent.sourceDone;
+                            if (poll()) {
+                                completable = null;
+                                cf.complete(true);
+                            } else if (d) {
+                                completable = null;
+                                Throwable ex = parent.sourceError;
+                                if (ex != null) {
+                                    cf.completeExceptionally(ex);
+                                } else {
+                                    cf.complete(false);
+                                }
+                            }
+                        }
+                    } while (decrementAndGet() != 0);
+                }
+            }
+        }
+    }
+}
@@ -16,9 +16,6 @@
 
 package hu.akarnokd.asyncenum;
 
-import java.util.concurrent.CompletionStage;
-import java.util.function.Consumer;
-
 final class AsyncRange implements AsyncEnumerable<Integer> {
 
     final int start;
@@ -35,7 +32,7 @@ final class AsyncRange implements AsyncEnumerable<Integer> {
         return new AsyncRangeEnumerator(start, start + count);
     }
 
-    static final class AsyncRangeEnumerator implements AsyncEnumerator<Integer> {
+    static final class AsyncRangeEnumerator implements SyncAsyncEnumerator<Integer> {
 
         final int end;
 
@@ -49,15 +46,15 @@ final class AsyncRange implements AsyncEnumerable<Integer> {
         }
 
         @Override
-        public CompletionStage<Boolean> moveNext() {
+        public boolean tryNext() {
             int idx = index;
             if (idx == end) {
                 current = null;
-                return FALSE;
+                return false;
             }
             current = idx;
             index = idx + 1;
-            return TRUE;
+            return true;
         }
 
         @Override
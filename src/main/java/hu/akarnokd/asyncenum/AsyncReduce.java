@@ -86,13 +86,8 @@ final class AsyncReduce<T> implements AsyncEnumerable<T> {
         }
 
         void nextSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    if (cancelled) {
-                        return;
-                    }
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
+            if (!cancelled) {
+                AsyncEnumeratorHelper.drain(this, source, this);
             }
         }
 
@@ -106,7 +101,14 @@ final class AsyncReduce<T> implements AsyncEnumerable<T> {
 
             if (aBoolean) {
                 if (once) {
-                    accumulator = reducer.apply(accumulator, source.current());
+                    try {
+                        accumulator = reducer.apply(accumulator, source.current());
+                    } catch (Throwable ex) {
+                        source.cancel();
+                        accumulator = null;
+                        completable.completeExceptionally(ex);
+                        return;
+                    }
                 } else {
                     once = true;
                     accumulator = source.current();
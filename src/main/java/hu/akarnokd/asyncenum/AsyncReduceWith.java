@@ -77,13 +77,8 @@ final class AsyncReduceWith<T, R> implements AsyncEnumerable<R> {
         }
 
         void nextSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    if (cancelled) {
-                        return;
-                    }
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
+            if (!cancelled) {
+                AsyncEnumeratorHelper.drain(this, source, this);
             }
         }
 
@@ -107,7 +102,14 @@ final class AsyncReduceWith<T, R> implements AsyncEnumerable<R> {
             }
 
             if (aBoolean) {
-                accumulator = reducer.apply(accumulator, source.current());
+                try {
+                    accumulator = reducer.apply(accumulator, source.current());
+                } catch (Throwable ex) {
+                    source.cancel();
+                    accumulator = null;
+                    completable.completeExceptionally(ex);
+                    return;
+                }
                 nextSource();
             } else {
                 result = accumulator;
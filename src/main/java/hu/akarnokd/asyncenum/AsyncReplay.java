@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Shares the source among the enumerators created inside the handler, replaying
+ * the retained items to those that start late; each enumeration of this
+ * AsyncEnumerable connects to the source anew.
+ * @param <T> the source value type
+ * @param <R> the result value type
+ */
+final class AsyncReplay<T, R> implements AsyncEnumerable<R> {
+
+    final AsyncEnumerable<T> source;
+
+    final Function<? super AsyncEnumerable<T>, ? extends AsyncEnumerable<R>> handler;
+
+    final long maxItems;
+
+    final long maxAge;
+
+    final TimeUnit unit;
+
+    final TimerService clock;
+
+    AsyncReplay(AsyncEnumerable<T> source, Function<? super AsyncEnumerable<T>, ? extends AsyncEnumerable<R>> handler,
+                long maxItems, long maxAge, TimeUnit unit, TimerService clock) {
+        this.source = source;
+        this.handler = handler;
+        this.maxItems = maxItems;
+        this.maxAge = maxAge;
+        this.unit = unit;
+        this.clock = clock;
+    }
+
+    @Override
+    public AsyncEnumerator<R> enumerator() {
+        AsyncCache<T> cache = new AsyncCache<>(source, maxItems, maxAge, unit, clock);
+        return new ReplayEnumerator<>(cache, handler.apply(cache).enumerator());
+    }
+
+    static final class ReplayEnumerator<T, R> implements AsyncEnumerator<R>, BiConsumer<Boolean, Throwable> {
+
+        final AsyncCache<T> cache;
+
+        final AsyncEnumerator<R> output;
+
+        final AsyncResettableStage<Boolean> stage;
+
+        AsyncResettableStage<Boolean> completable;
+
+        ReplayEnumerator(AsyncCache<T> cache, AsyncEnumerator<R> output) {
+            this.cache = cache;
+            this.output = output;
+            this.stage = new AsyncResettableStage<>();
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            CompletionStage<Boolean> s = output.moveNext();
+            if (s == TRUE) {
+                return TRUE;
+            }
+            if (s == FALSE) {
+                cache.cancel();
+                return FALSE;
+            }
+            AsyncResettableStage<Boolean> cf = stage.reset();
+            completable = cf;
+            s.whenComplete(this);
+            return cf;
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            AsyncResettableStage<Boolean> cf = completable;
+            if (throwable != null) {
+                cache.cancel();
+                cf.completeExceptionally(throwable);
+            } else if (aBoolean) {
+                cf.complete(true);
+            } else {
+                cache.cancel();
+                cf.complete(false);
+            }
+        }
+
+        @Override
+        public R current() {
+            return output.current();
+        }
+
+        @Override
+        public void cancel() {
+            output.cancel();
+            cache.cancel();
+        }
+    }
+}
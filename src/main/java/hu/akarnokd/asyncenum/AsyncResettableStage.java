@@ -0,0 +1,359 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.*;
+
+/**
+ * A CompletionStage that can be reset into the pending state and completed again,
+ * allowing an AsyncEnumerator to hand out the same instance from each of its
+ * {@code moveNext()} calls.
+ * <p>
+ *     The enumerator contract of not calling {@code moveNext()} before the
+ *     previous stage terminated makes this safe: {@link #reset()} is only called
+ *     once all callbacks of the previous round have been invoked.
+ * </p>
+ * <p>
+ *     {@link #whenComplete(BiConsumer)} registers the callback without allocation
+ *     and returns this stage; exceptions thrown by such callbacks are routed to the
+ *     current thread's {@code UncaughtExceptionHandler} instead of failing a dependent
+ *     stage, as the operators never observe the stage returned by
+ *     {@code CompletableFuture.whenComplete}. All other composition methods go through
+ *     a fresh {@link AsyncCompletableFuture} obtained via {@link #toCompletableFuture()}.
+ * </p>
+ * <p>
+ *     If an Executor is given, callbacks registered after the stage has completed
+ *     are run on it instead of on the registering thread, so that an async
+ *     boundary is kept even if the consumer is slower to register than the producer.
+ * </p>
+ * @param <T> the value type
+ */
+final class AsyncResettableStage<T> extends AtomicReference<BiConsumer<? super T, ? super Throwable>>
+implements CompletionStage<T>, BiConsumer<T, Throwable> {
+
+    static final BiConsumer<Object, Throwable> DONE = (v, e) -> { };
+
+    final Executor executor;
+
+    T value;
+
+    Throwable error;
+
+    AsyncResettableStage() {
+        this(null);
+    }
+
+    AsyncResettableStage(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Prepares this stage for the next round; should be called before
+     * handing this stage out again.
+     * @return this
+     */
+    AsyncResettableStage<T> reset() {
+        value = null;
+        error = null;
+        setRelease(null);
+        return this;
+    }
+
+    void complete(T value) {
+        this.value = value;
+        signal(value, null);
+    }
+
+    void completeExceptionally(Throwable error) {
+        this.error = error;
+        signal(null, error);
+    }
+
+    @Override
+    public void accept(T t, Throwable throwable) {
+        if (throwable != null) {
+            completeExceptionally(throwable);
+        } else {
+            complete(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void signal(T value, Throwable error) {
+        BiConsumer<? super T, ? super Throwable> c = getAndSet((BiConsumer<? super T, ? super Throwable>)(BiConsumer<?, ?>)DONE);
+        if (c != null && c != DONE) {
+            invoke(c, value, error);
+        }
+    }
+
+    static <T> void invoke(BiConsumer<? super T, ? super Throwable> action, T value, Throwable error) {
+        try {
+            action.accept(value, error);
+        } catch (Throwable ex) {
+            // whenComplete returns this stage so there is no dependent stage to fail
+            Thread t = Thread.currentThread();
+            t.getUncaughtExceptionHandler().uncaughtException(t, ex);
+        }
+    }
+
+    @Override
+    public CompletionStage<T> whenComplete(BiConsumer<? super T, ? super Throwable> action) {
+        for (;;) {
+            BiConsumer<? super T, ? super Throwable> c = getAcquire();
+            if (c == DONE) {
+                Executor ex = executor;
+                if (ex != null) {
+                    T v = value;
+                    Throwable e = error;
+                    ex.execute(() -> invoke(action, v, e));
+                } else {
+                    invoke(action, value, error);
+                }
+                return this;
+            }
+            BiConsumer<? super T, ? super Throwable> next;
+            if (c == null) {
+                next = action;
+            } else {
+                next = new CallbackPair<>(c, action);
+            }
+            if (compareAndSet(c, next)) {
+                return this;
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<T> toCompletableFuture() {
+        AsyncCompletableFuture<T> cf = new AsyncCompletableFuture<>();
+        whenComplete(cf);
+        return cf;
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenApply(Function<? super T, ? extends U> fn) {
+        return toCompletableFuture().thenApply(fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenApplyAsync(Function<? super T, ? extends U> fn) {
+        return toCompletableFuture().thenApplyAsync(fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenApplyAsync(Function<? super T, ? extends U> fn, Executor executor) {
+        return toCompletableFuture().thenApplyAsync(fn, executor);
+    }
+
+    @Override
+    public CompletionStage<Void> thenAccept(Consumer<? super T> action) {
+        return toCompletableFuture().thenAccept(action);
+    }
+
+    @Override
+    public CompletionStage<Void> thenAcceptAsync(Consumer<? super T> action) {
+        return toCompletableFuture().thenAcceptAsync(action);
+    }
+
+    @Override
+    public CompletionStage<Void> thenAcceptAsync(Consumer<? super T> action, Executor executor) {
+        return toCompletableFuture().thenAcceptAsync(action, executor);
+    }
+
+    @Override
+    public CompletionStage<Void> thenRun(Runnable action) {
+        return toCompletableFuture().thenRun(action);
+    }
+
+    @Override
+    public CompletionStage<Void> thenRunAsync(Runnable action) {
+        return toCompletableFuture().thenRunAsync(action);
+    }
+
+    @Override
+    public CompletionStage<Void> thenRunAsync(Runnable action, Executor executor) {
+        return toCompletableFuture().thenRunAsync(action, executor);
+    }
+
+    @Override
+    public <U, V> CompletionStage<V> thenCombine(CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn) {
+        return toCompletableFuture().thenCombine(other, fn);
+    }
+
+    @Override
+    public <U, V> CompletionStage<V> thenCombineAsync(CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn) {
+        return toCompletableFuture().thenCombineAsync(other, fn);
+    }
+
+    @Override
+    public <U, V> CompletionStage<V> thenCombineAsync(CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn, Executor executor) {
+        return toCompletableFuture().thenCombineAsync(other, fn, executor);
+    }
+
+    @Override
+    public <U> CompletionStage<Void> thenAcceptBoth(CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action) {
+        return toCompletableFuture().thenAcceptBoth(other, action);
+    }
+
+    @Override
+    public <U> CompletionStage<Void> thenAcceptBothAsync(CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action) {
+        return toCompletableFuture().thenAcceptBothAsync(other, action);
+    }
+
+    @Override
+    public <U> CompletionStage<Void> thenAcceptBothAsync(CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action, Executor executor) {
+        return toCompletableFuture().thenAcceptBothAsync(other, action, executor);
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterBoth(CompletionStage<?> other, Runnable action) {
+        return toCompletableFuture().runAfterBoth(other, action);
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action) {
+        return toCompletableFuture().runAfterBothAsync(other, action);
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action, Executor executor) {
+        return toCompletableFuture().runAfterBothAsync(other, action, executor);
+    }
+
+    @Override
+    public <U> CompletionStage<U> applyToEither(CompletionStage<? extends T> other, Function<? super T, U> fn) {
+        return toCompletableFuture().applyToEither(other, fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> applyToEitherAsync(CompletionStage<? extends T> other, Function<? super T, U> fn) {
+        return toCompletableFuture().applyToEitherAsync(other, fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> applyToEitherAsync(CompletionStage<? extends T> other, Function<? super T, U> fn, Executor executor) {
+        return toCompletableFuture().applyToEitherAsync(other, fn, executor);
+    }
+
+    @Override
+    public CompletionStage<Void> acceptEither(CompletionStage<? extends T> other, Consumer<? super T> action) {
+        return toCompletableFuture().acceptEither(other, action);
+    }
+
+    @Override
+    public CompletionStage<Void> acceptEitherAsync(CompletionStage<? extends T> other, Consumer<? super T> action) {
+        return toCompletableFuture().acceptEitherAsync(other, action);
+    }
+
+    @Override
+    public CompletionStage<Void> acceptEitherAsync(CompletionStage<? extends T> other, Consumer<? super T> action, Executor executor) {
+        return toCompletableFuture().acceptEitherAsync(other, action, executor);
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterEither(CompletionStage<?> other, Runnable action) {
+        return toCompletableFuture().runAfterEither(other, action);
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action) {
+        return toCompletableFuture().runAfterEitherAsync(other, action);
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action, Executor executor) {
+        return toCompletableFuture().runAfterEitherAsync(other, action, executor);
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenCompose(Function<? super T, ? extends CompletionStage<U>> fn) {
+        return toCompletableFuture().thenCompose(fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenComposeAsync(Function<? super T, ? extends CompletionStage<U>> fn) {
+        return toCompletableFuture().thenComposeAsync(fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenComposeAsync(Function<? super T, ? extends CompletionStage<U>> fn, Executor executor) {
+        return toCompletableFuture().thenComposeAsync(fn, executor);
+    }
+
+    @Override
+    public <U> CompletionStage<U> handle(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return toCompletableFuture().handle(fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return toCompletableFuture().handleAsync(fn);
+    }
+
+    @Override
+    public <U> CompletionStage<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn, Executor executor) {
+        return toCompletableFuture().handleAsync(fn, executor);
+    }
+
+    @Override
+    public CompletionStage<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action) {
+        return toCompletableFuture().whenCompleteAsync(action);
+    }
+
+    @Override
+    public CompletionStage<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action, Executor executor) {
+        return toCompletableFuture().whenCompleteAsync(action, executor);
+    }
+
+    @Override
+    public CompletionStage<T> exceptionally(Function<Throwable, ? extends T> fn) {
+        return toCompletableFuture().exceptionally(fn);
+    }
+
+    @Override
+    public String toString() {
+        BiConsumer<?, ?> c = getAcquire();
+        if (c == DONE) {
+            Throwable ex = error;
+            if (ex != null) {
+                return "AsyncResettableStage[Completed exceptionally: " + ex + "]";
+            }
+            return "AsyncResettableStage[Completed normally: " + value + "]";
+        }
+        return "AsyncResettableStage[Incomplete]";
+    }
+
+    static final class CallbackPair<T> implements BiConsumer<T, Throwable> {
+
+        final BiConsumer<? super T, ? super Throwable> first;
+
+        final BiConsumer<? super T, ? super Throwable> second;
+
+        CallbackPair(BiConsumer<? super T, ? super Throwable> first, BiConsumer<? super T, ? super Throwable> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void accept(T t, Throwable throwable) {
+            invoke(first, t, throwable);
+            invoke(second, t, throwable);
+        }
+    }
+}
@@ -55,11 +55,7 @@ final class AsyncSkip<T> implements AsyncEnumerable<T> {
         public CompletionStage<Boolean> moveNext() {
             if (n > 0L) {
                 CompletableFuture<Boolean> nx = cf;
-                if (getAndIncrement() == 0) {
-                    do {
-                        source.moveNext().whenComplete(this);
-                    } while (decrementAndGet() != 0);
-                }
+                AsyncEnumeratorHelper.drain(this, source, this);
                 return nx;
             }
             return source.moveNext();
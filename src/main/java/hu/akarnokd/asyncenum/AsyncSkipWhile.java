@@ -65,11 +65,7 @@ final class AsyncSkipWhile<T> implements AsyncEnumerable<T> {
         }
 
         void nextSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
-            }
+            AsyncEnumeratorHelper.drain(this, source, this);
         }
 
         @Override
@@ -92,7 +88,15 @@ final class AsyncSkipWhile<T> implements AsyncEnumerable<T> {
             if (aBoolean) {
                 T v = source.current();
                 if (!passThrough) {
-                    if (predicate.test(v)) {
+                    boolean skip;
+                    try {
+                        skip = predicate.test(v);
+                    } catch (Throwable ex) {
+                        source.cancel();
+                        completable.completeExceptionally(ex);
+                        return;
+                    }
+                    if (skip) {
                         nextSource();
                         return;
                     } else {
@@ -75,13 +75,8 @@ final class AsyncSumInt<T> implements AsyncEnumerable<Integer> {
         }
 
         void collectSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    if (cancelled) {
-                        return;
-                    }
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
+            if (!cancelled) {
+                AsyncEnumeratorHelper.drain(this, source, this);
             }
         }
 
@@ -94,7 +89,14 @@ final class AsyncSumInt<T> implements AsyncEnumerable<Integer> {
             }
 
             if (aBoolean) {
-                sum += selector.apply(source.current()).intValue();
+                try {
+                    sum += selector.apply(source.current()).intValue();
+                } catch (Throwable ex) {
+                    source.cancel();
+                    done = true;
+                    cf.completeExceptionally(ex);
+                    return;
+                }
                 hasValue = true;
                 collectSource();
             } else {
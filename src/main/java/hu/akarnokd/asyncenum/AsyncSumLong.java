@@ -75,13 +75,8 @@ final class AsyncSumLong<T> implements AsyncEnumerable<Long> {
         }
 
         void collectSource() {
-            if (getAndIncrement() == 0) {
-                do {
-                    if (cancelled) {
-                        return;
-                    }
-                    source.moveNext().whenComplete(this);
-                } while (decrementAndGet() != 0);
+            if (!cancelled) {
+                AsyncEnumeratorHelper.drain(this, source, this);
             }
         }
 
@@ -94,7 +89,14 @@ final class AsyncSumLong<T> implements AsyncEnumerable<Long> {
             }
 
             if (aBoolean) {
-                sum += selector.apply(source.current()).longValue();
+                try {
+                    sum += selector.apply(source.current()).longValue();
+                } catch (Throwable ex) {
+                    source.cancel();
+                    done = true;
+                    cf.completeExceptionally(ex);
+                    return;
+                }
                 hasValue = true;
                 collectSource();
             } else {
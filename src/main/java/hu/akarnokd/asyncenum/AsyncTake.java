@@ -31,7 +31,11 @@ final class AsyncTake<T> implements AsyncEnumerable<T> {
 
     @Override
     public AsyncEnumerator<T> enumerator() {
-        return new TakeEnumerator<>(upstream.enumerator(), n);
+        AsyncEnumerator<T> en = upstream.enumerator();
+        if (en instanceof SyncAsyncEnumerator) {
+            return new TakeSyncEnumerator<>((SyncAsyncEnumerator<T>)en, n);
+        }
+        return new TakeEnumerator<>(en, n);
     }
 
     static final class TakeEnumerator<T> implements AsyncEnumerator<T> {
@@ -64,4 +68,35 @@ final class AsyncTake<T> implements AsyncEnumerable<T> {
             source.cancel();
         }
     }
+
+    static final class TakeSyncEnumerator<T> implements SyncAsyncEnumerator<T> {
+
+        final SyncAsyncEnumerator<T> source;
+
+        long n;
+
+        TakeSyncEnumerator(SyncAsyncEnumerator<T> source, long n) {
+            this.source = source;
+            this.n = n;
+        }
+
+        @Override
+        public boolean tryNext() {
+            if (n-- <= 0L) {
+                source.cancel();
+                return false;
+            }
+            return source.tryNext();
+        }
+
+        @Override
+        public T current() {
+            return source.current();
+        }
+
+        @Override
+        public void cancel() {
+            source.cancel();
+        }
+    }
 }
@@ -28,21 +28,21 @@ final class AsyncTimeoutTimed<T> implements AsyncEnumerable<T> {
 
     final TimeUnit unit;
 
-    final ScheduledExecutorService executor;
+    final TimerService timer;
 
     final AsyncEnumerable<T> fallback;
 
-    AsyncTimeoutTimed(AsyncEnumerable<T> source, long timeout, TimeUnit unit, ScheduledExecutorService executor, AsyncEnumerable<T> fallback) {
+    AsyncTimeoutTimed(AsyncEnumerable<T> source, long timeout, TimeUnit unit, TimerService timer, AsyncEnumerable<T> fallback) {
         this.source = source;
         this.timeout = timeout;
         this.unit = unit;
-        this.executor = executor;
+        this.timer = timer;
         this.fallback = fallback;
     }
 
     @Override
     public AsyncEnumerator<T> enumerator() {
-        return new TimeoutTimedEnumerator<>(source.enumerator(), timeout, unit, executor, fallback);
+        return new TimeoutTimedEnumerator<>(source.enumerator(), timeout, unit, timer, fallback);
     }
 
     static final class TimeoutTimedEnumerator<T>
@@ -52,7 +52,7 @@ final class AsyncTimeoutTimed<T> implements AsyncEnumerable<T> {
 
         final TimeUnit unit;
 
-        final ScheduledExecutorService executor;
+        final TimerService timer;
 
         final AsyncEnumerable<T> fallback;
 
@@ -62,15 +62,15 @@ final class AsyncTimeoutTimed<T> implements AsyncEnumerable<T> {
 
         volatile CompletableFuture<Boolean> completable;
 
-        Future<?> future;
+        TimerService.Task future;
 
         T result;
 
-        TimeoutTimedEnumerator(AsyncEnumerator<T> source, long timeout, TimeUnit unit, ScheduledExecutorService executor, AsyncEnumerable<T> fallback) {
+        TimeoutTimedEnumerator(AsyncEnumerator<T> source, long timeout, TimeUnit unit, TimerService timer, AsyncEnumerable<T> fallback) {
             this.source = new AtomicReference<>(source);
             this.timeout = timeout;
             this.unit = unit;
-            this.executor = executor;
+            this.timer = timer;
             this.fallback = fallback;
             this.index = new AtomicLong();
         }
@@ -83,7 +83,7 @@ final class AsyncTimeoutTimed<T> implements AsyncEnumerable<T> {
             AsyncEnumerator<T> en = source.getPlain();
             long idx = index.get();
             if (idx != Long.MAX_VALUE) {
-                future = executor.schedule(() -> timeout(idx), timeout, unit);
+                future = timer.schedule(() -> timeout(idx), timeout, unit);
                 en.moveNext().whenComplete(this);
             } else {
                 en.moveNext().whenComplete(this::acceptFallback);
@@ -98,7 +98,7 @@ final class AsyncTimeoutTimed<T> implements AsyncEnumerable<T> {
 
         @Override
         public void accept(Boolean aBoolean, Throwable throwable) {
-            future.cancel(false);
+            future.cancel();
             long idx = index.get();
             if (idx != Long.MAX_VALUE && index.compareAndSet(idx, idx + 1)) {
                 acceptFallback(aBoolean, throwable);
@@ -24,22 +24,22 @@ final class AsyncTimer implements AsyncEnumerable<Long> {
 
     final TimeUnit unit;
 
-    final ScheduledExecutorService executor;
+    final TimerService timer;
 
-    AsyncTimer(long time, TimeUnit unit, ScheduledExecutorService executor) {
+    AsyncTimer(long time, TimeUnit unit, TimerService timer) {
         this.time = time;
         this.unit = unit;
-        this.executor = executor;
+        this.timer = timer;
     }
 
     @Override
     public AsyncEnumerator<Long> enumerator() {
         TimerEnumerator en = new TimerEnumerator();
-        en.task = executor.schedule(en, time, unit);
+        en.task = timer.schedule(en, time, unit);
         return en;
     }
 
-    static final class TimerEnumerator implements AsyncEnumerator<Long>, Callable<Void> {
+    static final class TimerEnumerator implements AsyncEnumerator<Long>, Runnable {
 
         final CompletableFuture<Boolean> single = new CompletableFuture<>();
 
@@ -47,7 +47,7 @@ final class AsyncTimer implements AsyncEnumerable<Long> {
 
         boolean once;
 
-        Future<?> task;
+        TimerService.Task task;
 
         @Override
         public CompletionStage<Boolean> moveNext() {
@@ -65,15 +65,14 @@ final class AsyncTimer implements AsyncEnumerable<Long> {
         }
 
         @Override
-        public Void call() throws Exception {
+        public void run() {
             result = 0L;
             single.complete(true);
-            return null;
         }
 
         @Override
         public void cancel() {
-            task.cancel(false);
+            task.cancel();
         }
     }
 }
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Splits the upstream into consecutive, single-use windows of at most the given size
+ * that consume the shared upstream enumerator directly.
+ * <p>
+ *     The next window is only requested from the upstream once the current one has
+ *     completed or has been cancelled; the items a cancelled window didn't consume
+ *     start the next window.
+ * </p>
+ * @param <T> the value type
+ */
+final class AsyncWindow<T> implements AsyncEnumerable<AsyncEnumerable<T>> {
+
+    final AsyncEnumerable<T> source;
+
+    final int size;
+
+    AsyncWindow(AsyncEnumerable<T> source, int size) {
+        this.source = source;
+        this.size = size;
+    }
+
+    @Override
+    public AsyncEnumerator<AsyncEnumerable<T>> enumerator() {
+        return new WindowEnumerator<>(source.enumerator(), size);
+    }
+
+    static final class WindowEnumerator<T> extends AtomicInteger
+            implements AsyncEnumerator<AsyncEnumerable<T>>, BiConsumer<Boolean, Throwable> {
+
+        /** The outer consumer is waiting for the next window. */
+        static final int WAITING = 1;
+        /** A window (or the request for one) owns the upstream. */
+        static final int ACTIVE = 2;
+
+        final AsyncEnumerator<T> source;
+
+        final int size;
+
+        volatile CompletableFuture<Boolean> completable;
+
+        volatile WindowInner<T> window;
+
+        volatile boolean cancelled;
+
+        volatile boolean done;
+        Throwable error;
+
+        WindowInner<T> result;
+
+        WindowEnumerator(AsyncEnumerator<T> source, int size) {
+            this.source = source;
+            this.size = size;
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            result = null;
+            CompletableFuture<Boolean> cf = new CompletableFuture<>();
+            completable = cf;
+            int prev = getAndUpdate(s -> (s & ACTIVE) != 0 ? s | WAITING : ACTIVE);
+            if ((prev & ACTIVE) == 0) {
+                nextWindow();
+            }
+            return cf;
+        }
+
+        @Override
+        public AsyncEnumerable<T> current() {
+            return result;
+        }
+
+        void nextWindow() {
+            if (done) {
+                complete(completable);
+                return;
+            }
+            source.moveNext().whenComplete(this);
+        }
+
+        void complete(CompletableFuture<Boolean> cf) {
+            Throwable ex = error;
+            if (ex != null) {
+                cf.completeExceptionally(ex);
+            } else {
+                cf.complete(false);
+            }
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            CompletableFuture<Boolean> cf = completable;
+            if (throwable != null) {
+                error = throwable;
+                done = true;
+                cf.completeExceptionally(throwable);
+            } else if (aBoolean) {
+                WindowInner<T> w = new WindowInner<>(this, source.current());
+                window = w;
+                result = w;
+                cf.complete(true);
+            } else {
+                done = true;
+                cf.complete(false);
+            }
+        }
+
+        void windowDone() {
+            window = null;
+            if (cancelled) {
+                source.cancel();
+                return;
+            }
+            int prev = getAndUpdate(s -> (s & WAITING) != 0 ? ACTIVE : 0);
+            if ((prev & WAITING) != 0) {
+                nextWindow();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            if (window == null) {
+                source.cancel();
+            }
+        }
+    }
+
+    static final class WindowInner<T> extends AtomicBoolean
+            implements AsyncEnumerable<T>, AsyncEnumerator<T>, BiConsumer<Boolean, Throwable> {
+
+        /** The window's moveNext is running on the shared upstream. */
+        static final int BUSY = 1;
+        /** The window has been cancelled. */
+        static final int CANCELLED = 2;
+        /** The upstream has been handed back to the parent. */
+        static final int FINISHED = 4;
+
+        final WindowEnumerator<T> parent;
+
+        final AtomicInteger state;
+
+        T first;
+
+        boolean firstPending;
+
+        int produced;
+
+        boolean done;
+
+        T current;
+
+        CompletableFuture<Boolean> cf;
+
+        WindowInner(WindowEnumerator<T> parent, T first) {
+            this.parent = parent;
+            this.first = first;
+            this.firstPending = true;
+            this.state = new AtomicInteger();
+        }
+
+        @Override
+        public AsyncEnumerator<T> enumerator() {
+            if (compareAndSet(false, true)) {
+                return this;
+            }
+            return new AsyncError<>(new IllegalStateException("This window can be enumerated only once"));
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            if (done) {
+                current = null;
+                return FALSE;
+            }
+            if (firstPending) {
+                firstPending = false;
+                current = first;
+                first = null;
+                produced = 1;
+                return TRUE;
+            }
+            if (produced == parent.size) {
+                current = null;
+                finish();
+                return FALSE;
+            }
+            if (!state.compareAndSet(0, BUSY)) {
+                // cancelled, the upstream may already belong to the next window
+                current = null;
+                done = true;
+                return FALSE;
+            }
+            CompletionStage<Boolean> stage = parent.source.moveNext();
+            if (stage == TRUE) {
+                produced++;
+                current = parent.source.current();
+                if (release()) {
+                    finish();
+                }
+                return TRUE;
+            }
+            CompletableFuture<Boolean> c = new CompletableFuture<>();
+            cf = c;
+            stage.whenComplete(this);
+            return c;
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            CompletableFuture<Boolean> c = cf;
+            if (throwable != null) {
+                parent.error = throwable;
+                parent.done = true;
+                current = null;
+                release();
+                finish();
+                c.completeExceptionally(throwable);
+            } else if (aBoolean) {
+                produced++;
+                current = parent.source.current();
+                if (release()) {
+                    finish();
+                }
+                c.complete(true);
+            } else {
+                parent.done = true;
+                current = null;
+                release();
+                finish();
+                c.complete(false);
+            }
+        }
+
+        /**
+         * Clears the busy flag after the upstream moveNext completed.
+         * @return true if the window was cancelled in the meantime
+         */
+        boolean release() {
+            return (state.getAndAdd(-BUSY) & CANCELLED) != 0;
+        }
+
+        void finish() {
+            done = true;
+            int prev = state.getAndUpdate(s -> s | FINISHED);
+            if ((prev & FINISHED) == 0) {
+                parent.windowDone();
+            }
+        }
+
+        @Override
+        public T current() {
+            return current;
+        }
+
+        @Override
+        public void cancel() {
+            // the upstream is handed to the next window only after the in-flight moveNext returned,
+            // whichever side releases it last does the handover
+            int prev = state.getAndUpdate(s -> s | CANCELLED);
+            if ((prev & (BUSY | CANCELLED)) == 0) {
+                finish();
+            }
+        }
+    }
+}
@@ -27,14 +27,17 @@ final class AsyncZipArray<T, R> implements AsyncEnumerable<R> {
 
     final Function<? super Object[], ? extends R> zipper;
 
-    AsyncZipArray(AsyncEnumerable<? extends T>[] sources, Function<? super Object[], ? extends R> zipper) {
+    final boolean reuse;
+
+    AsyncZipArray(AsyncEnumerable<? extends T>[] sources, Function<? super Object[], ? extends R> zipper, boolean reuse) {
         this.sources = sources;
         this.zipper = zipper;
+        this.reuse = reuse;
     }
 
     @Override
     public AsyncEnumerator<R> enumerator() {
-        return new ZipArrayEnumerator<>(sources, zipper);
+        return new ZipArrayEnumerator<>(sources, zipper, reuse);
     }
 
     static final class ZipArrayEnumerator<T, R> extends AtomicInteger implements AsyncEnumerator<R> {
@@ -47,15 +50,18 @@ final class AsyncZipArray<T, R> implements AsyncEnumerable<R> {
 
         final ZipInnerConsumer[] consumers;
 
+        final boolean reuse;
+
         CompletableFuture<Boolean> completable;
 
         R result;
 
         @SuppressWarnings("unchecked")
-        ZipArrayEnumerator(AsyncEnumerable<? extends T>[] sources, Function<? super Object[], ? extends R> zipper) {
+        ZipArrayEnumerator(AsyncEnumerable<? extends T>[] sources, Function<? super Object[], ? extends R> zipper, boolean reuse) {
             int n = sources.length;
             this.sources = new AsyncEnumerator[n];
             this.zipper = zipper;
+            this.reuse = reuse;
             this.results = new Object[n];
             this.consumers = new ZipInnerConsumer[n];
             for (int i = 0; i < n; i++) {
@@ -99,7 +105,7 @@ final class AsyncZipArray<T, R> implements AsyncEnumerable<R> {
             if (hasValue) {
                 results[index] = sources[index].current();
                 if (decrementAndGet() == 0) {
-                    result = zipper.apply(results.clone());
+                    result = zipper.apply(reuse ? results : results.clone());
                     Arrays.fill(results, null);
                     cf.complete(true);
                 }
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * Zips the sources by prefetching each of them into its own bounded buffer so that
+ * slow sources can make progress concurrently instead of in lockstep.
+ * @param <T> the common source value type
+ * @param <R> the result type
+ */
+final class AsyncZipArrayPrefetch<T, R> implements AsyncEnumerable<R> {
+
+    final AsyncEnumerable<? extends T>[] sources;
+
+    final Function<? super Object[], ? extends R> zipper;
+
+    final int prefetch;
+
+    final boolean reuse;
+
+    AsyncZipArrayPrefetch(AsyncEnumerable<? extends T>[] sources, Function<? super Object[], ? extends R> zipper,
+                          int prefetch, boolean reuse) {
+        this.sources = sources;
+        this.zipper = zipper;
+        this.prefetch = prefetch;
+        this.reuse = reuse;
+    }
+
+    @Override
+    public AsyncEnumerator<R> enumerator() {
+        ZipPrefetchEnumerator<T, R> en = new ZipPrefetchEnumerator<>(sources, zipper, prefetch, reuse);
+        for (ZipPrefetchInner<T> inner : en.inners) {
+            inner.moveNextSource();
+        }
+        return en;
+    }
+
+    static final class ZipPrefetchEnumerator<T, R> extends AtomicInteger implements AsyncEnumerator<R> {
+
+        final ZipPrefetchInner<T>[] inners;
+
+        final Function<? super Object[], ? extends R> zipper;
+
+        final Object[] values;
+
+        final boolean reuse;
+
+        volatile CompletableFuture<Boolean> completable;
+
+        volatile boolean cancelled;
+
+        R result;
+
+        @SuppressWarnings("unchecked")
+        ZipPrefetchEnumerator(AsyncEnumerable<? extends T>[] sources, Function<? super Object[], ? extends R> zipper,
+                              int prefetch, boolean reuse) {
+            int n = sources.length;
+            this.inners = new ZipPrefetchInner[n];
+            this.zipper = zipper;
+            this.values = new Object[n];
+            this.reuse = reuse;
+            for (int i = 0; i < n; i++) {
+                inners[i] = new ZipPrefetchInner<>(this, sources[i].enumerator(), prefetch);
+            }
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            result = null;
+            // all buffers have an item: zip without creating a new stage
+            if (isReady()) {
+                try {
+                    emit();
+                } catch (Throwable ex) {
+                    cancel();
+                    return CompletableFuture.failedStage(ex);
+                }
+                return TRUE;
+            }
+            CompletableFuture<Boolean> cf = new CompletableFuture<>();
+            completable = cf;
+            drain();
+            return cf;
+        }
+
+        @Override
+        public R current() {
+            return result;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            cancelAll();
+        }
+
+        boolean isReady() {
+            for (ZipPrefetchInner<T> inner : inners) {
+                if (inner.queue.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void emit() {
+            Object[] a = reuse ? values : new Object[values.length];
+            for (int i = 0; i < a.length; i++) {
+                ZipPrefetchInner<T> inner = inners[i];
+                a[i] = QueueHelper.unwrapNull(inner.queue.poll());
+                inner.consumedOne();
+            }
+            result = zipper.apply(a);
+        }
+
+        void cancelAll() {
+            for (ZipPrefetchInner<T> inner : inners) {
+                inner.cancel();
+            }
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                CompletableFuture<Boolean> cf = completable;
+                if (cf != null && !cancelled) {
+                    boolean ready = true;
+                    boolean finished = false;
+                    Throwable error = null;
+                    for (ZipPrefetchInner<T> inner : inners) {
+                        boolean d = inner.done;
+                        boolean empty = inner.queue.isEmpty();
+                        if (empty) {
+                            if (d) {
+                                error = inner.error;
+                                finished = true;
+                                break;
+                            }
+                            ready = false;
+                        }
+                    }
+
+                    if (finished) {
+                        completable = null;
+                        cancelled = true;
+                        cancelAll();
+                        if (error != null) {
+                            cf.completeExceptionally(error);
+                        } else {
+                            cf.complete(false);
+                        }
+                    } else if (ready) {
+                        completable = null;
+                        try {
+                            emit();
+                        } catch (Throwable ex) {
+                            cancel();
+                            cf.completeExceptionally(ex);
+                            continue;
+                        }
+                        cf.complete(true);
+                        continue;
+                    }
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+
+    static final class ZipPrefetchInner<T> extends AtomicInteger implements BiConsumer<Boolean, Throwable> {
+
+        final ZipPrefetchEnumerator<T, ?> parent;
+
+        final AsyncEnumerator<? extends T> source;
+
+        final SpscArrayQueue<Object> queue;
+
+        final int prefetch;
+
+        final int limit;
+
+        final AtomicLong consumed;
+
+        volatile boolean done;
+        Throwable error;
+
+        volatile boolean sourceBusy;
+
+        volatile boolean cancelled;
+
+        long produced;
+
+        int consumedLocal;
+
+        ZipPrefetchInner(ZipPrefetchEnumerator<T, ?> parent, AsyncEnumerator<? extends T> source, int prefetch) {
+            this.parent = parent;
+            this.source = source;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.queue = new SpscArrayQueue<>(prefetch);
+            this.consumed = new AtomicLong();
+        }
+
+        void moveNextSource() {
+            if (getAndIncrement() == 0) {
+                do {
+                    boolean signal = false;
+                    while (!sourceBusy && !done && !cancelled && produced - consumed.get() < prefetch) {
+                        CompletionStage<Boolean> stage = source.moveNext();
+                        // synchronous sources fill the buffer in this loop and signal the parent once
+                        if (stage == AsyncEnumerable.TRUE) {
+                            queue.offer(QueueHelper.wrapNull(source.current()));
+                            produced++;
+                            signal = true;
+                        } else if (stage == AsyncEnumerable.FALSE) {
+                            done = true;
+                            signal = true;
+                        } else {
+                            sourceBusy = true;
+                            stage.whenComplete(this);
+                        }
+                    }
+                    if (signal) {
+                        parent.drain();
+                    }
+                } while (decrementAndGet() != 0);
+            }
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                error = throwable;
+                done = true;
+            } else if (aBoolean) {
+                queue.offer(QueueHelper.wrapNull(source.current()));
+                produced++;
+                sourceBusy = false;
+                parent.drain();
+                moveNextSource();
+                return;
+            } else {
+                done = true;
+            }
+            parent.drain();
+        }
+
+        void consumedOne() {
+            int c = consumedLocal + 1;
+            if (c == limit) {
+                consumedLocal = 0;
+                consumed.addAndGet(c);
+                moveNextSource();
+            } else {
+                consumedLocal = c;
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            source.cancel();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.*;
+
+/**
+ * Add-only collection backed by a Bloom filter: {@link #add(Object)} returns false if the key
+ * was probably added before, which happens for new keys with the configured false positive
+ * probability once {@code expectedItems} keys have been added.
+ * <p>
+ *     The bit indexes are derived from the key's {@code hashCode()}, except for {@code Long}
+ *     keys which use all 64 bits, so the hashCode's own collisions limit the accuracy
+ *     for other key types beyond tens of millions of keys.
+ * </p>
+ * <p>
+ *     Only {@code add}, {@code contains}, {@code size} and {@code clear} are supported, along with
+ *     {@code addAll} and {@code containsAll} that build on them; the keys can't be iterated so
+ *     the other Collection methods throw {@code UnsupportedOperationException}.
+ * </p>
+ * @param <K> the key type
+ */
+final class BloomFilterSet<K> extends AbstractCollection<K> {
+
+    final long[] bits;
+
+    final long bitCount;
+
+    final int hashCount;
+
+    int size;
+
+    BloomFilterSet(long expectedItems, double fpp) {
+        double ln2 = Math.log(2);
+        long m = (long)Math.ceil(-expectedItems * Math.log(fpp) / (ln2 * ln2));
+        long words = (Math.max(m, 64L) + 63) >>> 6;
+        if (words > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("The filter for " + expectedItems + " items at " + fpp + " fpp doesn't fit into an array");
+        }
+        this.bits = new long[(int)words];
+        this.bitCount = words << 6;
+        this.hashCount = (int)Math.max(1, Math.round((double)bitCount / expectedItems * ln2));
+    }
+
+    @Override
+    public boolean add(K k) {
+        long h1 = hash(k);
+        long h2 = mix(h1 + 0x9E3779B97F4A7C15L);
+        boolean changed = false;
+        long[] b = bits;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1, bitCount);
+            int word = (int)(index >>> 6);
+            long mask = 1L << index;
+            long w = b[word];
+            if ((w & mask) == 0L) {
+                b[word] = w | mask;
+                changed = true;
+            }
+            h1 += h2;
+        }
+        if (changed) {
+            size++;
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        long h1 = hash(o);
+        long h2 = mix(h1 + 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1, bitCount);
+            if ((bits[(int)(index >>> 6)] & (1L << index)) == 0L) {
+                return false;
+            }
+            h1 += h2;
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        throw new UnsupportedOperationException("The keys of a Bloom filter can't be iterated");
+    }
+
+    @Override
+    public String toString() {
+        return "BloomFilterSet[size=" + size + ", bits=" + bitCount + ", hashes=" + hashCount + "]";
+    }
+
+    /**
+     * Returns the number of keys that changed the filter, which can be
+     * less than the number of distinct keys added.
+     * @return the number of keys added
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(bits, 0L);
+        size = 0;
+    }
+
+    static long hash(Object o) {
+        long h = o instanceof Long ? (Long)o : Objects.hashCode(o);
+        return mix(h);
+    }
+
+    static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.Objects;
+import java.util.concurrent.*;
+
+final class ExecutorTimerService implements TimerService {
+
+    final ScheduledExecutorService executor;
+
+    ExecutorTimerService(ScheduledExecutorService executor) {
+        this.executor = Objects.requireNonNull(executor, "executor == null");
+    }
+
+    @Override
+    public Task schedule(Runnable task, long delay, TimeUnit unit) {
+        Future<?> f = executor.schedule(task, delay, unit);
+        return () -> f.cancel(false);
+    }
+
+    @Override
+    public Task schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        Future<?> f = executor.scheduleAtFixedRate(task, initialDelay, period, unit);
+        return () -> f.cancel(false);
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+/**
+ * Implemented by enumerators that buffer items so that instrument() can report
+ * the size of their buffer.
+ */
+interface HasQueueSize {
+
+    /**
+     * Returns the current number of buffered items, may be approximate
+     * if called concurrently with the producer or the consumer.
+     * @return the number of buffered items
+     */
+    int queueSize();
+}
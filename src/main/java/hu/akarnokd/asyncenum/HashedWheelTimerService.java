@@ -0,0 +1,269 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Timing wheel with {@code ticksPerWheel} buckets of doubly-linked tasks, advanced
+ * by a single worker thread started on the first schedule.
+ * <p>
+ *     Producers never touch the buckets: new and cancelled tasks go through
+ *     multi-producer queues that the worker drains at the start of each tick,
+ *     so scheduling and cancelling are a queue offer each.
+ * </p>
+ */
+final class HashedWheelTimerService extends AtomicInteger implements TimerService, Runnable {
+
+    static final int STATE_INIT = 0;
+    static final int STATE_STARTED = 1;
+    static final int STATE_SHUTDOWN = 2;
+
+    /** Limit the transfer per tick so a flood of schedules can't stall expiration. */
+    static final int MAX_TRANSFER = 100_000;
+
+    static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+    final long tickNanos;
+
+    final Bucket[] wheel;
+
+    final int mask;
+
+    final MpscLinkedArrayQueue<WheelTask> pending;
+
+    final MpscLinkedArrayQueue<WheelTask> cancelled;
+
+    volatile long startTime;
+
+    volatile Thread worker;
+
+    HashedWheelTimerService(long tickNanos, int ticksPerWheel) {
+        int n = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(ticksPerWheel, 2) - 1));
+        Bucket[] w = new Bucket[n];
+        for (int i = 0; i < n; i++) {
+            w[i] = new Bucket();
+        }
+        this.tickNanos = tickNanos;
+        this.wheel = w;
+        this.mask = n - 1;
+        this.pending = new MpscLinkedArrayQueue<>(256);
+        this.cancelled = new MpscLinkedArrayQueue<>(256);
+    }
+
+    @Override
+    public Task schedule(Runnable task, long delay, TimeUnit unit) {
+        start();
+        long deadline = System.nanoTime() + Math.max(0L, unit.toNanos(delay)) - startTime;
+        WheelTask t = new WheelTask(this, task, deadline);
+        if (get() == STATE_SHUTDOWN) {
+            t.set(WheelTask.CANCELLED);
+        } else {
+            pending.offer(t);
+        }
+        return t;
+    }
+
+    void start() {
+        int s = get();
+        if (s == STATE_INIT) {
+            if (compareAndSet(STATE_INIT, STATE_STARTED)) {
+                startTime = System.nanoTime();
+                Thread t = new Thread(this, "AsyncHashedWheelTimer-" + THREAD_INDEX.incrementAndGet());
+                t.setDaemon(true);
+                worker = t;
+                t.start();
+                return;
+            }
+        }
+        // another thread is starting the worker, wait for the time origin
+        while (startTime == 0L && get() == STATE_STARTED) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (getAndSet(STATE_SHUTDOWN) != STATE_SHUTDOWN) {
+            Thread t = worker;
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long tick = 0L;
+        for (;;) {
+            long now = waitForNextTick(tick);
+            if (now < 0L) {
+                break;
+            }
+            removeCancelled();
+            transferPending(tick);
+            wheel[(int)tick & mask].expire(now);
+            tick++;
+        }
+        pending.clear();
+        cancelled.clear();
+    }
+
+    long waitForNextTick(long tick) {
+        long deadline = tickNanos * (tick + 1);
+        for (;;) {
+            if (get() == STATE_SHUTDOWN) {
+                return -1L;
+            }
+            long now = System.nanoTime() - startTime;
+            long sleep = deadline - now;
+            if (sleep <= 0L) {
+                return now;
+            }
+            LockSupport.parkNanos(this, sleep);
+        }
+    }
+
+    void transferPending(long tick) {
+        for (int i = 0; i < MAX_TRANSFER; i++) {
+            WheelTask t = pending.poll();
+            if (t == null) {
+                break;
+            }
+            if (t.get() != WheelTask.WAITING) {
+                continue;
+            }
+            long calculated = t.deadline / tickNanos;
+            t.remainingRounds = (calculated - tick) / wheel.length;
+            wheel[(int)Math.max(calculated, tick) & mask].add(t);
+        }
+    }
+
+    void removeCancelled() {
+        for (;;) {
+            WheelTask t = cancelled.poll();
+            if (t == null) {
+                break;
+            }
+            Bucket b = t.bucket;
+            if (b != null) {
+                b.remove(t);
+            }
+        }
+    }
+
+    static final class Bucket {
+
+        WheelTask head;
+
+        WheelTask tail;
+
+        void add(WheelTask t) {
+            t.bucket = this;
+            WheelTask tl = tail;
+            if (tl == null) {
+                head = t;
+            } else {
+                tl.next = t;
+                t.prev = tl;
+            }
+            tail = t;
+        }
+
+        void remove(WheelTask t) {
+            WheelTask p = t.prev;
+            WheelTask n = t.next;
+            if (p == null) {
+                head = n;
+            } else {
+                p.next = n;
+            }
+            if (n == null) {
+                tail = p;
+            } else {
+                n.prev = p;
+            }
+            t.prev = null;
+            t.next = null;
+            t.bucket = null;
+        }
+
+        void expire(long now) {
+            WheelTask t = head;
+            while (t != null) {
+                WheelTask n = t.next;
+                if (t.remainingRounds <= 0L) {
+                    if (t.deadline <= now) {
+                        remove(t);
+                        t.expire();
+                    }
+                } else if (t.get() != WheelTask.WAITING) {
+                    remove(t);
+                } else {
+                    t.remainingRounds--;
+                }
+                t = n;
+            }
+        }
+    }
+
+    static final class WheelTask extends AtomicInteger implements Task {
+
+        static final int WAITING = 0;
+        static final int CANCELLED = 1;
+        static final int EXPIRED = 2;
+
+        final HashedWheelTimerService parent;
+
+        final Runnable task;
+
+        final long deadline;
+
+        long remainingRounds;
+
+        Bucket bucket;
+
+        WheelTask prev;
+
+        WheelTask next;
+
+        WheelTask(HashedWheelTimerService parent, Runnable task, long deadline) {
+            this.parent = parent;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        void expire() {
+            if (compareAndSet(WAITING, EXPIRED)) {
+                try {
+                    task.run();
+                } catch (Throwable ex) {
+                    Thread t = Thread.currentThread();
+                    t.getUncaughtExceptionHandler().uncaughtException(t, ex);
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (compareAndSet(WAITING, CANCELLED)) {
+                parent.cancelled.offer(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.*;
+
+/**
+ * Represents an possibly asynchronous, cold-deferred, source of zero or more
+ * primitive {@code int} items optionally followed by a Throwable.
+ * <p>
+ *     The operators keep working on primitive values; use {@link #boxed()}
+ *     to continue with the {@link AsyncEnumerable} operators.
+ * </p>
+ */
+@FunctionalInterface
+public interface IntAsyncEnumerable {
+
+    /**
+     * Returns an IntAsyncEnumerator that can be iterated over to receive
+     * the next item, the end-of-sequence indicator or a Throwable.
+     * @return the new IntAsyncEnumerator instance
+     */
+    IntAsyncEnumerator enumerator();
+
+    // -------------------------------------------------------------------------------------
+    // Static factories
+
+    static IntAsyncEnumerable range(int start, int count) {
+        return new AsyncIntRange(start, count);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Instance transformations
+
+    default IntAsyncEnumerable map(IntUnaryOperator mapper) {
+        return new AsyncIntMap(this, mapper);
+    }
+
+    default IntAsyncEnumerable filter(IntPredicate predicate) {
+        return new AsyncIntFilter(this, predicate);
+    }
+
+    default IntAsyncEnumerable reduce(IntBinaryOperator reducer) {
+        return new AsyncIntReduce(this, reducer);
+    }
+
+    default IntAsyncEnumerable sum() {
+        return reduce(Integer::sum);
+    }
+
+    default IntAsyncEnumerable min() {
+        return reduce(Math::min);
+    }
+
+    default IntAsyncEnumerable max() {
+        return reduce(Math::max);
+    }
+
+    default AsyncEnumerable<Integer> boxed() {
+        return this::enumerator;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Instance consumers
+
+    default CompletionStage<Boolean> forEach(IntConsumer consumer) {
+        return AsyncIntForEach.forEach(enumerator(), consumer);
+    }
+}
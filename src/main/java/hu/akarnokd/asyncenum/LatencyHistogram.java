@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Log-linear histogram in the spirit of HdrHistogram: values below 32 have their own bucket
+ * and every further power-of-two range is split into 32 equal buckets, giving a relative
+ * error of at most 1/32 over the whole non-negative long range.
+ * <p>
+ *     Recording is a single atomic increment on a fixed array, so it is lock-free and
+ *     doesn't allocate; the readers sum the buckets and may see a slightly stale view.
+ * </p>
+ */
+final class LatencyHistogram implements MetricsSink.Histogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    final AtomicLongArray counts;
+
+    final AtomicLong max;
+
+    LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.max = new AtomicLong();
+    }
+
+    void record(long value) {
+        if (value < 0L) {
+            value = 0L;
+        }
+        counts.getAndIncrement(indexOf(value));
+        long m = max.get();
+        if (value > m) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    @Override
+    public long count() {
+        long c = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            c += counts.get(i);
+        }
+        return c;
+    }
+
+    @Override
+    public long max() {
+        return max.get();
+    }
+
+    @Override
+    public long valueAtPercentile(double percentile) {
+        long total = count();
+        if (total == 0L) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long)Math.ceil(Math.min(Math.max(percentile, 0d), 100d) / 100d * total));
+        long c = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            c += counts.get(i);
+            if (c >= rank) {
+                return Math.min(highestOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int)value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int)((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long lowestOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long mantissa = SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return mantissa << shift;
+    }
+
+    static long highestOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        return lowestOf(index) + (1L << shift) - 1L;
+    }
+}
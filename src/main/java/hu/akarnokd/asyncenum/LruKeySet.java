@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.*;
+
+/**
+ * Set of at most {@code maxKeys} keys that forgets the least recently added or re-added key
+ * when full; adding a key already present refreshes it and returns false.
+ * @param <K> the key type
+ */
+final class LruKeySet<K> extends AbstractSet<K> {
+
+    final AccessOrderMap<K> map;
+
+    LruKeySet(int maxKeys) {
+        this.map = new AccessOrderMap<>(maxKeys);
+    }
+
+    @Override
+    public boolean add(K k) {
+        return map.put(k, Boolean.TRUE) == null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return map.containsKey(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return map.remove(o) != null;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return map.keySet().iterator();
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    static final class AccessOrderMap<K> extends LinkedHashMap<K, Boolean> {
+
+        final int maxKeys;
+
+        AccessOrderMap(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Boolean> eldest) {
+            return size() > maxKeys;
+        }
+    }
+}
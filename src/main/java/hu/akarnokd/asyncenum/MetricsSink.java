@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+/**
+ * Receives the measurements of {@link AsyncEnumerable#instrument(String, MetricsSink)}.
+ * <p>
+ *     All methods default to doing nothing, implementations override the ones they need.
+ *     The methods may be called concurrently from multiple instrumented enumerators.
+ *     Use {@link #noop()} to switch instrumentation off without overhead or
+ *     {@link #recording()} to collect latency histograms and counters per name.
+ * </p>
+ */
+public interface MetricsSink {
+
+    /**
+     * Called when a moveNext() of the instrumented enumerator produced an item.
+     * @param name the name given to instrument()
+     * @param latencyNanos the time between the moveNext() call and the completion of its stage
+     */
+    default void onNext(String name, long latencyNanos) {
+        // ignored by default
+    }
+
+    /**
+     * Called when a moveNext() of the instrumented enumerator indicated the end of the sequence.
+     * @param name the name given to instrument()
+     * @param latencyNanos the time between the moveNext() call and the completion of its stage
+     */
+    default void onComplete(String name, long latencyNanos) {
+        // ignored by default
+    }
+
+    /**
+     * Called when a moveNext() of the instrumented enumerator failed.
+     * @param name the name given to instrument()
+     * @param error the failure
+     * @param latencyNanos the time between the moveNext() call and the completion of its stage
+     */
+    default void onError(String name, Throwable error, long latencyNanos) {
+        // ignored by default
+    }
+
+    /**
+     * Called when the instrumented enumerator is cancelled.
+     * @param name the name given to instrument()
+     */
+    default void onCancel(String name) {
+        // ignored by default
+    }
+
+    /**
+     * Called after each item with the number of items buffered by the instrumented
+     * enumerator, if it is one of the buffering operators.
+     * @param name the name given to instrument()
+     * @param size the number of buffered items
+     */
+    default void onQueueSize(String name, int size) {
+        // ignored by default
+    }
+
+    /**
+     * Returns the shared sink that ignores everything; instrumenting with it
+     * returns the original AsyncEnumerable.
+     * @return the no-op sink
+     */
+    static MetricsSink noop() {
+        return NoOpMetricsSink.INSTANCE;
+    }
+
+    /**
+     * Returns a new sink that records the latencies into lock-free histograms
+     * and counts the signals, separately for each name.
+     * @return the new Recording sink
+     */
+    static Recording recording() {
+        return new RecordingMetricsSink();
+    }
+
+    /**
+     * A MetricsSink keeping the measurements for later inspection.
+     */
+    interface Recording extends MetricsSink {
+
+        /**
+         * Returns the measurements recorded under the given name.
+         * @param name the name given to instrument()
+         * @return the live Metrics view or null if nothing was recorded under the name
+         */
+        Metrics metrics(String name);
+    }
+
+    /**
+     * Live view of the measurements of one instrumented name.
+     */
+    interface Metrics {
+
+        /**
+         * Returns the latency histogram of the completed moveNext() calls, in nanoseconds.
+         * @return the latency histogram
+         */
+        Histogram latency();
+
+        /**
+         * Returns the number of items produced.
+         * @return the number of items
+         */
+        long items();
+
+        /**
+         * Returns the number of items produced per second since the first moveNext(),
+         * measured until the latest termination or cancellation if there was one.
+         * @return the item rate, zero if there were no items yet
+         */
+        double itemsPerSecond();
+
+        /**
+         * Returns the number of normal completions.
+         * @return the number of completions
+         */
+        long completions();
+
+        /**
+         * Returns the number of failures.
+         * @return the number of failures
+         */
+        long errors();
+
+        /**
+         * Returns the number of cancellations.
+         * @return the number of cancellations
+         */
+        long cancellations();
+
+        /**
+         * Returns the latest reported queue size.
+         * @return the latest queue size
+         */
+        int queueSize();
+
+        /**
+         * Returns the largest reported queue size.
+         * @return the largest queue size
+         */
+        int maxQueueSize();
+    }
+
+    /**
+     * Histogram of non-negative values with about 3% relative precision.
+     */
+    interface Histogram {
+
+        /**
+         * Returns the number of recorded values.
+         * @return the number of recorded values
+         */
+        long count();
+
+        /**
+         * Returns the largest recorded value.
+         * @return the largest recorded value, zero if nothing was recorded
+         */
+        long max();
+
+        /**
+         * Returns the value below or at which the given percentage of the recorded values fall.
+         * @param percentile the percentile in the range [0, 100]
+         * @return the value at the percentile, zero if nothing was recorded
+         */
+        long valueAtPercentile(double percentile);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Bounded, multi-producer multi-consumer queue backed by a power-of-two array
+ * where each slot carries a sequence number telling whether it can be written or read.
+ * <p>
+ *     Used as a multi-producer single-consumer queue, except that producers may
+ *     evict the oldest element via {@link #poll()} when the queue is full.
+ * </p>
+ * @param <T> the element type, nulls are not allowed
+ */
+final class MpmcArrayQueue<T> implements SimpleQueue<T> {
+
+    final AtomicReferenceArray<T> array;
+
+    final AtomicLongArray sequence;
+
+    final int mask;
+
+    final PaddedAtomicLong producerIndex;
+
+    final PaddedAtomicLong consumerIndex;
+
+    MpmcArrayQueue(int capacity) {
+        int c = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1));
+        this.array = new AtomicReferenceArray<>(c);
+        this.sequence = new AtomicLongArray(c);
+        for (int i = 0; i < c; i++) {
+            sequence.setPlain(i, i);
+        }
+        this.mask = c - 1;
+        this.producerIndex = new PaddedAtomicLong();
+        this.consumerIndex = new PaddedAtomicLong();
+    }
+
+    @Override
+    public boolean offer(T item) {
+        for (;;) {
+            long pi = producerIndex.getAcquire();
+            int offset = (int)pi & mask;
+            long seq = sequence.getAcquire(offset);
+            if (seq == pi) {
+                if (producerIndex.compareAndSet(pi, pi + 1)) {
+                    array.setPlain(offset, item);
+                    sequence.setRelease(offset, pi + 1);
+                    return true;
+                }
+            } else if (seq < pi) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public T poll() {
+        for (;;) {
+            long ci = consumerIndex.getAcquire();
+            int offset = (int)ci & mask;
+            long seq = sequence.getAcquire(offset);
+            if (seq == ci + 1) {
+                if (consumerIndex.compareAndSet(ci, ci + 1)) {
+                    T v = array.getPlain(offset);
+                    array.setPlain(offset, null);
+                    sequence.setRelease(offset, ci + mask + 1);
+                    return v;
+                }
+            } else if (seq < ci + 1) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return producerIndex.getAcquire() == consumerIndex.getAcquire();
+    }
+
+    @Override
+    public int size() {
+        return QueueHelper.size(producerIndex, consumerIndex, mask + 1);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, multi-producer single-consumer queue backed by a power-of-two array.
+ * <p>
+ *     Producers claim a slot by CAS-incrementing the producer index; the consumer
+ *     spins briefly if it sees a claimed but not yet written slot.
+ * </p>
+ * @param <T> the element type, nulls are not allowed
+ */
+final class MpscArrayQueue<T> implements SimpleQueue<T> {
+
+    final AtomicReferenceArray<T> array;
+
+    final int mask;
+
+    final PaddedAtomicLong producerIndex;
+
+    final PaddedAtomicLong consumerIndex;
+
+    MpscArrayQueue(int capacity) {
+        int c = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1));
+        this.array = new AtomicReferenceArray<>(c);
+        this.mask = c - 1;
+        this.producerIndex = new PaddedAtomicLong();
+        this.consumerIndex = new PaddedAtomicLong();
+    }
+
+    @Override
+    public boolean offer(T item) {
+        int m = mask;
+        for (;;) {
+            long pi = producerIndex.getAcquire();
+            long ci = consumerIndex.getAcquire();
+            if (pi - ci > m) {
+                return false;
+            }
+            if (producerIndex.compareAndSet(pi, pi + 1)) {
+                array.setRelease((int)pi & m, item);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public T poll() {
+        long ci = consumerIndex.getPlain();
+        int offset = (int)ci & mask;
+        T v = array.getAcquire(offset);
+        if (v == null) {
+            if (ci == producerIndex.getAcquire()) {
+                return null;
+            }
+            while ((v = array.getAcquire(offset)) == null) {
+                Thread.onSpinWait();
+            }
+        }
+        array.setPlain(offset, null);
+        consumerIndex.setRelease(ci + 1);
+        return v;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return producerIndex.getAcquire() == consumerIndex.getAcquire();
+    }
+
+    @Override
+    public int size() {
+        return QueueHelper.size(producerIndex, consumerIndex, mask + 1);
+    }
+}
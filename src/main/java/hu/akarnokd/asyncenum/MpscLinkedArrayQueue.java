@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Unbounded, multi-producer single-consumer queue made of linked, fixed-size array chunks.
+ * <p>
+ *     Producers claim an index via getAndIncrement, walk (and if necessary append)
+ *     chunks until they reach the one holding the index and store the item there.
+ *     The consumer spins briefly if it sees a claimed but not yet written slot.
+ * </p>
+ * @param <T> the element type, nulls are not allowed
+ */
+final class MpscLinkedArrayQueue<T> implements SimpleQueue<T> {
+
+    final int chunkSize;
+
+    final PaddedAtomicLong producerIndex;
+
+    final AtomicReference<Chunk<T>> producerChunk;
+
+    final PaddedAtomicLong consumerIndex;
+
+    Chunk<T> consumerChunk;
+
+    MpscLinkedArrayQueue(int chunkSize) {
+        int c = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(chunkSize, 2) - 1));
+        this.chunkSize = c;
+        Chunk<T> first = new Chunk<>(0L, c);
+        this.producerIndex = new PaddedAtomicLong();
+        this.producerChunk = new AtomicReference<>(first);
+        this.consumerIndex = new PaddedAtomicLong();
+        this.consumerChunk = first;
+    }
+
+    @Override
+    public boolean offer(T item) {
+        // read the chunk before claiming the index so that chunk.start <= pi holds
+        Chunk<T> chunk = producerChunk.getAcquire();
+        long pi = producerIndex.getAndIncrement();
+        int c = chunkSize;
+
+        while (pi >= chunk.start + c) {
+            Chunk<T> next = chunk.getAcquire();
+            if (next == null) {
+                next = new Chunk<>(chunk.start + c, c);
+                if (!chunk.compareAndSet(null, next)) {
+                    next = chunk.getAcquire();
+                }
+            }
+            chunk = next;
+        }
+
+        int offset = (int)(pi - chunk.start);
+        if (offset == 0) {
+            producerChunk.setRelease(chunk);
+        }
+        chunk.array.setRelease(offset, item);
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        long ci = consumerIndex.getPlain();
+        Chunk<T> chunk = consumerChunk;
+        int offset = (int)(ci - chunk.start);
+        if (offset == chunkSize) {
+            Chunk<T> next = chunk.getAcquire();
+            if (next == null) {
+                if (ci == producerIndex.getAcquire()) {
+                    return null;
+                }
+                while ((next = chunk.getAcquire()) == null) {
+                    Thread.onSpinWait();
+                }
+            }
+            chunk = next;
+            consumerChunk = next;
+            offset = 0;
+        }
+        T v = chunk.array.getAcquire(offset);
+        if (v == null) {
+            if (ci == producerIndex.getAcquire()) {
+                return null;
+            }
+            while ((v = chunk.array.getAcquire(offset)) == null) {
+                Thread.onSpinWait();
+            }
+        }
+        chunk.array.setPlain(offset, null);
+        consumerIndex.setRelease(ci + 1);
+        return v;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return producerIndex.getAcquire() == consumerIndex.getAcquire();
+    }
+
+    @Override
+    public int size() {
+        return QueueHelper.size(producerIndex, consumerIndex, Integer.MAX_VALUE);
+    }
+
+    static final class Chunk<T> extends AtomicReference<Chunk<T>> {
+
+        final long start;
+
+        final AtomicReferenceArray<T> array;
+
+        Chunk(long start, int size) {
+            this.start = start;
+            this.array = new AtomicReferenceArray<>(size);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+/**
+ * Specifies what a bounded {@link AsyncEmitter} should do when its buffer is full
+ * and the producer calls {@link AsyncEmitter#next(Object)}.
+ */
+public enum OverflowStrategy {
+    /**
+     * Block the producer thread until there is room in the buffer.
+     * <p>
+     *     The items can only be consumed once the enumerator has been returned, therefore
+     *     a blocking producer has to run on a thread other than the one calling
+     *     {@link AsyncEnumerable#enumerator()}. Overflowing the buffer from within the
+     *     emitter callback terminates the sequence with an {@code IllegalStateException}
+     *     instead of blocking forever.
+     * </p>
+     */
+    BLOCK,
+    /** Evict the oldest buffered item to make room for the new one. */
+    DROP_OLDEST,
+    /** Drop the new item. */
+    DROP_LATEST,
+    /** Terminate the sequence with an {@code IllegalStateException} once the buffered items have been consumed. */
+    ERROR
+}
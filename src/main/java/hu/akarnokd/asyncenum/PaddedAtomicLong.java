@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.lang.invoke.*;
+
+/**
+ * A volatile long padded on both sides so that it doesn't share a cache line
+ * with other frequently written fields, such as the index of the other side of a queue.
+ * <p>
+ *     The padding relies on the JVM laying out superclass fields before subclass fields.
+ * </p>
+ */
+final class PaddedAtomicLong extends PaddedAtomicLongValue {
+
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+
+    static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(PaddedAtomicLongValue.class, "value", long.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    long getPlain() {
+        return (long)VALUE.get(this);
+    }
+
+    long getAcquire() {
+        return (long)VALUE.getAcquire(this);
+    }
+
+    void setRelease(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    boolean compareAndSet(long expected, long newValue) {
+        return VALUE.compareAndSet(this, expected, newValue);
+    }
+
+    long getAndIncrement() {
+        return (long)VALUE.getAndAdd(this, 1L);
+    }
+}
+
+class PaddedAtomicLongPrePad {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+class PaddedAtomicLongValue extends PaddedAtomicLongPrePad {
+    volatile long value;
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.*;
+
+/**
+ * Represents a source of items split into a fixed number of rails that can be
+ * consumed and transformed concurrently.
+ * <p>
+ *     Use {@link AsyncEnumerable#parallel(int)} to split a sequence, the per-rail
+ *     operators to transform the rails, {@link #runOn(Executor)} to move the work
+ *     after it onto an executor and {@link #sequential()} or {@link #sorted(Comparator)}
+ *     to join the rails back into an AsyncEnumerable.
+ * </p>
+ * @param <T> the value type
+ */
+public interface ParallelAsyncEnumerable<T> {
+
+    /**
+     * Returns the number of rails.
+     * @return the number of rails, positive
+     */
+    int parallelism();
+
+    /**
+     * Starts a new run and returns one AsyncEnumerator per rail.
+     * <p>
+     *     The rails of a run share the upstream, therefore they should be
+     *     consumed concurrently; a rail that is not consumed can hold up the others
+     *     once its buffer is full.
+     * </p>
+     * @return the list of {@link #parallelism()} AsyncEnumerators
+     */
+    List<AsyncEnumerator<T>> enumerators();
+
+    // -------------------------------------------------------------------------------------
+    // Rail transformations
+
+    default <R> ParallelAsyncEnumerable<R> map(Function<? super T, ? extends R> mapper) {
+        return new ParallelCompose<>(this, rail -> rail.map(mapper));
+    }
+
+    default ParallelAsyncEnumerable<T> filter(Predicate<? super T> predicate) {
+        return new ParallelCompose<>(this, rail -> rail.filter(predicate));
+    }
+
+    default ParallelAsyncEnumerable<T> runOn(Executor executor) {
+        return runOn(executor, ParallelFromSource.DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Continues each rail on the given executor so that the operators after this
+     * run concurrently on the executor's threads.
+     * <p>
+     *     Each rail buffers up to the given number of items and only hops onto the
+     *     executor when its consumer has to wait, see {@link AsyncEnumerable#observeOn(Executor, int)}.
+     * </p>
+     * @param executor the executor to run the rails on
+     * @param prefetch the number of items to buffer per rail, positive
+     * @return the new ParallelAsyncEnumerable instance
+     */
+    default ParallelAsyncEnumerable<T> runOn(Executor executor, int prefetch) {
+        Objects.requireNonNull(executor, "executor == null");
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return new ParallelCompose<>(this, rail -> rail.observeOn(executor, prefetch));
+    }
+
+    /**
+     * Reduces each rail into a single value starting from a per-rail initial value.
+     * @param <R> the accumulator type
+     * @param initial the supplier of the initial accumulator, called once for each rail
+     * @param reducer the function receiving the accumulator and the next item and returning the new accumulator
+     * @return the new ParallelAsyncEnumerable instance with one item per rail
+     */
+    default <R> ParallelAsyncEnumerable<R> reduce(Supplier<R> initial, BiFunction<R, T, R> reducer) {
+        return new ParallelCompose<>(this, rail -> rail.reduce(initial, reducer));
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Joins
+
+    /**
+     * Reduces each rail and then the per-rail results into a single value.
+     * @param reducer the associative function combining two items
+     * @return the new AsyncEnumerable instance, empty if all rails were empty
+     */
+    default AsyncEnumerable<T> reduce(BiFunction<T, T, T> reducer) {
+        return new ParallelCompose<>(this, rail -> rail.reduce(reducer)).sequential().reduce(reducer);
+    }
+
+    default AsyncEnumerable<T> sequential() {
+        return sequential(ParallelFromSource.DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Merges the rails back into a single sequence in the order the items become available.
+     * @param prefetch the number of items to consume ahead from each rail, positive
+     * @return the new AsyncEnumerable instance
+     */
+    default AsyncEnumerable<T> sequential(int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+        }
+        return new ParallelSequential<>(this, prefetch);
+    }
+
+    /**
+     * Sorts each rail and merges the sorted rails into a single sorted sequence.
+     * @param comparator the comparator to sort with
+     * @return the new AsyncEnumerable instance
+     */
+    default AsyncEnumerable<T> sorted(Comparator<? super T> comparator) {
+        return new ParallelSorted<>(this, Objects.requireNonNull(comparator, "comparator == null"));
+    }
+}
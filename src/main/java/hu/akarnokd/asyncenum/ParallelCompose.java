@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Applies the same AsyncEnumerable transformation to each rail of a run.
+ * @param <T> the upstream value type
+ * @param <R> the result value type
+ */
+final class ParallelCompose<T, R> implements ParallelAsyncEnumerable<R> {
+
+    final ParallelAsyncEnumerable<T> source;
+
+    final Function<AsyncEnumerable<T>, AsyncEnumerable<R>> transform;
+
+    ParallelCompose(ParallelAsyncEnumerable<T> source, Function<AsyncEnumerable<T>, AsyncEnumerable<R>> transform) {
+        this.source = source;
+        this.transform = transform;
+    }
+
+    @Override
+    public int parallelism() {
+        return source.parallelism();
+    }
+
+    @Override
+    public List<AsyncEnumerator<R>> enumerators() {
+        List<AsyncEnumerator<T>> rails = source.enumerators();
+        List<AsyncEnumerator<R>> result = new ArrayList<>(rails.size());
+        for (AsyncEnumerator<T> rail : rails) {
+            result.add(transform.apply(() -> rail).enumerator());
+        }
+        return result;
+    }
+}
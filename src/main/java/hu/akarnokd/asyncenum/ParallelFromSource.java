@@ -0,0 +1,243 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Dispatches the items of a single upstream enumerator round-robin into bounded
+ * per-rail buffers, skipping rails whose buffer is full or which have been cancelled.
+ * @param <T> the value type
+ */
+final class ParallelFromSource<T> implements ParallelAsyncEnumerable<T> {
+
+    static final int DEFAULT_PREFETCH = 16;
+
+    final AsyncEnumerable<T> source;
+
+    final int parallelism;
+
+    final int prefetch;
+
+    ParallelFromSource(AsyncEnumerable<T> source, int parallelism, int prefetch) {
+        this.source = source;
+        this.parallelism = parallelism;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public int parallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public List<AsyncEnumerator<T>> enumerators() {
+        return Arrays.asList(new Dispatcher<>(source.enumerator(), parallelism, prefetch).rails);
+    }
+
+    static final class Dispatcher<T> extends AtomicInteger implements BiConsumer<Boolean, Throwable> {
+
+        final AsyncEnumerator<T> source;
+
+        final RailEnumerator<T>[] rails;
+
+        final int prefetch;
+
+        final AtomicInteger cancelledRails;
+
+        volatile boolean sourceBusy;
+
+        volatile boolean done;
+        Throwable error;
+
+        volatile boolean cancelled;
+
+        int index;
+
+        RailEnumerator<T> target;
+
+        @SuppressWarnings("unchecked")
+        Dispatcher(AsyncEnumerator<T> source, int parallelism, int prefetch) {
+            this.source = source;
+            this.prefetch = prefetch;
+            this.cancelledRails = new AtomicInteger();
+            RailEnumerator<T>[] a = new RailEnumerator[parallelism];
+            for (int i = 0; i < parallelism; i++) {
+                a[i] = new RailEnumerator<>(this, prefetch);
+            }
+            this.rails = a;
+        }
+
+        void dispatch() {
+            if (getAndIncrement() == 0) {
+                do {
+                    while (!sourceBusy && !done && !cancelled && findTarget()) {
+                        CompletionStage<Boolean> stage = source.moveNext();
+                        if (stage == AsyncEnumerable.TRUE) {
+                            onItem();
+                        } else if (stage == AsyncEnumerable.FALSE) {
+                            onDone();
+                        } else {
+                            sourceBusy = true;
+                            stage.whenComplete(this);
+                        }
+                    }
+                } while (decrementAndGet() != 0);
+            }
+        }
+
+        /**
+         * Picks the next rail in round-robin order that can accept an item.
+         * Only the dispatch loop offers, so the free room found here stays available.
+         * @return true if such rail was found
+         */
+        boolean findTarget() {
+            RailEnumerator<T>[] a = rails;
+            int n = a.length;
+            int idx = index;
+            for (int i = 0; i < n; i++) {
+                RailEnumerator<T> r = a[idx];
+                if (++idx == n) {
+                    idx = 0;
+                }
+                if (!r.cancelled && r.queue.size() < prefetch) {
+                    index = idx;
+                    target = r;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void onItem() {
+            RailEnumerator<T> r = target;
+            r.queue.offer(QueueHelper.wrapNull(source.current()));
+            r.drain();
+        }
+
+        void onDone() {
+            done = true;
+            for (RailEnumerator<T> r : rails) {
+                r.drain();
+            }
+        }
+
+        @Override
+        public void accept(Boolean aBoolean, Throwable throwable) {
+            if (throwable != null) {
+                error = throwable;
+                onDone();
+                return;
+            }
+            if (aBoolean) {
+                onItem();
+                sourceBusy = false;
+                dispatch();
+            } else {
+                onDone();
+            }
+        }
+
+        void railCancelled() {
+            if (cancelledRails.incrementAndGet() == rails.length) {
+                cancelled = true;
+                source.cancel();
+            }
+        }
+    }
+
+    static final class RailEnumerator<T> extends AtomicInteger implements AsyncEnumerator<T> {
+
+        final Dispatcher<T> parent;
+
+        final SpscArrayQueue<Object> queue;
+
+        volatile CompletableFuture<Boolean> completable;
+
+        volatile boolean cancelled;
+
+        T current;
+
+        RailEnumerator(Dispatcher<T> parent, int prefetch) {
+            this.parent = parent;
+            this.queue = new SpscArrayQueue<>(prefetch);
+        }
+
+        @Override
+        public CompletionStage<Boolean> moveNext() {
+            Object v = queue.poll();
+            if (v != null) {
+                current = QueueHelper.unwrapNull(v);
+                parent.dispatch();
+                return AsyncEnumerable.TRUE;
+            }
+            current = null;
+            CompletableFuture<Boolean> cf = new CompletableFuture<>();
+            completable = cf;
+            drain();
+            parent.dispatch();
+            return cf;
+        }
+
+        @Override
+        public T current() {
+            return current;
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                parent.railCancelled();
+            }
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                CompletableFuture<Boolean> cf = completable;
+                if (cf != null) {
+                    boolean d = parent.done;
+                    Object v = queue.poll();
+                    if (v != null) {
+                        completable = null;
+                        current = QueueHelper.unwrapNull(v);
+                        cf.complete(true);
+                        parent.dispatch();
+                    } else if (d) {
+                        completable = null;
+                        Throwable ex = parent.error;
+                        if (ex != null) {
+                            cf.completeExceptionally(ex);
+                        } else {
+                            cf.complete(false);
+                        }
+                    }
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.List;
+
+/**
+ * Merges the rails of a run via flatMap, each rail being a single-use inner source.
+ * @param <T> the value type
+ */
+final class ParallelSequential<T> implements AsyncEnumerable<T> {
+
+    final ParallelAsyncEnumerable<T> source;
+
+    final int prefetch;
+
+    ParallelSequential(ParallelAsyncEnumerable<T> source, int prefetch) {
+        this.source = source;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public AsyncEnumerator<T> enumerator() {
+        List<AsyncEnumerator<T>> rails = source.enumerators();
+        return AsyncEnumerable.fromIterable(rails)
+                .flatMap(rail -> (AsyncEnumerable<T>)() -> rail, rails.size(), prefetch)
+                .enumerator();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.*;
+
+/**
+ * Sorts the rails individually then merges the sorted lists.
+ * @param <T> the value type
+ */
+final class ParallelSorted<T> implements AsyncEnumerable<T> {
+
+    final ParallelAsyncEnumerable<T> source;
+
+    final Comparator<? super T> comparator;
+
+    ParallelSorted(ParallelAsyncEnumerable<T> source, Comparator<? super T> comparator) {
+        this.source = source;
+        this.comparator = comparator;
+    }
+
+    @Override
+    public AsyncEnumerator<T> enumerator() {
+        return new ParallelCompose<T, List<T>>(source, rail -> rail.toList().map(list -> {
+                    list.sort(comparator);
+                    return list;
+                }))
+                .sequential()
+                .toList()
+                .flatMap(lists -> AsyncEnumerable.fromIterable(() -> new MergeIterator<>(lists, comparator)))
+                .enumerator();
+    }
+
+    static final class MergeIterator<T> implements Iterator<T> {
+
+        final List<List<T>> lists;
+
+        final int[] indexes;
+
+        final Comparator<? super T> comparator;
+
+        int remaining;
+
+        MergeIterator(List<List<T>> lists, Comparator<? super T> comparator) {
+            this.lists = lists;
+            this.indexes = new int[lists.size()];
+            this.comparator = comparator;
+            int r = 0;
+            for (List<T> list : lists) {
+                r += list.size();
+            }
+            this.remaining = r;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining != 0;
+        }
+
+        @Override
+        public T next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            // the number of rails is small, a linear scan over the heads is enough
+            int min = -1;
+            T minValue = null;
+            for (int i = 0; i < indexes.length; i++) {
+                List<T> list = lists.get(i);
+                int j = indexes[i];
+                if (j != list.size()) {
+                    T v = list.get(j);
+                    if (min < 0 || comparator.compare(v, minValue) < 0) {
+                        min = i;
+                        minValue = v;
+                    }
+                }
+            }
+            indexes[min]++;
+            remaining--;
+            return minValue;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+/**
+ * Helper methods shared by the queue implementations.
+ */
+final class QueueHelper {
+
+    /** Stands in for null items as the queues use null to indicate an empty slot. */
+    private static final Object NULL_ITEM = new Object();
+
+    private QueueHelper() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    /**
+     * Returns the item or a sentinel if it is null so that it can be offered to a queue.
+     */
+    static Object wrapNull(Object item) {
+        return item != null ? item : NULL_ITEM;
+    }
+
+    /**
+     * Returns the item or null if it is the sentinel of {@link #wrapNull(Object)}.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T unwrapNull(Object item) {
+        return item != NULL_ITEM ? (T)item : null;
+    }
+
+    /**
+     * Returns the number of elements between a consistent snapshot of the two indexes,
+     * capped to the capacity.
+     */
+    static int size(PaddedAtomicLong producerIndex, PaddedAtomicLong consumerIndex, long capacity) {
+        long ci = consumerIndex.getAcquire();
+        for (;;) {
+            long pi = producerIndex.getAcquire();
+            long ci2 = consumerIndex.getAcquire();
+            if (ci == ci2) {
+                return (int)Math.min(Math.max(pi - ci, 0L), capacity);
+            }
+            ci = ci2;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Records the measurements per name into a {@link LatencyHistogram} and counters.
+ */
+final class RecordingMetricsSink implements MetricsSink.Recording {
+
+    final ConcurrentMap<String, NamedMetrics> metrics;
+
+    RecordingMetricsSink() {
+        this.metrics = new ConcurrentHashMap<>();
+    }
+
+    NamedMetrics get(String name) {
+        NamedMetrics m = metrics.get(name);
+        if (m == null) {
+            m = metrics.computeIfAbsent(name, n -> new NamedMetrics());
+        }
+        return m;
+    }
+
+    @Override
+    public MetricsSink.Metrics metrics(String name) {
+        return metrics.get(name);
+    }
+
+    @Override
+    public void onNext(String name, long latencyNanos) {
+        NamedMetrics m = get(name);
+        if (m.first.get() == Long.MIN_VALUE) {
+            m.first.compareAndSet(Long.MIN_VALUE, System.nanoTime() - latencyNanos);
+        }
+        m.latency.record(latencyNanos);
+        m.items.increment();
+    }
+
+    @Override
+    public void onComplete(String name, long latencyNanos) {
+        NamedMetrics m = get(name);
+        m.latency.record(latencyNanos);
+        m.completions.increment();
+        m.last = System.nanoTime();
+    }
+
+    @Override
+    public void onError(String name, Throwable error, long latencyNanos) {
+        NamedMetrics m = get(name);
+        m.latency.record(latencyNanos);
+        m.errors.increment();
+        m.last = System.nanoTime();
+    }
+
+    @Override
+    public void onCancel(String name) {
+        NamedMetrics m = get(name);
+        m.cancellations.increment();
+        m.last = System.nanoTime();
+    }
+
+    @Override
+    public void onQueueSize(String name, int size) {
+        NamedMetrics m = get(name);
+        m.queueSize = size;
+        if (size > m.maxQueueSize.get()) {
+            m.maxQueueSize.accumulateAndGet(size, Math::max);
+        }
+    }
+
+    static final class NamedMetrics implements MetricsSink.Metrics {
+
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        final LongAdder items = new LongAdder();
+
+        final LongAdder completions = new LongAdder();
+
+        final LongAdder errors = new LongAdder();
+
+        final LongAdder cancellations = new LongAdder();
+
+        final AtomicLong first = new AtomicLong(Long.MIN_VALUE);
+
+        /** The time of the latest termination or cancellation, the rate is measured until then. */
+        volatile long last = Long.MIN_VALUE;
+
+        volatile int queueSize;
+
+        final AtomicInteger maxQueueSize = new AtomicInteger();
+
+        @Override
+        public MetricsSink.Histogram latency() {
+            return latency;
+        }
+
+        @Override
+        public long items() {
+            return items.sum();
+        }
+
+        @Override
+        public double itemsPerSecond() {
+            long f = first.get();
+            long n = items.sum();
+            if (f == Long.MIN_VALUE || n == 0L) {
+                return 0d;
+            }
+            long l = last;
+            long elapsed = (l == Long.MIN_VALUE ? System.nanoTime() : l) - f;
+            return elapsed <= 0L ? 0d : n * 1e9 / elapsed;
+        }
+
+        @Override
+        public long completions() {
+            return completions.sum();
+        }
+
+        @Override
+        public long errors() {
+            return errors.sum();
+        }
+
+        @Override
+        public long cancellations() {
+            return cancellations.sum();
+        }
+
+        @Override
+        public int queueSize() {
+            return queueSize;
+        }
+
+        @Override
+        public int maxQueueSize() {
+            return maxQueueSize.get();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+/**
+ * Minimal queue API of the array-based queues used by the operators.
+ * @param <T> the element type, nulls are not allowed
+ */
+interface SimpleQueue<T> {
+
+    boolean offer(T item);
+
+    T poll();
+
+    boolean isEmpty();
+
+    int size();
+
+    default void clear() {
+        while (poll() != null) { }
+    }
+}
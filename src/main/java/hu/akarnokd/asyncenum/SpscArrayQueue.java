@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.lang.invoke.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, single-producer single-consumer queue backed by a power-of-two array.
+ * <p>
+ *     The producer and the consumer decide on full/empty by looking at the slot itself,
+ *     so they don't read each other's index in offer/poll and the indexes are not padded;
+ *     this keeps the queue small enough for per-source buffers.
+ * </p>
+ * @param <T> the element type, nulls are not allowed
+ */
+final class SpscArrayQueue<T> implements SimpleQueue<T> {
+
+    final AtomicReferenceArray<T> array;
+
+    final int mask;
+
+    volatile long producerIndex;
+    static final VarHandle PRODUCER_INDEX;
+
+    volatile long consumerIndex;
+    static final VarHandle CONSUMER_INDEX;
+
+    static {
+        try {
+            PRODUCER_INDEX = MethodHandles.lookup().findVarHandle(SpscArrayQueue.class, "producerIndex", long.class);
+            CONSUMER_INDEX = MethodHandles.lookup().findVarHandle(SpscArrayQueue.class, "consumerIndex", long.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    SpscArrayQueue(int capacity) {
+        int c = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1));
+        this.array = new AtomicReferenceArray<>(c);
+        this.mask = c - 1;
+    }
+
+    @Override
+    public boolean offer(T item) {
+        long pi = (long)PRODUCER_INDEX.get(this);
+        int offset = (int)pi & mask;
+        if (array.getAcquire(offset) != null) {
+            return false;
+        }
+        array.setRelease(offset, item);
+        PRODUCER_INDEX.setRelease(this, pi + 1);
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        long ci = (long)CONSUMER_INDEX.get(this);
+        int offset = (int)ci & mask;
+        T v = array.getAcquire(offset);
+        if (v != null) {
+            array.setRelease(offset, null);
+            CONSUMER_INDEX.setRelease(this, ci + 1);
+        }
+        return v;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return producerIndex == consumerIndex;
+    }
+
+    @Override
+    public int size() {
+        long ci = consumerIndex;
+        for (;;) {
+            long pi = producerIndex;
+            long ci2 = consumerIndex;
+            if (ci == ci2) {
+                return (int)Math.min(Math.max(pi - ci, 0L), mask + 1L);
+            }
+            ci = ci2;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+
+/**
+ * An AsyncEnumerator whose items are available synchronously.
+ * <p>
+ *     Operators check for this type when their {@code enumerator()} is created and,
+ *     if the upstream supports it, drive it via {@link #tryNext()} in a loop instead of
+ *     going through {@link CompletionStage} callbacks for each item.
+ * </p>
+ * @param <T> the element type
+ */
+interface SyncAsyncEnumerator<T> extends AsyncEnumerator<T> {
+
+    /**
+     * Synchronously moves to the next item.
+     * @return true if an item is available via {@link #current()}, false if the sequence
+     * has ended
+     * @throws RuntimeException (or Error) if the sequence failed
+     */
+    boolean tryNext();
+
+    @Override
+    default CompletionStage<Boolean> moveNext() {
+        try {
+            return tryNext() ? AsyncEnumerable.TRUE : AsyncEnumerable.FALSE;
+        } catch (Throwable ex) {
+            return CompletableFuture.failedStage(ex);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a task periodically on a {@link TimerService} that only supports one-shot
+ * scheduling by rescheduling it after each run relative to the start time.
+ */
+final class TimerPeriodicTask extends AtomicReference<TimerService.Task>
+        implements TimerService.Task, Runnable {
+
+    static final TimerService.Task CANCELLED = () -> { };
+
+    final TimerService timer;
+
+    final Runnable task;
+
+    final long periodNanos;
+
+    long start;
+
+    long count;
+
+    TimerPeriodicTask(TimerService timer, Runnable task, long periodNanos) {
+        this.timer = timer;
+        this.task = task;
+        this.periodNanos = periodNanos;
+    }
+
+    void start(long initialDelayNanos) {
+        start = System.nanoTime() + initialDelayNanos;
+        TimerService.Task first = timer.schedule(this, initialDelayNanos, TimeUnit.NANOSECONDS);
+        // the first run may have already replaced the handle
+        if (!compareAndSet(null, first) && get() == CANCELLED) {
+            first.cancel();
+        }
+    }
+
+    @Override
+    public void run() {
+        if (get() == CANCELLED) {
+            return;
+        }
+        task.run();
+        long next = start + ++count * periodNanos;
+        replace(timer.schedule(this, next - System.nanoTime(), TimeUnit.NANOSECONDS));
+    }
+
+    void replace(TimerService.Task next) {
+        for (;;) {
+            TimerService.Task current = get();
+            if (current == CANCELLED) {
+                next.cancel();
+                return;
+            }
+            if (compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void cancel() {
+        TimerService.Task current = getAndSet(CANCELLED);
+        if (current != null && current != CANCELLED) {
+            current.cancel();
+        }
+    }
+}
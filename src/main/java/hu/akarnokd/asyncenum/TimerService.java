@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.*;
+
+/**
+ * Abstraction over the timed scheduling used by {@code timer}, {@code interval}
+ * and {@code timeout}.
+ * <p>
+ *     Use {@link #from(ScheduledExecutorService)} to keep scheduling on an executor or
+ *     {@link #hashedWheel(long, TimeUnit, int)} when many enumerators schedule and cancel
+ *     short timeouts concurrently.
+ * </p>
+ */
+public interface TimerService {
+
+    /**
+     * Schedules the task to run once after the given delay.
+     * @param task the task to run
+     * @param delay the delay, non-positive means as soon as possible
+     * @param unit the delay unit
+     * @return the handle to cancel the task with
+     */
+    Task schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Schedules the task to run periodically, measuring each run from the initial start
+     * so that delays don't accumulate.
+     * @param task the task to run
+     * @param initialDelay the delay before the first run
+     * @param period the time between runs, positive
+     * @param unit the delay and period unit
+     * @return the handle to cancel the periodic runs with
+     */
+    default Task schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        TimerPeriodicTask periodic = new TimerPeriodicTask(this, task, unit.toNanos(period));
+        periodic.start(unit.toNanos(initialDelay));
+        return periodic;
+    }
+
+    /**
+     * Returns the current time of this service, used for measuring elapsed time.
+     * @param unit the unit of the returned time
+     * @return the current time in the given unit
+     */
+    default long now(TimeUnit unit) {
+        return unit.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the service and drops the pending tasks; the executor-backed service
+     * leaves its executor running.
+     */
+    default void shutdown() {
+        // nothing to release by default
+    }
+
+    /**
+     * Returns a TimerService that schedules on the given executor.
+     * @param executor the executor to schedule on, not null
+     * @return the new TimerService instance
+     */
+    static TimerService from(ScheduledExecutorService executor) {
+        return new ExecutorTimerService(executor);
+    }
+
+    /**
+     * Returns a TimerService backed by a hashed timing wheel driven by a single daemon thread.
+     * <p>
+     *     Scheduling and cancelling are O(1), at the cost of firing tasks at tick granularity.
+     *     The tasks run on the timer thread and should be short.
+     * </p>
+     * @param tickDuration the duration of one tick, positive
+     * @param unit the tick unit
+     * @param ticksPerWheel the number of buckets, rounded up to a power of two
+     * @return the new TimerService instance
+     */
+    static TimerService hashedWheel(long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration > 0 required but it was " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel in (0, 2^30] required but it was " + ticksPerWheel);
+        }
+        return new HashedWheelTimerService(unit.toNanos(tickDuration), ticksPerWheel);
+    }
+
+    /**
+     * Handle to a scheduled task.
+     */
+    @FunctionalInterface
+    interface Task {
+        /**
+         * Prevents the task from running if it hasn't run yet.
+         */
+        void cancel();
+    }
+}
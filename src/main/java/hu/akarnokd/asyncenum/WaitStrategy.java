@@ -0,0 +1,31 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+/**
+ * Specifies how a blocking consumer waits for the next item of a prefetching
+ * {@code blockingIterable} or {@code blockingStream}.
+ */
+public enum WaitStrategy {
+    /** Spin on the buffer without giving up the CPU; lowest latency, burns a core while waiting. */
+    BUSY_SPIN,
+    /** Spin for a short while, then keep yielding the CPU to other threads. */
+    YIELD,
+    /** Park the thread right away until the producer signals an item or termination. */
+    PARK,
+    /** Spin for a short while, then yield for a while, then park. */
+    SPIN_YIELD_PARK
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Holds the default Executor of the blocking bridges.
+ * <p>
+ *     This Java 21+ version of the multi-release jar starts a virtual thread per task.
+ * </p>
+ */
+final class BlockingExecutor {
+
+    private BlockingExecutor() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    static final Executor EXECUTOR = Thread::startVirtualThread;
+
+    static Executor executor() {
+        return EXECUTOR;
+    }
+}
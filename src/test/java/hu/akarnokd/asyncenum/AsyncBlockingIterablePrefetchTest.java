@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncBlockingIterablePrefetchTest {
+
+    @Test
+    public void simple() {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            List<Integer> list = new ArrayList<>();
+            for (Integer i : AsyncEnumerable.range(1, 5).blockingIterable(2, strategy)) {
+                list.add(i);
+            }
+
+            assertEquals(strategy.toString(), Arrays.asList(1, 2, 3, 4, 5), list);
+        }
+    }
+
+    @Test
+    public void simpleAsync() {
+        TestHelper.withExecutor(executor -> {
+            for (WaitStrategy strategy : WaitStrategy.values()) {
+                List<Integer> list = new ArrayList<>();
+                for (Integer i : AsyncEnumerable.range(1, 1000)
+                        .observeOn(executor).blockingIterable(16, strategy)) {
+                    list.add(i);
+                }
+
+                assertEquals(strategy.toString(), 1000, list.size());
+                for (int i = 0; i < 1000; i++) {
+                    assertEquals(i + 1, list.get(i).intValue());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void nullItems() {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            List<Integer> list = new ArrayList<>();
+            for (Integer i : AsyncEnumerable.fromArray(1, null, 3, null, 5).blockingIterable(2, strategy)) {
+                list.add(i);
+            }
+
+            assertEquals(strategy.toString(), Arrays.asList(1, null, 3, null, 5), list);
+        }
+    }
+
+    @Test
+    public void nullItemsAsync() {
+        TestHelper.withExecutor(executor -> {
+            Iterator<Integer> it = AsyncEnumerable.fromArray(null, 2, null)
+                    .observeOn(executor).blockingIterable(2).iterator();
+
+            assertTrue(it.hasNext());
+            assertTrue(it.hasNext());
+            assertNull(it.next());
+            assertEquals(2, it.next().intValue());
+            assertNull(it.next());
+            assertFalse(it.hasNext());
+        });
+    }
+
+    @Test
+    public void prefetchBounded() {
+        int[] requested = { 0 };
+        Iterator<Integer> it = AsyncEnumerable.range(1, 100)
+                .doOnNext(v -> requested[0]++)
+                .blockingIterable(8)
+                .iterator();
+
+        assertEquals(8, requested[0]);
+
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(i, it.next().intValue());
+            assertTrue(requested[0] - i <= 8);
+        }
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void streamAsync() {
+        TestHelper.withExecutor(executor -> {
+            List<Integer> list =
+                    AsyncEnumerable.range(1, 5)
+                            .observeOn(executor)
+                            .blockingStream(2)
+                            .collect(Collectors.toList());
+
+            assertEquals(Arrays.asList(1, 2, 3, 4, 5), list);
+        });
+    }
+
+    @Test
+    public void streamCancel() {
+        AtomicBoolean bool = new AtomicBoolean();
+
+        try (Stream<Integer> str = AsyncEnumerable.range(1, 5).doOnCancel(() -> bool.set(true)).blockingStream(2)) {
+            assertEquals(1, str.iterator().next().intValue());
+        }
+
+        assertTrue(bool.get());
+    }
+
+    @Test
+    public void error() {
+        try {
+            AsyncEnumerable.error(new RuntimeException("forced failure"))
+                    .blockingIterable(4)
+                    .iterator()
+                    .next();
+            fail("Should have thrown");
+        } catch (RuntimeException ex) {
+            assertEquals("forced failure", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void errorChecked() {
+        try {
+            AsyncEnumerable.error(new IOException("forced failure"))
+                    .blockingIterable(4)
+                    .iterator()
+                    .next();
+            fail("Should have thrown");
+        } catch (RuntimeException ex) {
+            assertEquals("forced failure", ex.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void errorInterrupted() {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            try {
+                Thread.currentThread().interrupt();
+                AsyncEnumerable.never()
+                        .blockingIterable(4, strategy)
+                        .iterator()
+                        .next();
+                fail("Should have thrown");
+            } catch (RuntimeException ex) {
+                assertTrue(strategy.toString(), ex.getCause() instanceof InterruptedException);
+            }
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void noSuchElement() {
+        AsyncEnumerable.empty()
+                .blockingIterable(4)
+                .iterator()
+                .next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchValidated() {
+        AsyncEnumerable.empty().blockingIterable(0);
+    }
+}
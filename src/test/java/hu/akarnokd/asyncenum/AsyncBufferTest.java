@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncBufferTest {
+
+    @Test
+    public void simple() {
+        TestHelper.assertResult(AsyncEnumerable.range(1, 5).buffer(2),
+                Arrays.asList(1, 2), Arrays.asList(3, 4), Collections.singletonList(5));
+    }
+
+    @Test
+    public void exact() {
+        TestHelper.assertResult(AsyncEnumerable.range(1, 4).buffer(2),
+                Arrays.asList(1, 2), Arrays.asList(3, 4));
+    }
+
+    @Test
+    public void empty() {
+        TestHelper.assertResult(AsyncEnumerable.<Integer>empty().buffer(2));
+    }
+
+    @Test
+    public void syncFused() {
+        AsyncEnumerable<List<Integer>> source = AsyncEnumerable.range(1, 5).buffer(3);
+
+        assertTrue(source.enumerator() instanceof SyncAsyncEnumerator);
+
+        TestHelper.assertResult(source, Arrays.asList(1, 2, 3), Arrays.asList(4, 5));
+    }
+
+    @Test
+    public void async() {
+        TestHelper.withExecutor(executor -> {
+            List<List<Integer>> list = AsyncEnumerable.range(1, 1000)
+                    .observeOn(executor)
+                    .buffer(64)
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(16, list.size());
+            assertEquals(64, list.get(0).size());
+            assertEquals(1000 - 15 * 64, list.get(15).size());
+            assertEquals(1000, list.get(15).get(list.get(15).size() - 1).intValue());
+        });
+    }
+
+    @Test
+    public void error() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.error(new RuntimeException("forced failure"))
+                .buffer(2),
+                RuntimeException.class, "forced failure"
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sizeValidated() {
+        AsyncEnumerable.range(1, 5).buffer(0);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncBufferTimedTest {
+
+    @Test
+    public void sizeBound() {
+        TestHelper.withScheduler(executor -> {
+            TestHelper.assertResult(AsyncEnumerable.range(1, 5).buffer(2, 1, TimeUnit.MINUTES, executor),
+                    Arrays.asList(1, 2), Arrays.asList(3, 4), Collections.singletonList(5));
+        });
+    }
+
+    @Test
+    public void timeBound() throws Exception {
+        TestHelper.withScheduler(executor -> {
+            AsyncEnumerator<List<Long>> en = AsyncEnumerable.interval(1, 200, TimeUnit.MILLISECONDS, executor)
+                    .buffer(100, 50, TimeUnit.MILLISECONDS, executor)
+                    .enumerator();
+            try {
+                for (long i = 0; i < 3; i++) {
+                    assertTrue(en.moveNext().toCompletableFuture().get(5, TimeUnit.SECONDS));
+                    assertEquals(Collections.singletonList(i), en.current());
+                }
+            } catch (Exception ex) {
+                throw new AssertionError(ex);
+            } finally {
+                en.cancel();
+            }
+        });
+    }
+
+    @Test
+    public void hashedWheel() {
+        TimerService timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 64);
+        try {
+            TestHelper.assertResult(AsyncEnumerable.range(1, 5).buffer(3, 1, TimeUnit.MINUTES, timer),
+                    Arrays.asList(1, 2, 3), Arrays.asList(4, 5));
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void async() {
+        TestHelper.withScheduler(executor -> {
+            List<List<Integer>> list = AsyncEnumerable.range(1, 1000)
+                    .observeOn(executor)
+                    .buffer(64, 1, TimeUnit.MINUTES, executor)
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(16, list.size());
+            int count = 0;
+            for (List<Integer> b : list) {
+                for (Integer v : b) {
+                    assertEquals(++count, v.intValue());
+                }
+            }
+            assertEquals(1000, count);
+        });
+    }
+
+    @Test
+    public void empty() {
+        TestHelper.withScheduler(executor -> {
+            TestHelper.assertResult(AsyncEnumerable.<Integer>empty().buffer(2, 1, TimeUnit.MINUTES, executor));
+        });
+    }
+
+    @Test
+    public void error() {
+        TestHelper.withScheduler(executor -> {
+            TestHelper.assertFailure(
+                    AsyncEnumerable.error(new RuntimeException("forced failure"))
+                            .buffer(2, 1, TimeUnit.MINUTES, executor),
+                    RuntimeException.class, "forced failure"
+            );
+        });
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        TestHelper.withScheduler(executor -> {
+            boolean[] cancelled = { false };
+            List<List<Integer>> list = AsyncEnumerable.range(1, 100)
+                    .doOnCancel(() -> cancelled[0] = true)
+                    .buffer(10, 1, TimeUnit.MINUTES, executor)
+                    .take(2)
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(2, list.size());
+            assertTrue(cancelled[0]);
+        });
+    }
+}
@@ -19,8 +19,11 @@ package hu.akarnokd.asyncenum;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.assertEquals;
 
 public class AsyncCacheTest {
 
@@ -111,4 +114,93 @@ public class AsyncCacheTest {
             }
         });
     }
+
+    @Test
+    public void manyChunks() {
+        AsyncEnumerable<Integer> ae = AsyncEnumerable.range(1, 1000).cache();
+
+        List<Integer> list = ae.toList().blockingFirst();
+        assertEquals(1000, list.size());
+        assertEquals(1000, ae.toList().blockingFirst().size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i + 1, list.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void maxItems() {
+        AsyncEnumerable<Integer> ae = AsyncEnumerable.range(1, 100).cache(3);
+
+        TestHelper.assertResult(ae, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10,
+                11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30,
+                31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41, 42, 43, 44, 45, 46, 47, 48, 49, 50,
+                51, 52, 53, 54, 55, 56, 57, 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70,
+                71, 72, 73, 74, 75, 76, 77, 78, 79, 80, 81, 82, 83, 84, 85, 86, 87, 88, 89, 90,
+                91, 92, 93, 94, 95, 96, 97, 98, 99, 100);
+        TestHelper.assertResult(ae, 98, 99, 100);
+        TestHelper.assertResult(ae, 98, 99, 100);
+    }
+
+    @Test
+    public void maxItemsChunkBoundary() {
+        for (int n : new int[] { 31, 32, 33, 64, 65 }) {
+            AsyncEnumerable<Integer> ae = AsyncEnumerable.range(1, n).cache(32);
+            ae.blockingLast();
+
+            List<Integer> list = ae.toList().blockingFirst();
+            assertEquals(Math.min(n, 32), list.size());
+            assertEquals(n, list.get(list.size() - 1).intValue());
+        }
+    }
+
+    @Test
+    public void runningEnumeratorUnaffectedByEviction() {
+        AsyncEnumerable<Integer> ae = AsyncEnumerable.range(1, 100).cache(2);
+
+        AsyncEnumerator<Integer> slow = ae.enumerator();
+
+        TestHelper.assertResult(ae, 99, 100);
+
+        AsyncEnumerable<Integer> slowSource = () -> slow;
+        List<Integer> list = slowSource.toList().blockingFirst();
+        assertEquals(100, list.size());
+        assertEquals(1, list.get(0).intValue());
+    }
+
+    @Test
+    public void maxAge() {
+        AtomicLong time = new AtomicLong();
+        TimerService clock = new TimerService() {
+            @Override
+            public Task schedule(Runnable task, long delay, TimeUnit unit) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public long now(TimeUnit unit) {
+                return time.get();
+            }
+        };
+
+        AsyncEnumerable<Integer> ae = AsyncEnumerable.range(1, 5)
+                .doOnNext(v -> time.set(v * 10))
+                .cache(25, TimeUnit.MILLISECONDS, clock);
+
+        TestHelper.assertResult(ae, 1, 2, 3, 4, 5);
+
+        TestHelper.assertResult(ae, 3, 4, 5);
+
+        time.set(70);
+
+        TestHelper.assertResult(ae, 5);
+
+        time.set(100);
+
+        TestHelper.assertResult(ae);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxItemsValidated() {
+        AsyncEnumerable.range(1, 5).cache(0);
+    }
 }
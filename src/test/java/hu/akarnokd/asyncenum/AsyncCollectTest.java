@@ -116,4 +116,37 @@ public class AsyncCollectTest {
             );
         });
     }
+
+    @Test
+    public void collectorCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .collect(ArrayList::new, (a, b) -> { throw new IllegalStateException("forced failure"); }),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
+
+    @Test
+    public void collectorFinisherCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .collect(Collectors.collectingAndThen(Collectors.toList(), list -> { throw new IllegalStateException("forced failure"); })),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
+
+    @Test
+    public void collectorAccumulatorCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .collect(Collector.of(ArrayList::new, (a, b) -> { throw new IllegalStateException("forced failure"); }, (a, b) -> a)),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
 }
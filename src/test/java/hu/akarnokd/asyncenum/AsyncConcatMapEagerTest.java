@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AsyncConcatMapEagerTest {
+
+    @Test
+    public void synchronous() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .concatMapEager(v -> AsyncEnumerable.range(v * 10, 3), 2, 2),
+                10, 11, 12, 20, 21, 22, 30, 31, 32, 40, 41, 42, 50, 51, 52
+        );
+    }
+
+    @Test
+    public void empty() {
+        TestHelper.assertResult(
+                AsyncEnumerable.<Integer>empty()
+                        .concatMapEager(v -> AsyncEnumerable.range(v, 2), 2, 2)
+        );
+    }
+
+    @Test
+    public void emptyInners() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .concatMapEager(v -> v % 2 == 0 ? AsyncEnumerable.just(v) : AsyncEnumerable.<Integer>empty(), 2, 2),
+                2, 4
+        );
+    }
+
+    @Test
+    public void nullItems() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 3)
+                        .concatMapEager(v -> AsyncEnumerable.fromArray(null, v, v + 10), 2, 4),
+                null, 1, 11, null, 2, 12, null, 3, 13
+        );
+    }
+
+    @Test
+    public void nullItemsUnboundedPrefetch() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 3)
+                        .concatMapEager(v -> AsyncEnumerable.fromArray(v, null), 2, Integer.MAX_VALUE),
+                1, null, 2, null, 3, null
+        );
+    }
+
+    @Test
+    public void orderedWhileRunningConcurrently() {
+        TestHelper.withScheduler(executor -> {
+            AtomicInteger active = new AtomicInteger();
+            AtomicInteger maxActive = new AtomicInteger();
+            long start = System.nanoTime();
+
+            List<Integer> list = AsyncEnumerable.range(1, 8)
+                    .concatMapEager(v -> AsyncEnumerable.defer(() -> {
+                        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        // later upstream items complete sooner
+                        return AsyncEnumerable.timer(100 - v * 10, TimeUnit.MILLISECONDS, executor)
+                                .map(t -> v)
+                                .doFinally(active::decrementAndGet);
+                    }), 4, 1)
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8), list);
+            assertTrue("" + maxActive.get(), maxActive.get() <= 4 && maxActive.get() > 1);
+            // 8 sequential calls would take at least 440 ms
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(400));
+        });
+    }
+
+    @Test
+    public void async() {
+        TestHelper.withExecutor(executor -> {
+            List<Integer> list = AsyncEnumerable.range(1, 100)
+                    .concatMapEager(v -> AsyncEnumerable.range(v * 1000, 100).observeOn(executor), 8, 16)
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(100 * 100, list.size());
+            int i = 0;
+            for (int v = 1; v <= 100; v++) {
+                for (int j = 0; j < 100; j++) {
+                    assertEquals(v * 1000 + j, list.get(i++).intValue());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void take() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .concatMapEager(v -> AsyncEnumerable.range(v * 10, 3), 2, 2)
+                        .take(4),
+                10, 11, 12, 20
+        );
+    }
+
+    @Test
+    public void mainError() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.error(new RuntimeException("forced failure"))
+                        .concatMapEager(v -> AsyncEnumerable.just(1), 2, 2),
+                RuntimeException.class, "forced failure"
+        );
+    }
+
+    @Test
+    public void innerError() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.range(1, 5)
+                        .concatMapEager(v -> AsyncEnumerable.error(new RuntimeException("forced failure")), 2, 2),
+                RuntimeException.class, "forced failure"
+        );
+    }
+
+    @Test
+    public void mapperCrash() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.range(1, 5)
+                        .concatMapEager(v -> {
+                            throw new IllegalArgumentException("forced failure");
+                        }, 2, 2),
+                IllegalArgumentException.class, "forced failure"
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxConcurrencyValidated() {
+        AsyncEnumerable.range(1, 5).concatMapEager(v -> AsyncEnumerable.just(v), 0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchValidated() {
+        AsyncEnumerable.range(1, 5).concatMapEager(v -> AsyncEnumerable.just(v), 1, 0);
+    }
+}
@@ -19,10 +19,11 @@ package hu.akarnokd.asyncenum;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class AsyncCreateTest {
 
@@ -39,6 +40,19 @@ public class AsyncCreateTest {
         );
     }
 
+    @Test
+    public void nullItems() {
+        TestHelper.assertResult(
+                AsyncEnumerable.<Integer>create(emitter -> {
+                    emitter.next(null);
+                    emitter.next(1);
+                    emitter.next(null);
+                    emitter.stop();
+                }),
+                null, 1, null
+        );
+    }
+
     @Test
     public void simpleWithResource() {
         AtomicBoolean bool = new AtomicBoolean();
@@ -167,4 +181,228 @@ public class AsyncCreateTest {
             Thread.currentThread().setUncaughtExceptionHandler(eh);
         }
     }
+
+    @Test
+    public void boundedDropLatest() {
+        TestHelper.assertResult(
+                AsyncEnumerable.create(emitter -> {
+                    for (int i = 1; i <= 10; i++) {
+                        emitter.next(i);
+                    }
+                    emitter.stop();
+                }, 4, OverflowStrategy.DROP_LATEST),
+                1, 2, 3, 4
+        );
+    }
+
+    @Test
+    public void boundedDropOldest() {
+        TestHelper.assertResult(
+                AsyncEnumerable.create(emitter -> {
+                    for (int i = 1; i <= 10; i++) {
+                        emitter.next(i);
+                    }
+                    emitter.stop();
+                }, 4, OverflowStrategy.DROP_OLDEST),
+                7, 8, 9, 10
+        );
+    }
+
+    @Test
+    public void boundedDropOldestMultiProducer() throws Exception {
+        for (int k = 0; k < 20; k++) {
+            AtomicInteger active = new AtomicInteger(2);
+            AsyncEnumerator<Integer> en = AsyncEnumerable.<Integer>create(emitter -> {
+                for (int j = 0; j < 2; j++) {
+                    new Thread(() -> {
+                        for (int i = 1; i <= 10000; i++) {
+                            emitter.next(i);
+                        }
+                        if (active.decrementAndGet() == 0) {
+                            emitter.stop();
+                        }
+                    }).start();
+                }
+            }, 4, OverflowStrategy.DROP_OLDEST).enumerator();
+
+            int count = 0;
+            while (en.moveNext().toCompletableFuture().get(5, TimeUnit.SECONDS)) {
+                assertNotNull("Round " + k + ", item " + count, en.current());
+                count++;
+            }
+            assertTrue("" + count, count <= 20000);
+        }
+    }
+
+    @Test
+    public void boundedNullItems() {
+        for (OverflowStrategy strategy : OverflowStrategy.values()) {
+            TestHelper.assertResult(
+                    AsyncEnumerable.<Integer>create(emitter -> {
+                        emitter.next(null);
+                        emitter.next(1);
+                        emitter.next(null);
+                        emitter.stop();
+                    }, 4, strategy),
+                    null, 1, null
+            );
+        }
+    }
+
+    @Test
+    public void boundedDropOldestNullItems() {
+        TestHelper.assertResult(
+                AsyncEnumerable.<Integer>create(emitter -> {
+                    for (int i = 1; i <= 10; i++) {
+                        emitter.next((i & 1) == 0 ? null : i);
+                    }
+                    emitter.stop();
+                }, 4, OverflowStrategy.DROP_OLDEST),
+                7, null, 9, null
+        );
+    }
+
+    @Test
+    public void boundedError() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.create(emitter -> {
+                    for (int i = 1; i <= 10; i++) {
+                        emitter.next(i);
+                    }
+                    emitter.stop();
+                }, 4, OverflowStrategy.ERROR),
+                IllegalStateException.class
+        );
+    }
+
+    @Test
+    public void boundedBlock() {
+        TestHelper.withExecutor(executor -> {
+            AtomicInteger maxPending = new AtomicInteger();
+            List<Integer> list = AsyncEnumerable.<Integer>create(emitter -> {
+                executor.execute(() -> {
+                    for (int i = 1; i <= 1000; i++) {
+                        emitter.next(i);
+                        maxPending.accumulateAndGet(emitter.emissionPending(), Math::max);
+                    }
+                    emitter.stop();
+                });
+            }, 16, OverflowStrategy.BLOCK)
+            .toList()
+            .blockingFirst();
+
+            assertEquals(1000, list.size());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i + 1, list.get(i).intValue());
+            }
+            assertTrue("" + maxPending.get(), maxPending.get() <= 16);
+        });
+    }
+
+    @Test
+    public void boundedBlockSyncOverflow() {
+        AsyncEnumerator<Integer> en = AsyncEnumerable.<Integer>create(emitter -> {
+            for (int i = 1; i <= 10; i++) {
+                emitter.next(i);
+            }
+            emitter.stop();
+        }, 4, OverflowStrategy.BLOCK).enumerator();
+
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(en.moveNext().toCompletableFuture().join());
+            assertEquals(i, en.current().intValue());
+        }
+
+        try {
+            en.moveNext().toCompletableFuture().join();
+            fail("Should have thrown");
+        } catch (CompletionException ex) {
+            assertTrue(ex.toString(), ex.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void boundedBlockSyncWithinCapacity() {
+        TestHelper.assertResult(
+                AsyncEnumerable.<Integer>create(emitter -> {
+                    for (int i = 1; i <= 4; i++) {
+                        emitter.next(i);
+                    }
+                    emitter.stop();
+                }, 4, OverflowStrategy.BLOCK),
+                1, 2, 3, 4
+        );
+    }
+
+    @Test
+    public void boundedBlockCancel() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        AsyncEnumerator<Integer> en = AsyncEnumerable.<Integer>create(emitter -> {
+            new Thread(() -> {
+                emitter.next(1);
+                blocked.countDown();
+                emitter.next(2);
+                done.countDown();
+            }).start();
+        }, 1, OverflowStrategy.BLOCK).enumerator();
+
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        en.cancel();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void whenReady() {
+        AtomicReference<AsyncEmitter<Integer>> ref = new AtomicReference<>();
+        AsyncEnumerator<Integer> en = AsyncEnumerable.<Integer>create(ref::set, 2, OverflowStrategy.DROP_LATEST)
+                .enumerator();
+
+        AsyncEmitter<Integer> emitter = ref.get();
+
+        assertTrue(emitter.whenReady().toCompletableFuture().join());
+
+        emitter.next(1);
+        emitter.next(2);
+
+        CompletableFuture<Boolean> ready = emitter.whenReady().toCompletableFuture();
+        assertFalse(ready.isDone());
+
+        assertTrue(en.moveNext().toCompletableFuture().join());
+        assertEquals(1, en.current().intValue());
+
+        assertTrue(ready.isDone());
+        assertTrue(ready.join());
+
+        CompletableFuture<Boolean> ready2 = emitter.whenReady().toCompletableFuture();
+        emitter.next(3);
+        assertTrue(ready2.join());
+
+        CompletableFuture<Boolean> ready3 = emitter.whenReady().toCompletableFuture();
+        assertFalse(ready3.isDone());
+
+        en.cancel();
+
+        assertFalse(ready3.join());
+        assertFalse(emitter.whenReady().toCompletableFuture().join());
+    }
+
+    @Test
+    public void whenReadyUnbounded() {
+        AtomicReference<AsyncEmitter<Integer>> ref = new AtomicReference<>();
+        AsyncEnumerator<Integer> en = AsyncEnumerable.<Integer>create(ref::set).enumerator();
+
+        assertTrue(ref.get().whenReady().toCompletableFuture().join());
+
+        en.cancel();
+
+        assertFalse(ref.get().whenReady().toCompletableFuture().join());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void boundedCapacityValidated() {
+        AsyncEnumerable.create(e -> { }, 0, OverflowStrategy.BLOCK);
+    }
 }
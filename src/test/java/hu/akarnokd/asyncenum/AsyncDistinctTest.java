@@ -19,9 +19,11 @@ package hu.akarnokd.asyncenum;
 import org.junit.Test;
 
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.*;
+
 public class AsyncDistinctTest {
 
     @Test
@@ -69,6 +71,61 @@ public class AsyncDistinctTest {
         TestHelper.cancelRace(ae -> ae.distinct(v -> v, DuplicateSet::new));
     }
 
+    @Test
+    public void maxKeys() {
+        TestHelper.assertResult(
+                AsyncEnumerable.fromArray(1, 2, 3, 1, 4, 2, 5, 1)
+                .distinct(v -> v, 3),
+                1, 2, 3, 4, 2, 5, 1
+        );
+    }
+
+    @Test
+    public void maxKeysRefreshedByDuplicate() {
+        TestHelper.assertResult(
+                AsyncEnumerable.fromArray(1, 2, 1, 3, 1, 4, 1)
+                .distinct(v -> v, 2),
+                1, 2, 3, 4
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxKeysInvalid() {
+        AsyncEnumerable.range(1, 5).distinct(v -> v, 0);
+    }
+
+    @Test
+    public void approx() {
+        TestHelper.assertResult(
+                AsyncEnumerable.fromArray(1, 2, 3, 2, 1, 4, 5, 4, 5, 5)
+                .distinctApprox(v -> v, 100, 0.01),
+                1, 2, 3, 4, 5
+        );
+    }
+
+    @Test
+    public void approxNoDuplicates() {
+        List<Integer> list = AsyncEnumerable.range(0, 20_000)
+                .map(v -> v % 10_000)
+                .distinctApprox(v -> v, 10_000, 0.01)
+                .toList()
+                .blockingFirst();
+
+        assertEquals(list.size(), new HashSet<>(list).size());
+        // false positives only drop items, about 1% of them at the expected size
+        assertTrue("" + list.size(), list.size() > 9_700);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void approxExpectedItemsInvalid() {
+        AsyncEnumerable.range(1, 5).distinctApprox(v -> v, 0, 0.01);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void approxFppInvalid() {
+        AsyncEnumerable.range(1, 5).distinctApprox(v -> v, 10, 1.0);
+    }
+
     static final class IgnoringSet<T> extends HashSet<T> {
 
         @Override
@@ -84,4 +141,15 @@ public class AsyncDistinctTest {
             return false;
         }
     }
+
+    @Test
+    public void keySelectorCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .distinct(v -> { if (v == 3) { throw new IllegalStateException("forced failure"); } return v; }),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
 }
@@ -46,4 +46,25 @@ public class AsyncDistinctUntilChangedTest {
         TestHelper.cancelRace(ae -> ae.distinctUntilChanged(v -> v, Objects::equals));
     }
 
+    @Test
+    public void keySelectorCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .distinctUntilChanged(v -> { throw new IllegalStateException("forced failure"); }),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
+
+    @Test
+    public void comparerCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .distinctUntilChanged(v -> v, (a, b) -> { throw new IllegalStateException("forced failure"); }),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
 }
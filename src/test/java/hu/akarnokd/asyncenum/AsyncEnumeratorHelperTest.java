@@ -19,7 +19,9 @@ package hu.akarnokd.asyncenum;
 import org.junit.Test;
 
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.*;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -82,4 +84,98 @@ public class AsyncEnumeratorHelperTest {
     public void cancelledCancel() {
         AsyncEnumeratorHelper.CANCELLED.cancel();
     }
+
+    @Test
+    public void drainConstantStages() {
+        AsyncEnumerator<Integer> source = AsyncEnumerable.range(1, 1_000_000).enumerator();
+        AtomicInteger wip = new AtomicInteger();
+        int[] count = { 0 };
+        boolean[] done = { false };
+
+        BiConsumer<Boolean, Throwable> consumer = new BiConsumer<>() {
+            @Override
+            public void accept(Boolean aBoolean, Throwable throwable) {
+                if (aBoolean) {
+                    count[0]++;
+                    AsyncEnumeratorHelper.drain(wip, source, this);
+                } else {
+                    done[0] = true;
+                }
+            }
+        };
+
+        AsyncEnumeratorHelper.drain(wip, source, consumer);
+
+        assertEquals(1_000_000, count[0]);
+        assertTrue(done[0]);
+        assertEquals(0, wip.get());
+    }
+
+    @Test
+    public void drainCompletedStages() {
+        AsyncEnumerator<Integer> range = AsyncEnumerable.range(1, 1_000_000).enumerator();
+        AsyncEnumerator<Integer> source = new AsyncEnumerator<Integer>() {
+            @Override
+            public CompletionStage<Boolean> moveNext() {
+                return CompletableFuture.completedFuture(range.moveNext() == AsyncEnumerable.TRUE);
+            }
+
+            @Override
+            public Integer current() {
+                return range.current();
+            }
+
+            @Override
+            public void cancel() {
+                range.cancel();
+            }
+        };
+
+        TestHelper.assertResult(
+                ((AsyncEnumerable<Integer>)() -> source).filter(v -> v == 1_000_000),
+                1_000_000
+        );
+    }
+
+    @Test
+    public void drainStackDepth() {
+        AsyncEnumerable<Integer> range = AsyncEnumerable.range(1, 1_000_000);
+        AsyncEnumerable<Integer> hidden = () -> {
+            AsyncEnumerator<Integer> en = range.enumerator();
+            return new AsyncEnumerator<Integer>() {
+                @Override
+                public CompletionStage<Boolean> moveNext() {
+                    return en.moveNext();
+                }
+
+                @Override
+                public Integer current() {
+                    return en.current();
+                }
+
+                @Override
+                public void cancel() {
+                    en.cancel();
+                }
+            };
+        };
+
+        long base = StackWalker.getInstance().walk(Stream::count);
+        AtomicLong maxDepth = new AtomicLong();
+
+        AsyncEnumerable<Integer> sampled = hidden.doOnNext(v -> {
+            if ((v & 0xFFFF) == 0) {
+                long depth = StackWalker.getInstance().walk(Stream::count);
+                maxDepth.accumulateAndGet(depth, Math::max);
+            }
+        });
+
+        sampled.forEach(v -> { }).toCompletableFuture().join();
+        sampled.filter(v -> (v & 1) == 0).forEach(v -> { }).toCompletableFuture().join();
+        sampled.skip(500_000).forEach(v -> { }).toCompletableFuture().join();
+        sampled.reduce((a, b) -> b).forEach(v -> { }).toCompletableFuture().join();
+
+        assertTrue("" + maxDepth.get(), maxDepth.get() > base);
+        assertTrue(maxDepth.get() + " vs " + base, maxDepth.get() - base < 100);
+    }
 }
@@ -20,7 +20,7 @@ import org.junit.Test;
 
 import java.util.*;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class AsyncFilterTest {
 
@@ -42,6 +42,37 @@ public class AsyncFilterTest {
                 RuntimeException.class, "forced failure"
         );
     }
-}
 
+    @Test
+    public void syncFused() {
+        AsyncEnumerable<Integer> source = AsyncEnumerable.range(1, 10)
+                .map(v -> v + 1)
+                .filter(v -> v % 2 == 0);
+
+        assertTrue(source.enumerator() instanceof SyncAsyncEnumerator);
 
+        TestHelper.assertResult(source, 2, 4, 6, 8, 10);
+    }
+
+    @Test
+    public void syncFusedPredicateCrash() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.range(1, 10)
+                .filter(v -> {
+                    throw new IllegalArgumentException("forced failure");
+                }),
+                IllegalArgumentException.class, "forced failure"
+        );
+    }
+
+    @Test
+    public void predicateCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .filter(v -> { if (v == 3) { throw new IllegalStateException("forced failure"); } return true; }),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
+}
@@ -19,8 +19,9 @@ package hu.akarnokd.asyncenum;
 import org.junit.Test;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class AsyncFlatMapTest {
 
@@ -68,4 +69,115 @@ public class AsyncFlatMapTest {
                 RuntimeException.class, "forced failure"
         );
     }
+
+    @Test
+    public void maxConcurrencyOne() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .flatMap(v -> AsyncEnumerable.range(v * 10, 3), 1),
+                10, 11, 12, 20, 21, 22, 30, 31, 32, 40, 41, 42, 50, 51, 52
+        );
+    }
+
+    @Test
+    public void maxConcurrencyLimitsActiveInners() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+
+        List<Integer> list = AsyncEnumerable.range(1, 100)
+                .flatMap(v -> AsyncEnumerable.defer(() -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    return AsyncEnumerable.range(v, 10).doFinally(active::decrementAndGet);
+                }), 4)
+                .toList()
+                .blockingLast();
+
+        assertEquals(1000, list.size());
+        assertTrue("" + maxActive.get(), maxActive.get() <= 4);
+    }
+
+    @Test
+    public void maxConcurrencyUpstreamRequests() {
+        AtomicInteger requested = new AtomicInteger();
+
+        AsyncEnumerator<Integer> en = AsyncEnumerable.range(1, 100)
+                .doOnNext(v -> requested.getAndIncrement())
+                .flatMap(v -> AsyncEnumerable.<Integer>never(), 16)
+                .enumerator();
+
+        en.moveNext();
+
+        assertEquals(16, requested.get());
+
+        en.cancel();
+    }
+
+    @Test
+    public void prefetch() {
+        List<Integer> list = AsyncEnumerable.range(1, 5)
+                .flatMap(v -> AsyncEnumerable.range(v, 2), Integer.MAX_VALUE, 2)
+                .toList()
+                .blockingLast();
+
+        Collections.sort(list);
+        assertEquals(Arrays.asList(1, 2, 2, 3, 3, 4, 4, 5, 5, 6), list);
+    }
+
+    @Test
+    public void prefetchAsync() {
+        TestHelper.withExecutor(executor -> {
+            List<Integer> list = AsyncEnumerable.range(1, 10)
+                    .flatMap(v -> AsyncEnumerable.range(v * 100, 50).subscribeOn(executor), 3, 16)
+                    .toList()
+                    .blockingLast();
+
+            assertEquals(500, list.size());
+        });
+    }
+
+    @Test
+    public void innerErrorBounded() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.range(1, 5)
+                        .flatMap(v -> AsyncEnumerable.error(new RuntimeException("forced failure")), 2, 4),
+                RuntimeException.class, "forced failure"
+        );
+    }
+
+    @Test
+    public void nullItems() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 3)
+                        .flatMap(v -> AsyncEnumerable.fromArray(null, v, v + 10)),
+                null, null, null, 1, 2, 3, 11, 12, 13
+        );
+    }
+
+    @Test
+    public void nullItemsPrefetch() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 3)
+                        .flatMap(v -> AsyncEnumerable.fromArray(null, v, v + 10), 1, 4),
+                null, 1, 11, null, 2, 12, null, 3, 13
+        );
+    }
+
+    @Test
+    public void nullItemsUnboundedPrefetch() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 3)
+                        .flatMap(v -> AsyncEnumerable.fromArray(null, v, v + 10), 1, Integer.MAX_VALUE),
+                null, 1, 11, null, 2, 12, null, 3, 13
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxConcurrencyInvalid() {
+        AsyncEnumerable.range(1, 5).flatMap(AsyncEnumerable::just, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchInvalid() {
+        AsyncEnumerable.range(1, 5).flatMap(AsyncEnumerable::just, 1, 0);
+    }
 }
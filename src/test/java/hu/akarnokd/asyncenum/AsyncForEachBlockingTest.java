@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncForEachBlockingTest {
+
+    @Test
+    public void simple() throws Exception {
+        List<Integer> list = Collections.synchronizedList(new ArrayList<>());
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        assertTrue(AsyncEnumerable.range(1, 5)
+                .forEachBlocking(v -> {
+                    threads.add(Thread.currentThread());
+                    list.add(v);
+                })
+                .toCompletableFuture()
+                .get(5, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), list);
+        assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void async() {
+        TestHelper.withExecutor(executor -> {
+            List<Integer> list = Collections.synchronizedList(new ArrayList<>());
+            try {
+                AsyncEnumerable.range(1, 1000)
+                        .observeOn(executor)
+                        .forEachBlocking(list::add)
+                        .toCompletableFuture()
+                        .get(5, TimeUnit.SECONDS);
+            } catch (Exception ex) {
+                throw new AssertionError(ex);
+            }
+            assertEquals(1000, list.size());
+        });
+    }
+
+    @Test
+    public void withExecutor() {
+        TestHelper.withExecutor(executor -> {
+            Thread[] thread = { null };
+            try {
+                AsyncEnumerable.range(1, 5)
+                        .forEachBlocking(v -> thread[0] = Thread.currentThread(), executor)
+                        .toCompletableFuture()
+                        .get(5, TimeUnit.SECONDS);
+            } catch (Exception ex) {
+                throw new AssertionError(ex);
+            }
+            assertNotSame(Thread.currentThread(), thread[0]);
+        });
+    }
+
+    @Test
+    public void error() throws Exception {
+        try {
+            AsyncEnumerable.error(new IOException("forced failure"))
+                    .forEachBlocking(v -> { })
+                    .toCompletableFuture()
+                    .get(5, TimeUnit.SECONDS);
+            fail("Should have thrown");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void consumerCrash() throws Exception {
+        boolean[] cancelled = { false };
+        try {
+            AsyncEnumerable.range(1, 5)
+                    .doOnCancel(() -> cancelled[0] = true)
+                    .forEachBlocking(v -> { throw new IllegalStateException("forced failure"); })
+                    .toCompletableFuture()
+                    .get(5, TimeUnit.SECONDS);
+            fail("Should have thrown");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+        assertTrue(cancelled[0]);
+    }
+}
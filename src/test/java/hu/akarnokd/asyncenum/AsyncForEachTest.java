@@ -18,9 +18,11 @@ package hu.akarnokd.asyncenum;
 
 import org.junit.Test;
 
-import java.util.concurrent.ExecutionException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class AsyncForEachTest {
 
@@ -37,4 +39,60 @@ public class AsyncForEachTest {
         }
     }
 
+    @Test
+    public void syncFusedError() throws InterruptedException {
+        Iterator<Integer> it = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                throw new IllegalStateException("forced failure");
+            }
+        };
+        try {
+            AsyncEnumerable.fromIterable(() -> it)
+                    .map(v -> v + 1)
+                    .forEach(v -> {
+                    })
+                    .toCompletableFuture()
+                    .get();
+            fail("Should have thrown");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.toString(), ex.getCause().getMessage().equals("forced failure"));
+        }
+    }
+
+    @Test
+    public void onValueCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            AtomicBoolean cancelled = new AtomicBoolean();
+
+            CompletableFuture<Boolean> cf;
+            try {
+                cf = TestHelper.hide(AsyncEnumerable.range(1, 5)
+                        .doOnCancel(() -> cancelled.set(true)), async)
+                        .forEach(v -> {
+                            throw new IllegalStateException("forced failure");
+                        })
+                        .toCompletableFuture();
+            } catch (IllegalStateException ex) {
+                throw new AssertionError("Callback crash escaped forEach", ex);
+            }
+
+            try {
+                cf.get();
+                fail("Should have thrown");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.toString(), ex.getCause() instanceof IllegalStateException);
+                assertEquals("forced failure", ex.getCause().getMessage());
+            } catch (InterruptedException ex) {
+                throw new AssertionError(ex);
+            }
+
+            assertTrue("async: " + async, cancelled.get());
+        }
+    }
 }
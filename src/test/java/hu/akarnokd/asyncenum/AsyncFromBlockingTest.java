@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncFromBlockingTest {
+
+    static class CloseableIterator<T> implements Iterator<T>, AutoCloseable {
+
+        final Iterator<T> source;
+
+        final AtomicInteger closed = new AtomicInteger();
+
+        CloseableIterator(Iterator<T> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return source.hasNext();
+        }
+
+        @Override
+        public T next() {
+            return source.next();
+        }
+
+        @Override
+        public void close() {
+            closed.getAndIncrement();
+        }
+    }
+
+    @Test
+    public void simple() {
+        CloseableIterator<Integer> it = new CloseableIterator<>(Arrays.asList(1, 2, 3, 4, 5).iterator());
+
+        List<Integer> list = AsyncEnumerable.fromBlocking(it)
+                .toList()
+                .blockingFirst();
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), list);
+        assertEquals(1, it.closed.get());
+    }
+
+    @Test
+    public void runsOnExecutor() {
+        TestHelper.withExecutor(executor -> {
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            Iterator<Integer> it = new Iterator<Integer>() {
+                int count;
+
+                @Override
+                public boolean hasNext() {
+                    threads.add(Thread.currentThread());
+                    return count < 3;
+                }
+
+                @Override
+                public Integer next() {
+                    return ++count;
+                }
+            };
+
+            assertEquals(Arrays.asList(1, 2, 3), AsyncEnumerable.fromBlocking(it, executor)
+                    .toList()
+                    .blockingFirst());
+            assertFalse(threads.contains(Thread.currentThread()));
+        });
+    }
+
+    @Test
+    public void defaultExecutor() throws Exception {
+        Thread[] thread = { null };
+        Iterator<Integer> it = new CloseableIterator<Integer>(Collections.singletonList(1).iterator()) {
+            @Override
+            public boolean hasNext() {
+                thread[0] = Thread.currentThread();
+                return super.hasNext();
+            }
+        };
+        AsyncEnumerable.fromBlocking(it).blockingLast();
+
+        assertNotSame(Thread.currentThread(), thread[0]);
+        assertTrue(thread[0].isDaemon());
+    }
+
+    @Test
+    public void error() {
+        Iterator<Integer> it = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                throw new IllegalStateException("forced failure");
+            }
+
+            @Override
+            public Integer next() {
+                return 1;
+            }
+        };
+
+        TestHelper.assertFailure(AsyncEnumerable.fromBlocking(it), IllegalStateException.class, "forced failure");
+    }
+
+    @Test
+    public void closeError() {
+        Iterator<Integer> it = new CloseableIterator<Integer>(Collections.emptyIterator()) {
+            @Override
+            public void close() {
+                throw new IllegalStateException("forced failure");
+            }
+        };
+
+        TestHelper.assertFailure(AsyncEnumerable.fromBlocking(it), IllegalStateException.class, "forced failure");
+    }
+
+    @Test
+    public void cancelClosesIdle() throws Exception {
+        CloseableIterator<Integer> it = new CloseableIterator<>(Arrays.asList(1, 2, 3).iterator());
+
+        AsyncEnumerator<Integer> en = AsyncEnumerable.fromBlocking(it).enumerator();
+        assertTrue(en.moveNext().toCompletableFuture().get());
+        en.cancel();
+
+        assertEquals(1, it.closed.get());
+        assertFalse(en.moveNext().toCompletableFuture().get());
+        assertEquals(1, it.closed.get());
+    }
+
+    @Test
+    public void cancelWhileBlocked() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch closeLatch = new CountDownLatch(1);
+        Iterator<Integer> it = new CloseableIterator<Integer>(Collections.singletonList(1).iterator()) {
+            @Override
+            public boolean hasNext() {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                return super.hasNext();
+            }
+
+            @Override
+            public void close() {
+                closeLatch.countDown();
+            }
+        };
+
+        AsyncEnumerator<Integer> en = AsyncEnumerable.fromBlocking(it).enumerator();
+        en.moveNext();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        en.cancel();
+        assertEquals(1, closeLatch.getCount());
+
+        release.countDown();
+        assertTrue(closeLatch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void rejected() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+
+        TestHelper.assertFailure(AsyncEnumerable.fromBlocking(Collections.singletonList(1).iterator(), executor),
+                RejectedExecutionException.class);
+    }
+
+    @Test
+    public void callable() {
+        assertEquals(Collections.singletonList(1), AsyncEnumerable.fromBlocking(() -> 1)
+                .toList()
+                .blockingFirst());
+    }
+
+    @Test
+    public void callableError() {
+        TestHelper.assertFailure(AsyncEnumerable.fromBlocking(() -> { throw new IOException("forced failure"); }),
+                IOException.class, "forced failure");
+    }
+}
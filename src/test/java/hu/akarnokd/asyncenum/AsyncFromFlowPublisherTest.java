@@ -151,6 +151,154 @@ public class AsyncFromFlowPublisherTest {
         });
     }
 
+    @Test
+    public void prefetchSimple() {
+        SubmissionPublisher<Integer> sp = new SubmissionPublisher<>();
+
+        new Thread() {
+            @Override
+            public void run() {
+                try {
+                    sleep(100);
+                } catch (InterruptedException ex) {
+                    sp.closeExceptionally(ex);
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    sp.submit(i);
+                }
+                sp.close();
+            }
+        }.start();
+
+        List<Integer> list = AsyncEnumerable.fromFlowPublisher(sp, 16)
+                .toList()
+                .blockingFirst();
+
+        assertEquals(1000, list.size());
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, list.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void prefetchRequestBatches() {
+        List<Long> requests = Collections.synchronizedList(new ArrayList<>());
+
+        Flow.Publisher<Integer> source = subscriber -> {
+            AtomicLong requested = new AtomicLong();
+            AtomicInteger index = new AtomicInteger();
+            AtomicInteger wip = new AtomicInteger();
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requests.add(n);
+                    requested.addAndGet(n);
+                    if (wip.getAndIncrement() == 0) {
+                        do {
+                            while (requested.get() != 0L && index.get() != 100) {
+                                requested.decrementAndGet();
+                                subscriber.onNext(index.getAndIncrement());
+                            }
+                            if (index.get() == 100) {
+                                subscriber.onComplete();
+                                return;
+                            }
+                        } while (wip.decrementAndGet() != 0);
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+        };
+
+        List<Integer> list = AsyncEnumerable.fromFlowPublisher(source, 16)
+                .toList()
+                .blockingFirst();
+
+        assertEquals(100, list.size());
+        assertEquals(16L, requests.get(0).longValue());
+        for (int i = 1; i < requests.size(); i++) {
+            assertEquals(12L, requests.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void prefetchError() {
+        SubmissionPublisher<Integer> sp = new SubmissionPublisher<>();
+        CompletionStage<Boolean> cf = AsyncEnumerable.fromFlowPublisher(sp, 8).enumerator().moveNext();
+
+        sp.closeExceptionally(new RuntimeException("forced failure"));
+
+        try {
+            cf.toCompletableFuture().get();
+            fail("Should have thrown");
+        } catch (ExecutionException | InterruptedException ex) {
+            assertTrue(ex.toString(), ex.getCause().getMessage().equals("forced failure"));
+        }
+    }
+
+    @Test
+    public void prefetchTake() {
+        TestHelper.withExecutor(executor -> {
+            SubmissionPublisher<Integer> sp = new SubmissionPublisher<>();
+
+            executor.submit(() -> {
+                Thread.sleep(100);
+                for (int i = 0; i < 5; i++) {
+                    sp.submit(i);
+                }
+                sp.close();
+                return null;
+            });
+
+            List<Integer> list = AsyncEnumerable.fromFlowPublisher(sp, 4)
+                    .take(3)
+                    .toList()
+                    .blockingLast();
+
+            assertEquals(Arrays.asList(0, 1, 2), list);
+
+            assertEquals(0, sp.getNumberOfSubscribers());
+        });
+    }
+
+    @Test
+    public void prefetchDoubleOnSubscribe() {
+        BooleanSubscription s1 = new BooleanSubscription();
+        BooleanSubscription s2 = new BooleanSubscription();
+
+        assertEquals((Integer)1, AsyncEnumerable.fromFlowPublisher(subscriber -> {
+            subscriber.onSubscribe(s1);
+            subscriber.onSubscribe(s2);
+            subscriber.onNext(1);
+            subscriber.onComplete();
+        }, 4)
+        .blockingLast());
+
+        assertFalse(s1.get());
+        assertTrue(s2.get());
+    }
+
+    @Test
+    public void prefetchOverflow() {
+        TestHelper.assertFailure(AsyncEnumerable.fromFlowPublisher(subscriber -> {
+            subscriber.onSubscribe(new BooleanSubscription());
+            for (int i = 0; i < 10; i++) {
+                subscriber.onNext(i);
+            }
+            subscriber.onComplete();
+        }, 4), IllegalStateException.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchInvalid() {
+        AsyncEnumerable.fromFlowPublisher(new SubmissionPublisher<Integer>(), 0);
+    }
+
     static final class BooleanSubscription extends AtomicBoolean implements Flow.Subscription {
 
         @Override
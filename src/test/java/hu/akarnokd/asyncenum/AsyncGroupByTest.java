@@ -21,10 +21,9 @@ import org.junit.Test;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.*;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.fail;
+import static org.junit.Assert.*;
 
 public class AsyncGroupByTest {
 
@@ -188,4 +187,251 @@ public class AsyncGroupByTest {
             }
         }
     }
+
+    @Test
+    public void flatMapGroups() {
+        List<Integer> list = AsyncEnumerable.range(1, 1000)
+                .groupBy(v -> v % 10)
+                .flatMap(g -> g)
+                .toList()
+                .blockingFirst();
+
+        Collections.sort(list);
+        assertEquals(AsyncEnumerable.range(1, 1000).toList().blockingFirst(), list);
+    }
+
+    @Test
+    public void nullValues() {
+        List<List<Integer>> list = AsyncEnumerable.range(1, 6)
+                .groupBy(v -> v & 1, v -> v == 3 ? null : v)
+                .flatMap(g -> g.toList())
+                .toList()
+                .blockingFirst();
+
+        assertEquals(2, list.size());
+        assertTrue(list.toString(), list.contains(Arrays.asList(1, null, 5)));
+        assertTrue(list.toString(), list.contains(Arrays.asList(2, 4, 6)));
+    }
+
+    @Test
+    public void nullValuesPrefetchOne() {
+        List<List<Integer>> list = AsyncEnumerable.range(1, 6)
+                .groupBy(v -> v & 1, v -> v < 4 ? null : v, 1)
+                .flatMap(g -> g.toList())
+                .toList()
+                .blockingFirst();
+
+        assertEquals(2, list.size());
+        assertTrue(list.toString(), list.contains(Arrays.asList(null, null, 5)));
+        assertTrue(list.toString(), list.contains(Arrays.asList(null, 4, 6)));
+    }
+
+    @Test
+    public void flatMapGroupsAsync() {
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            List<Integer> list = AsyncEnumerable.range(1, 1000)
+                    .subscribeOn(exec)
+                    .groupBy(v -> v % 7, v -> v, 4)
+                    .flatMap(g -> g)
+                    .toList()
+                    .blockingFirst();
+
+            Collections.sort(list);
+            assertEquals(AsyncEnumerable.range(1, 1000).toList().blockingFirst(), list);
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void manyGroups() {
+        long[] sum = { 0 };
+        int[] groups = { 0 };
+        AsyncEnumerable.range(1, 100_000)
+                .groupBy(v -> v % 50_000)
+                .forEach(g -> {
+                    groups[0]++;
+                    g.forEach(v -> sum[0] += v);
+                });
+
+        assertEquals(50_000, groups[0]);
+        assertEquals(100_000L * 100_001L / 2, sum[0]);
+    }
+
+    @Test
+    public void slowGroupDoesNotHoldBackOthers() {
+        List<GroupedAsyncEnumerable<Integer, Integer>> groups = new ArrayList<>();
+        List<Integer> fast = new ArrayList<>();
+        AsyncEnumerable.range(1, 20)
+                .groupBy(v -> v & 1, v -> v, 8)
+                .forEach(g -> {
+                    if (g.key() == 0) {
+                        g.forEach(fast::add);
+                    } else {
+                        groups.add(g);
+                    }
+                });
+
+        // the odd group is not consumed yet, the source stops once its 8 item buffer is full
+        assertEquals(Arrays.asList(2, 4, 6, 8, 10, 12, 14), fast);
+
+        List<Integer> slow = new ArrayList<>();
+        groups.get(0).forEach(slow::add);
+
+        assertEquals(Arrays.asList(1, 3, 5, 7, 9, 11, 13, 15, 17, 19), slow);
+        assertEquals(Arrays.asList(2, 4, 6, 8, 10, 12, 14, 16, 18, 20), fast);
+    }
+
+    @Test
+    public void prefetchOne() {
+        List<Integer> list = new ArrayList<>();
+        AsyncEnumerable.range(1, 10)
+                .groupBy(v -> v % 3, v -> v, 1)
+                .flatMap(g -> g)
+                .forEach(list::add);
+
+        Collections.sort(list);
+        assertEquals(AsyncEnumerable.range(1, 10).toList().blockingFirst(), list);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchInvalid() {
+        AsyncEnumerable.range(1, 10).groupBy(v -> v, v -> v, 0);
+    }
+
+    static final class ManualTimer implements TimerService {
+
+        final AtomicLong time = new AtomicLong();
+
+        final List<Map.Entry<Long, Runnable>> tasks = new ArrayList<>();
+
+        @Override
+        public Task schedule(Runnable task, long delay, TimeUnit unit) {
+            Map.Entry<Long, Runnable> e = new AbstractMap.SimpleEntry<>(time.get() + unit.toMillis(delay), task);
+            tasks.add(e);
+            return () -> tasks.remove(e);
+        }
+
+        @Override
+        public long now(TimeUnit unit) {
+            return unit.convert(time.get(), TimeUnit.MILLISECONDS);
+        }
+
+        void advanceTo(long t) {
+            time.set(t);
+            for (Map.Entry<Long, Runnable> e : new ArrayList<>(tasks)) {
+                if (e.getKey() <= t) {
+                    tasks.remove(e);
+                    e.getValue().run();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void maxGroupsEvictsLeastRecentlyUsed() {
+        List<Integer> keys = new ArrayList<>();
+        List<List<Integer>> lists = new ArrayList<>();
+        CompletionStage<Boolean> cs = AsyncEnumerable.fromArray(1, 1, 2, 1, 3, 1, 2)
+                .groupBy(v -> v, v -> v, 2, 1, TimeUnit.HOURS, new ManualTimer())
+                .forEach(g -> {
+                    keys.add(g.key());
+                    List<Integer> list = new ArrayList<>();
+                    lists.add(list);
+                    g.forEach(list::add);
+                });
+
+        assertTrue(cs.toCompletableFuture().isDone());
+        assertEquals(Arrays.asList(1, 2, 3, 2), keys);
+        assertEquals(Arrays.asList(
+                Arrays.asList(1, 1, 1, 1),
+                Collections.singletonList(2),
+                Collections.singletonList(3),
+                Collections.singletonList(2)
+        ), lists);
+    }
+
+    @Test
+    public void evictedGroupCompletes() {
+        List<CompletionStage<Boolean>> completions = new ArrayList<>();
+        AsyncEnumerable.range(1, 10)
+                .concatWith(AsyncEnumerable.never())
+                .groupBy(v -> v, v -> v, 3, 1, TimeUnit.HOURS, new ManualTimer())
+                .forEach(g -> completions.add(g.forEach(v -> { })));
+
+        assertEquals(10, completions.size());
+        for (int i = 0; i < 7; i++) {
+            assertTrue("" + i, completions.get(i).toCompletableFuture().isDone());
+        }
+        for (int i = 7; i < 10; i++) {
+            assertFalse("" + i, completions.get(i).toCompletableFuture().isDone());
+        }
+    }
+
+    @Test
+    public void idleGroupEvicted() {
+        ManualTimer timer = new ManualTimer();
+        Map<Integer, Long> completedAt = new HashMap<>();
+        Map<Integer, List<Integer>> lists = new HashMap<>();
+        AsyncEnumerable.range(0, 6)
+                .doOnNext(v -> timer.advanceTo(v * 10))
+                .groupBy(v -> v == 1 ? 1 : 0, v -> v, 100, 25, TimeUnit.MILLISECONDS, timer)
+                .forEach(g -> {
+                    List<Integer> list = new ArrayList<>();
+                    lists.put(g.key(), list);
+                    g.forEach(list::add).thenRun(() -> completedAt.put(g.key(), timer.time.get()));
+                });
+
+        assertEquals(Arrays.asList(0, 2, 3, 4, 5), lists.get(0));
+        assertEquals(Collections.singletonList(1), lists.get(1));
+        assertEquals(40L, completedAt.get(1).longValue());
+        assertEquals(50L, completedAt.get(0).longValue());
+        assertTrue(timer.tasks.isEmpty());
+    }
+
+    @Test
+    public void idleGroupEvictedExecutor() throws Exception {
+        ScheduledExecutorService exec = Executors.newSingleThreadScheduledExecutor();
+        try {
+            AtomicReference<CompletionStage<Boolean>> ref = new AtomicReference<>();
+            AsyncEnumerable.just(1).concatWith(AsyncEnumerable.never())
+                    .groupBy(v -> v, v -> v, 16, 10, TimeUnit.MILLISECONDS, exec)
+                    .forEach(g -> ref.set(g.forEach(v -> { })));
+
+            assertTrue(ref.get().toCompletableFuture().get(5, TimeUnit.SECONDS));
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void trackedGroupsBounded() {
+        AtomicReference<AsyncGroupBy.GroupByEnumerator<Integer, Integer, Integer>> ref = new AtomicReference<>();
+        int[] maxSize = { 0 };
+        AsyncEnumerable<GroupedAsyncEnumerable<Integer, Integer>> source = AsyncEnumerable.range(1, 100_000)
+                .groupBy(v -> {
+                    maxSize[0] = Math.max(maxSize[0], ref.get().groups.size());
+                    return v % 10_000;
+                }, v -> v, 100, 1, TimeUnit.HOURS, new ManualTimer());
+
+        AsyncEnumerator<GroupedAsyncEnumerable<Integer, Integer>> en = source.enumerator();
+        ref.set((AsyncGroupBy.GroupByEnumerator<Integer, Integer, Integer>)en);
+
+        long[] sum = { 0 };
+        AsyncForEach.forEach(en, g -> g.forEach(v -> sum[0] += v));
+
+        assertEquals(100_000L * 100_001L / 2, sum[0]);
+        assertTrue("" + maxSize[0], maxSize[0] <= 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxGroupsInvalid() {
+        AsyncEnumerable.range(1, 10).groupBy(v -> v, v -> v, 0, 1, TimeUnit.SECONDS, new ManualTimer());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void idleTimeoutInvalid() {
+        AsyncEnumerable.range(1, 10).groupBy(v -> v, v -> v, 1, 0, TimeUnit.SECONDS, new ManualTimer());
+    }
 }
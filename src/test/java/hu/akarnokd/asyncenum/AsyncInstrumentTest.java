@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncInstrumentTest {
+
+    @Test
+    public void syncSource() {
+        MetricsSink.Recording sink = MetricsSink.recording();
+
+        TestHelper.assertResult(AsyncEnumerable.range(1, 5).instrument("range", sink), 1, 2, 3, 4, 5);
+
+        MetricsSink.Metrics m = sink.metrics("range");
+        assertEquals(5, m.items());
+        assertEquals(1, m.completions());
+        assertEquals(0, m.errors());
+        assertEquals(6, m.latency().count());
+        assertNull(sink.metrics("other"));
+    }
+
+    @Test
+    public void asyncSource() {
+        MetricsSink.Recording sink = MetricsSink.recording();
+        TestHelper.withScheduler(executor -> {
+            TestHelper.assertResult(
+                    AsyncEnumerable.range(1, 3)
+                    .concatMap(v -> AsyncEnumerable.timer(10, TimeUnit.MILLISECONDS, executor).map(w -> v))
+                    .instrument("timed", sink),
+                    1, 2, 3);
+        });
+
+        MetricsSink.Metrics m = sink.metrics("timed");
+        assertEquals(3, m.items());
+        assertEquals(1, m.completions());
+        assertTrue("" + m.latency().valueAtPercentile(50), m.latency().valueAtPercentile(50) >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue("" + m.itemsPerSecond(), m.itemsPerSecond() > 0d && m.itemsPerSecond() < 1000d);
+    }
+
+    @Test
+    public void error() {
+        MetricsSink.Recording sink = MetricsSink.recording();
+
+        TestHelper.assertFailure(AsyncEnumerable.error(new IOException()).instrument("error", sink), IOException.class);
+
+        MetricsSink.Metrics m = sink.metrics("error");
+        assertEquals(0, m.items());
+        assertEquals(1, m.errors());
+    }
+
+    @Test
+    public void cancel() {
+        MetricsSink.Recording sink = MetricsSink.recording();
+
+        TestHelper.assertResult(AsyncEnumerable.range(1, 5).instrument("take", sink).take(2), 1, 2);
+
+        MetricsSink.Metrics m = sink.metrics("take");
+        assertEquals(2, m.items());
+        assertEquals(1, m.cancellations());
+    }
+
+    @Test
+    public void noop() {
+        AsyncEnumerable<Integer> source = AsyncEnumerable.range(1, 5);
+
+        assertSame(source, source.instrument("noop", MetricsSink.noop()));
+    }
+
+    @Test
+    public void defaultMethodsIgnore() {
+        TestHelper.assertResult(AsyncEnumerable.range(1, 5).instrument("custom", new MetricsSink() { }), 1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void createQueueSize() {
+        MetricsSink.Recording sink = MetricsSink.recording();
+
+        TestHelper.assertResult(
+                AsyncEnumerable.<Integer>create(e -> {
+                    for (int i = 1; i <= 5; i++) {
+                        e.next(i);
+                    }
+                    e.stop();
+                })
+                .instrument("create", sink),
+                1, 2, 3, 4, 5);
+
+        MetricsSink.Metrics m = sink.metrics("create");
+        assertEquals(4, m.maxQueueSize());
+        assertEquals(0, m.queueSize());
+    }
+
+    @Test
+    public void flatMapQueueSize() {
+        MetricsSink.Recording sink = MetricsSink.recording();
+
+        AsyncEnumerable.range(1, 3)
+                .flatMap(v -> AsyncEnumerable.<Integer>create(e -> {
+                    e.next(v);
+                    e.next(v);
+                    e.stop();
+                }))
+                .instrument("flatMap", sink)
+                .toList()
+                .blockingFirst();
+
+        MetricsSink.Metrics m = sink.metrics("flatMap");
+        assertEquals(6, m.items());
+        assertTrue("" + m.maxQueueSize(), m.maxQueueSize() > 0);
+    }
+
+    @Test
+    public void groupByQueueSize() {
+        MetricsSink.Recording sink = MetricsSink.recording();
+
+        AsyncEnumerable.range(1, 10)
+                .groupBy(v -> v & 1)
+                .instrument("groups", sink)
+                .flatMap(g -> g.instrument("group", sink))
+                .toList()
+                .blockingFirst();
+
+        assertEquals(2, sink.metrics("groups").maxQueueSize());
+        assertEquals(10, sink.metrics("group").items());
+    }
+
+    @Test
+    public void cacheQueueSize() {
+        MetricsSink.Recording sink = MetricsSink.recording();
+
+        TestHelper.assertResult(AsyncEnumerable.range(1, 5).cache().instrument("cache", sink), 1, 2, 3, 4, 5);
+
+        assertEquals(5, sink.metrics("cache").maxQueueSize());
+    }
+
+    @Test
+    public void publishQueueSize() {
+        MetricsSink.Recording sink = MetricsSink.recording();
+
+        TestHelper.assertResult(AsyncEnumerable.range(1, 10).publish(f -> f.instrument("publish", sink), 4),
+                1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+
+        int max = sink.metrics("publish").maxQueueSize();
+        assertTrue("" + max, max > 0 && max <= 4);
+    }
+}
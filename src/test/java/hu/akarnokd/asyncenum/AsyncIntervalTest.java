@@ -21,7 +21,7 @@ import org.junit.Test;
 import java.util.*;
 import java.util.concurrent.*;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class AsyncIntervalTest {
 
@@ -39,4 +39,39 @@ public class AsyncIntervalTest {
             executor.shutdownNow();
         }
     }
+
+    @Test
+    public void hashedWheel() {
+        TimerService timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 64);
+        try {
+            List<Long> list = AsyncEnumerable.interval(1, TimeUnit.MILLISECONDS, timer)
+                    .take(5)
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L), list);
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void ticksBeforeMoveNext() throws Exception {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            AsyncEnumerator<Long> en = AsyncEnumerable.interval(0, 1, TimeUnit.MILLISECONDS, executor)
+                    .enumerator();
+
+            Thread.sleep(20);
+
+            for (long i = 0; i < 5; i++) {
+                assertTrue(en.moveNext().toCompletableFuture().get(5, TimeUnit.SECONDS));
+                assertEquals(i, en.current().longValue());
+            }
+
+            en.cancel();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
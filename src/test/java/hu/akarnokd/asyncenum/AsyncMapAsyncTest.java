@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AsyncMapAsyncTest {
+
+    @Test
+    public void completedStagesOrdered() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .mapAsync(v -> CompletableFuture.completedFuture(v * 10), 2, true),
+                10, 20, 30, 40, 50
+        );
+    }
+
+    @Test
+    public void completedStagesUnordered() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .mapAsync(v -> CompletableFuture.completedFuture(v * 10), 2, false),
+                10, 20, 30, 40, 50
+        );
+    }
+
+    @Test
+    public void empty() {
+        TestHelper.assertResult(
+                AsyncEnumerable.<Integer>empty()
+                        .mapAsync(v -> CompletableFuture.completedFuture(v), 2, true)
+        );
+    }
+
+    @Test
+    public void nullResultsSkipped() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 6)
+                        .mapAsync(v -> CompletableFuture.completedFuture(v % 2 == 0 ? v : null), 4, true),
+                2, 4, 6
+        );
+    }
+
+    @Test
+    public void ordered() {
+        TestHelper.withScheduler(executor -> {
+            List<Integer> list = AsyncEnumerable.range(1, 6)
+                    .mapAsync(v -> delayed(executor, v, 70 - v * 10), 6, true)
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), list);
+        });
+    }
+
+    @Test
+    public void unordered() {
+        TestHelper.withScheduler(executor -> {
+            List<Integer> list = AsyncEnumerable.range(1, 3)
+                    .mapAsync(v -> delayed(executor, v, 300 - v * 100), 3, false)
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(Arrays.asList(3, 2, 1), list);
+        });
+    }
+
+    @Test
+    public void parallelismBound() {
+        TestHelper.withScheduler(executor -> {
+            AtomicInteger active = new AtomicInteger();
+            AtomicInteger maxActive = new AtomicInteger();
+
+            List<Integer> list = AsyncEnumerable.range(1, 20)
+                    .mapAsync(v -> {
+                        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        return delayed(executor, v, 5).whenComplete((a, b) -> active.decrementAndGet());
+                    }, 3, true)
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(20, list.size());
+            assertTrue("" + maxActive.get(), maxActive.get() <= 3);
+        });
+    }
+
+    @Test
+    public void manyAsync() {
+        for (boolean ordered : new boolean[] { true, false }) {
+            TestHelper.withExecutor(executor -> {
+                List<Integer> list = AsyncEnumerable.range(1, 10000)
+                        .mapAsync(v -> CompletableFuture.supplyAsync(() -> v, executor), 16, ordered)
+                        .toList()
+                        .blockingFirst();
+
+                assertEquals(10000, list.size());
+                if (ordered) {
+                    for (int i = 0; i < list.size(); i++) {
+                        assertEquals(i + 1, list.get(i).intValue());
+                    }
+                } else {
+                    assertEquals(10000, new HashSet<>(list).size());
+                }
+            });
+        }
+    }
+
+    @Test
+    public void take() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .mapAsync(v -> CompletableFuture.completedFuture(v), 2, true)
+                        .take(2),
+                1, 2
+        );
+    }
+
+    @Test
+    public void mainError() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.<Integer>error(new RuntimeException("forced failure"))
+                        .mapAsync(v -> CompletableFuture.completedFuture(v), 2, true),
+                RuntimeException.class, "forced failure"
+        );
+    }
+
+    @Test
+    public void stageError() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.range(1, 5)
+                        .mapAsync(v -> CompletableFuture.failedFuture(new RuntimeException("forced failure")), 2, false),
+                RuntimeException.class, "forced failure"
+        );
+    }
+
+    @Test
+    public void mapperCrash() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.range(1, 5)
+                        .mapAsync(v -> {
+                            throw new IllegalArgumentException("forced failure");
+                        }, 2, true),
+                IllegalArgumentException.class, "forced failure"
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parallelismValidated() {
+        AsyncEnumerable.range(1, 5).mapAsync(v -> CompletableFuture.completedFuture(v), 0, true);
+    }
+
+    static <T> CompletableFuture<T> delayed(ScheduledExecutorService executor, T value, long millis) {
+        CompletableFuture<T> cf = new CompletableFuture<>();
+        executor.schedule(() -> cf.complete(value), millis, TimeUnit.MILLISECONDS);
+        return cf;
+    }
+}
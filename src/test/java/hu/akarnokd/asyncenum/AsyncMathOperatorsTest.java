@@ -134,4 +134,37 @@ public class AsyncMathOperatorsTest {
     public void sumLongCancelRace() {
         TestHelper.cancelRace(ae -> ae.sumLong(v -> v));
     }
+
+    @Test
+    public void maxComparatorCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .max((a, b) -> { throw new IllegalStateException("forced failure"); }),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
+
+    @Test
+    public void sumIntSelectorCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .sumInt(v -> { throw new IllegalStateException("forced failure"); }),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
+
+    @Test
+    public void sumLongSelectorCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .sumLong(v -> { throw new IllegalStateException("forced failure"); }),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
 }
@@ -19,8 +19,9 @@ package hu.akarnokd.asyncenum;
 import org.junit.Test;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -55,4 +56,118 @@ public class AsyncObserveOnTest {
                     , IllegalArgumentException.class, "forced failure");
         });
     }
+
+    @Test
+    public void prefetchSimple() {
+        ExecutorService exec = Executors.newSingleThreadExecutor(r -> new Thread(r, "CustomPool"));
+        try {
+            List<String> list = AsyncEnumerable.range(1, 1000)
+                    .observeOn(exec, 16)
+                    .map(v -> v + " " + Thread.currentThread().getName())
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(1000, list.size());
+            for (int i = 0; i < 1000; i++) {
+                String s = list.get(i);
+                assertTrue(s, s.startsWith((i + 1) + " "));
+                assertTrue(s, s.contains("CustomPool"));
+            }
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void prefetchBatchesHops() {
+        TestHelper.withExecutor(exec -> {
+            AtomicInteger hops = new AtomicInteger();
+            Executor counting = r -> {
+                hops.getAndIncrement();
+                exec.execute(r);
+            };
+
+            List<Integer> list = AsyncEnumerable.range(1, 1000)
+                    .observeOn(counting, 128)
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(1000, list.size());
+            assertTrue("" + hops.get(), hops.get() < 1000);
+        });
+    }
+
+    @Test
+    public void prefetchAsyncSource() {
+        TestHelper.withExecutor(exec -> {
+            TestHelper.withExecutor(exec2 -> {
+                List<Integer> list = AsyncEnumerable.range(1, 1000)
+                        .subscribeOn(exec2)
+                        .observeOn(exec, 8)
+                        .toList()
+                        .blockingFirst();
+
+                assertEquals(1000, list.size());
+                for (int i = 0; i < 1000; i++) {
+                    assertEquals(i + 1, list.get(i).intValue());
+                }
+            });
+        });
+    }
+
+    @Test
+    public void prefetchOne() {
+        TestHelper.withExecutor(exec -> {
+            TestHelper.assertResult(
+                    AsyncEnumerable.range(1, 5)
+                            .observeOn(exec, 1),
+                    1, 2, 3, 4, 5);
+        });
+    }
+
+    @Test
+    public void prefetchEmpty() {
+        TestHelper.withExecutor(exec -> {
+            TestHelper.assertResult(
+                    AsyncEnumerable.<Integer>empty()
+                            .observeOn(exec, 16));
+        });
+    }
+
+    @Test
+    public void prefetchTake() {
+        TestHelper.withExecutor(exec -> {
+            TestHelper.assertResult(
+                    AsyncEnumerable.range(1, 1_000_000)
+                            .observeOn(exec, 16)
+                            .take(3),
+                    1, 2, 3);
+        });
+    }
+
+    @Test
+    public void prefetchNullItems() {
+        TestHelper.withExecutor(exec -> {
+            TestHelper.assertResult(
+                    AsyncEnumerable.fromArray(1, null, 3, null, 5)
+                            .observeOn(exec, 2),
+                    1, null, 3, null, 5);
+        });
+    }
+
+    @Test
+    public void prefetchError() {
+        TestHelper.withExecutor(exec -> {
+            TestHelper.assertFailure(
+                    AsyncEnumerable.range(1, 5)
+                            .concatWith(AsyncEnumerable.error(new IOException()))
+                            .observeOn(exec, 4)
+                    , IOException.class);
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchInvalid() {
+        AsyncEnumerable.range(1, 5).observeOn(Runnable::run, 0);
+    }
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import org.junit.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncPluginsTest {
+
+    @After
+    public void after() {
+        AsyncPlugins.reset();
+    }
+
+    @Test
+    public void utility() {
+        TestHelper.checkUtility(AsyncPlugins.class);
+    }
+
+    @Test
+    public void noHooks() {
+        assertNull(AsyncPlugins.getOnAssembly());
+        assertNull(AsyncPlugins.getOnEnumerator());
+
+        AsyncEnumerable<Integer> source = AsyncEnumerable.range(1, 5);
+        assertTrue(source instanceof AsyncRange);
+
+        assertSame(AsyncEmpty.instance(), AsyncEnumerable.empty());
+    }
+
+    @Test
+    public void onAssembly() {
+        List<Object> assembled = new ArrayList<>();
+        AsyncPlugins.setOnAssembly(e -> {
+            assembled.add(e);
+            return e;
+        });
+
+        AsyncEnumerable<Integer> source = AsyncEnumerable.range(1, 5)
+                .map(v -> v + 1)
+                .filter(v -> v % 2 == 0);
+
+        assertEquals(3, assembled.size());
+        assertTrue(assembled.get(0) instanceof AsyncRange);
+        assertTrue(assembled.get(1) instanceof AsyncMap);
+        assertTrue(assembled.get(2) instanceof AsyncFilter);
+
+        TestHelper.assertResult(source, 2, 4, 6);
+    }
+
+    @Test
+    public void onAssemblyReplaces() {
+        AsyncPlugins.setOnAssembly(e -> e instanceof AsyncRange ? AsyncEnumerable.fromArray(10, 20) : e);
+
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                .map(v -> v + 1),
+                11, 21
+        );
+    }
+
+    @Test
+    public void onEnumerator() {
+        AtomicInteger calls = new AtomicInteger();
+        List<Object> enumerables = new ArrayList<>();
+        AsyncPlugins.setOnEnumerator((e, en) -> {
+            if (e instanceof AsyncRange || e instanceof AsyncMap) {
+                calls.getAndIncrement();
+                enumerables.add(e);
+            }
+            return en;
+        });
+
+        AsyncEnumerable<Integer> source = AsyncEnumerable.range(1, 5)
+                .map(v -> v + 1);
+
+        assertEquals(0, calls.get());
+
+        TestHelper.assertResult(source, 2, 3, 4, 5, 6);
+
+        assertEquals(2, calls.get());
+        assertTrue(enumerables.get(0) instanceof AsyncRange);
+        assertTrue(enumerables.get(1) instanceof AsyncMap);
+
+        TestHelper.assertResult(source, 2, 3, 4, 5, 6);
+
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void onEnumeratorWraps() {
+        AsyncPlugins.setOnEnumerator((e, en) -> {
+            if (e instanceof AsyncRange) {
+                @SuppressWarnings("unchecked")
+                AsyncEnumerator<Integer> inner = (AsyncEnumerator<Integer>)en;
+                return new AsyncEnumerator<Integer>() {
+                    @Override
+                    public java.util.concurrent.CompletionStage<Boolean> moveNext() {
+                        return inner.moveNext();
+                    }
+
+                    @Override
+                    public Integer current() {
+                        return inner.current() * 10;
+                    }
+
+                    @Override
+                    public void cancel() {
+                        inner.cancel();
+                    }
+                };
+            }
+            return en;
+        });
+
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 3)
+                .map(v -> v + 1),
+                11, 21, 31
+        );
+    }
+
+    @Test
+    public void onEnumeratorAppliesToAssemblyTime() {
+        AtomicInteger calls = new AtomicInteger();
+
+        AsyncEnumerable<Integer> before = AsyncEnumerable.range(1, 5);
+
+        AsyncPlugins.setOnEnumerator((e, en) -> {
+            if (e instanceof AsyncRange) {
+                calls.getAndIncrement();
+            }
+            return en;
+        });
+
+        AsyncEnumerable<Integer> during = AsyncEnumerable.range(1, 5);
+
+        AsyncPlugins.reset();
+
+        TestHelper.assertResult(before, 1, 2, 3, 4, 5);
+
+        assertEquals(0, calls.get());
+
+        TestHelper.assertResult(during, 1, 2, 3, 4, 5);
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void getAndReset() {
+        Function<AsyncEnumerable<?>, AsyncEnumerable<?>> a = e -> e;
+        BiFunction<AsyncEnumerable<?>, AsyncEnumerator<?>, AsyncEnumerator<?>> b = (e, en) -> en;
+
+        AsyncPlugins.setOnAssembly(a);
+        AsyncPlugins.setOnEnumerator(b);
+
+        assertSame(a, AsyncPlugins.getOnAssembly());
+        assertSame(b, AsyncPlugins.getOnEnumerator());
+
+        AsyncPlugins.setOnAssembly(null);
+
+        assertNull(AsyncPlugins.getOnAssembly());
+        assertSame(b, AsyncPlugins.getOnEnumerator());
+
+        AsyncPlugins.setOnEnumerator(null);
+
+        assertNull(AsyncPlugins.HOOKS.get());
+
+        AsyncPlugins.setOnAssembly(a);
+        AsyncPlugins.setOnEnumerator(b);
+
+        AsyncPlugins.reset();
+
+        assertNull(AsyncPlugins.getOnAssembly());
+        assertNull(AsyncPlugins.getOnEnumerator());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class AsyncPublishPrefetchTest {
+
+    @Test
+    public void passthrough() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .publish(v -> v, 2),
+                1, 2, 3, 4, 5
+        );
+    }
+
+    @Test
+    public void passthroughError() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.error(new IOException())
+                        .publish(v -> v, 2),
+                IOException.class
+        );
+    }
+
+    @Test
+    public void doubleSum() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .publish(v -> v.sumInt(u -> u).mergeWith(v.sumInt(u -> u)), 2),
+                15, 15
+        );
+    }
+
+    @Test
+    public void simpleTransformTake() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .publish(v -> v.map(u -> u * 2), 2)
+                        .take(3),
+                2, 4, 6
+        );
+    }
+
+    @Test
+    public void innerTake() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .publish(an -> an.take(3), 2),
+                1, 2, 3
+        );
+    }
+
+    @Test
+    public void spiltCombineEvenOdd() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .publish(an -> an.filter(v -> v % 2 == 0).mergeWith(an.filter(v -> v % 2 != 0)), 2),
+                1, 2, 3, 4, 5
+        );
+    }
+
+    @Test
+    public void laggingEnumerator() {
+        // the second branch is not consumed until the first completes
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .publish(an -> AsyncEnumerable.fromArray(an, an.map(v -> v * 10))
+                                .concatMapEager(v -> v, 2, 1), 8),
+                1, 2, 3, 4, 5, 10, 20, 30, 40, 50
+        );
+    }
+
+    @Test
+    public void laggingEnumeratorBoundedByPrefetch() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 100)
+                        .publish(an -> AsyncEnumerable.fromArray(an.take(4), an.map(v -> v * 10).take(4))
+                                .concatMapEager(v -> v, 2, 1), 4),
+                1, 2, 3, 4, 10, 20, 30, 40
+        );
+    }
+
+    @Test
+    public void unevenBranchesAsync() {
+        TestHelper.withExecutor(executor -> {
+            List<Integer> list = AsyncEnumerable.range(1, 1000)
+                    .publish(an -> an.observeOn(executor).sumInt(v -> v)
+                            .mergeWith(an.map(v -> 1).sumInt(v -> v)), 16)
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(2, list.size());
+            assertEquals(500500 + 1000, list.get(0) + list.get(1));
+        });
+    }
+
+    @Test
+    public void cancelRace() {
+        TestHelper.cancelRace(an -> an.publish(f -> f, 4));
+    }
+
+    @Test
+    public void cancelRace2() {
+        TestHelper.cancelRace(an -> an.publish(f -> f.map(v -> v), 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchValidated() {
+        AsyncEnumerable.range(1, 5).publish(f -> f, 0);
+    }
+}
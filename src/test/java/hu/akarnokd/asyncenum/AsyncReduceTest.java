@@ -53,4 +53,15 @@ public class AsyncReduceTest {
     public void cancelRace() {
         TestHelper.cancelRace(ae -> ae.reduce((a, b) -> a + b));
     }
+
+    @Test
+    public void reducerCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .reduce((a, b) -> { throw new IllegalStateException("forced failure"); }),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
 }
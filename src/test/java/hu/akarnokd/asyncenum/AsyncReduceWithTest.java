@@ -54,4 +54,15 @@ public class AsyncReduceWithTest {
     public void cancelRace() {
         TestHelper.cancelRace(ae -> ae.reduce(() -> 0, (a, b) -> a + b));
     }
+
+    @Test
+    public void reducerCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .reduce(() -> 0, (a, b) -> { throw new IllegalStateException("forced failure"); }),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
 }
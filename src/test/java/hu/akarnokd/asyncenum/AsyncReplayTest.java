@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncReplayTest {
+
+    @Test
+    public void passthrough() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .replay(v -> v),
+                1, 2, 3, 4, 5
+        );
+    }
+
+    @Test
+    public void lateInner() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .replay(an -> an.concatWith(an)),
+                1, 2, 3, 4, 5, 1, 2, 3, 4, 5
+        );
+    }
+
+    @Test
+    public void lateInnerMaxItems() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .replay(an -> an.concatWith(an), 2),
+                1, 2, 3, 4, 5, 4, 5
+        );
+    }
+
+    @Test
+    public void lateInnerMaxAge() {
+        AtomicLong time = new AtomicLong();
+        TimerService clock = new TimerService() {
+            @Override
+            public Task schedule(Runnable task, long delay, TimeUnit unit) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public long now(TimeUnit unit) {
+                return time.get();
+            }
+        };
+
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                        .doOnNext(v -> time.set(v))
+                        .replay(an -> an.concatWith(an), 1, TimeUnit.SECONDS, clock),
+                1, 2, 3, 4, 5, 4, 5
+        );
+    }
+
+    @Test
+    public void connectsPerEnumeration() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        AsyncEnumerable<Integer> ae = AsyncEnumerable.defer(() -> {
+            subscriptions.incrementAndGet();
+            return AsyncEnumerable.range(1, 3);
+        })
+        .replay(an -> an.mergeWith(an));
+
+        assertEquals(6, ae.toList().blockingFirst().size());
+        assertEquals(6, ae.toList().blockingFirst().size());
+        assertEquals(2, subscriptions.get());
+    }
+
+    @Test
+    public void outputTakeCancelsSource() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        TestHelper.assertResult(
+                AsyncEnumerable.<Integer>never()
+                        .doOnCancel(() -> cancelled.set(true))
+                        .replay(an -> an.mergeWith(AsyncEnumerable.just(1)))
+                        .take(1),
+                1
+        );
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    public void error() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.error(new IOException())
+                        .replay(v -> v),
+                IOException.class
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxItemsValidated() {
+        AsyncEnumerable.range(1, 5).replay(v -> v, 0);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncResettableStageTest {
+
+    @Test
+    public void completeThenWhenComplete() {
+        AsyncResettableStage<Integer> stage = new AsyncResettableStage<>();
+        stage.complete(1);
+
+        List<Object> list = new ArrayList<>();
+        assertSame(stage, stage.whenComplete((v, e) -> list.add(v)));
+
+        assertEquals(Collections.singletonList(1), list);
+    }
+
+    @Test
+    public void whenCompleteThenComplete() {
+        AsyncResettableStage<Integer> stage = new AsyncResettableStage<>();
+
+        List<Object> list = new ArrayList<>();
+        stage.whenComplete((v, e) -> list.add(v));
+        stage.whenComplete((v, e) -> list.add(v + 1));
+
+        assertTrue(list.isEmpty());
+
+        stage.complete(1);
+
+        assertEquals(Arrays.asList(1, 2), list);
+    }
+
+    @Test
+    public void resetAndReuse() throws Exception {
+        AsyncResettableStage<Integer> stage = new AsyncResettableStage<>();
+
+        for (int i = 0; i < 10; i++) {
+            stage.reset();
+            CompletableFuture<Integer> cf = stage.toCompletableFuture();
+            assertFalse(cf.isDone());
+            stage.complete(i);
+            assertEquals(i, cf.get().intValue());
+        }
+    }
+
+    @Test
+    public void error() {
+        AsyncResettableStage<Integer> stage = new AsyncResettableStage<>();
+        stage.accept(null, new IOException());
+
+        try {
+            stage.toCompletableFuture().get();
+            fail("Should have thrown");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.toString(), ex.getCause() instanceof IOException);
+        } catch (InterruptedException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    @Test
+    public void callbackCrashReported() {
+        Thread t = Thread.currentThread();
+        Thread.UncaughtExceptionHandler old = t.getUncaughtExceptionHandler();
+        List<Throwable> errors = new ArrayList<>();
+        t.setUncaughtExceptionHandler((th, ex) -> errors.add(ex));
+        try {
+            AsyncResettableStage<Integer> stage = new AsyncResettableStage<>();
+
+            List<Object> list = new ArrayList<>();
+            stage.whenComplete((v, e) -> { throw new IllegalStateException("first"); });
+            stage.whenComplete((v, e) -> list.add(v));
+
+            stage.complete(1);
+
+            assertEquals(Collections.singletonList(1), list);
+
+            stage.whenComplete((v, e) -> { throw new IllegalStateException("late"); });
+
+            assertEquals(2, errors.size());
+            assertEquals("first", errors.get(0).getMessage());
+            assertEquals("late", errors.get(1).getMessage());
+        } finally {
+            t.setUncaughtExceptionHandler(old);
+        }
+    }
+
+    @Test
+    public void composition() throws Exception {
+        AsyncResettableStage<Integer> stage = new AsyncResettableStage<>();
+
+        CompletionStage<Integer> cs = stage.thenApply(v -> v + 1)
+                .thenCombine(CompletableFuture.completedStage(10), Integer::sum);
+
+        stage.complete(1);
+
+        assertEquals(12, cs.toCompletableFuture().get().intValue());
+    }
+
+    @Test
+    public void reenterFromCallback() {
+        AsyncResettableStage<Integer> stage = new AsyncResettableStage<>();
+        List<Object> list = new ArrayList<>();
+
+        stage.whenComplete((v, e) -> {
+            list.add(v);
+            if (v < 5) {
+                stage.reset().whenComplete((w, f) -> list.add(-w));
+                stage.complete(v + 1);
+            }
+        });
+
+        stage.complete(1);
+
+        assertEquals(Arrays.asList(1, -2), list);
+    }
+
+    @Test
+    public void string() {
+        AsyncResettableStage<Integer> stage = new AsyncResettableStage<>();
+        assertEquals("AsyncResettableStage[Incomplete]", stage.toString());
+
+        stage.complete(1);
+        assertEquals("AsyncResettableStage[Completed normally: 1]", stage.toString());
+
+        stage.reset().completeExceptionally(new IOException());
+        assertEquals("AsyncResettableStage[Completed exceptionally: java.io.IOException]", stage.toString());
+    }
+
+    @Test
+    public void lateCallbackOnExecutor() throws Exception {
+        ExecutorService exec = Executors.newSingleThreadExecutor(r -> new Thread(r, "CustomPool"));
+        try {
+            AsyncResettableStage<Integer> stage = new AsyncResettableStage<>(exec);
+            stage.complete(1);
+
+            CompletableFuture<String> cf = new CompletableFuture<>();
+            stage.whenComplete((v, e) -> cf.complete(v + " " + Thread.currentThread().getName()));
+
+            assertEquals("1 CustomPool", cf.get(5, TimeUnit.SECONDS));
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+}
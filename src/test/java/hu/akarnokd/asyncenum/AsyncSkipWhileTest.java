@@ -59,4 +59,15 @@ public class AsyncSkipWhileTest {
                 IOException.class
         );
     }
+
+    @Test
+    public void predicateCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async)
+                            .skipWhile(v -> { throw new IllegalStateException("forced failure"); }),
+                    IllegalStateException.class, "forced failure"
+            );
+        }
+    }
 }
@@ -20,7 +20,7 @@ import org.junit.Test;
 
 import java.util.*;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class AsyncTakeTest {
 
@@ -35,4 +35,25 @@ public class AsyncTakeTest {
 
         assertEquals(Arrays.asList(1, 2, 3), list);
     }
+
+    @Test
+    public void syncFused() {
+        AsyncEnumerable<Integer> source = AsyncEnumerable.fromIterable(Arrays.asList(1, 2, 3, 4, 5))
+                .take(3);
+
+        assertTrue(source.enumerator() instanceof SyncAsyncEnumerator);
+
+        assertEquals(3, source.blockingLast().intValue());
+    }
+
+    @Test
+    public void asyncNotFused() {
+        AsyncEnumerable<Integer> source = AsyncEnumerable.range(1, 5)
+                .subscribeOn(Runnable::run)
+                .take(3);
+
+        assertFalse(source.enumerator() instanceof SyncAsyncEnumerator);
+
+        TestHelper.assertResult(source, 1, 2, 3);
+    }
 }
@@ -78,4 +78,50 @@ public class AsyncTimeoutTest {
             );
         });
     }
+
+    @Test
+    public void hashedWheelNoTimeout() {
+        TimerService timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 64);
+        try {
+            List<Integer> list = AsyncEnumerable.range(1, 5)
+                    .timeout(1, TimeUnit.MINUTES, timer)
+                    .toList()
+                    .blockingFirst()
+                    ;
+
+            assertEquals(Arrays.asList(1, 2, 3, 4, 5), list);
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void hashedWheelTimeout() {
+        TimerService timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 64);
+        try {
+            TestHelper.assertFailure(
+                    AsyncEnumerable.never()
+                            .timeout(10, TimeUnit.MILLISECONDS, timer),
+                    TimeoutException.class
+            );
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void hashedWheelFallback() {
+        TimerService timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 64);
+        try {
+            List<Integer> list = AsyncEnumerable.<Integer>never()
+                    .timeout(10, TimeUnit.MILLISECONDS, timer, AsyncEnumerable.range(1, 5))
+                    .toList()
+                    .blockingFirst()
+                    ;
+
+            assertEquals(Arrays.asList(1, 2, 3, 4, 5), list);
+        } finally {
+            timer.shutdown();
+        }
+    }
 }
@@ -39,4 +39,19 @@ public class AsyncTimerTest {
             scheduler.shutdownNow();
         }
     }
+
+    @Test
+    public void hashedWheel() {
+        TimerService timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 64);
+        try {
+            List<Long> list =
+                    AsyncEnumerable.timer(10, TimeUnit.MILLISECONDS, timer)
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(Collections.singletonList(0L), list);
+        } finally {
+            timer.shutdown();
+        }
+    }
 }
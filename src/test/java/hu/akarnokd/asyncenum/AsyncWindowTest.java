@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncWindowTest {
+
+    @Test
+    public void concatMap() {
+        TestHelper.assertResult(AsyncEnumerable.range(1, 5)
+                .window(2)
+                .concatMap(w -> w.toList()),
+                Arrays.asList(1, 2), Arrays.asList(3, 4), Collections.singletonList(5));
+    }
+
+    @Test
+    public void flatMap() {
+        TestHelper.assertResult(AsyncEnumerable.range(1, 7)
+                .window(3)
+                .flatMap(w -> w.reduce((a, b) -> a + b)),
+                6, 15, 7);
+    }
+
+    @Test
+    public void async() {
+        TestHelper.withExecutor(executor -> {
+            List<Integer> list = AsyncEnumerable.range(1, 1000)
+                    .observeOn(executor)
+                    .window(64)
+                    .concatMap(w -> w.reduce(() -> 0, (a, b) -> a + 1))
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(16, list.size());
+            int sum = 0;
+            for (Integer c : list) {
+                sum += c;
+            }
+            assertEquals(1000, sum);
+        });
+    }
+
+    @Test
+    public void nullFirstItem() {
+        TestHelper.assertResult(AsyncEnumerable.fromArray(null, 2, null, 4, 5)
+                .window(2)
+                .concatMap(w -> w.toList()),
+                Arrays.asList(null, 2), Arrays.asList(null, 4), Collections.singletonList(5));
+    }
+
+    @Test
+    public void empty() {
+        TestHelper.assertResult(AsyncEnumerable.<Integer>empty().window(2).flatMap(w -> w));
+    }
+
+    @Test
+    public void cancelledWindowLeftoverStartsNextWindow() {
+        TestHelper.assertResult(AsyncEnumerable.range(1, 6)
+                .window(3)
+                .concatMap(w -> w.take(2)),
+                1, 2, 3, 4, 5, 6);
+    }
+
+    @Test
+    public void cancelOuter() {
+        boolean[] cancelled = { false };
+        TestHelper.assertResult(AsyncEnumerable.range(1, 100)
+                .doOnCancel(() -> cancelled[0] = true)
+                .window(3)
+                .take(2)
+                .concatMap(w -> w),
+                1, 2, 3, 4, 5, 6);
+
+        assertTrue(cancelled[0]);
+    }
+
+    @Test
+    public void singleUse() {
+        AsyncEnumerable<Integer> w = AsyncEnumerable.range(1, 5).window(2).blockingFirst();
+
+        TestHelper.assertResult(w, 1, 2);
+        TestHelper.assertFailure(w, IllegalStateException.class);
+    }
+
+    @Test
+    public void error() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.error(new RuntimeException("forced failure"))
+                        .window(2),
+                RuntimeException.class, "forced failure"
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sizeValidated() {
+        AsyncEnumerable.range(1, 5).window(0);
+    }
+
+    @Test
+    public void cancelWhileBusyDefersHandover() {
+        List<CompletableFuture<Boolean>> calls = new ArrayList<>();
+
+        AsyncEnumerable<Integer> source = () -> new AsyncEnumerator<Integer>() {
+            @Override
+            public CompletionStage<Boolean> moveNext() {
+                CompletableFuture<Boolean> cf = new CompletableFuture<>();
+                calls.add(cf);
+                return cf;
+            }
+
+            @Override
+            public Integer current() {
+                return calls.size();
+            }
+
+            @Override
+            public void cancel() {
+            }
+        };
+
+        AsyncEnumerator<AsyncEnumerable<Integer>> outer = source.window(5).enumerator();
+
+        CompletableFuture<Boolean> firstWindow = outer.moveNext().toCompletableFuture();
+        calls.get(0).complete(true);
+        assertTrue(firstWindow.join());
+
+        AsyncEnumerator<Integer> inner = outer.current().enumerator();
+        assertTrue(inner.moveNext().toCompletableFuture().join());
+
+        CompletableFuture<Boolean> innerNext = inner.moveNext().toCompletableFuture();
+        CompletableFuture<Boolean> nextWindow = outer.moveNext().toCompletableFuture();
+
+        inner.cancel();
+
+        assertEquals("The upstream is still busy", 2, calls.size());
+
+        calls.get(1).complete(true);
+
+        assertTrue(innerNext.join());
+        assertEquals(3, calls.size());
+        assertFalse(nextWindow.isDone());
+
+        calls.get(2).complete(true);
+
+        assertTrue(nextWindow.join());
+    }
+
+    @Test
+    public void innerMoveNextCancelRace() {
+        TestHelper.withExecutor(executor -> {
+            for (int i = 0; i < 1000; i++) {
+                AtomicInteger inFlight = new AtomicInteger();
+                AtomicBoolean overlap = new AtomicBoolean();
+
+                AsyncEnumerable<Integer> source = () -> new AsyncEnumerator<Integer>() {
+                    @Override
+                    public CompletionStage<Boolean> moveNext() {
+                        if (inFlight.getAndIncrement() != 0) {
+                            overlap.set(true);
+                        }
+                        return CompletableFuture.supplyAsync(() -> {
+                            inFlight.decrementAndGet();
+                            return true;
+                        });
+                    }
+
+                    @Override
+                    public Integer current() {
+                        return 1;
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                };
+
+                AsyncEnumerator<AsyncEnumerable<Integer>> outer = source.window(5).enumerator();
+
+                assertTrue(outer.moveNext().toCompletableFuture().join());
+                AsyncEnumerator<Integer> inner = outer.current().enumerator();
+                assertTrue(inner.moveNext().toCompletableFuture().join());
+
+                // the next window is requested as soon as the current one is cancelled
+                CompletableFuture<Boolean> nextWindow = outer.moveNext().toCompletableFuture();
+
+                AtomicReference<CompletionStage<Boolean>> innerNext = new AtomicReference<>();
+
+                TestHelper.race(() -> innerNext.set(inner.moveNext()), inner::cancel, executor);
+
+                innerNext.get().toCompletableFuture().join();
+                assertTrue(nextWindow.join());
+
+                assertFalse("Round " + i, overlap.get());
+
+                outer.cancel();
+            }
+        });
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AsyncZipArrayPrefetchTest {
+
+    @Test
+    public void simple() {
+        TestHelper.assertResult(AsyncEnumerable.zipArray(
+                a -> (Integer)a[0] + (Integer)a[1],
+                4,
+                AsyncEnumerable.range(1, 10),
+                AsyncEnumerable.range(10, 10)
+        ), 11, 13, 15, 17, 19, 21, 23, 25, 27, 29);
+    }
+
+    @Test
+    public void oneShorter() {
+        TestHelper.assertResult(AsyncEnumerable.zipArray(
+                a -> (Integer)a[0] + (Integer)a[1],
+                2,
+                AsyncEnumerable.range(1, 4),
+                AsyncEnumerable.range(10, 5)
+        ), 10 + 1, 11 + 2, 12 + 3, 13 + 4);
+    }
+
+    @Test
+    public void nullItems() {
+        TestHelper.assertResult(AsyncEnumerable.zipArray(
+                a -> Arrays.asList(a),
+                4,
+                AsyncEnumerable.fromArray(1, null, 3),
+                AsyncEnumerable.fromArray(4, 5, 6)
+        ), Arrays.asList(1, 4), Arrays.asList(null, 5), Arrays.asList(3, 6));
+    }
+
+    @Test
+    public void nullItemsSameAsPlainZip() {
+        TestHelper.withExecutor(executor -> {
+            AsyncEnumerable<Integer> first = AsyncEnumerable.range(1, 100).map(v -> v % 3 == 0 ? null : v);
+            AsyncEnumerable<Integer> second = AsyncEnumerable.range(1, 100).map(v -> v % 5 == 0 ? null : v);
+
+            List<List<Object>> expected = AsyncEnumerable.zipArray(
+                    a -> Arrays.asList(a), first, second)
+                    .toList().blockingFirst();
+
+            List<List<Object>> actual = AsyncEnumerable.zipArray(
+                    a -> Arrays.asList(a), 8, first.observeOn(executor), second)
+                    .toList().blockingFirst();
+
+            assertEquals(expected, actual);
+        });
+    }
+
+    @Test
+    public void twoShorterCancelsFirst() {
+        boolean[] cancelled = { false };
+        TestHelper.assertResult(AsyncEnumerable.zipArray(
+                a -> (Integer)a[0] + (Integer)a[1],
+                2,
+                AsyncEnumerable.range(1, 100).doOnCancel(() -> cancelled[0] = true),
+                AsyncEnumerable.range(10, 4)
+        ), 10 + 1, 11 + 2, 12 + 3, 13 + 4);
+
+        assertTrue(cancelled[0]);
+    }
+
+    @Test
+    public void freshArrays() {
+        Set<Object> arrays = new HashSet<>();
+        TestHelper.assertResult(AsyncEnumerable.zipArray(
+                a -> arrays.add(a),
+                4,
+                AsyncEnumerable.range(1, 5),
+                AsyncEnumerable.range(10, 5)
+        ), true, true, true, true, true);
+    }
+
+    @Test
+    public void reusable() {
+        Set<Object> arrays = new HashSet<>();
+        List<Integer> list = AsyncEnumerable.zipArrayReusable(
+                a -> {
+                    arrays.add(a);
+                    return (Integer)a[0] + (Integer)a[1] + (Integer)a[2];
+                },
+                4,
+                AsyncEnumerable.range(1, 5),
+                AsyncEnumerable.range(10, 5),
+                AsyncEnumerable.range(100, 5)
+        )
+                .toList()
+                .blockingFirst();
+
+        assertEquals(Arrays.asList(111, 114, 117, 120, 123), list);
+        assertEquals(1, arrays.size());
+    }
+
+    @Test
+    public void async() {
+        TestHelper.withExecutor(executor -> {
+            List<Integer> list = AsyncEnumerable.zipArray(
+                    a -> (Integer)a[0] - (Integer)a[1],
+                    16,
+                    AsyncEnumerable.range(1, 1000).observeOn(executor),
+                    AsyncEnumerable.range(1, 1000).subscribeOn(executor)
+            )
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(1000, list.size());
+            for (Integer v : list) {
+                assertEquals(0, v.intValue());
+            }
+        });
+    }
+
+    @Test
+    public void slowSourcesOverlap() {
+        TestHelper.withScheduler(executor -> {
+            long start = System.nanoTime();
+            List<Object> list = AsyncEnumerable.zipArray(
+                    a -> a[0],
+                    8,
+                    AsyncEnumerable.timer(100, TimeUnit.MILLISECONDS, executor),
+                    AsyncEnumerable.timer(100, TimeUnit.MILLISECONDS, executor),
+                    AsyncEnumerable.timer(100, TimeUnit.MILLISECONDS, executor)
+            )
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(1, list.size());
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(250));
+        });
+    }
+
+    @Test
+    public void error() {
+        TestHelper.assertFailure(AsyncEnumerable.zipArray(
+                a -> a[0],
+                4,
+                AsyncEnumerable.just(1),
+                AsyncEnumerable.error(new RuntimeException("forced failure"))
+                ),
+                RuntimeException.class, "forced failure"
+        );
+    }
+
+    @Test
+    public void zipperCrash() {
+        TestHelper.assertFailure(AsyncEnumerable.zipArray(
+                a -> {
+                    throw new IllegalArgumentException("forced failure");
+                },
+                4,
+                AsyncEnumerable.range(1, 5),
+                AsyncEnumerable.range(1, 5)
+                ),
+                IllegalArgumentException.class, "forced failure"
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchValidated() {
+        AsyncEnumerable.zipArray(a -> a, 0, AsyncEnumerable.range(1, 5));
+    }
+}
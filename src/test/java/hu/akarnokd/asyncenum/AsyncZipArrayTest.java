@@ -20,7 +20,7 @@ import org.junit.Test;
 
 import java.util.*;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class AsyncZipArrayTest {
 
@@ -81,4 +81,31 @@ public class AsyncZipArrayTest {
                 RuntimeException.class, "forced failure"
         );
     }
+
+    @Test
+    public void reusable() {
+        Set<Object> arrays = new HashSet<>();
+        List<Integer> list = AsyncEnumerable.zipArrayReusable(
+                a -> {
+                    arrays.add(a);
+                    return (Integer)a[0] + (Integer)a[1];
+                },
+                AsyncEnumerable.range(1, 5),
+                AsyncEnumerable.range(10, 5)
+        )
+                .toList()
+                .blockingFirst();
+
+        assertEquals(Arrays.asList(10 + 1, 11 + 2, 12 + 3, 13 + 4, 14 + 5), list);
+        assertEquals(1, arrays.size());
+    }
+
+    @Test
+    public void reusableOneShorter() {
+        TestHelper.assertResult(AsyncEnumerable.zipArrayReusable(
+                a -> (Integer)a[0] + (Integer)a[1],
+                AsyncEnumerable.range(1, 4),
+                AsyncEnumerable.range(10, 5)
+        ), 10 + 1, 11 + 2, 12 + 3, 13 + 4);
+    }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BloomFilterSetTest {
+
+    @Test
+    public void addContains() {
+        BloomFilterSet<Integer> set = new BloomFilterSet<>(1000, 0.01);
+
+        assertFalse(set.contains(1));
+        assertTrue(set.add(1));
+        assertTrue(set.contains(1));
+        assertFalse(set.add(1));
+        assertEquals(1, set.size());
+
+        set.clear();
+
+        assertFalse(set.contains(1));
+        assertEquals(0, set.size());
+        assertTrue(set.add(1));
+    }
+
+    @Test
+    public void nullKey() {
+        BloomFilterSet<Object> set = new BloomFilterSet<>(10, 0.01);
+
+        assertTrue(set.add(null));
+        assertFalse(set.add(null));
+    }
+
+    @Test
+    public void sizing() {
+        BloomFilterSet<Integer> set = new BloomFilterSet<>(1_000_000, 0.01);
+
+        // ~9.6 bits and 7 hashes per item at 1%
+        assertEquals(9_585_088L, set.bitCount);
+        assertEquals(7, set.hashCount);
+    }
+
+    @Test
+    public void falsePositiveRate() {
+        int n = 100_000;
+        BloomFilterSet<Long> set = new BloomFilterSet<>(n, 0.01);
+
+        for (long i = 0; i < n; i++) {
+            set.add(i * 1_000_003L);
+        }
+
+        int falsePositives = 0;
+        for (long i = 0; i < n; i++) {
+            if (set.contains(-1 - i * 7919L)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue("" + falsePositives, falsePositives < n * 0.015);
+    }
+
+    @Test
+    public void bulkAndToString() {
+        BloomFilterSet<Integer> set = new BloomFilterSet<>(1000, 0.01);
+
+        assertTrue(set.addAll(Arrays.asList(1, 2, 3)));
+        assertTrue(set.containsAll(Arrays.asList(1, 2, 3)));
+        assertFalse(set.isEmpty());
+
+        assertEquals("BloomFilterSet[size=3, bits=" + set.bitCount + ", hashes=" + set.hashCount + "]", set.toString());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void iteratorUnsupported() {
+        new BloomFilterSet<Integer>(10, 0.01).iterator();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooLarge() {
+        new BloomFilterSet<Integer>(Long.MAX_VALUE / 2, 0.01);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class HashedWheelTimerServiceTest {
+
+    @Test
+    public void ordered() throws Exception {
+        TimerService timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 8);
+        try {
+            List<Integer> list = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch cdl = new CountDownLatch(3);
+            // 30ms spans more than one round of the 8 bucket wheel
+            timer.schedule(() -> { list.add(3); cdl.countDown(); }, 30, TimeUnit.MILLISECONDS);
+            timer.schedule(() -> { list.add(1); cdl.countDown(); }, 0, TimeUnit.MILLISECONDS);
+            timer.schedule(() -> { list.add(2); cdl.countDown(); }, 10, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(1, 2, 3), list);
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void notBeforeDeadline() throws Exception {
+        TimerService timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 16);
+        try {
+            long start = System.nanoTime();
+            CompletableFuture<Long> cf = new CompletableFuture<>();
+            timer.schedule(() -> cf.complete(System.nanoTime() - start), 50, TimeUnit.MILLISECONDS);
+
+            assertTrue(cf.get(5, TimeUnit.SECONDS) >= TimeUnit.MILLISECONDS.toNanos(50));
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        TimerService timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 16);
+        try {
+            AtomicInteger count = new AtomicInteger();
+            for (int i = 0; i < 1000; i++) {
+                timer.schedule(count::getAndIncrement, 10, TimeUnit.MILLISECONDS).cancel();
+            }
+            CountDownLatch cdl = new CountDownLatch(1);
+            timer.schedule(cdl::countDown, 20, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertEquals(0, count.get());
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void periodic() throws Exception {
+        TimerService timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 16);
+        try {
+            CountDownLatch cdl = new CountDownLatch(5);
+            TimerService.Task task = timer.schedulePeriodically(cdl::countDown, 1, 5, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            task.cancel();
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void shutdownDropsPending() throws Exception {
+        TimerService timer = TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 16);
+        AtomicInteger count = new AtomicInteger();
+        timer.schedule(count::getAndIncrement, 50, TimeUnit.MILLISECONDS);
+        timer.shutdown();
+        timer.schedule(count::getAndIncrement, 0, TimeUnit.MILLISECONDS);
+
+        Thread.sleep(100);
+        assertEquals(0, count.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tickDurationValidated() {
+        TimerService.hashedWheel(0, TimeUnit.MILLISECONDS, 16);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ticksPerWheelValidated() {
+        TimerService.hashedWheel(1, TimeUnit.MILLISECONDS, 0);
+    }
+}
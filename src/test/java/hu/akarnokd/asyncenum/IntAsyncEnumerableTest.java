@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class IntAsyncEnumerableTest {
+
+    @Test
+    public void range() {
+        TestHelper.assertResult(IntAsyncEnumerable.range(1, 5).boxed(), 1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void rangeEmpty() {
+        TestHelper.assertResult(IntAsyncEnumerable.range(1, 0).boxed());
+    }
+
+    @Test
+    public void mapFilter() {
+        TestHelper.assertResult(
+                IntAsyncEnumerable.range(1, 10)
+                .map(v -> v * 2)
+                .filter(v -> v % 3 == 0)
+                .boxed(),
+                6, 12, 18
+        );
+    }
+
+    @Test
+    public void filterLong() {
+        TestHelper.assertResult(
+                IntAsyncEnumerable.range(1, 1_000_000)
+                        .filter(v -> v == 1_000_000)
+                        .boxed(),
+                1_000_000
+        );
+    }
+
+    @Test
+    public void sum() {
+        TestHelper.assertResult(IntAsyncEnumerable.range(1, 5).sum().boxed(), 15);
+    }
+
+    @Test
+    public void sumEmpty() {
+        TestHelper.assertResult(IntAsyncEnumerable.range(1, 0).sum().boxed());
+    }
+
+    @Test
+    public void minMax() {
+        TestHelper.assertResult(
+                AsyncEnumerable.fromArray(3, 1, 5, 2).mapToInt(v -> v).min().boxed(),
+                1
+        );
+        TestHelper.assertResult(
+                AsyncEnumerable.fromArray(3, 1, 5, 2).mapToInt(v -> v).max().boxed(),
+                5
+        );
+    }
+
+    @Test
+    public void reduce() {
+        TestHelper.assertResult(
+                IntAsyncEnumerable.range(1, 5).reduce((a, b) -> a * b).boxed(),
+                120
+        );
+    }
+
+    @Test
+    public void mapToIntError() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.<Integer>error(new IOException())
+                .mapToInt(v -> v)
+                .map(v -> v + 1)
+                .filter(v -> true)
+                .sum()
+                .boxed(),
+                IOException.class
+        );
+    }
+
+    @Test
+    public void mapToIntAsync() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                .subscribeOn(java.util.concurrent.ForkJoinPool.commonPool())
+                .mapToInt(v -> v)
+                .filter(v -> v % 2 == 1)
+                .sum()
+                .boxed(),
+                9
+        );
+    }
+
+    @Test
+    public void forEach() {
+        AtomicInteger sum = new AtomicInteger();
+        assertEquals(true, IntAsyncEnumerable.range(1, 1000)
+                .forEach(sum::addAndGet)
+                .toCompletableFuture()
+                .join());
+        assertEquals(500500, sum.get());
+    }
+
+    @Test
+    public void currentIsBoxed() {
+        IntAsyncEnumerator en = IntAsyncEnumerable.range(5, 1).enumerator();
+        assertEquals(true, en.moveNext().toCompletableFuture().join());
+        assertEquals(5, en.currentInt());
+        assertEquals(Integer.valueOf(5), en.current());
+    }
+
+    @Test
+    public void callbackCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async).mapToInt(v -> v)
+                            .filter(v -> { throw new IllegalStateException("forced failure"); })
+                            .boxed(),
+                    IllegalStateException.class, "forced failure"
+            );
+
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async).mapToInt(v -> v)
+                            .reduce((a, b) -> { throw new IllegalStateException("forced failure"); })
+                            .boxed(),
+                    IllegalStateException.class, "forced failure"
+            );
+
+            CompletableFuture<Boolean> cf = TestHelper.hide(AsyncEnumerable.range(1, 5), async).mapToInt(v -> v)
+                    .forEach(v -> { throw new IllegalStateException("forced failure"); })
+                    .toCompletableFuture();
+
+            assertTrue(cf.isCompletedExceptionally());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void empty() {
+        LatencyHistogram h = new LatencyHistogram();
+
+        assertEquals(0, h.count());
+        assertEquals(0, h.max());
+        assertEquals(0, h.valueAtPercentile(50));
+    }
+
+    @Test
+    public void bucketBounds() {
+        long[] values = { 0, 1, 31, 32, 33, 63, 64, 65, 1000, 123_456_789L, Long.MAX_VALUE };
+        for (long v : values) {
+            int index = LatencyHistogram.indexOf(v);
+            assertTrue(v + " " + index, index >= 0 && index < LatencyHistogram.BUCKETS);
+            assertTrue(v + " " + index, LatencyHistogram.lowestOf(index) <= v);
+            assertTrue(v + " " + index, LatencyHistogram.highestOf(index) >= v);
+            // relative error of at most 1/32
+            assertTrue(v + " " + index, LatencyHistogram.highestOf(index) - LatencyHistogram.lowestOf(index) <= v / 32);
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void bucketsContiguous() {
+        for (int i = 1; i < LatencyHistogram.BUCKETS; i++) {
+            assertEquals("" + i, LatencyHistogram.highestOf(i - 1) + 1, LatencyHistogram.lowestOf(i));
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i * 1000L);
+        }
+
+        assertEquals(1000, h.count());
+        assertEquals(1_000_000L, h.max());
+        assertWithin(500_000L, h.valueAtPercentile(50));
+        assertWithin(990_000L, h.valueAtPercentile(99));
+        assertEquals(1_000_000L, h.valueAtPercentile(100));
+        assertWithin(1000L, h.valueAtPercentile(0));
+    }
+
+    @Test
+    public void negativeRecordedAsZero() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5);
+
+        assertEquals(1, h.count());
+        assertEquals(0, h.valueAtPercentile(100));
+    }
+
+    static void assertWithin(long expected, long actual) {
+        assertTrue(expected + " vs " + actual, Math.abs(expected - actual) <= expected / 32);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class LongAsyncEnumerableTest {
+
+    @Test
+    public void range() {
+        TestHelper.assertResult(LongAsyncEnumerable.range(1, 5).boxed(), 1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    public void rangeEmpty() {
+        TestHelper.assertResult(LongAsyncEnumerable.range(1, 0).boxed());
+    }
+
+    @Test
+    public void mapFilter() {
+        TestHelper.assertResult(
+                LongAsyncEnumerable.range(1, 10)
+                .map(v -> v * 2)
+                .filter(v -> v % 3 == 0)
+                .boxed(),
+                6L, 12L, 18L
+        );
+    }
+
+    @Test
+    public void filterLong() {
+        TestHelper.assertResult(
+                LongAsyncEnumerable.range(1, 1_000_000)
+                        .filter(v -> v == 1_000_000)
+                        .boxed(),
+                1_000_000L
+        );
+    }
+
+    @Test
+    public void sum() {
+        TestHelper.assertResult(LongAsyncEnumerable.range(1, 5).sum().boxed(), 15L);
+    }
+
+    @Test
+    public void sumEmpty() {
+        TestHelper.assertResult(LongAsyncEnumerable.range(1, 0).sum().boxed());
+    }
+
+    @Test
+    public void minMax() {
+        TestHelper.assertResult(
+                AsyncEnumerable.fromArray(3, 1, 5, 2).mapToLong(v -> v).min().boxed(),
+                1L
+        );
+        TestHelper.assertResult(
+                AsyncEnumerable.fromArray(3, 1, 5, 2).mapToLong(v -> v).max().boxed(),
+                5L
+        );
+    }
+
+    @Test
+    public void reduce() {
+        TestHelper.assertResult(
+                LongAsyncEnumerable.range(1, 5).reduce((a, b) -> a * b).boxed(),
+                120L
+        );
+    }
+
+    @Test
+    public void mapToLongError() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.<Integer>error(new IOException())
+                .mapToLong(v -> v)
+                .map(v -> v + 1)
+                .filter(v -> true)
+                .sum()
+                .boxed(),
+                IOException.class
+        );
+    }
+
+    @Test
+    public void mapToLongAsync() {
+        TestHelper.assertResult(
+                AsyncEnumerable.range(1, 5)
+                .subscribeOn(java.util.concurrent.ForkJoinPool.commonPool())
+                .mapToLong(v -> v)
+                .filter(v -> v % 2 == 1)
+                .sum()
+                .boxed(),
+                9L
+        );
+    }
+
+    @Test
+    public void forEach() {
+        AtomicLong sum = new AtomicLong();
+        assertEquals(true, LongAsyncEnumerable.range(1, 1000)
+                .forEach(sum::addAndGet)
+                .toCompletableFuture()
+                .join());
+        assertEquals(500500L, sum.get());
+    }
+
+    @Test
+    public void currentIsBoxed() {
+        LongAsyncEnumerator en = LongAsyncEnumerable.range(5, 1).enumerator();
+        assertEquals(true, en.moveNext().toCompletableFuture().join());
+        assertEquals(5L, en.currentLong());
+        assertEquals(Long.valueOf(5), en.current());
+    }
+
+    @Test
+    public void callbackCrash() {
+        for (boolean async : new boolean[] { false, true }) {
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async).mapToLong(v -> v)
+                            .filter(v -> { throw new IllegalStateException("forced failure"); })
+                            .boxed(),
+                    IllegalStateException.class, "forced failure"
+            );
+
+            TestHelper.assertFailure(
+                    TestHelper.hide(AsyncEnumerable.range(1, 5), async).mapToLong(v -> v)
+                            .reduce((a, b) -> { throw new IllegalStateException("forced failure"); })
+                            .boxed(),
+                    IllegalStateException.class, "forced failure"
+            );
+
+            CompletableFuture<Boolean> cf = TestHelper.hide(AsyncEnumerable.range(1, 5), async).mapToLong(v -> v)
+                    .forEach(v -> { throw new IllegalStateException("forced failure"); })
+                    .toCompletableFuture();
+
+            assertTrue(cf.isCompletedExceptionally());
+        }
+    }
+}
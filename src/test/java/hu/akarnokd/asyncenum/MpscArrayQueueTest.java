@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class MpscArrayQueueTest {
+
+    @Test
+    public void offerPoll() {
+        MpscArrayQueue<Integer> q = new MpscArrayQueue<>(3);
+
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(q.offer(i));
+            assertEquals(i + 1, q.size());
+        }
+        assertFalse(q.offer(4));
+        assertFalse(q.isEmpty());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, q.poll().intValue());
+        }
+        assertNull(q.poll());
+        assertTrue(q.isEmpty());
+        assertEquals(0, q.size());
+    }
+
+    @Test
+    public void wrapAround() {
+        MpscArrayQueue<Integer> q = new MpscArrayQueue<>(2);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(q.offer(i));
+            assertEquals(i, q.poll().intValue());
+        }
+    }
+
+    @Test
+    public void clear() {
+        MpscArrayQueue<Integer> q = new MpscArrayQueue<>(8);
+        q.offer(1);
+        q.offer(2);
+
+        q.clear();
+
+        assertTrue(q.isEmpty());
+    }
+
+    @Test
+    public void multipleProducers() throws Exception {
+        MpscArrayQueue<Integer> q = new MpscArrayQueue<>(16);
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            int n = 10000;
+            for (int j = 0; j < 2; j++) {
+                exec.execute(() -> {
+                    for (int i = 0; i < n; i++) {
+                        while (!q.offer(i)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+            }
+
+            long sum = 0;
+            for (int i = 0; i < 2 * n; i++) {
+                Integer v;
+                while ((v = q.poll()) == null) {
+                    Thread.yield();
+                }
+                sum += v;
+            }
+
+            assertEquals(2L * n * (n - 1) / 2, sum);
+            assertTrue(q.isEmpty());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class MpscLinkedArrayQueueTest {
+
+    @Test
+    public void offerPoll() {
+        MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<>(4);
+
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(q.offer(i));
+            assertEquals(i + 1, q.size());
+        }
+        assertFalse(q.isEmpty());
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, q.poll().intValue());
+        }
+        assertNull(q.poll());
+        assertTrue(q.isEmpty());
+        assertEquals(0, q.size());
+    }
+
+    @Test
+    public void interleaved() {
+        MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<>(4);
+
+        int n = 0;
+        for (int i = 0; i < 100; i++) {
+            assertTrue(q.offer(2 * i));
+            assertTrue(q.offer(2 * i + 1));
+            assertEquals(n++, q.poll().intValue());
+        }
+        while (!q.isEmpty()) {
+            assertEquals(n++, q.poll().intValue());
+        }
+        assertEquals(200, n);
+    }
+
+    @Test
+    public void wrapAround() {
+        MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<>(2);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(q.offer(i));
+            assertEquals(i, q.poll().intValue());
+        }
+    }
+
+    @Test
+    public void clear() {
+        MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<>(8);
+        q.offer(1);
+        q.offer(2);
+
+        q.clear();
+
+        assertTrue(q.isEmpty());
+    }
+
+    @Test
+    public void multipleProducers() throws Exception {
+        MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<>(16);
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            int n = 10000;
+            for (int j = 0; j < 2; j++) {
+                exec.execute(() -> {
+                    for (int i = 0; i < n; i++) {
+                        assertTrue(q.offer(i));
+                    }
+                });
+            }
+
+            long sum = 0;
+            for (int i = 0; i < 2 * n; i++) {
+                Integer v;
+                while ((v = q.poll()) == null) {
+                    Thread.yield();
+                }
+                sum += v;
+            }
+
+            assertEquals(2L * n * (n - 1) / 2, sum);
+            assertTrue(q.isEmpty());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.akarnokd.asyncenum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ParallelAsyncEnumerableTest {
+
+    @Test
+    public void sequential() {
+        for (int n = 1; n <= 5; n++) {
+            List<Integer> list = AsyncEnumerable.range(1, 1000)
+                    .parallel(n)
+                    .sequential()
+                    .toList()
+                    .blockingFirst();
+
+            Collections.sort(list);
+            assertEquals(1000, list.size());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i + 1, list.get(i).intValue());
+            }
+        }
+    }
+
+    @Test
+    public void roundRobin() throws Exception {
+        List<AsyncEnumerator<Integer>> rails = AsyncEnumerable.range(1, 9)
+                .parallel(3)
+                .enumerators();
+
+        assertEquals(3, rails.size());
+        for (int i = 0; i < 3; i++) {
+            AsyncEnumerator<Integer> rail = rails.get(i);
+            assertTrue(rail.moveNext().toCompletableFuture().get());
+            assertEquals(i + 1, rail.current().intValue());
+        }
+        for (int i = 0; i < 3; i++) {
+            AsyncEnumerator<Integer> rail = rails.get(i);
+            assertTrue(rail.moveNext().toCompletableFuture().get());
+            assertEquals(i + 4, rail.current().intValue());
+        }
+    }
+
+    @Test
+    public void nullItems() {
+        List<Integer> list = AsyncEnumerable.fromArray(1, null, 3, null, 5)
+                .parallel(2)
+                .sequential()
+                .toList()
+                .blockingFirst();
+
+        assertEquals(5, list.size());
+        assertEquals(2, Collections.frequency(list, null));
+        assertTrue(list.containsAll(Arrays.asList(1, 3, 5)));
+    }
+
+    @Test
+    public void mapFilter() {
+        List<Integer> list = AsyncEnumerable.range(1, 10)
+                .parallel(3)
+                .map(v -> v * 10)
+                .filter(v -> v % 20 == 0)
+                .sorted(Comparator.naturalOrder())
+                .toList()
+                .blockingFirst();
+
+        assertEquals(Arrays.asList(20, 40, 60, 80, 100), list);
+    }
+
+    @Test
+    public void runOn() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            List<Integer> list = AsyncEnumerable.range(1, 1000)
+                    .parallel(4, executor)
+                    .map(v -> {
+                        threads.add(Thread.currentThread().getName());
+                        return v + 1;
+                    })
+                    .sorted(Comparator.naturalOrder())
+                    .toList()
+                    .blockingFirst();
+
+            assertEquals(1000, list.size());
+            assertEquals(2, list.get(0).intValue());
+            assertEquals(1001, list.get(999).intValue());
+            for (String name : threads) {
+                assertTrue(name, name.startsWith("pool-"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void reduce() {
+        TestHelper.withExecutor(executor -> {
+            assertEquals(500500, AsyncEnumerable.range(1, 1000)
+                    .parallel(4, executor)
+                    .reduce((a, b) -> a + b)
+                    .blockingFirst()
+                    .intValue());
+        });
+    }
+
+    @Test
+    public void reduceEmpty() {
+        assertFalse(AsyncEnumerable.<Integer>empty()
+                .parallel(4)
+                .reduce((a, b) -> a + b)
+                .blockingFirstOptional()
+                .isPresent());
+    }
+
+    @Test
+    public void reducePerRail() {
+        List<List<Integer>> list = AsyncEnumerable.range(1, 6)
+                .parallel(2, 1)
+                .reduce(ArrayList<Integer>::new, (a, b) -> { a.add(b); return a; })
+                .map(a -> (List<Integer>)a)
+                .sorted(Comparator.comparing(a -> a.get(0)))
+                .toList()
+                .blockingFirst();
+
+        assertEquals(2, list.size());
+        assertEquals(6, list.get(0).size() + list.get(1).size());
+    }
+
+    @Test
+    public void sorted() {
+        List<Integer> list = AsyncEnumerable.fromArray(5, 3, 9, 1, 7, 2, 8, 4, 6)
+                .parallel(3)
+                .sorted(Comparator.reverseOrder())
+                .toList()
+                .blockingFirst();
+
+        assertEquals(Arrays.asList(9, 8, 7, 6, 5, 4, 3, 2, 1), list);
+    }
+
+    @Test
+    public void error() {
+        TestHelper.assertFailure(
+                AsyncEnumerable.<Integer>error(new IOException("forced failure"))
+                        .parallel(2)
+                        .sequential(),
+                IOException.class, "forced failure"
+        );
+    }
+
+    @Test
+    public void cancelAllRails() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<Integer> list = AsyncEnumerable.range(1, 1000)
+                .doOnCancel(() -> cancelled.set(true))
+                .parallel(2)
+                .sequential()
+                .take(5)
+                .toList()
+                .blockingFirst();
+
+        assertEquals(5, list.size());
+        assertTrue(cancelled.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parallelismValidated() {
+        AsyncEnumerable.range(1, 5).parallel(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchValidated() {
+        AsyncEnumerable.range(1, 5).parallel(2, 0);
+    }
+}
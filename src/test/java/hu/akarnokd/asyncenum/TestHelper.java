@@ -173,6 +173,37 @@ public final class TestHelper {
         throw new AssertionError("Not an utility class!");
     }
 
+    /**
+     * Hides the enumerator of the source from the sync fusion.
+     * @param source the source to hide
+     * @param async if false, the constant TRUE/FALSE stages of the source are passed along,
+     *              if true, each outcome is relayed through a fresh CompletableFuture
+     * @param <T> the value type
+     * @return the hidden AsyncEnumerable
+     */
+    public static <T> AsyncEnumerable<T> hide(AsyncEnumerable<T> source, boolean async) {
+        return () -> {
+            AsyncEnumerator<T> en = source.enumerator();
+            return new AsyncEnumerator<T>() {
+                @Override
+                public CompletionStage<Boolean> moveNext() {
+                    CompletionStage<Boolean> stage = en.moveNext();
+                    return async ? stage.toCompletableFuture().thenApply(v -> v) : stage;
+                }
+
+                @Override
+                public T current() {
+                    return en.current();
+                }
+
+                @Override
+                public void cancel() {
+                    en.cancel();
+                }
+            };
+        };
+    }
+
     public static <U> void cancelRace(Function<? super AsyncEnumerable<Integer>, ? extends AsyncEnumerable<U>> transformer) {
         TestHelper.withExecutor(executor -> {
             for (int i = 0; i < 10000; i++) {